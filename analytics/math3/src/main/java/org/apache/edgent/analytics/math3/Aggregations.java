@@ -26,6 +26,7 @@ import org.apache.edgent.analytics.math3.stat.Statistic2;
 import org.apache.edgent.analytics.math3.utils.Java7Helper;
 import org.apache.edgent.function.ToDoubleFunction;
 import org.apache.edgent.topology.TWindow;
+import org.apache.edgent.topology.columnar.ColumnBatch;
 
 /**
  * Apache Common Math analytics for Collections.
@@ -82,6 +83,15 @@ import org.apache.edgent.topology.TWindow;
  * }</pre>
  * 
  * 
+ * <p>Example: compute the MEAN and MAX of a column of each
+ * {@link ColumnBatch} of a columnar stream,
+ * operating directly on the column's {@code double[]}:
+ * <pre>{@code
+ *  TStream<ColumnBatch> batches = ...
+ *TStream<ResultMap> results = batches.map(
+ *      batch -> Aggregations.aggregateN(batch, "pressure", Statistic2.MEAN, Statistic2.MAX));
+ * }</pre>
+ * 
  * <p>Background: 
  * {@link JsonAnalytics} predates this class.  Use of JsonAnalytics for computing
  * Apache Commons Math aggregations requires:
@@ -157,6 +167,89 @@ public class Aggregations {
     return sum;
   }
 
+  /** 
+   * Perform a sum of values.
+   * An empty array yields a 0.0 result.
+   * @param values values to sum
+   * @return the sum
+   */
+  public static double sum(double[] values) {
+    double sum = 0.0;
+    for (int i = 0; i < values.length; i++)
+      sum += values[i];
+    return sum;
+  }
+
+  /**
+   * Perform the specified {@link UnivariateAggregate} on an array of values.
+   * 
+   * <p>A null result is returned if the array is empty.
+   * An aggregation result may be null under other conditions,
+   * e.g., a Regression2.SLOPE where the minimum number of samples has not been met.
+   * 
+   * @param values the values to aggregate
+   * @param aggregate the aggregation to perform
+   * @return the aggregation result, may be null.
+   */
+  public static Double aggregate(double[] values, UnivariateAggregate aggregate) {
+    return aggregateN(values, aggregate).get(aggregate);
+  }
+
+  /**
+   * Perform the specified {@link UnivariateAggregate}s on an array of values.
+   * 
+   * <p>A {@link Statistic2} is calculated by a single loop over the array,
+   * other aggregations are passed each value without boxing it.
+   * If the array is empty an empty ResultMap is returned.
+   * The ResultMap does not contain an entry for an aggregation with a null,
+   * e.g., a Regression2.SLOPE where the minimum number of samples has not been met.
+   * 
+   * @param values the values to aggregate
+   * @param aggregates the aggregations to perform
+   * @return a {@link ResultMap} containing the variable's aggregation results
+   */
+  public static ResultMap aggregateN(double[] values, UnivariateAggregate... aggregates) {
+    final int n = values.length;
+    final ResultMap result = new ResultMap();
+    
+    if (n != 0) {
+      for (UnivariateAggregate aggregate : aggregates) {
+        double rv;
+        if (aggregate instanceof Statistic2) {
+          rv = ((Statistic2) aggregate).evaluate(values, 0, n);
+        }
+        else {
+          UnivariateAggregator agg = aggregate.get();
+          agg.clear(n);
+          for (int i = 0; i < n; i++)
+            agg.increment(values[i]);
+          rv = agg.getResult();
+        }
+        if (Java7Helper.doubleIsFinite(rv))
+          result.put(aggregate, rv);
+      }
+    }
+    
+    return result;
+  }
+
+  /**
+   * Perform the specified {@link UnivariateAggregate}s on a column of a {@link ColumnBatch}.
+   * A {@code LONG} column's values are converted to {@code double}.
+   * 
+   * @param batch the batch
+   * @param column name of the column to aggregate
+   * @param aggregates the aggregations to perform
+   * @return a {@link ResultMap} containing the column's aggregation results
+   * @see #aggregateN(double[], UnivariateAggregate...)
+   */
+  public static ResultMap aggregateN(ColumnBatch batch, String column, UnivariateAggregate... aggregates) {
+    int index = batch.getSchema().indexOf(column);
+    if (index == -1)
+      throw new IllegalArgumentException("no column: " + column);
+    return aggregateN(batch.getAsDoubles(index), aggregates);
+  }
+
   /**
    * Perform the specified {@link UnivariateAggregate} on a Collection of {@link Number}.
    * 
@@ -91,4 +91,16 @@ public enum Statistic2 implements UnivariateAggregate {
     public UnivariateAggregator get() {
         return new StorelessStatistic(this, statImpl.copy());
     }
+
+    /**
+     * Calculate this statistic for a range of values
+     * with a single pass over the array.
+     * @param values the values
+     * @param begin index of the first value
+     * @param length number of values
+     * @return the statistic, NaN if {@code length} is 0
+     */
+    public double evaluate(double[] values, int begin, int length) {
+        return statImpl.copy().evaluate(values, begin, length);
+    }
 }
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -39,6 +40,9 @@ import org.apache.edgent.test.providers.direct.DirectTopologyTestBase;
 import org.apache.edgent.topology.TStream;
 import org.apache.edgent.topology.TWindow;
 import org.apache.edgent.topology.Topology;
+import org.apache.edgent.topology.columnar.ColumnBatch;
+import org.apache.edgent.topology.columnar.ColumnarStreams;
+import org.apache.edgent.topology.columnar.Schema;
 import org.apache.edgent.topology.tester.Condition;
 import org.junit.Test;
 
@@ -397,6 +401,82 @@ public class Statistics2Test  extends DirectTopologyTestBase {
     }
   }
 
+  /* test Aggregations.aggregateN(double[], stats) and aggregateN(ColumnBatch, column, stats) */
+  @Test
+  public void testAggregateNColumn() throws Exception {
+    UnivariateAggregate[] stats = STAT_RESULTS.keySet().toArray(new UnivariateAggregate[0]);
+
+    // for "continuous last-2" style inputs of (1, 4, 102, 0)
+    double[][] inputs = { {1}, {1,4}, {4,102}, {102,0} };
+    Schema schema = new Schema.Builder().add("v", Schema.Type.DOUBLE).build();
+    for (int i = 0; i < inputs.length; i++) {
+      assertResult(i, stats, STAT_RESULTS, Aggregations.aggregateN(inputs[i], stats));
+
+      ColumnBatch batch = new ColumnBatch(schema, inputs[i].length);
+      System.arraycopy(inputs[i], 0, batch.getDoubles("v"), 0, inputs[i].length);
+      assertResult(i, stats, STAT_RESULTS, Aggregations.aggregateN(batch, "v", stats));
+    }
+
+    assertEquals(1 + 4 + 102 + 0, Aggregations.sum(new double[] {1, 4, 102, 0}), 0.0);
+    assertEquals(0.0, Aggregations.sum(new double[0]), 0.0);
+  }
+
+  /* test a columnar batch pipeline aggregating a column of each batch */
+  @Test
+  public void testColumnarStream() throws Exception {
+    Topology topology = newTopology("testColumnarStream");
+
+    Schema schema = new Schema.Builder()
+        .add("id", Schema.Type.LONG)
+        .add("temp", Schema.Type.DOUBLE)
+        .build();
+    List<JsonObject> readings = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      JsonObject jo = new JsonObject();
+      jo.addProperty("id", i);
+      jo.addProperty("temp", 10.0 * i);
+      readings.add(jo);
+    }
+
+    TStream<ColumnBatch> batches = ColumnarStreams.batchJson(
+        topology.collection(readings), 4, schema);
+    batches = ColumnarStreams.mapColumn(batches, "tempF",
+        batch -> {
+          double[] c = batch.getDoubles("temp");
+          double[] f = new double[batch.size()];
+          for (int i = 0; i < f.length; i++)
+            f[i] = c[i] * 9 / 5 + 32;
+          return f;
+        });
+    batches = ColumnarStreams.filter(batches,
+        batch -> {
+          long[] ids = batch.getLongs("id");
+          boolean[] mask = new boolean[batch.size()];
+          for (int i = 0; i < mask.length; i++)
+            mask[i] = ids[i] % 2 == 0;
+          return mask;
+        });
+
+    TStream<ResultMap> aggregate = batches.map(
+        batch -> Aggregations.aggregateN(batch, "tempF", Statistic2.MAX, Statistic2.SUM));
+    TStream<String> rows = ColumnarStreams.unbatchJson(batches)
+        .map(jo -> jo.get("id").getAsLong() + ":" + jo.get("tempF").getAsDouble());
+
+    Condition<Long> count = topology.getTester().atLeastTupleCount(rows, 4);
+    Condition<List<ResultMap>> aggContents = topology.getTester().streamContents(aggregate);
+    Condition<List<String>> rowContents = topology.getTester().streamContents(rows,
+        "0:32.0", "2:68.0", "4:104.0", "6:140.0");
+    complete(topology, count);
+    assertTrue(rowContents.getResult().toString(), rowContents.valid());
+
+    List<ResultMap> results = aggContents.getResult();
+    assertEquals(2, results.size());
+    assertEquals(68.0, results.get(0).get(Statistic2.MAX), 0.01);
+    assertEquals(32.0 + 68.0, results.get(0).get(Statistic2.SUM), 0.01);
+    assertEquals(140.0, results.get(1).get(Statistic2.MAX), 0.01);
+    assertEquals(104.0 + 140.0, results.get(1).get(Statistic2.SUM), 0.01);
+  }
+
   /* test Aggregations.aggregateN(list, stats) in a multivariable Stream/Window context */
   @Test
   public void testMvAggregateNStream() throws Exception {
@@ -0,0 +1,91 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+/**
+ * An anomaly reported by one of the {@link Detectors}.
+ * <P>
+ * The score's magnitude is the strength of the anomaly in the units
+ * of the detector that reported it and its sign is the direction of
+ * the deviation, positive for readings above the expected level.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ */
+public class Anomaly<T> {
+
+    private final T tuple;
+    private final int channel;
+    private final double value;
+    private final double score;
+
+    /**
+     * Create an anomaly.
+     * @param tuple Tuple that triggered the anomaly.
+     * @param channel Channel of the tuple.
+     * @param value Value of the tuple.
+     * @param score Detector score for the value.
+     */
+    public Anomaly(T tuple, int channel, double value, double score) {
+        this.tuple = tuple;
+        this.channel = channel;
+        this.value = value;
+        this.score = score;
+    }
+
+    /**
+     * Get the tuple that triggered the anomaly.
+     * @return the tuple
+     */
+    public T getTuple() {
+        return tuple;
+    }
+
+    /**
+     * Get the channel of the tuple that triggered the anomaly.
+     * @return the channel
+     */
+    public int getChannel() {
+        return channel;
+    }
+
+    /**
+     * Get the value of the tuple that triggered the anomaly.
+     * @return the value
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Get the detector's score for the value.
+     * @return the score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Returns a String for development/debug support.  Content subject to change.
+     */
+    @Override
+    public String toString() {
+        return "channel=" + channel + " value=" + value + " score=" + score;
+    }
+}
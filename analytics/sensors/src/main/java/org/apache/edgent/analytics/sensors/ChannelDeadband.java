@@ -0,0 +1,251 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.edgent.function.Checkpointable;
+import org.apache.edgent.function.Predicate;
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
+
+/**
+ * Multi-channel deadband {@link Predicate}.
+ * <P>
+ * Applies an independent deadband to each channel of a stream
+ * that multiplexes readings from many sensors.
+ * The deadband for a channel is centered on the last value passed
+ * for that channel, so a tuple is passed if:
+ * <UL>
+ * <LI>it is the first tuple for its channel,</LI>
+ * <LI>OR its value differs from the channel's last passed value by
+ * more than the band,</LI>
+ * <LI>OR more than the maximum suppression time has elapsed since
+ * the channel last passed a tuple.</LI>
+ * </UL>
+ * <P>
+ * Per-channel state is held in an array indexed through
+ * an open addressing map of channel identifiers, so no boxing
+ * occurs and a suppressed tuple allocates nothing.
+ * </P>
+ * <P>
+ * The last passed value and time of each channel are checkpointed.
+ * Each channel's state is immutable and replaced when the channel
+ * passes a tuple, so a checkpoint reads it without locking the
+ * tuple path.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ * @see Filters#channelDeadband(org.apache.edgent.topology.TStream, ToIntFunction, ToDoubleFunction, double, ChannelDeadband.BandType)
+ */
+public class ChannelDeadband<T> implements Predicate<T>, Checkpointable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * How the width of the deadband is interpreted.
+     */
+    public enum BandType {
+        /**
+         * The band is an absolute difference from the last passed value.
+         */
+        ABSOLUTE,
+        /**
+         * The band is a percentage of the magnitude of the last passed value.
+         * When the last passed value is zero any change is outside the band.
+         */
+        PERCENTAGE
+    }
+
+    private final ToIntFunction<T> channelFunction;
+    private final ToDoubleFunction<T> valueFunction;
+    private final double band;
+    private final BandType type;
+    private final long maximumSuppressionMillis;
+
+    private transient volatile Channels channels;
+
+    /**
+     * Create a multi-channel deadband with no maximum suppression time.
+     * @param channel Function to obtain the tuple's channel.
+     * @param value Function to obtain the tuple's value.
+     * @param band Width of the deadband either side of the last passed value.
+     *        Must be &gt;= 0.
+     * @param type How {@code band} is interpreted.
+     */
+    public ChannelDeadband(ToIntFunction<T> channel, ToDoubleFunction<T> value,
+            double band, BandType type) {
+        this(channel, value, band, type, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a multi-channel deadband.
+     * @param channel Function to obtain the tuple's channel.
+     * @param value Function to obtain the tuple's value.
+     * @param band Width of the deadband either side of the last passed value.
+     *        Must be &gt;= 0.
+     * @param type How {@code band} is interpreted.
+     * @param maximumSuppression Maximum amount of time to suppress values
+     *        for a channel. Specify 0 for no maximum.
+     * @param unit Unit for {@code maximumSuppression}.
+     */
+    public ChannelDeadband(ToIntFunction<T> channel, ToDoubleFunction<T> value,
+            double band, BandType type, long maximumSuppression, TimeUnit unit) {
+        Objects.requireNonNull(channel, "channel");
+        Objects.requireNonNull(value, "value");
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(unit, "unit");
+        if (!(band >= 0))
+            throw new IllegalArgumentException("band");
+        if (maximumSuppression < 0)
+            throw new IllegalArgumentException("maximumSuppression");
+        this.channelFunction = channel;
+        this.valueFunction = value;
+        this.band = band;
+        this.type = type;
+        this.maximumSuppressionMillis = unit.toMillis(maximumSuppression);
+    }
+
+    @Override
+    public boolean test(final T t) {
+        Channels c = channels;
+        if (c == null)
+            channels = c = new Channels(16);
+
+        final int channel = channelFunction.applyAsInt(t);
+        final double value = valueFunction.applyAsDouble(t);
+
+        final int slot = c.index.slot(channel);
+        final Last last = slot == c.size ? null : c.last.get(slot);
+
+        boolean passTuple = last == null || outOfBand(last.value, value);
+
+        long now = 0;
+        if (!passTuple && maximumSuppressionMillis != 0) {
+            now = System.currentTimeMillis();
+            passTuple = now - last.send > maximumSuppressionMillis;
+        }
+
+        if (passTuple) {
+            long send = 0;
+            if (maximumSuppressionMillis != 0)
+                send = now == 0 ? System.currentTimeMillis() : now;
+            if (last == null)
+                channels = c.add(channel, new Last(value, send));
+            else
+                c.last.set(slot, new Last(value, send));
+        }
+        return passTuple;
+    }
+
+    @Override
+    public Serializable snapshotState() {
+        Channels c = channels;
+        if (c == null)
+            return null;
+        double[] lastValues = new double[c.size];
+        long[] lastSends = new long[c.size];
+        for (int i = 0; i < c.size; i++) {
+            Last last = c.last.get(i);
+            lastValues[i] = last.value;
+            lastSends[i] = last.send;
+        }
+        return new Object[] {Arrays.copyOf(c.ids, c.size), lastValues, lastSends};
+    }
+
+    @Override
+    public void restoreState(Serializable state) {
+        Object[] values = (Object[]) state;
+        int[] ids = (int[]) values[0];
+        double[] lastValues = (double[]) values[1];
+        long[] lastSends = (long[]) values[2];
+        Channels c = new Channels(Math.max(16, ids.length));
+        for (int i = 0; i < ids.length; i++) {
+            c.index.slot(ids[i]);
+            c = c.add(ids[i], new Last(lastValues[i], lastSends[i]));
+        }
+        channels = c;
+    }
+
+    /**
+     * Last passed value and time of a channel.
+     */
+    private static final class Last {
+        final double value;
+        final long send;
+
+        Last(double value, long send) {
+            this.value = value;
+            this.send = send;
+        }
+    }
+
+    /**
+     * The channels seen, indexed by slot.
+     * Only the tuple thread uses the index and adds channels,
+     * adding a channel returns a new instance that is published
+     * to checkpoints with the channel's state.
+     */
+    private static final class Channels {
+        final ChannelIndex index;
+        final int[] ids;
+        final AtomicReferenceArray<Last> last;
+        final int size;
+
+        Channels(int expectedChannels) {
+            this(new ChannelIndex(expectedChannels), new int[expectedChannels],
+                    new AtomicReferenceArray<>(expectedChannels), 0);
+        }
+
+        private Channels(ChannelIndex index, int[] ids, AtomicReferenceArray<Last> last, int size) {
+            this.index = index;
+            this.ids = ids;
+            this.last = last;
+            this.size = size;
+        }
+
+        /**
+         * Add the channel of the next slot.
+         */
+        Channels add(int channel, Last state) {
+            int[] ids = this.ids;
+            AtomicReferenceArray<Last> last = this.last;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                last = new AtomicReferenceArray<>(ids.length);
+                for (int i = 0; i < size; i++)
+                    last.set(i, this.last.get(i));
+            }
+            ids[size] = channel;
+            last.set(size, state);
+            return new Channels(index, ids, last, size + 1);
+        }
+    }
+
+    private boolean outOfBand(double last, double value) {
+        final double delta = Math.abs(value - last);
+        if (type == BandType.ABSOLUTE)
+            return delta > band;
+        return delta > Math.abs(last) * band / 100.0;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.edgent.function.Predicate;
+import org.apache.edgent.function.ToIntFunction;
+
+/**
+ * Multi-channel deadtime {@link Predicate}.
+ * <p>
+ * Behaves as an independent {@link Deadtime} for each channel of
+ * a stream that multiplexes readings from many sensors:
+ * {@link #test(Object) test()} returns true for the first tuple
+ * of a channel and then false for any tuples of that channel
+ * occurring during the following deadtime period.
+ * </p><p>
+ * Per-channel state is held in a primitive array indexed through
+ * an open addressing map of channel identifiers.
+ * </p>
+ *
+ * @param <T> tuple type
+ * @see Filters#channelDeadtime(org.apache.edgent.topology.TStream, ToIntFunction, long, TimeUnit) Filters.channelDeadtime()
+ */
+public class ChannelDeadtime<T> implements Predicate<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final ToIntFunction<T> channelFunction;
+    private final long deadtimePeriodMillis;
+
+    private transient ChannelIndex index;
+    private transient long[] nextTrueTimes;
+
+    /**
+     * Create a new multi-channel deadtime predicate.
+     * @param channel Function to obtain the tuple's channel.
+     * @param deadtimePeriod the amount of time for {@code test()}
+     *        to return false for a channel after returning true.
+     *        Must be &gt;= 0.
+     * @param unit {@link TimeUnit} of {@code deadtimePeriod}
+     */
+    public ChannelDeadtime(ToIntFunction<T> channel, long deadtimePeriod, TimeUnit unit) {
+        Objects.requireNonNull(channel, "channel");
+        Objects.requireNonNull(unit, "unit");
+        if (deadtimePeriod < 0)
+            throw new IllegalArgumentException("deadtimePeriod");
+        this.channelFunction = channel;
+        this.deadtimePeriodMillis = unit.toMillis(deadtimePeriod);
+    }
+
+    /**
+     * Test the deadtime predicate for the tuple's channel.
+     * @param tuple tuple to test
+     * @return false if the tuple's channel is in a deadtime period, true otherwise
+     */
+    @Override
+    public boolean test(T tuple) {
+        if (index == null) {
+            index = new ChannelIndex(16);
+            nextTrueTimes = new long[16];
+        }
+
+        final int channels = index.size();
+        final int slot = index.slot(channelFunction.applyAsInt(tuple));
+        if (slot == channels)
+            nextTrueTimes = ChannelIndex.ensure(nextTrueTimes, slot);
+
+        final long now = System.currentTimeMillis();
+        if (now < nextTrueTimes[slot])
+            return false;
+        nextTrueTimes[slot] = now + deadtimePeriodMillis;
+        return true;
+    }
+}
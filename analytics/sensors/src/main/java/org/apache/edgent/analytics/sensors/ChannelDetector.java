@@ -0,0 +1,109 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import java.util.Objects;
+
+import org.apache.edgent.function.Function;
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
+
+/**
+ * Base for multi-channel streaming anomaly detectors.
+ * <P>
+ * Maps a tuple to an {@link Anomaly} when the detector's score for the
+ * tuple's channel exceeds the threshold in magnitude, otherwise
+ * to {@code null} so that no tuple is submitted.
+ * Sub-classes keep their per-channel state in primitive arrays
+ * indexed by the channel's slot.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ */
+abstract class ChannelDetector<T> implements Function<T, Anomaly<T>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ToIntFunction<T> channelFunction;
+    private final ToDoubleFunction<T> valueFunction;
+    private final double threshold;
+
+    private transient ChannelIndex index;
+
+    ChannelDetector(ToIntFunction<T> channel, ToDoubleFunction<T> value, double threshold) {
+        Objects.requireNonNull(channel, "channel");
+        Objects.requireNonNull(value, "value");
+        if (!(threshold >= 0))
+            throw new IllegalArgumentException("threshold");
+        this.channelFunction = channel;
+        this.valueFunction = value;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public Anomaly<T> apply(T tuple) {
+        if (index == null) {
+            index = new ChannelIndex(16);
+            allocate();
+        }
+
+        final int channel = channelFunction.applyAsInt(tuple);
+        final double value = valueFunction.applyAsDouble(tuple);
+
+        final int channels = index.size();
+        final int slot = index.slot(channel);
+        if (slot == channels)
+            allocate(slot);
+
+        // NaN (not enough history) never exceeds the threshold
+        final double score = update(slot, value);
+        if (!(Math.abs(score) > threshold))
+            return null;
+
+        reported(slot);
+        return new Anomaly<>(tuple, channel, value, score);
+    }
+
+    /**
+     * Allocate the per-channel state arrays, called before the first
+     * tuple is processed, including after the detector is deserialized.
+     */
+    abstract void allocate();
+
+    /**
+     * Ensure the per-channel state arrays can hold {@code slot}.
+     * @param slot Newly allocated slot.
+     */
+    abstract void allocate(int slot);
+
+    /**
+     * Update the state for a channel with its next value.
+     * @param slot Slot for the channel.
+     * @param value Value of the tuple.
+     * @return Score for the value, {@code NaN} if no score can be computed yet.
+     */
+    abstract double update(int slot, double value);
+
+    /**
+     * Called when an anomaly is reported for a channel.
+     * @param slot Slot for the channel.
+     */
+    void reported(int slot) {
+    }
+}
@@ -0,0 +1,149 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map of {@code int} channel identifiers
+ * to dense slot numbers.
+ * <P>
+ * Slots are allocated in order starting at zero, so per-channel
+ * state can be held in primitive arrays indexed by slot
+ * rather than in a map of boxed keys to state objects.
+ * </P>
+ * Not thread safe.
+ */
+class ChannelIndex {
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    ChannelIndex(int expectedChannels) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedChannels * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, FREE);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Number of channels seen.
+     * @return number of allocated slots.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the channels seen.
+     * @return the channel identifiers, indexed by slot.
+     */
+    int[] channels() {
+        int[] channels = new int[size];
+        for (int i = 0; i < keys.length; i++) {
+            if (slots[i] != FREE)
+                channels[slots[i]] = keys[i];
+        }
+        return channels;
+    }
+
+    /**
+     * Get the slot for a channel, allocating the next slot
+     * if the channel has not been seen before.
+     * A newly allocated slot is equal to the value of {@link #size()}
+     * before the call.
+     * @param channel Channel identifier.
+     * @return Slot for the channel.
+     */
+    int slot(int channel) {
+        int i = mix(channel) & mask;
+        for (;;) {
+            int slot = slots[i];
+            if (slot == FREE)
+                break;
+            if (keys[i] == channel)
+                return slot;
+            i = (i + 1) & mask;
+        }
+
+        int slot = size++;
+        keys[i] = channel;
+        slots[i] = slot;
+        if (size * 2 > keys.length)
+            rehash();
+        return slot;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldSlots = slots;
+        allocate(oldKeys.length * 2);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldSlots[j] == FREE)
+                continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (slots[i] != FREE)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    /**
+     * Spread sequential channel numbers across the table.
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Grow {@code array} if needed so it holds {@code slot}.
+     */
+    static double[] ensure(double[] array, int slot) {
+        return slot < array.length ? array : Arrays.copyOf(array, grow(array.length, slot));
+    }
+
+    /**
+     * Grow {@code array} if needed so it holds {@code slot}.
+     */
+    static long[] ensure(long[] array, int slot) {
+        return slot < array.length ? array : Arrays.copyOf(array, grow(array.length, slot));
+    }
+
+    /**
+     * Grow {@code array} if needed so it holds {@code slot}.
+     */
+    static boolean[] ensure(boolean[] array, int slot) {
+        return slot < array.length ? array : Arrays.copyOf(array, grow(array.length, slot));
+    }
+
+    private static int grow(int length, int slot) {
+        return Math.max(slot + 1, Math.max(16, length * 2));
+    }
+}
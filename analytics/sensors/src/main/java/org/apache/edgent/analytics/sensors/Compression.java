@@ -0,0 +1,153 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
+import org.apache.edgent.function.ToLongFunction;
+import org.apache.edgent.topology.TStream;
+
+/**
+ * Time series reduction aimed at reducing the volume
+ * of sensor data sent to a back-end system.
+ * <P>
+ * Swinging door compression reduces a stream while keeping its
+ * readings within a fixed deviation of the original signal,
+ * Largest-Triangle-Three-Buckets downsampling reduces batches of
+ * readings to a fixed number of points that preserve the visual shape
+ * of the signal, and {@link TimeSeriesCodec} losslessly encodes batches
+ * of readings into a compact binary form.
+ * </P><P>
+ * Batches of readings are typically created using a window, for example
+ * to downsample each minute of readings to 20 points:
+ * <pre>{@code
+ * TStream<Reading> readings = ...
+ * TStream<List<Reading>> batches = readings.last(1, TimeUnit.MINUTES, Functions.unpartitioned())
+ *         .batch((list, key) -> new ArrayList<>(list));
+ * TStream<List<Reading>> downsampled = Compression.lttb(batches, Reading::getTime, Reading::getValue, 20);
+ * }</pre>
+ */
+public class Compression {
+
+    private Compression() {}
+
+    /**
+     * Swinging door trending compression of a single sensor's readings.
+     * <P>
+     * Equivalent to {@link #swingingDoor(TStream, ToIntFunction, ToLongFunction, ToDoubleFunction, double)}
+     * with every tuple in the same channel.
+     * </P>
+     *
+     * @param <T> Tuple type.
+     *
+     * @param stream Stream containing readings.
+     * @param time Function to obtain the tuple's timestamp.
+     * @param value Function to obtain the tuple's value.
+     * @param deviation Compression deviation, in units of the value.
+     * @return Stream containing the archived readings.
+     */
+    public static <T> TStream<T> swingingDoor(TStream<T> stream, ToLongFunction<T> time,
+            ToDoubleFunction<T> value, double deviation) {
+        return swingingDoor(stream, t -> 0, time, value, deviation);
+    }
+
+    /**
+     * Multi-channel swinging door trending compression.
+     * <P>
+     * For each channel the returned stream contains the minimal set of readings
+     * such that every reading lies within {@code deviation} of the straight line
+     * between the returned readings either side of it.
+     * The first reading of each channel is always returned.
+     * </P><P>
+     * A reading can only be known to be required once a later reading
+     * arrives, so the returned stream lags the input by one reading for
+     * each channel, and the last reading of each channel is never returned.
+     * </P>
+     *
+     * @param <T> Tuple type.
+     *
+     * @param stream Stream containing readings.
+     * @param channel Function to obtain the tuple's channel.
+     * @param time Function to obtain the tuple's timestamp.
+     *        Timestamps must be non-decreasing within a channel.
+     * @param value Function to obtain the tuple's value.
+     * @param deviation Compression deviation, in units of the value.
+     * @return Stream containing the archived readings.
+     */
+    public static <T> TStream<T> swingingDoor(TStream<T> stream, ToIntFunction<T> channel,
+            ToLongFunction<T> time, ToDoubleFunction<T> value, double deviation) {
+        return stream.map(new SwingingDoor<>(channel, time, value, deviation));
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets downsampling.
+     * <P>
+     * Each batch of readings, ordered by time, is reduced to {@code threshold} readings
+     * that preserve the visual shape of the signal. The first and last reading of
+     * a batch are always kept. A batch with no more than {@code threshold} readings
+     * is passed through unchanged.
+     * </P>
+     *
+     * @param <T> Tuple type.
+     *
+     * @param batches Stream containing batches of readings.
+     * @param time Function to obtain a reading's timestamp.
+     * @param value Function to obtain a reading's value.
+     * @param threshold Number of readings to keep from each batch. Must be &gt;= 3.
+     * @return Stream containing the downsampled batches.
+     */
+    public static <T> TStream<List<T>> lttb(TStream<List<T>> batches, ToLongFunction<T> time,
+            ToDoubleFunction<T> value, int threshold) {
+        return batches.map(new Lttb<>(time, value, threshold));
+    }
+
+    /**
+     * Encode batches of readings using {@link TimeSeriesCodec}.
+     * <P>
+     * Each batch of readings is encoded into a single {@code byte[]} that
+     * can be decoded using {@link TimeSeriesCodec#decode(byte[])}.
+     * </P>
+     *
+     * @param <T> Tuple type.
+     *
+     * @param batches Stream containing batches of readings.
+     * @param time Function to obtain a reading's timestamp.
+     * @param value Function to obtain a reading's value.
+     * @return Stream containing the encoded batches.
+     */
+    public static <T> TStream<byte[]> encode(TStream<List<T>> batches, final ToLongFunction<T> time,
+            final ToDoubleFunction<T> value) {
+        Objects.requireNonNull(time, "time");
+        Objects.requireNonNull(value, "value");
+        return batches.map(batch -> {
+            final int count = batch.size();
+            final long[] timestamps = new long[count];
+            final double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                T reading = batch.get(i);
+                timestamps[i] = time.applyAsLong(reading);
+                values[i] = value.applyAsDouble(reading);
+            }
+            return TimeSeriesCodec.encode(timestamps, values, count);
+        });
+    }
+}
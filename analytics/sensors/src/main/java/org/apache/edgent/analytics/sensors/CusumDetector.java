@@ -0,0 +1,110 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
+
+/**
+ * Two-sided tabular CUSUM detector.
+ * <P>
+ * The target mean and standard deviation for a channel are estimated
+ * from its first {@code warmup} values. Subsequent values are standardized
+ * against them and accumulated into upper and lower cumulative sums,
+ * less the {@code slack}. The score is the larger of the two sums,
+ * negated for the lower sum. Both sums restart from zero once an
+ * anomaly is reported.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ */
+class CusumDetector<T> extends ChannelDetector<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long warmup;
+    private final double slack;
+
+    private transient long[] counts;
+    private transient double[] means;
+    private transient double[] m2s;
+    private transient double[] stddevs;
+    private transient double[] uppers;
+    private transient double[] lowers;
+
+    CusumDetector(ToIntFunction<T> channel, ToDoubleFunction<T> value,
+            int warmup, double slack, double threshold) {
+        super(channel, value, threshold);
+        if (warmup < 2)
+            throw new IllegalArgumentException("warmup");
+        if (!(slack >= 0))
+            throw new IllegalArgumentException("slack");
+        this.warmup = warmup;
+        this.slack = slack;
+    }
+
+    @Override
+    void allocate() {
+        counts = new long[16];
+        means = new double[16];
+        m2s = new double[16];
+        stddevs = new double[16];
+        uppers = new double[16];
+        lowers = new double[16];
+    }
+
+    @Override
+    void allocate(int slot) {
+        counts = ChannelIndex.ensure(counts, slot);
+        means = ChannelIndex.ensure(means, slot);
+        m2s = ChannelIndex.ensure(m2s, slot);
+        stddevs = ChannelIndex.ensure(stddevs, slot);
+        uppers = ChannelIndex.ensure(uppers, slot);
+        lowers = ChannelIndex.ensure(lowers, slot);
+    }
+
+    @Override
+    double update(int slot, double value) {
+        final long n = ++counts[slot];
+        if (n <= warmup) {
+            final double diff = value - means[slot];
+            means[slot] += diff / n;
+            m2s[slot] += diff * (value - means[slot]);
+            if (n == warmup) {
+                // A constant channel measures deviations in absolute units.
+                final double stddev = Math.sqrt(m2s[slot] / (n - 1));
+                stddevs[slot] = stddev == 0 ? 1 : stddev;
+            }
+            return Double.NaN;
+        }
+
+        final double z = (value - means[slot]) / stddevs[slot];
+        final double upper = Math.max(0, uppers[slot] + z - slack);
+        final double lower = Math.max(0, lowers[slot] - z - slack);
+        uppers[slot] = upper;
+        lowers[slot] = lower;
+        return upper >= lower ? upper : -lower;
+    }
+
+    @Override
+    void reported(int slot) {
+        uppers[slot] = 0;
+        lowers[slot] = 0;
+    }
+}
@@ -18,18 +18,24 @@ under the License.
 */
 package org.apache.edgent.analytics.sensors;
 
+import java.io.Serializable;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.edgent.function.Checkpointable;
 import org.apache.edgent.function.Function;
 import org.apache.edgent.function.Predicate;
 
 /**
  * Deadband predicate function.
+ * Whether the last value was out of band, and the time
+ * of the last value passed, are checkpointed. They are held in
+ * an immutable state published through a volatile field, so a
+ * checkpoint reads them without locking the tuple path.
  *
  * @param <T> Tuple type.
  * @param <V> Value type for the deadband function.
  */
-class Deadband<T, V> implements Predicate<T> {
+class Deadband<T, V> implements Predicate<T>, Checkpointable {
 
     private static final long serialVersionUID = 1L;
 
@@ -39,9 +45,22 @@ class Deadband<T, V> implements Predicate<T> {
     private final TimeUnit unit;
 
     // Always send the first value.
-    private transient boolean outOfBand = true;
+    private static final State FIRST = new State(true, 0);
 
-    private transient long lastSend;
+    private transient volatile State state;
+
+    /**
+     * Whether the last value was out of band, and the time of the last value passed.
+     */
+    private static final class State {
+        final boolean outOfBand;
+        final long lastSend;
+
+        State(boolean outOfBand, long lastSend) {
+            this.outOfBand = outOfBand;
+            this.lastSend = lastSend;
+        }
+    }
     
     Deadband(Function<T, V> valueFunction, Predicate<V> deadbandFunction) {
         this(valueFunction , deadbandFunction, 0, null);
@@ -57,6 +76,11 @@ class Deadband<T, V> implements Predicate<T> {
     @Override
     public boolean test(final T t) {
         final V value = valueFunction.apply(t);
+        State last = state;
+        if (last == null)
+            last = FIRST;
+        boolean outOfBand = last.outOfBand;
+        long lastSend = last.lastSend;
         boolean passTuple;
         long now = 0;
         if (!inBand.test(value)) {
@@ -79,9 +103,25 @@ class Deadband<T, V> implements Predicate<T> {
 
         if (passTuple && period != 0)
             lastSend = now == 0 ? System.currentTimeMillis() : now;
+
+        if (outOfBand != last.outOfBand || lastSend != last.lastSend)
+            state = new State(outOfBand, lastSend);
             
         return passTuple;
     }
 
-}
+    @Override
+    public Serializable snapshotState() {
+        State last = state;
+        if (last == null)
+            last = FIRST;
+        return new long[] {last.outOfBand ? 1 : 0, last.lastSend};
+    }
+
+    @Override
+    public void restoreState(Serializable state) {
+        long[] values = (long[]) state;
+        this.state = new State(values[0] != 0, values[1]);
+    }
 
+}
@@ -0,0 +1,149 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
+import org.apache.edgent.topology.TStream;
+
+/**
+ * Streaming anomaly detectors aimed at sensors.
+ * <P>
+ * Each detector processes a stream that multiplexes readings
+ * from many sensors, keeping independent state for each channel.
+ * The state for a channel is a fixed number of primitive values
+ * (or a fixed size window for {@link #zScore(TStream, ToIntFunction, ToDoubleFunction, int, double) zScore}),
+ * so memory use does not grow with the length of the stream.
+ * </P><P>
+ * A detector's returned stream contains an {@link Anomaly} for each
+ * tuple whose score exceeds the threshold in magnitude. A channel's
+ * first readings are used to learn its normal behavior and never
+ * result in an anomaly.
+ * </P>
+ */
+public class Detectors {
+
+    private Detectors() {}
+
+    /**
+     * Exponentially weighted moving average and variance detector.
+     * <P>
+     * A tuple's score is the deviation of its value from the channel's
+     * exponentially weighted moving average (EWMA), in units of the
+     * square root of the exponentially weighted moving variance (EWMV),
+     * both calculated prior to including the value.
+     * </P>
+     *
+     * @param <T> Tuple type.
+     *
+     * @param stream Stream containing readings.
+     * @param channel Function to obtain the tuple's channel.
+     * @param value Function to obtain the tuple's value.
+     * @param alpha Smoothing factor, greater than 0 and at most 1.
+     *        Larger values discount older readings faster.
+     * @param warmup Number of readings for a channel before it may report anomalies.
+     * @param threshold Score magnitude that must be exceeded to report an anomaly.
+     * @return Stream of anomalies.
+     */
+    public static <T> TStream<Anomaly<T>> ewma(TStream<T> stream, ToIntFunction<T> channel,
+            ToDoubleFunction<T> value, double alpha, int warmup, double threshold) {
+
+        return stream.map(new EwmaDetector<>(channel, value, alpha, warmup, threshold));
+    }
+
+    /**
+     * Rolling z-score detector.
+     * <P>
+     * A tuple's score is the z-score of its value against the mean and
+     * sample standard deviation of the channel's previous {@code size}
+     * values. The window statistics are maintained incrementally.
+     * </P>
+     *
+     * @param <T> Tuple type.
+     *
+     * @param stream Stream containing readings.
+     * @param channel Function to obtain the tuple's channel.
+     * @param value Function to obtain the tuple's value.
+     * @param size Number of previous values for a channel in its window. Must be &gt;= 2.
+     * @param threshold Score magnitude that must be exceeded to report an anomaly.
+     * @return Stream of anomalies.
+     */
+    public static <T> TStream<Anomaly<T>> zScore(TStream<T> stream, ToIntFunction<T> channel,
+            ToDoubleFunction<T> value, int size, double threshold) {
+
+        return stream.map(new ZScoreDetector<>(channel, value, size, threshold));
+    }
+
+    /**
+     * Two-sided CUSUM detector.
+     * <P>
+     * A channel's target mean and standard deviation are estimated from its
+     * first {@code warmup} readings. Subsequent readings are standardized and
+     * accumulated into upper and lower cumulative sums, with each reading
+     * reduced by {@code slack}. A tuple's score is the larger of the two sums,
+     * negative when the lower sum is larger. The sums restart from zero
+     * after an anomaly is reported.
+     * </P><P>
+     * Typical values are a {@code slack} of 0.5 and a {@code threshold} of 4 to 5,
+     * detecting sustained shifts of around one standard deviation.
+     * </P>
+     *
+     * @param <T> Tuple type.
+     *
+     * @param stream Stream containing readings.
+     * @param channel Function to obtain the tuple's channel.
+     * @param value Function to obtain the tuple's value.
+     * @param warmup Number of readings used to estimate a channel's target. Must be &gt;= 2.
+     * @param slack Allowed deviation from the target, in standard deviations.
+     * @param threshold Cumulative sum that must be exceeded to report an anomaly,
+     *        in standard deviations.
+     * @return Stream of anomalies.
+     */
+    public static <T> TStream<Anomaly<T>> cusum(TStream<T> stream, ToIntFunction<T> channel,
+            ToDoubleFunction<T> value, int warmup, double slack, double threshold) {
+
+        return stream.map(new CusumDetector<>(channel, value, warmup, slack, threshold));
+    }
+
+    /**
+     * Two-sided Page-Hinkley change detector.
+     * <P>
+     * Accumulates the deviation of each reading from the channel's running mean,
+     * reduced by {@code delta}. A tuple's score is the distance of the accumulated
+     * deviation from its extreme, positive for an upward change and negative for
+     * a downward change. A channel's statistics restart after an anomaly is reported.
+     * </P>
+     *
+     * @param <T> Tuple type.
+     *
+     * @param stream Stream containing readings.
+     * @param channel Function to obtain the tuple's channel.
+     * @param value Function to obtain the tuple's value.
+     * @param warmup Number of readings for a channel before it may report anomalies.
+     * @param delta Magnitude of changes that are tolerated, in units of the value.
+     * @param threshold Score magnitude that must be exceeded to report an anomaly,
+     *        in units of the value.
+     * @return Stream of anomalies.
+     */
+    public static <T> TStream<Anomaly<T>> pageHinkley(TStream<T> stream, ToIntFunction<T> channel,
+            ToDoubleFunction<T> value, int warmup, double delta, double threshold) {
+
+        return stream.map(new PageHinkleyDetector<>(channel, value, warmup, delta, threshold));
+    }
+}
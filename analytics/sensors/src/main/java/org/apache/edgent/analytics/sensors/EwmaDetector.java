@@ -0,0 +1,87 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
+
+/**
+ * Exponentially weighted moving average and variance detector.
+ * <P>
+ * Scores a value as its deviation from the channel's exponentially
+ * weighted mean, in units of the exponentially weighted standard deviation,
+ * both calculated prior to including the value.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ */
+class EwmaDetector<T> extends ChannelDetector<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double alpha;
+    private final long warmup;
+
+    private transient long[] counts;
+    private transient double[] means;
+    private transient double[] variances;
+
+    EwmaDetector(ToIntFunction<T> channel, ToDoubleFunction<T> value,
+            double alpha, int warmup, double threshold) {
+        super(channel, value, threshold);
+        if (!(alpha > 0 && alpha <= 1))
+            throw new IllegalArgumentException("alpha");
+        if (warmup < 1)
+            throw new IllegalArgumentException("warmup");
+        this.alpha = alpha;
+        this.warmup = warmup;
+    }
+
+    @Override
+    void allocate() {
+        counts = new long[16];
+        means = new double[16];
+        variances = new double[16];
+    }
+
+    @Override
+    void allocate(int slot) {
+        counts = ChannelIndex.ensure(counts, slot);
+        means = ChannelIndex.ensure(means, slot);
+        variances = ChannelIndex.ensure(variances, slot);
+    }
+
+    @Override
+    double update(int slot, double value) {
+        final long n = ++counts[slot];
+        if (n == 1) {
+            means[slot] = value;
+            return Double.NaN;
+        }
+
+        final double diff = value - means[slot];
+        final double variance = variances[slot];
+        final double score = n > warmup ? diff / Math.sqrt(variance) : Double.NaN;
+
+        final double increment = alpha * diff;
+        means[slot] += increment;
+        variances[slot] = (1 - alpha) * (variance + diff * increment);
+        return score;
+    }
+}
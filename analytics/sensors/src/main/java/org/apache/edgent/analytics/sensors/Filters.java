@@ -20,8 +20,11 @@ package org.apache.edgent.analytics.sensors;
 
 import java.util.concurrent.TimeUnit;
 
+import org.apache.edgent.analytics.sensors.ChannelDeadband.BandType;
 import org.apache.edgent.function.Function;
 import org.apache.edgent.function.Predicate;
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
 import org.apache.edgent.topology.TStream;
 
 /**
@@ -138,5 +141,101 @@ public class Filters {
     public static <T> TStream<T> deadtime(TStream<T> stream, long deadtimePeriod, TimeUnit unit) {
         return stream.filter(new Deadtime<>(deadtimePeriod, unit));
     }
+
+    /**
+     * Multi-channel deadband filter.
+     * 
+     * A filter that applies an independent deadband to each channel
+     * of a stream multiplexing readings from many sensors, avoiding
+     * the need to split the stream into a stream per sensor.
+     * <P>
+     * The deadband for a channel is centered on the channel's last passed value.
+     * A tuple {@code t} is passed through the filter if:
+     * <UL>
+     * <LI>
+     * It is the first tuple for channel {@code channel.applyAsInt(t)}
+     * </LI>
+     * <LI>
+     * OR {@code value.applyAsDouble(t)} differs from the channel's last passed
+     * value by more than {@code band}, interpreted according to {@code type}
+     * </LI>
+     * </UL>
+     * 
+     * @param <T> Tuple type.
+     * 
+     * @param stream Stream containing readings.
+     * @param channel Function to obtain the tuple's channel.
+     * @param value Function to obtain the tuple's value.
+     * @param band Width of the deadband either side of the last passed value.
+     * @param type How {@code band} is interpreted.
+     * @return Filtered stream.
+     * @see ChannelDeadband
+     */
+    public static <T> TStream<T> channelDeadband(TStream<T> stream, ToIntFunction<T> channel,
+            ToDoubleFunction<T> value, double band, BandType type) {
+
+        return stream.filter(new ChannelDeadband<>(channel, value, band, type));
+    }
+
+    /**
+     * Multi-channel deadband filter with maximum suppression time.
+     * 
+     * A filter that applies an independent deadband to each channel
+     * of a stream multiplexing readings from many sensors.
+     * <P>
+     * A tuple {@code t} is passed through the filter if:
+     * <UL>
+     * <LI>
+     * It is the first tuple for channel {@code channel.applyAsInt(t)}
+     * </LI>
+     * <LI>
+     * OR {@code value.applyAsDouble(t)} differs from the channel's last passed
+     * value by more than {@code band}, interpreted according to {@code type}
+     * </LI>
+     * <LI>
+     * OR it has been more than {@code maximumSuppression} (in unit {@code unit})
+     * since the channel last passed a tuple
+     * </LI>
+     * </UL>
+     * 
+     * @param <T> Tuple type.
+     * 
+     * @param stream Stream containing readings.
+     * @param channel Function to obtain the tuple's channel.
+     * @param value Function to obtain the tuple's value.
+     * @param band Width of the deadband either side of the last passed value.
+     * @param type How {@code band} is interpreted.
+     * @param maximumSuppression Maximum amount of time to suppress values for a channel.
+     * @param unit Unit for {@code maximumSuppression}.
+     * @return Filtered stream.
+     * @see ChannelDeadband
+     */
+    public static <T> TStream<T> channelDeadband(TStream<T> stream, ToIntFunction<T> channel,
+            ToDoubleFunction<T> value, double band, BandType type,
+            long maximumSuppression, TimeUnit unit) {
+
+        return stream.filter(new ChannelDeadband<>(channel, value, band, type, maximumSuppression, unit));
+    }
+
+    /**
+     * Multi-channel deadtime filter.
+     * 
+     * A filter that applies an independent deadtime period to each channel
+     * of a stream multiplexing readings from many sensors.
+     * After letting a tuple for a channel pass through, any tuples for the same
+     * channel received during the deadtime period are filtered out.
+     * 
+     * @param <T> tuple type
+     * @param stream TStream to add deadtime filter to
+     * @param channel Function to obtain the tuple's channel.
+     * @param deadtimePeriod the deadtime period in {@code unit}
+     * @param unit the {@link TimeUnit} to apply to {@code deadtimePeriod}
+     * @return the deadtime filtered stream
+     * @see ChannelDeadtime
+     */
+    public static <T> TStream<T> channelDeadtime(TStream<T> stream, ToIntFunction<T> channel,
+            long deadtimePeriod, TimeUnit unit) {
+        return stream.filter(new ChannelDeadtime<>(channel, deadtimePeriod, unit));
+    }
     
 }
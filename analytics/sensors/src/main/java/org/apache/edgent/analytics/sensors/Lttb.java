@@ -0,0 +1,115 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.edgent.function.Function;
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToLongFunction;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling function.
+ * <P>
+ * The first and last points of a batch are always kept. The remaining points
+ * are divided into {@code threshold - 2} buckets and from each bucket the
+ * point forming the largest triangle with the previously selected point
+ * and the average of the next bucket is kept.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ * @see Compression#lttb(org.apache.edgent.topology.TStream, ToLongFunction, ToDoubleFunction, int)
+ */
+class Lttb<T> implements Function<List<T>, List<T>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ToLongFunction<T> timeFunction;
+    private final ToDoubleFunction<T> valueFunction;
+    private final int threshold;
+
+    Lttb(ToLongFunction<T> time, ToDoubleFunction<T> value, int threshold) {
+        Objects.requireNonNull(time, "time");
+        Objects.requireNonNull(value, "value");
+        if (threshold < 3)
+            throw new IllegalArgumentException("threshold");
+        this.timeFunction = time;
+        this.valueFunction = value;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public List<T> apply(List<T> points) {
+        final int n = points.size();
+        if (n <= threshold)
+            return new ArrayList<>(points);
+
+        // Extract the coordinates once, the selection loops
+        // visit most points twice.
+        final double[] xs = new double[n];
+        final double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            T point = points.get(i);
+            xs[i] = timeFunction.applyAsLong(point);
+            ys[i] = valueFunction.applyAsDouble(point);
+        }
+
+        final List<T> sampled = new ArrayList<>(threshold);
+        sampled.add(points.get(0));
+
+        final double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average of the next bucket.
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += xs[j];
+                avgY += ys[j];
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // Point in this bucket with the largest triangle.
+            final int start = (int) Math.floor(i * every) + 1;
+            final int end = (int) Math.floor((i + 1) * every) + 1;
+            final double ax = xs[a];
+            final double ay = ys[a];
+            double maxArea = -1;
+            int next = start;
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((ax - avgX) * (ys[j] - ay) - (ax - xs[j]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled.add(points.get(next));
+            a = next;
+        }
+
+        sampled.add(points.get(n - 1));
+        return sampled;
+    }
+}
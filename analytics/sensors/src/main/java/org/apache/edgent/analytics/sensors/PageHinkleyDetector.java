@@ -0,0 +1,115 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
+
+/**
+ * Two-sided Page-Hinkley change detector.
+ * <P>
+ * Accumulates each value's deviation from the channel's running mean,
+ * less a tolerated magnitude {@code delta}, and scores a value by how far
+ * the accumulation has moved from its extreme. Upward changes have positive
+ * scores and downward changes negative scores. All statistics for
+ * a channel restart once an anomaly is reported, so the mean is
+ * relearned after a change.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ */
+class PageHinkleyDetector<T> extends ChannelDetector<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long warmup;
+    private final double delta;
+
+    private transient long[] counts;
+    private transient double[] means;
+    private transient double[] ups;
+    private transient double[] minUps;
+    private transient double[] downs;
+    private transient double[] maxDowns;
+
+    PageHinkleyDetector(ToIntFunction<T> channel, ToDoubleFunction<T> value,
+            int warmup, double delta, double threshold) {
+        super(channel, value, threshold);
+        if (warmup < 1)
+            throw new IllegalArgumentException("warmup");
+        if (!(delta >= 0))
+            throw new IllegalArgumentException("delta");
+        this.warmup = warmup;
+        this.delta = delta;
+    }
+
+    @Override
+    void allocate() {
+        counts = new long[16];
+        means = new double[16];
+        ups = new double[16];
+        minUps = new double[16];
+        downs = new double[16];
+        maxDowns = new double[16];
+    }
+
+    @Override
+    void allocate(int slot) {
+        counts = ChannelIndex.ensure(counts, slot);
+        means = ChannelIndex.ensure(means, slot);
+        ups = ChannelIndex.ensure(ups, slot);
+        minUps = ChannelIndex.ensure(minUps, slot);
+        downs = ChannelIndex.ensure(downs, slot);
+        maxDowns = ChannelIndex.ensure(maxDowns, slot);
+    }
+
+    @Override
+    double update(int slot, double value) {
+        final long n = ++counts[slot];
+        final double mean = means[slot] + (value - means[slot]) / n;
+        means[slot] = mean;
+
+        final double up = ups[slot] + value - mean - delta;
+        final double minUp = Math.min(minUps[slot], up);
+        ups[slot] = up;
+        minUps[slot] = minUp;
+
+        final double down = downs[slot] + value - mean + delta;
+        final double maxDown = Math.max(maxDowns[slot], down);
+        downs[slot] = down;
+        maxDowns[slot] = maxDown;
+
+        if (n <= warmup)
+            return Double.NaN;
+
+        final double upScore = up - minUp;
+        final double downScore = maxDown - down;
+        return upScore >= downScore ? upScore : -downScore;
+    }
+
+    @Override
+    void reported(int slot) {
+        counts[slot] = 0;
+        means[slot] = 0;
+        ups[slot] = 0;
+        minUps[slot] = 0;
+        downs[slot] = 0;
+        maxDowns[slot] = 0;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.edgent.function.Function;
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
+import org.apache.edgent.function.ToLongFunction;
+
+/**
+ * Multi-channel swinging door trending compression function.
+ * <P>
+ * For each channel a "door" is opened at the last archived point, with
+ * its hinges {@code deviation} above and below the archived value.
+ * Each subsequent point narrows the upper and lower slopes of the door
+ * so that every point since the archived point lies within {@code deviation}
+ * of a straight line from the archived point. When a point cannot be
+ * accommodated the previous point is archived, and so returned, and the
+ * door is reopened from it.
+ * </P><P>
+ * A point is thus only returned once a later point for its channel arrives,
+ * the most recent point for each channel is held by the function.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ * @see Compression#swingingDoor(org.apache.edgent.topology.TStream, ToIntFunction, ToLongFunction, ToDoubleFunction, double)
+ */
+class SwingingDoor<T> implements Function<T, T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ToIntFunction<T> channelFunction;
+    private final ToLongFunction<T> timeFunction;
+    private final ToDoubleFunction<T> valueFunction;
+    private final double deviation;
+
+    private transient ChannelIndex index;
+    private transient long[] archivedTimes;
+    private transient double[] archivedValues;
+    private transient double[] upperSlopes;
+    private transient double[] lowerSlopes;
+    private transient Object[] held;
+    private transient long[] heldTimes;
+    private transient double[] heldValues;
+
+    SwingingDoor(ToIntFunction<T> channel, ToLongFunction<T> time, ToDoubleFunction<T> value,
+            double deviation) {
+        Objects.requireNonNull(channel, "channel");
+        Objects.requireNonNull(time, "time");
+        Objects.requireNonNull(value, "value");
+        if (!(deviation >= 0))
+            throw new IllegalArgumentException("deviation");
+        this.channelFunction = channel;
+        this.timeFunction = time;
+        this.valueFunction = value;
+        this.deviation = deviation;
+    }
+
+    @Override
+    public T apply(T tuple) {
+        if (index == null) {
+            index = new ChannelIndex(16);
+            archivedTimes = new long[16];
+            archivedValues = new double[16];
+            upperSlopes = new double[16];
+            lowerSlopes = new double[16];
+            held = new Object[16];
+            heldTimes = new long[16];
+            heldValues = new double[16];
+        }
+
+        final long time = timeFunction.applyAsLong(tuple);
+        final double value = valueFunction.applyAsDouble(tuple);
+
+        final int channels = index.size();
+        final int slot = index.slot(channelFunction.applyAsInt(tuple));
+        if (slot == channels) {
+            allocate(slot);
+            // The first point is always archived.
+            archive(slot, time, value);
+            return tuple;
+        }
+
+        final double upper = Math.min(upperSlopes[slot], slope(archivedTimes[slot], archivedValues[slot], time, value + deviation));
+        final double lower = Math.max(lowerSlopes[slot], slope(archivedTimes[slot], archivedValues[slot], time, value - deviation));
+
+        T archived = null;
+        if (lower > upper && held[slot] != null) {
+            // Door closed, archive the previous point and reopen from it.
+            @SuppressWarnings("unchecked")
+            T previous = (T) held[slot];
+            archived = previous;
+            archive(slot, heldTimes[slot], heldValues[slot]);
+            upperSlopes[slot] = slope(archivedTimes[slot], archivedValues[slot], time, value + deviation);
+            lowerSlopes[slot] = slope(archivedTimes[slot], archivedValues[slot], time, value - deviation);
+        } else {
+            upperSlopes[slot] = upper;
+            lowerSlopes[slot] = lower;
+        }
+
+        held[slot] = tuple;
+        heldTimes[slot] = time;
+        heldValues[slot] = value;
+        return archived;
+    }
+
+    private void allocate(int slot) {
+        archivedTimes = ChannelIndex.ensure(archivedTimes, slot);
+        archivedValues = ChannelIndex.ensure(archivedValues, slot);
+        upperSlopes = ChannelIndex.ensure(upperSlopes, slot);
+        lowerSlopes = ChannelIndex.ensure(lowerSlopes, slot);
+        heldTimes = ChannelIndex.ensure(heldTimes, slot);
+        heldValues = ChannelIndex.ensure(heldValues, slot);
+        if (slot >= held.length)
+            held = Arrays.copyOf(held, heldTimes.length);
+    }
+
+    private void archive(int slot, long time, double value) {
+        archivedTimes[slot] = time;
+        archivedValues[slot] = value;
+        upperSlopes[slot] = Double.POSITIVE_INFINITY;
+        lowerSlopes[slot] = Double.NEGATIVE_INFINITY;
+        held[slot] = null;
+    }
+
+    /**
+     * Slope from the archived point to a point, a point at the
+     * same time as the archived point does not constrain the door.
+     */
+    private static double slope(long archivedTime, double archivedValue, long time, double value) {
+        final long dt = time - archivedTime;
+        if (dt <= 0)
+            return value >= archivedValue ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        return (value - archivedValue) / dt;
+    }
+}
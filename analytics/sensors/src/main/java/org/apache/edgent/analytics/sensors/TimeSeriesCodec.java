@@ -0,0 +1,278 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import java.util.Arrays;
+
+/**
+ * Lossless encoding of blocks of {@code (timestamp, double)} points.
+ * <P>
+ * The encoding follows the scheme described for Facebook's Gorilla
+ * time series database:
+ * </P>
+ * <UL>
+ * <LI>Timestamps are encoded as the delta of the delta from the previous
+ * timestamp, using a variable length prefix code, so a series with a
+ * regular period costs a single bit per timestamp.</LI>
+ * <LI>Values are encoded as the XOR with the previous value, storing
+ * only the meaningful bits, so a value equal to the previous one costs
+ * a single bit and slowly changing values share their leading and
+ * trailing zero counts.</LI>
+ * </UL>
+ * <P>
+ * An encoded block starts with the number of points as a 32 bit integer
+ * followed by the first timestamp and value in 64 bits each.
+ * </P>
+ */
+public class TimeSeriesCodec {
+
+    private TimeSeriesCodec() {}
+
+    /**
+     * A decoded block of points.
+     */
+    public static class Block {
+        private final long[] timestamps;
+        private final double[] values;
+
+        Block(long[] timestamps, double[] values) {
+            this.timestamps = timestamps;
+            this.values = values;
+        }
+
+        /**
+         * Get the number of points in the block.
+         * @return number of points
+         */
+        public int size() {
+            return timestamps.length;
+        }
+
+        /**
+         * Get the timestamps of the points.
+         * @return the timestamps, owned by the caller
+         */
+        public long[] getTimestamps() {
+            return timestamps;
+        }
+
+        /**
+         * Get the values of the points.
+         * @return the values, owned by the caller
+         */
+        public double[] getValues() {
+            return values;
+        }
+    }
+
+    /**
+     * Encode a block of points.
+     * @param timestamps Timestamps of the points.
+     * @param values Values of the points.
+     * @param count Number of points to encode from the start of the arrays.
+     * @return Encoded block.
+     */
+    public static byte[] encode(long[] timestamps, double[] values, int count) {
+        if (count < 0 || count > timestamps.length || count > values.length)
+            throw new IllegalArgumentException("count");
+
+        final BitOutput out = new BitOutput(16 + count * 2);
+        out.write(count, 32);
+        if (count == 0)
+            return out.toByteArray();
+
+        long previousTime = timestamps[0];
+        long previousBits = Double.doubleToRawLongBits(values[0]);
+        out.write(previousTime, 64);
+        out.write(previousBits, 64);
+
+        long previousDelta = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            final long delta = timestamps[i] - previousTime;
+            writeDeltaOfDelta(out, delta - previousDelta);
+            previousTime = timestamps[i];
+            previousDelta = delta;
+
+            final long bits = Double.doubleToRawLongBits(values[i]);
+            final long xor = bits ^ previousBits;
+            previousBits = bits;
+            if (xor == 0) {
+                out.write(0, 1);
+                continue;
+            }
+
+            final int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            final int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading != -1 && leading >= previousLeading && trailing >= previousTrailing) {
+                // Meaningful bits fit within the previous block.
+                out.write(0b10, 2);
+                out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                final int meaningful = 64 - leading - trailing;
+                out.write(0b11, 2);
+                out.write(leading, 5);
+                // 64 meaningful bits is stored as 0
+                out.write(meaningful & 0x3F, 6);
+                out.write(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeDeltaOfDelta(BitOutput out, long dod) {
+        if (dod == 0) {
+            out.write(0, 1);
+        } else if (dod >= -63 && dod <= 64) {
+            out.write(0b10, 2);
+            out.write(dod + 63, 7);
+        } else if (dod >= -255 && dod <= 256) {
+            out.write(0b110, 3);
+            out.write(dod + 255, 9);
+        } else if (dod >= -2047 && dod <= 2048) {
+            out.write(0b1110, 4);
+            out.write(dod + 2047, 12);
+        } else {
+            out.write(0b1111, 4);
+            out.write(dod, 64);
+        }
+    }
+
+    /**
+     * Decode a block of points.
+     * @param encoded Block encoded by {@link #encode(long[], double[], int)}.
+     * @return Decoded points.
+     */
+    public static Block decode(byte[] encoded) {
+        final BitInput in = new BitInput(encoded);
+        final int count = (int) in.read(32);
+        if (count < 0)
+            throw new IllegalArgumentException("encoded");
+        final long[] timestamps = new long[count];
+        final double[] values = new double[count];
+        if (count == 0)
+            return new Block(timestamps, values);
+
+        long time = in.read(64);
+        long bits = in.read(64);
+        timestamps[0] = time;
+        values[0] = Double.longBitsToDouble(bits);
+
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            delta += readDeltaOfDelta(in);
+            time += delta;
+            timestamps[i] = time;
+
+            if (in.read(1) != 0) {
+                if (in.read(1) != 0) {
+                    leading = (int) in.read(5);
+                    int meaningful = (int) in.read(6);
+                    if (meaningful == 0)
+                        meaningful = 64;
+                    trailing = 64 - leading - meaningful;
+                }
+                bits ^= in.read(64 - leading - trailing) << trailing;
+            }
+            values[i] = Double.longBitsToDouble(bits);
+        }
+        return new Block(timestamps, values);
+    }
+
+    private static long readDeltaOfDelta(BitInput in) {
+        if (in.read(1) == 0)
+            return 0;
+        if (in.read(1) == 0)
+            return in.read(7) - 63;
+        if (in.read(1) == 0)
+            return in.read(9) - 255;
+        if (in.read(1) == 0)
+            return in.read(12) - 2047;
+        return in.read(64);
+    }
+
+    /**
+     * Most significant bit first writer of bits into a growing byte array.
+     */
+    private static class BitOutput {
+        private byte[] bytes;
+        private int position;
+
+        BitOutput(int expectedBytes) {
+            bytes = new byte[Math.max(16, expectedBytes)];
+        }
+
+        /**
+         * Write the low {@code n} bits of {@code value}.
+         */
+        void write(long value, int n) {
+            if (position + n > (long) bytes.length * 8)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, (position + n) / 8 + 1));
+            while (n > 0) {
+                final int index = position >>> 3;
+                final int free = 8 - (position & 7);
+                final int chunk = Math.min(free, n);
+                final int bits = (int) (value >>> (n - chunk)) & ((1 << chunk) - 1);
+                bytes[index] |= bits << (free - chunk);
+                position += chunk;
+                n -= chunk;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, (position + 7) >>> 3);
+        }
+    }
+
+    /**
+     * Most significant bit first reader of bits from a byte array.
+     */
+    private static class BitInput {
+        private final byte[] bytes;
+        private int position;
+
+        BitInput(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Read {@code n} bits as the low bits of the returned value.
+         */
+        long read(int n) {
+            if (position + n > (long) bytes.length * 8)
+                throw new IllegalArgumentException("encoded");
+            long value = 0;
+            while (n > 0) {
+                final int index = position >>> 3;
+                final int available = 8 - (position & 7);
+                final int chunk = Math.min(available, n);
+                final int bits = (bytes[index] >>> (available - chunk)) & ((1 << chunk) - 1);
+                value = (value << chunk) | bits;
+                position += chunk;
+                n -= chunk;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.analytics.sensors;
+
+import org.apache.edgent.function.ToDoubleFunction;
+import org.apache.edgent.function.ToIntFunction;
+
+/**
+ * Rolling z-score detector.
+ * <P>
+ * Scores a value as its z-score against the mean and standard deviation
+ * of the channel's previous {@code size} values. The window for each channel
+ * is a ring in a single shared array and its mean and sum of squared
+ * differences are maintained incrementally as values enter and leave,
+ * so each tuple is processed in constant time.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ */
+class ZScoreDetector<T> extends ChannelDetector<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int size;
+
+    private transient double[] windows;
+    private transient long[] counts;
+    private transient double[] means;
+    private transient double[] m2s;
+
+    ZScoreDetector(ToIntFunction<T> channel, ToDoubleFunction<T> value,
+            int size, double threshold) {
+        super(channel, value, threshold);
+        if (size < 2)
+            throw new IllegalArgumentException("size");
+        this.size = size;
+    }
+
+    @Override
+    void allocate() {
+        windows = new double[16 * size];
+        counts = new long[16];
+        means = new double[16];
+        m2s = new double[16];
+    }
+
+    @Override
+    void allocate(int slot) {
+        counts = ChannelIndex.ensure(counts, slot);
+        means = ChannelIndex.ensure(means, slot);
+        m2s = ChannelIndex.ensure(m2s, slot);
+        if (windows.length < counts.length * size)
+            windows = ChannelIndex.ensure(windows, counts.length * size - 1);
+    }
+
+    @Override
+    double update(int slot, double value) {
+        final long n = counts[slot]++;
+        final int position = slot * size + (int) (n % size);
+        final double mean = means[slot];
+
+        if (n < size) {
+            // Filling the window, Welford's algorithm.
+            final double diff = value - mean;
+            final double newMean = mean + diff / (n + 1);
+            means[slot] = newMean;
+            m2s[slot] += diff * (value - newMean);
+            windows[position] = value;
+            return Double.NaN;
+        }
+
+        final double m2 = m2s[slot];
+        final double score = (value - mean) / Math.sqrt(m2 / (size - 1));
+
+        // Slide the window, replacing the oldest value.
+        final double oldest = windows[position];
+        final double newMean = mean + (value - oldest) / size;
+        means[slot] = newMean;
+        m2s[slot] = Math.max(0, m2 + (value - oldest) * (value - newMean + oldest - mean));
+        windows[position] = value;
+        return score;
+    }
+}
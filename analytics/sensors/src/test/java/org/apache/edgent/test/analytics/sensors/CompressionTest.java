@@ -0,0 +1,206 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.analytics.sensors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.edgent.analytics.sensors.Compression;
+import org.apache.edgent.analytics.sensors.TimeSeriesCodec;
+import org.apache.edgent.test.providers.direct.DirectTopologyTestBase;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.apache.edgent.topology.tester.Condition;
+import org.junit.Test;
+
+public class CompressionTest extends DirectTopologyTestBase {
+
+    /**
+     * Readings of the form {@code channel:time:value}.
+     */
+    private static int channel(String reading) {
+        return Integer.parseInt(reading.split(":")[0]);
+    }
+
+    private static long time(String reading) {
+        return Long.parseLong(reading.split(":")[1]);
+    }
+
+    private static double value(String reading) {
+        return Double.parseDouble(reading.split(":")[2]);
+    }
+
+    @Test
+    public void testSwingingDoor() throws Exception {
+        Topology topology = newTopology("testSwingingDoor");
+
+        // Ramp up, plateau, ramp down with small noise on the plateau.
+        TStream<String> values = topology.of(
+                "0:0:0.0", "0:1:1.0", "0:2:2.0", "0:3:3.0", "0:4:4.0",
+                "0:5:4.1", "0:6:3.9", "0:7:4.0", "0:8:4.1",
+                "0:9:3.0", "0:10:2.0", "0:11:1.0");
+
+        TStream<String> compressed = Compression.swingingDoor(values,
+                CompressionTest::time, CompressionTest::value, 0.25);
+
+        Condition<Long> count = topology.getTester().tupleCount(compressed, 3);
+        Condition<List<String>> contents = topology.getTester().streamContents(compressed,
+                "0:0:0.0", "0:4:4.0", "0:8:4.1");
+        complete(topology, count);
+        assertTrue(contents.getResult().toString(), contents.valid());
+    }
+
+    @Test
+    public void testSwingingDoorChannels() throws Exception {
+        Topology topology = newTopology("testSwingingDoorChannels");
+
+        // Channel 1 is a straight line, channel 2 has a step.
+        TStream<String> values = topology.of(
+                "1:0:0.0", "2:0:5.0", "1:1:1.0", "2:1:5.0", "1:2:2.0", "2:2:5.0",
+                "1:3:3.0", "2:3:9.0", "1:4:4.0", "2:4:9.0", "1:5:5.0", "2:5:9.0");
+
+        TStream<String> compressed = Compression.swingingDoor(values,
+                CompressionTest::channel, CompressionTest::time, CompressionTest::value, 0.1);
+
+        Condition<Long> count = topology.getTester().tupleCount(compressed, 4);
+        Condition<List<String>> contents = topology.getTester().streamContents(compressed,
+                "1:0:0.0", "2:0:5.0", "2:2:5.0", "2:3:9.0");
+        complete(topology, count);
+        assertTrue(contents.getResult().toString(), contents.valid());
+    }
+
+    @Test
+    public void testLttb() throws Exception {
+        Topology topology = newTopology("testLttb");
+
+        // A flat signal with a single spike, which must be kept.
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            batch.add("0:" + i + ":" + (i == 37 ? 50.0 : 1.0));
+        List<String> small = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            small.add("0:" + i + ":" + i);
+
+        List<List<String>> batches = new ArrayList<>();
+        batches.add(batch);
+        batches.add(small);
+        TStream<List<String>> downsampled = Compression.lttb(topology.collection(batches),
+                CompressionTest::time, CompressionTest::value, 10);
+
+        Condition<Long> count = topology.getTester().tupleCount(downsampled, 2);
+        Condition<List<List<String>>> contents = topology.getTester().streamContents(downsampled);
+        complete(topology, count);
+
+        List<String> result = contents.getResult().get(0);
+        assertEquals(10, result.size());
+        assertEquals("0:0:1.0", result.get(0));
+        assertEquals("0:99:1.0", result.get(9));
+        assertTrue(result.toString(), result.contains("0:37:50.0"));
+        for (int i = 1; i < result.size(); i++)
+            assertTrue(result.toString(), time(result.get(i)) > time(result.get(i - 1)));
+
+        assertEquals(small, contents.getResult().get(1));
+    }
+
+    @Test
+    public void testEncode() throws Exception {
+        Topology topology = newTopology("testEncode");
+
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < 60; i++)
+            batch.add("0:" + (1000 * i) + ":" + (20.0 + (i % 3) * 0.5));
+        List<List<String>> batches = new ArrayList<>();
+        batches.add(batch);
+
+        TStream<byte[]> encoded = Compression.encode(topology.collection(batches),
+                CompressionTest::time, CompressionTest::value);
+
+        Condition<Long> count = topology.getTester().tupleCount(encoded, 1);
+        Condition<List<byte[]>> contents = topology.getTester().streamContents(encoded);
+        complete(topology, count);
+
+        TimeSeriesCodec.Block block = TimeSeriesCodec.decode(contents.getResult().get(0));
+        assertEquals(60, block.size());
+        for (int i = 0; i < 60; i++) {
+            assertEquals(time(batch.get(i)), block.getTimestamps()[i]);
+            assertEquals(value(batch.get(i)), block.getValues()[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testCodecRegular() {
+        int count = 1000;
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = 1500000000000L + 1000L * i;
+            values[i] = 42.0;
+        }
+
+        byte[] encoded = TimeSeriesCodec.encode(timestamps, values, count);
+        // header, the first delta, then two bits per point
+        assertTrue(Integer.toString(encoded.length), encoded.length <= 20 + 9 + count / 4);
+
+        TimeSeriesCodec.Block block = TimeSeriesCodec.decode(encoded);
+        assertArrayEquals(timestamps, block.getTimestamps());
+        assertArrayEquals(values, block.getValues(), 0.0);
+    }
+
+    @Test
+    public void testCodecRandom() {
+        Random random = new Random(7);
+        int count = 5000;
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        long time = -50000;
+        for (int i = 0; i < count; i++) {
+            switch (i % 4) {
+            case 0: time += 1000; break;
+            case 1: time += random.nextInt(600) - 100; break;
+            case 2: time += random.nextInt(1 << 20); break;
+            default: time -= random.nextLong() >>> 2; break;
+            }
+            timestamps[i] = time;
+            values[i] = i % 5 == 0 ? Double.NaN
+                    : i % 7 == 0 ? -0.0
+                    : random.nextGaussian() * Math.pow(10, random.nextInt(20) - 10);
+        }
+
+        TimeSeriesCodec.Block block = TimeSeriesCodec.decode(TimeSeriesCodec.encode(timestamps, values, count));
+        assertArrayEquals(timestamps, block.getTimestamps());
+        for (int i = 0; i < count; i++)
+            assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(block.getValues()[i]));
+    }
+
+    @Test
+    public void testCodecEmpty() {
+        TimeSeriesCodec.Block block = TimeSeriesCodec.decode(TimeSeriesCodec.encode(new long[0], new double[0], 0));
+        assertEquals(0, block.size());
+
+        block = TimeSeriesCodec.decode(TimeSeriesCodec.encode(new long[] {7}, new double[] {1.5}, 1));
+        assertEquals(1, block.size());
+        assertEquals(7, block.getTimestamps()[0]);
+        assertEquals(1.5, block.getValues()[0], 0.0);
+    }
+}
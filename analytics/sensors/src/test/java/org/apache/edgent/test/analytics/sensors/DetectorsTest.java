@@ -0,0 +1,183 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.analytics.sensors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.edgent.analytics.sensors.Anomaly;
+import org.apache.edgent.analytics.sensors.Detectors;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.apache.edgent.topology.tester.Condition;
+import org.apache.edgent.test.providers.direct.DirectTopologyTestBase;
+import org.junit.Test;
+
+public class DetectorsTest extends DirectTopologyTestBase {
+
+    private static int channel(String reading) {
+        return Integer.parseInt(reading.substring(0, reading.indexOf(':')));
+    }
+
+    private static double reading(String reading) {
+        return Double.parseDouble(reading.substring(reading.indexOf(':') + 1));
+    }
+
+    /**
+     * Readings for two channels interleaved.
+     * Channel 1 alternates around 10.0 apart from {@code anomaly}
+     * at reading {@code at}, channel 2 alternates around 100.0.
+     */
+    private static List<String> readings(int count, int at, double anomaly) {
+        List<String> readings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double noise = i % 2 == 0 ? 0.2 : -0.2;
+            readings.add("1:" + (i == at ? anomaly : 10.0 + noise));
+            readings.add("2:" + (100.0 + noise * 5));
+        }
+        return readings;
+    }
+
+    private static void assertSingleAnomaly(List<Anomaly<String>> anomalies, String tuple, boolean positive) {
+        assertEquals(anomalies.toString(), 1, anomalies.size());
+        Anomaly<String> anomaly = anomalies.get(0);
+        assertEquals(tuple, anomaly.getTuple());
+        assertEquals(1, anomaly.getChannel());
+        assertEquals(reading(tuple), anomaly.getValue(), 0.0);
+        assertEquals(anomaly.toString(), positive, anomaly.getScore() > 0);
+    }
+
+    @Test
+    public void testEwma() throws Exception {
+        Topology topology = newTopology("testEwma");
+
+        TStream<String> values = topology.collection(readings(60, 40, 14.0));
+        TStream<Anomaly<String>> anomalies = Detectors.ewma(values,
+                DetectorsTest::channel, DetectorsTest::reading, 0.1, 10, 4.0);
+
+        Condition<Long> count = topology.getTester().tupleCount(anomalies, 1);
+        Condition<List<Anomaly<String>>> contents = topology.getTester().streamContents(anomalies);
+        complete(topology, count);
+        assertSingleAnomaly(contents.getResult(), "1:14.0", true);
+    }
+
+    @Test
+    public void testEwmaWarmup() throws Exception {
+        Topology topology = newTopology("testEwmaWarmup");
+
+        // anomaly within the warmup period is not reported,
+        // the only anomaly is the final reading
+        List<String> readings = readings(30, 5, 14.0);
+        readings.add("1:30.0");
+        TStream<String> values = topology.collection(readings);
+        TStream<Anomaly<String>> anomalies = Detectors.ewma(values,
+                DetectorsTest::channel, DetectorsTest::reading, 0.1, 10, 4.0);
+
+        Condition<Long> count = topology.getTester().tupleCount(anomalies, 1);
+        Condition<List<Anomaly<String>>> contents = topology.getTester().streamContents(anomalies);
+        complete(topology, count);
+        assertSingleAnomaly(contents.getResult(), "1:30.0", true);
+    }
+
+    @Test
+    public void testZScore() throws Exception {
+        Topology topology = newTopology("testZScore");
+
+        TStream<String> values = topology.collection(readings(60, 45, 6.0));
+        TStream<Anomaly<String>> anomalies = Detectors.zScore(values,
+                DetectorsTest::channel, DetectorsTest::reading, 20, 4.0);
+
+        Condition<Long> count = topology.getTester().tupleCount(anomalies, 1);
+        Condition<List<Anomaly<String>>> contents = topology.getTester().streamContents(anomalies);
+        complete(topology, count);
+        assertSingleAnomaly(contents.getResult(), "1:6.0", false);
+    }
+
+    @Test
+    public void testCusum() throws Exception {
+        Topology topology = newTopology("testCusum");
+
+        TStream<String> values = topology.collection(readings(60, 30, 14.0));
+        TStream<Anomaly<String>> anomalies = Detectors.cusum(values,
+                DetectorsTest::channel, DetectorsTest::reading, 20, 0.5, 5.0);
+
+        Condition<Long> count = topology.getTester().tupleCount(anomalies, 1);
+        Condition<List<Anomaly<String>>> contents = topology.getTester().streamContents(anomalies);
+        complete(topology, count);
+        assertSingleAnomaly(contents.getResult(), "1:14.0", true);
+    }
+
+    @Test
+    public void testCusumShift() throws Exception {
+        Topology topology = newTopology("testCusumShift");
+
+        // Channel 1 shifts down by 1.0 (around 5 standard deviations) after 30 readings.
+        List<String> readings = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            double noise = i % 2 == 0 ? 0.2 : -0.2;
+            readings.add("1:" + (10.0 + noise - (i >= 30 ? 1.0 : 0.0)));
+        }
+        TStream<String> values = topology.collection(readings);
+
+        TStream<Anomaly<String>> anomalies = Detectors.cusum(values,
+                DetectorsTest::channel, DetectorsTest::reading, 20, 0.5, 4.0);
+
+        Condition<Long> count = topology.getTester().atLeastTupleCount(anomalies, 1);
+        Condition<List<Anomaly<String>>> contents = topology.getTester().streamContents(anomalies);
+        complete(topology, count);
+
+        List<Anomaly<String>> results = contents.getResult();
+        assertTrue(results.toString(), !results.isEmpty());
+        for (Anomaly<String> anomaly : results) {
+            assertEquals(1, anomaly.getChannel());
+            assertTrue(anomaly.toString(), anomaly.getScore() < -4.0);
+            assertTrue(anomaly.toString(), anomaly.getValue() < 9.5);
+        }
+    }
+
+    @Test
+    public void testPageHinkley() throws Exception {
+        Topology topology = newTopology("testPageHinkley");
+
+        // Channel 1 steps up from 10 to 13 after 30 readings.
+        List<String> readings = new ArrayList<>();
+        for (int i = 0; i < 35; i++) {
+            double noise = i % 2 == 0 ? 0.2 : -0.2;
+            readings.add("1:" + (10.0 + noise + (i >= 30 ? 3.0 : 0.0)));
+            readings.add("2:" + (50.0 - noise));
+        }
+        TStream<String> values = topology.collection(readings);
+
+        TStream<Anomaly<String>> anomalies = Detectors.pageHinkley(values,
+                DetectorsTest::channel, DetectorsTest::reading, 10, 0.5, 5.0);
+
+        Condition<Long> count = topology.getTester().tupleCount(anomalies, 1);
+        Condition<List<Anomaly<String>>> contents = topology.getTester().streamContents(anomalies);
+        complete(topology, count);
+
+        List<Anomaly<String>> results = contents.getResult();
+        assertEquals(results.toString(), 1, results.size());
+        assertEquals(1, results.get(0).getChannel());
+        assertTrue(results.toString(), results.get(0).getScore() > 5.0);
+        assertTrue(results.toString(), results.get(0).getValue() > 12.0);
+    }
+}
@@ -20,13 +20,19 @@ package org.apache.edgent.test.analytics.sensors;
 
 import static org.apache.edgent.function.Functions.identity;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.edgent.analytics.sensors.ChannelDeadband;
+import org.apache.edgent.analytics.sensors.ChannelDeadband.BandType;
 import org.apache.edgent.analytics.sensors.Deadtime;
 import org.apache.edgent.analytics.sensors.Filters;
 import org.apache.edgent.test.providers.direct.DirectTopologyTestBase;
@@ -209,4 +215,127 @@ public class FiltersTest  extends DirectTopologyTestBase {
         
         assertTrue(contents.getResult().toString(), contents.valid());
     }
+
+    private static int channel(String reading) {
+        return Integer.parseInt(reading.substring(0, reading.indexOf(':')));
+    }
+
+    private static double reading(String reading) {
+        return Double.parseDouble(reading.substring(reading.indexOf(':') + 1));
+    }
+
+    @Test
+    public void testChannelDeadbandAbsolute() throws Exception {
+        Topology topology = newTopology("testChannelDeadbandAbsolute");
+
+        TStream<String> values = topology.of("1:10.0", "2:100.0", "1:10.5", "2:101.0",
+                "1:11.5", "2:99.5", "1:11.0", "2:98.9", "3:0.0", "1:12.6");
+
+        TStream<String> filtered = Filters.channelDeadband(values,
+                FiltersTest::channel, FiltersTest::reading, 1.0, BandType.ABSOLUTE);
+
+        Condition<Long> count = topology.getTester().tupleCount(filtered, 6);
+        Condition<List<String>> contents = topology.getTester().streamContents(filtered,
+                "1:10.0", "2:100.0", "1:11.5", "2:98.9", "3:0.0", "1:12.6");
+        complete(topology, count);
+        assertTrue(contents.getResult().toString(), contents.valid());
+    }
+
+    @Test
+    public void testChannelDeadbandPercentage() throws Exception {
+        Topology topology = newTopology("testChannelDeadbandPercentage");
+
+        TStream<String> values = topology.of("7:200.0", "8:-50.0", "7:209.0", "8:-52.0",
+                "7:211.0", "8:-53.0", "7:190.0", "8:0.0", "8:0.0", "8:0.1");
+
+        // 5% band
+        TStream<String> filtered = Filters.channelDeadband(values,
+                FiltersTest::channel, FiltersTest::reading, 5.0, BandType.PERCENTAGE);
+
+        Condition<Long> count = topology.getTester().tupleCount(filtered, 7);
+        Condition<List<String>> contents = topology.getTester().streamContents(filtered,
+                "7:200.0", "8:-50.0", "7:211.0", "8:-53.0", "7:190.0", "8:0.0", "8:0.1");
+        complete(topology, count);
+        assertTrue(contents.getResult().toString(), contents.valid());
+    }
+
+    @Test
+    public void testChannelDeadbandMaxSuppression() throws Exception {
+        Topology topology = newTopology("testChannelDeadbandMaxSuppression");
+
+        TStream<String> values = topology.of("1:10.0", "2:20.0", "1:10.1", "2:20.1", "1:10.2", "2:20.2");
+
+        // 1:10.2 will be included as it is delayed since the last passed value for channel 1.
+        values = values.modify(tuple -> {if (tuple.equals("1:10.2"))
+            try {
+                Thread.sleep(2000);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            } return tuple;});
+
+        TStream<String> filtered = Filters.channelDeadband(values,
+                FiltersTest::channel, FiltersTest::reading, 1.0, BandType.ABSOLUTE, 1, TimeUnit.SECONDS);
+
+        Condition<Long> count = topology.getTester().tupleCount(filtered, 4);
+        Condition<List<String>> contents = topology.getTester().streamContents(filtered,
+                "1:10.0", "2:20.0", "1:10.2", "2:20.2");
+        complete(topology, count);
+        assertTrue(contents.getResult().toString(), contents.valid());
+    }
+
+    @Test
+    public void testChannelDeadbandManyChannels() throws Exception {
+        Topology topology = newTopology("testChannelDeadbandManyChannels");
+
+        // 500 channels, each sent the same value twice then a new value.
+        int channels = 500;
+        List<String> readings = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            for (int c = 0; c < channels; c++)
+                readings.add(c + ":" + (i < 2 ? c : c + 10));
+        }
+        TStream<String> values = topology.collection(readings);
+
+        TStream<String> filtered = Filters.channelDeadband(values,
+                FiltersTest::channel, FiltersTest::reading, 1.0, BandType.ABSOLUTE);
+
+        Condition<Long> count = topology.getTester().tupleCount(filtered, channels * 2);
+        complete(topology, count);
+        assertTrue(count.valid());
+    }
+
+    @Test
+    public void testChannelDeadbandRestore() throws Exception {
+        ChannelDeadband<String> deadband = new ChannelDeadband<>(
+                FiltersTest::channel, FiltersTest::reading, 1.0, BandType.ABSOLUTE);
+        assertNull(deadband.snapshotState());
+        assertTrue(deadband.test("1:10.0"));
+        assertTrue(deadband.test("2:100.0"));
+        assertFalse(deadband.test("1:10.5"));
+        Serializable state = deadband.snapshotState();
+
+        // a restored deadband continues from the last passed values
+        ChannelDeadband<String> restored = new ChannelDeadband<>(
+                FiltersTest::channel, FiltersTest::reading, 1.0, BandType.ABSOLUTE);
+        restored.restoreState(state);
+        assertFalse(restored.test("2:100.5"));
+        assertFalse(restored.test("1:10.9"));
+        assertTrue(restored.test("1:11.1"));
+        assertTrue(restored.test("3:0.0"));
+    }
+
+    @Test
+    public void testChannelDeadtime() throws Exception {
+        Topology topology = newTopology("testChannelDeadtime");
+
+        TStream<String> values = topology.of("1:1", "2:1", "1:2", "3:1", "2:2", "1:3");
+
+        TStream<String> filtered = Filters.channelDeadtime(values,
+                FiltersTest::channel, 1, TimeUnit.HOURS);
+
+        Condition<Long> count = topology.getTester().tupleCount(filtered, 3);
+        Condition<List<String>> contents = topology.getTester().streamContents(filtered, "1:1", "2:1", "3:1");
+        complete(topology, count);
+        assertTrue(contents.getResult().toString(), contents.valid());
+    }
 }
@@ -0,0 +1,51 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.mbeans;
+
+/**
+ * Control mbean interface for an entity having a count control,
+ * such as the number of tuples retained by a window.
+ * <P>
+ * This mbean lacks a {@code TYPE} declaration because it's
+ * a generic control interface applicable to a variety of
+ * object types (e.g., a stream or window).
+ * The type of the associated object is to be used when
+ * registering instances of this mbean with the
+ * {@link org.apache.edgent.execution.services.ControlService ControlService}.
+ * </P>
+ * <P>
+ * A changed count takes effect with the next tuple processed
+ * by the entity, it is not applied to a tuple being processed.
+ * </P>
+ */
+public interface CountMXBean {
+
+    /**
+     * Get the count.
+     * @return count
+     */
+    public int getCount();
+
+    /**
+     * Set the count.
+     * @param count the count
+     * @throws IllegalArgumentException if {@code count} is not positive
+     */
+    public void setCount(int count);
+}
@@ -0,0 +1,62 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.mbeans;
+
+/**
+ * Control mbean interface for the queue of a stream's
+ * asynchronous boundary, such as an isolated stream.
+ * <P>
+ * The queue's capacity bounds the credit available to the
+ * upstream processing, see {@link org.apache.edgent.oplet.Credit}.
+ * Upstream processing is blocked when it waits for credit,
+ * or when it submits a tuple while the queue is full.
+ * </P>
+ */
+public interface FlowControlMXBean {
+
+    /**
+     * TYPE is used to identify this bean as a flow control bean when building the bean's {@code ObjectName}.
+     * The value is {@value} 
+     */
+    String TYPE = "flowControl";
+
+    /**
+     * Get the number of tuples in the queue.
+     * @return the queue depth
+     */
+    public int getQueueDepth();
+
+    /**
+     * Get the capacity of the queue.
+     * @return the capacity
+     */
+    public int getQueueCapacity();
+
+    /**
+     * Get the number of times upstream processing was blocked.
+     * @return the number of times blocked
+     */
+    public long getBlockedCount();
+
+    /**
+     * Get the total time upstream processing was blocked.
+     * @return time in microseconds
+     */
+    public long getBlockedTime();
+}
@@ -0,0 +1,54 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.mbeans;
+
+/**
+ * Control mbean interface for an entity whose function can be
+ * replaced by a function registered with the
+ * {@link org.apache.edgent.execution.services.FunctionLibraryService FunctionLibraryService},
+ * for example the predicate of a filter.
+ * <P>
+ * This mbean lacks a {@code TYPE} declaration because it's
+ * a generic control interface applicable to a variety of
+ * object types (e.g., a stream).
+ * The type of the associated object is to be used when
+ * registering instances of this mbean with the
+ * {@link org.apache.edgent.execution.services.ControlService ControlService}.
+ * </P>
+ * <P>
+ * The function is replaced between tuples, each tuple
+ * is processed by either the previous or the new function.
+ * </P>
+ */
+public interface FunctionMXBean {
+
+    /**
+     * Get the name of the current function.
+     * @return the name the function was registered with,
+     *         or {@code null} if the function has not been replaced.
+     */
+    public String getFunction();
+
+    /**
+     * Replace the function.
+     * @param name the name the replacement function was registered with
+     * @throws IllegalArgumentException if no function is registered as {@code name}
+     */
+    public void setFunction(String name);
+}
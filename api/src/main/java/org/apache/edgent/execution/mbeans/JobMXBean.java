@@ -103,8 +103,40 @@ public interface JobMXBean {
      */
     String graphSnapshot();
 
+    /**
+     * Takes a snapshot of the processing times of the job's oplets
+     * and returns it in JSON format.
+     * <p>
+     * The snapshot is an array with an object for each profiled oplet,
+     * as returned by {@link OpletMXBean#processingTimeSnapshot()}. The array
+     * is empty if the job's oplets are not profiled.
+     * 
+     * @return a JSON-formatted string representing the processing times.
+     */
+    String processingTimeSnapshot();
+
+    /**
+     * Takes a snapshot of the time taken to initialize and start
+     * the job's oplets and returns it in JSON format.
+     * <p>
+     * The snapshot is an object with the job's total {@code initializeTime}
+     * and {@code startTime}, and an {@code oplets} array with an object
+     * for each oplet, holding its {@code id}, {@code kind} (class name),
+     * {@code initializeTime} and {@code startTime}.
+     * Times are in microseconds, a time is absent until the job
+     * has completed the action.
+     * 
+     * @return a JSON-formatted string representing the startup times.
+     */
+    String startupTimeSnapshot();
+
     /**
      * Initiates an execution state change.
+     * <p>
+     * A job is paused by {@link Action#PAUSE}, its sources stop
+     * obtaining tuples while the tuples already submitted continue
+     * to be processed. {@link Action#RESUME} restores the flow
+     * of tuples from the sources.
      * 
      * @param action which triggers the state change.
      * @throws IllegalArgumentException if the job is not in an appropriate 
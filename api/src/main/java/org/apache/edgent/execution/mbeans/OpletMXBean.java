@@ -0,0 +1,119 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.mbeans;
+
+/**
+ * Control interface for an oplet whose processing time is profiled.
+ * <p>
+ * The processing time of a tuple is the time spent by the oplet
+ * processing the tuple, excluding the time spent by the oplets
+ * it synchronously submits tuples to.
+ * Times are in microseconds and are derived from a sample of the
+ * oplet's tuples.
+ */
+public interface OpletMXBean {
+    /**
+     * TYPE is used to identify this bean as an oplet bean when building the bean's {@code ObjectName}.
+     * The value is {@value} 
+     */
+    String TYPE = "oplet";
+
+    /**
+     * Returns the identifier of the oplet's job.
+     * 
+     * @return the job identifier.
+     */
+    String getJobId();
+
+    /**
+     * Returns the identifier of the oplet.
+     * 
+     * @return the oplet identifier.
+     */
+    String getId();
+
+    /**
+     * Returns the oplet's kind, its class name.
+     * 
+     * @return the oplet kind.
+     */
+    String getKind();
+
+    /**
+     * Returns the number of tuples whose processing time was sampled.
+     * 
+     * @return the number of samples.
+     */
+    long getProcessingTimeSampleCount();
+
+    /**
+     * Returns the mean processing time of the sampled tuples.
+     * 
+     * @return the mean time in microseconds, 0 if no tuples were sampled.
+     */
+    long getMeanProcessingTime();
+
+    /**
+     * Returns the median processing time of the sampled tuples.
+     * 
+     * @return the median time in microseconds, 0 if no tuples were sampled.
+     */
+    long getMedianProcessingTime();
+
+    /**
+     * Returns the 99th percentile processing time of the sampled tuples.
+     * 
+     * @return the time in microseconds, 0 if no tuples were sampled.
+     */
+    long get99thPercentileProcessingTime();
+
+    /**
+     * Returns the maximum processing time of the sampled tuples.
+     * 
+     * @return the maximum time in microseconds, 0 if no tuples were sampled.
+     */
+    long getMaxProcessingTime();
+
+    /**
+     * Returns a percentile of the processing time of the sampled tuples.
+     * 
+     * @param percentile the percentile, from 0 to 100.
+     * @return the time in microseconds, 0 if no tuples were sampled.
+     */
+    long getProcessingTimePercentile(double percentile);
+
+    /**
+     * Takes a snapshot of the oplet's processing times and returns it in JSON format.
+     * <p>
+     * The object contains the properties {@code id}, {@code kind},
+     * {@code samples}, {@code mean}, {@code p50}, {@code p90}, {@code p99} and
+     * {@code max}, and {@code buckets}: an array of
+     * {@code [upperBound, count]} arrays for the non-empty buckets of
+     * the processing time histogram. Times and upper bounds are in
+     * microseconds.
+     * 
+     * @return a JSON-formatted string representing the processing times.
+     */
+    String processingTimeSnapshot();
+
+    /**
+     * Discards the processing times sampled so far.
+     */
+    void resetProcessingTime();
+}
@@ -0,0 +1,90 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.mbeans;
+
+/**
+ * Control mbean interface for an adaptively sized parallel region.
+ * <P>
+ * The region has {@link #getMaxWidth() maxWidth} channels, tuples are
+ * processed by {@link #getActiveWidth() activeWidth} of them.
+ * When adaptive, the active width is periodically adjusted between
+ * {@link #getMinWidth() minWidth} and {@code maxWidth} according to the
+ * depth of the region's queue and the measured per-tuple latency.
+ * </P>
+ *
+ * @see org.apache.edgent.topology.plumbing.PlumbingStreams#parallelAdaptive(org.apache.edgent.topology.TStream, int, int, org.apache.edgent.function.BiFunction) parallelAdaptive
+ */
+public interface ParallelMXBean {
+
+    /**
+     * TYPE is used to identify this bean as a parallel region bean when building the bean's {@code ObjectName}.
+     * The value is {@value} 
+     */
+    String TYPE = "parallel";
+
+    /**
+     * Get the minimum number of active channels.
+     * @return the minimum width
+     */
+    public int getMinWidth();
+
+    /**
+     * Get the maximum number of active channels.
+     * @return the maximum width
+     */
+    public int getMaxWidth();
+
+    /**
+     * Get the number of channels processing tuples.
+     * @return the active width
+     */
+    public int getActiveWidth();
+
+    /**
+     * Set the number of channels processing tuples.
+     * When adaptive the width continues to be adjusted from this value.
+     * @param width the active width, between the minimum and the maximum width
+     */
+    public void setActiveWidth(int width);
+
+    /**
+     * Get whether the active width is adjusted.
+     * @return true if the width is adjusted
+     */
+    public boolean isAdaptive();
+
+    /**
+     * Set whether the active width is adjusted.
+     * @param adaptive false to keep the current active width
+     */
+    public void setAdaptive(boolean adaptive);
+
+    /**
+     * Get the number of tuples waiting to be processed.
+     * @return the queue depth
+     */
+    public int getQueueDepth();
+
+    /**
+     * Get the mean per-tuple processing latency measured during the
+     * last adjustment period.
+     * @return latency in microseconds
+     */
+    public long getMeanLatency();
+}
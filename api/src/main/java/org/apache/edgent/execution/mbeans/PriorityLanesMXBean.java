@@ -0,0 +1,96 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.mbeans;
+
+/**
+ * Control mbean interface for a priority isolate, which merges
+ * lanes of tuples serving higher priority lanes first.
+ * <P>
+ * Lanes are numbered from 0, the highest priority lane.
+ * A lane's latency is the time its tuples waited
+ * in the lane's queue, in microseconds.
+ * </P>
+ *
+ * @see org.apache.edgent.topology.plumbing.PlumbingStreams#priorityIsolate(java.util.List, int, long, java.util.concurrent.TimeUnit) priorityIsolate
+ */
+public interface PriorityLanesMXBean {
+
+    /**
+     * TYPE is used to identify this bean as a priority lanes bean when building the bean's {@code ObjectName}.
+     * The value is {@value} 
+     */
+    String TYPE = "priorityLanes";
+
+    /**
+     * Get the number of lanes.
+     * @return the number of lanes
+     */
+    public int getLaneCount();
+
+    /**
+     * Get the deadline of a lane.
+     * @param lane the lane
+     * @return the deadline in microseconds, 0 if the lane has no deadline
+     */
+    public long getDeadline(int lane);
+
+    /**
+     * Get the number of tuples waiting in a lane's queue.
+     * @param lane the lane
+     * @return the queue depth
+     */
+    public int getQueueDepth(int lane);
+
+    /**
+     * Get the number of tuples of a lane that were served.
+     * @param lane the lane
+     * @return the number of tuples
+     */
+    public long getTupleCount(int lane);
+
+    /**
+     * Get the mean latency of a lane's tuples.
+     * @param lane the lane
+     * @return the mean latency in microseconds, 0 if no tuples were served
+     */
+    public long getMeanLatency(int lane);
+
+    /**
+     * Get the maximum latency of a lane's tuples.
+     * @param lane the lane
+     * @return the maximum latency in microseconds
+     */
+    public long getMaxLatency(int lane);
+
+    /**
+     * Get the number of a lane's tuples that were served after their deadline.
+     * @param lane the lane
+     * @return the number of tuples
+     */
+    public long getDeadlineMissCount(int lane);
+
+    /**
+     * Get the number of a lane's tuples that were served ahead of
+     * waiting tuples of higher priority lanes, because their deadline
+     * was reached.
+     * @param lane the lane
+     * @return the number of tuples
+     */
+    public long getPromotedCount(int lane);
+}
@@ -96,4 +96,26 @@ public class Controls {
         
         return false;
     }
+
+    /**
+     * Get the alias of a job's control for a stream, the stream's
+     * alias qualified by the job's identifier. The control service
+     * is shared by all the jobs, while the same stream alias can be
+     * used by several jobs, for example when an application is
+     * submitted more than once.
+     * <p>
+     * Stream controls, such as the {@code PeriodMXBean} of a polled
+     * stream and the {@code CountMXBean} of a windowed stream, are
+     * registered with the type {@code stream} and this alias, only
+     * for streams that have an alias. For example the control of the
+     * stream with alias {@code myStreamAlias} of job {@code JOB_1} has
+     * the alias {@code JOB_1.myStreamAlias}.
+     * </p>
+     * @param jobId identifier of the job
+     * @param alias alias of the stream, may be null
+     * @return {@code jobId.alias}, null if {@code alias} is null
+     */
+    public static String jobAlias(String jobId, String alias) {
+        return alias == null ? null : jobId + "." + alias;
+    }
 }
@@ -0,0 +1,64 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.services;
+
+import java.util.List;
+
+import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.Supplier;
+
+/**
+ * Service providing metrics of the edges of jobs' graphs.
+ * <p>
+ * A runtime providing this service instruments the edges of each job's
+ * graph as the job is initialized, without adding oplets to the graph.
+ * Metrics are read on demand as {@link EdgeSnapshot snapshots}.
+ * The edges of a job are no longer reported once the job is closed.
+ */
+public interface EdgeMetricsService {
+
+    /**
+     * Get snapshots of the edges of all the instrumented jobs.
+     * @return the edges' snapshots
+     */
+    List<EdgeSnapshot> getSnapshot();
+
+    /**
+     * Get snapshots of the edges of a job.
+     * @param jobId the job's identifier
+     * @return the edges' snapshots, empty if the job is not instrumented
+     */
+    List<EdgeSnapshot> getSnapshot(String jobId);
+
+    /**
+     * Get the edges of a job, each supplier returns a snapshot of
+     * its edge only, so that a single edge's metrics can be read
+     * without taking a snapshot of all the job's edges.
+     * @param jobId the job's identifier
+     * @return the suppliers of the edges' snapshots, empty if the job is not instrumented
+     */
+    List<Supplier<EdgeSnapshot>> getEdges(String jobId);
+
+    /**
+     * Adds a listener notified with a job's identifier
+     * once the job's edges are instrumented.
+     * @param listener the listener
+     */
+    void addListener(Consumer<String> listener);
+}
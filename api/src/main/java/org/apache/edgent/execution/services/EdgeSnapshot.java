@@ -0,0 +1,135 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.services;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time metrics of a stream's edge, the connection from an
+ * oplet's output port to another oplet's input port.
+ * 
+ * @see EdgeMetricsService
+ */
+public final class EdgeSnapshot {
+    private final String jobId;
+    private final String sourceId;
+    private final int sourcePort;
+    private final String targetId;
+    private final int targetPort;
+    private final long tupleCount;
+    private final long latencySamples;
+    private final long latencyTotal;
+    private final long latencyMax;
+
+    /**
+     * Creates an edge snapshot.
+     * 
+     * @param jobId identifier of the edge's job
+     * @param sourceId identifier of the oplet submitting tuples on the edge
+     * @param sourcePort index of the source oplet's output port
+     * @param targetId identifier of the oplet receiving the edge's tuples
+     * @param targetPort index of the target oplet's input port
+     * @param tupleCount number of tuples submitted on the edge
+     * @param latencySamples number of tuples whose latency was sampled
+     * @param latencyTotal total latency of the sampled tuples, in nanoseconds
+     * @param latencyMax maximum latency of the sampled tuples, in nanoseconds
+     */
+    public EdgeSnapshot(String jobId, String sourceId, int sourcePort, String targetId, int targetPort,
+            long tupleCount, long latencySamples, long latencyTotal, long latencyMax) {
+        this.jobId = jobId;
+        this.sourceId = sourceId;
+        this.sourcePort = sourcePort;
+        this.targetId = targetId;
+        this.targetPort = targetPort;
+        this.tupleCount = tupleCount;
+        this.latencySamples = latencySamples;
+        this.latencyTotal = latencyTotal;
+        this.latencyMax = latencyMax;
+    }
+
+    /**
+     * Get the identifier of the edge's job.
+     * @return the job identifier
+     */
+    public String getJobId() { return jobId; }
+
+    /**
+     * Get the identifier of the oplet submitting tuples on the edge.
+     * @return the oplet identifier
+     */
+    public String getSourceId() { return sourceId; }
+
+    /**
+     * Get the index of the source oplet's output port.
+     * @return the port index
+     */
+    public int getSourcePort() { return sourcePort; }
+
+    /**
+     * Get the identifier of the oplet receiving the edge's tuples.
+     * @return the oplet identifier
+     */
+    public String getTargetId() { return targetId; }
+
+    /**
+     * Get the index of the target oplet's input port.
+     * @return the port index
+     */
+    public int getTargetPort() { return targetPort; }
+
+    /**
+     * Get the number of tuples submitted on the edge.
+     * @return the tuple count
+     */
+    public long getTupleCount() { return tupleCount; }
+
+    /**
+     * Get the number of tuples whose latency was sampled.
+     * <p>
+     * The latency of a tuple is the time taken by the target oplet,
+     * and the oplets it synchronously submits tuples to, to process it.
+     * @return the number of samples
+     */
+    public long getLatencySampleCount() { return latencySamples; }
+
+    /**
+     * Get the mean latency of the sampled tuples.
+     * @param unit time unit of the returned value
+     * @return the mean latency, 0 if no tuples were sampled
+     */
+    public long getMeanLatency(TimeUnit unit) {
+        return latencySamples == 0 ? 0 : unit.convert(latencyTotal / latencySamples, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the maximum latency of the sampled tuples.
+     * @param unit time unit of the returned value
+     * @return the maximum latency, 0 if no tuples were sampled
+     */
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(latencyMax, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s[%d]->%s[%d] tuples:%d latency(ns) samples:%d mean:%d max:%d",
+                jobId, sourceId, sourcePort, targetId, targetPort, tupleCount,
+                latencySamples, getMeanLatency(TimeUnit.NANOSECONDS), latencyMax);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.services;
+
+import java.util.Set;
+
+/**
+ * Service holding a library of named functions that can replace
+ * the functions of running oplets.
+ * <p>
+ * When a job provides this service, oplets supporting replacement of
+ * their function register a {@link org.apache.edgent.execution.mbeans.FunctionMXBean FunctionMXBean}
+ * control with the {@link ControlService}. Invoking the control
+ * with the name of a registered function changes the oplet's
+ * processing without restarting its job.
+ * <p>
+ * The type of a function is not checked against the tuple types of the
+ * oplet it replaces the function of, other than the function's interface,
+ * e.g. {@link org.apache.edgent.function.Predicate Predicate}.
+ */
+public interface FunctionLibraryService {
+
+    /**
+     * Register a function.
+     * A function previously registered with the same name is replaced,
+     * oplets using the previous function continue to use it.
+     * @param name the function's name
+     * @param function the function
+     */
+    void registerFunction(String name, Object function);
+
+    /**
+     * Unregister a function.
+     * Oplets using the function continue to use it.
+     * @param name the function's name
+     */
+    void unregisterFunction(String name);
+
+    /**
+     * Get a registered function.
+     * @param <F> the function's type
+     * @param name the function's name
+     * @param functionType the function interface
+     * @return the function, or {@code null} if no function
+     *         of {@code functionType} is registered as {@code name}
+     */
+    <F> F getFunction(String name, Class<F> functionType);
+
+    /**
+     * Get the names of the registered functions.
+     * @return the names
+     */
+    Set<String> getFunctionNames();
+}
@@ -0,0 +1,56 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.execution.services;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service that executes periodic tasks with compatible periods
+ * in a single pass of a shared periodic tick.
+ * <p>
+ * When a job provides this service periodic sources, such as those
+ * created by {@link org.apache.edgent.topology.Topology#poll(org.apache.edgent.function.Supplier, long, TimeUnit) Topology.poll},
+ * are polled by the service rather than each being scheduled
+ * independently, so that many polled sources with the same period
+ * cause a single wakeup per period.
+ * <p>
+ * A task's period may be adjusted by the implementation so that it
+ * can share a tick with other tasks. A task's first execution is
+ * on the tick of its group nearest to {@code initialDelay} after
+ * it was scheduled.
+ */
+public interface PollGroupService {
+
+    /**
+     * Schedule a periodic task.
+     * <p>
+     * The task is executed until the returned future is cancelled or the
+     * task throws an exception. An exception thrown by a task is thrown
+     * by the group's tick once all the tasks of the pass have executed.
+     *
+     * @param task the task to execute periodically
+     * @param initialDelay delay before the task's first execution
+     * @param period the period between executions
+     * @param unit time unit of {@code initialDelay} and {@code period}
+     * @return future used to cancel the task
+     * @throws IllegalArgumentException if {@code period} is not positive
+     */
+    Future<?> schedule(Runnable task, long initialDelay, long period, TimeUnit unit);
+}
@@ -0,0 +1,45 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.function;
+
+import java.util.List;
+
+/**
+ * Function that consumes values, optionally a batch at a time.
+ * <P>
+ * Oplets, and sink functions, implementing {@code BatchConsumer}
+ * are passed batches of tuples, for example those taken together from
+ * the queue of an isolated stream, amortizing the per-tuple cost of
+ * their processing across the batch.
+ * Processing a batch must be equivalent to calling {@link #accept(Object)}
+ * for each of its values, in order.
+ * </P>
+ *
+ * @param <T> Type of function argument.
+ * @see Functions#acceptBatch(Consumer, List)
+ */
+public interface BatchConsumer<T> extends Consumer<T> {
+    
+    /**
+     * Apply the function to each of {@code values}, in order.
+     * The list must not be modified or retained.
+     * @param values Values function is applied to.
+     */
+    void acceptBatch(List<T> values);
+}
@@ -0,0 +1,55 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.function;
+
+import java.io.Serializable;
+
+/**
+ * State that can be saved and restored across executions of a job.
+ * <p>
+ * Implemented by stateful oplets and by the stateful functions of
+ * functional oplets. A runtime that checkpoints jobs periodically calls
+ * {@link #snapshotState()} on a thread other than the tuple processing
+ * threads, and calls {@link #restoreState(Serializable)} with the last
+ * saved state when the job is resubmitted, after the oplet is
+ * initialized and before it is started.
+ * <p>
+ * Taking a snapshot must not wait for tuple processing to pause, an
+ * implementation only needs to briefly exclude concurrent modification
+ * while it copies its state. Encoding and storing the snapshot are
+ * performed by the runtime after {@code snapshotState()} returns.
+ */
+public interface Checkpointable {
+
+    /**
+     * Take a snapshot of the current state.
+     * <p>
+     * The returned value must not be modified by subsequent
+     * processing, and its contents must be serializable.
+     * 
+     * @return the snapshot, or {@code null} if there is no state to save.
+     */
+    Serializable snapshotState();
+
+    /**
+     * Restore the state from a snapshot.
+     * @param state a snapshot previously returned by {@link #snapshotState()}.
+     */
+    void restoreState(Serializable state);
+}
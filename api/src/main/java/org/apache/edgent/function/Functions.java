@@ -19,11 +19,13 @@ under the License.
 package org.apache.edgent.function;
 
 import java.io.File;
+import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
@@ -90,6 +92,31 @@ public class Functions {
             closeable.close();
     }
     
+    /**
+     * Take a snapshot of the function's state.
+     * If {@code function} is an instance of {@link Checkpointable}
+     * then its {@code snapshotState()} is returned, otherwise {@code null}.
+     * @param function Function to take the snapshot of.
+     * @return the function's state, {@code null} if it has no state to save.
+     */
+    public static Serializable snapshotFunction(Object function) {
+        Checkpointable checkpointable = WrappedFunction.unwrap(Checkpointable.class, function);
+        return checkpointable == null ? null : checkpointable.snapshotState();
+    }
+
+    /**
+     * Restore the function's state.
+     * If {@code function} is an instance of {@link Checkpointable}
+     * then its {@code restoreState(state)} is called, otherwise no action is taken.
+     * @param function Function to restore.
+     * @param state the function's state, as returned by {@link #snapshotFunction(Object)}.
+     */
+    public static void restoreFunction(Object function, Serializable state) {
+        Checkpointable checkpointable = WrappedFunction.unwrap(Checkpointable.class, function);
+        if (checkpointable != null)
+            checkpointable.restoreState(state);
+    }
+    
     /**
      * Return a thread-safe version of a {@code Function} function.
      * If the function is guaranteed to be immutable (stateless)
@@ -172,7 +199,8 @@ public class Functions {
      * If the function is guaranteed to be immutable (stateless)
      * then the function is returned, as it is thread safe,
      * otherwise a wrapper is returned that grabs synchronization
-     * on {@code function} when calling {@link Consumer#accept(Object)}.
+     * on {@code function} when calling {@link Consumer#accept(Object)},
+     * or once for a batch when calling {@link BatchConsumer#acceptBatch(List)}.
      * <BR>
      * If {@code function} implements {@code AutoCloseable} then
      * the function is assumed to be stateful and a thread-safe
@@ -190,7 +218,7 @@ public class Functions {
     }
 
     private static class ThreadSafeConsumer<T>
-              extends WrappedFunction<Consumer<T>> implements Consumer<T> {
+              extends WrappedFunction<Consumer<T>> implements BatchConsumer<T> {
         private static final long serialVersionUID = 1L;
 
         ThreadSafeConsumer(Consumer<T> function) {
@@ -204,6 +232,14 @@ public class Functions {
                 function.accept(value);
             }
         }       
+
+        @Override
+        public void acceptBatch(List<T> values) {
+            final Consumer<T> function = f();
+            synchronized (function) {
+                Functions.acceptBatch(function, values);
+            }
+        }
     }
     
     /**
@@ -377,6 +413,24 @@ public class Functions {
         return (Consumer<T>) DISCARDER;
     }
     
+    /**
+     * Pass a batch of values to a consumer.
+     * If {@code consumer} implements {@link BatchConsumer} then
+     * {@code acceptBatch} is called, otherwise {@code accept}
+     * is called for each value.
+     * @param <T> tuple type
+     * @param consumer Consumer the values are passed to.
+     * @param values Values passed to {@code consumer}.
+     */
+    public static <T> void acceptBatch(Consumer<T> consumer, List<T> values) {
+        if (consumer instanceof BatchConsumer) {
+            ((BatchConsumer<T>) consumer).acceptBatch(values);
+            return;
+        }
+        for (T value : values)
+            consumer.accept(value);
+    }
+    
     /**
      * A Predicate that is always true.
      */
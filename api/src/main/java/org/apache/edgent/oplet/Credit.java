@@ -0,0 +1,79 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.oplet;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credit for submitting tuples without blocking downstream processing.
+ * <P>
+ * An oplet that queues its input tuples for processing by another
+ * thread, such as {@link org.apache.edgent.oplet.plumbing.Isolate Isolate},
+ * grants credit for its input port using
+ * {@link OpletContext#setInputCredit(int, Credit)}, typically the
+ * free capacity of its queue.
+ * The credit of an output port, returned by
+ * {@link OpletContext#getOutputCredit(int)}, is the smallest credit
+ * granted by the oplets reached from the port through oplets
+ * that process tuples synchronously.
+ * </P>
+ * <P>
+ * A source honors its output port's credit by waiting for credit
+ * before obtaining a tuple from its external system, rather
+ * than blocking while submitting the tuple.
+ * </P>
+ */
+public interface Credit {
+
+    /**
+     * Credit that is never exhausted.
+     */
+    Credit UNBOUNDED = new Credit() {
+        @Override
+        public long available() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public long await(long timeout, TimeUnit unit) {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public String toString() {
+            return "unbounded";
+        }
+    };
+
+    /**
+     * Get the number of tuples that can currently be submitted
+     * without blocking.
+     * @return the available credit
+     */
+    long available();
+
+    /**
+     * Wait until credit is available.
+     * @param timeout maximum time to wait
+     * @param unit time unit of {@code timeout}
+     * @return the available credit, zero if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    long await(long timeout, TimeUnit unit) throws InterruptedException;
+}
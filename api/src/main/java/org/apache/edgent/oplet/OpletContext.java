@@ -81,6 +81,35 @@ public interface OpletContext<I, O> extends RuntimeServices {
      */
     List<OutputPortContext> getOutputContext();
 
+    /**
+     * Get the credit of an output port.
+     * <P>
+     * The credit is the number of tuples that can be submitted on the port
+     * without blocking an asynchronous boundary of the downstream processing.
+     * The credit of a port is only meaningful once the oplet has been started.
+     * </P>
+     * @param port index of the output port
+     * @return the port's credit, {@link Credit#UNBOUNDED} if the downstream
+     *         processing does not bound it
+     * @see Credit
+     */
+    Credit getOutputCredit(int port);
+
+    /**
+     * Grant credit for an input port.
+     * <P>
+     * Called during {@link Oplet#initialize(OpletContext) initialization} by an oplet
+     * that does not process its input tuples synchronously, for example
+     * an oplet that queues them for processing by another thread.
+     * The credit of an input port not set by the oplet is the
+     * credit of the oplet's output ports.
+     * </P>
+     * @param port index of the input port
+     * @param credit credit granted for the port
+     * @see Credit
+     */
+    void setInputCredit(int port, Credit credit);
+
     /**
      * Get the job hosting this oplet. 
      * @return {@link JobContext} hosting this oplet invocation.
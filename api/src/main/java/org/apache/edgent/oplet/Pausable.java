@@ -0,0 +1,46 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.oplet;
+
+/**
+ * An oplet that can pause processing while its job is paused.
+ * <p>
+ * When a job is paused the runtime calls {@link #pause()} on each of its
+ * oplets implementing this interface, and {@link #resume()} when the
+ * job is resumed. Both are called on a thread other than the tuple
+ * processing threads and must not wait for processing to stop.
+ * <p>
+ * Source oplets stop obtaining tuples from their external systems while
+ * paused. Other oplets continue to process the tuples already submitted,
+ * so that in-flight tuples drain from the job's queues.
+ * 
+ * @see org.apache.edgent.execution.Job.Action#PAUSE
+ */
+public interface Pausable {
+
+    /**
+     * Pause processing.
+     */
+    void pause();
+
+    /**
+     * Resume processing after {@link #pause()}.
+     */
+    void resume();
+}
@@ -22,8 +22,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.edgent.function.BatchConsumer;
 import org.apache.edgent.function.BiFunction;
 import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.Functions;
 import org.apache.edgent.oplet.OpletContext;
 
 /**
@@ -92,10 +94,27 @@ public class FanIn<T,U> extends AbstractOplet<T, U> {
      * @return the Consumer
      */
     protected Consumer<T> consumer(int iportIndex) {
-      return tuple -> { 
-        U result = receiver.apply(tuple, iportIndex);
-        if (result != null)
-          submit(result);
+      return new BatchConsumer<T>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void accept(T tuple) {
+          U result = receiver.apply(tuple, iportIndex);
+          if (result != null)
+            submit(result);
+        }
+
+        @Override
+        public void acceptBatch(List<T> tuples) {
+          List<U> results = new ArrayList<>(tuples.size());
+          for (T tuple : tuples) {
+            U result = receiver.apply(tuple, iportIndex);
+            if (result != null)
+              results.add(result);
+          }
+          if (!results.isEmpty())
+            submitBatch(results);
+        }
       };
     }
 
@@ -110,6 +129,14 @@ public class FanIn<T,U> extends AbstractOplet<T, U> {
     protected void submit(U tuple) {
         getDestination().accept(tuple);
     }
+    
+    /**
+     * Submit a batch of tuples to single output.
+     * @param tuples Tuples to be submitted, in order.
+     */
+    protected void submitBatch(List<U> tuples) {
+        Functions.acceptBatch(getDestination(), tuples);
+    }
 
     @Override
     public void close() {
@@ -21,9 +21,11 @@ package org.apache.edgent.oplet.core;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.edgent.function.BatchConsumer;
 import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.Functions;
 
-public final class FanOut<T> extends AbstractOplet<T, T> implements Consumer<T> {
+public final class FanOut<T> extends AbstractOplet<T, T> implements BatchConsumer<T> {
     
     /**
      * 
@@ -50,6 +52,12 @@ public final class FanOut<T> extends AbstractOplet<T, T> implements Consumer<T>
             targets.get(i).accept(tuple);
     }
 
+    @Override
+    public void acceptBatch(List<T> tuples) {
+        for (int i = 0; i < n; i++)
+            Functions.acceptBatch(targets.get(i), tuples);
+    }
+
     @Override
     public void close() {
     }
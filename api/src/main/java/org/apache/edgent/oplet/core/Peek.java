@@ -18,6 +18,8 @@ under the License.
 */
 package org.apache.edgent.oplet.core;
 
+import java.util.List;
+
 /**
  * Oplet that allows a peek at each tuple and always forwards a tuple onto
  * its single output port.
@@ -38,5 +40,12 @@ public abstract class Peek<T> extends Pipe<T, T> {
         submit(tuple);
     }
 
+    @Override
+    public final void acceptBatch(List<T> tuples) {
+        for (T tuple : tuples)
+            peek(tuple);
+        submitBatch(tuples);
+    }
+
     protected abstract void peek(T tuple);
 }
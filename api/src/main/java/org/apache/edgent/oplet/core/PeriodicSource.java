@@ -18,12 +18,14 @@ under the License.
 */
 package org.apache.edgent.oplet.core;
 
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.edgent.execution.mbeans.PeriodMXBean;
 import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.execution.services.Controls;
+import org.apache.edgent.execution.services.PollGroupService;
 import org.apache.edgent.oplet.OpletContext;
 import org.apache.edgent.oplet.OutputPortContext;
 
@@ -34,7 +36,8 @@ public abstract class PeriodicSource<T> extends Source<T> implements Runnable, P
 
     private long period;
     private TimeUnit unit;
-    private ScheduledFuture<?> future;
+    private Future<?> future;
+    private String controlId;
 
     protected PeriodicSource(long period, TimeUnit unit) {
         this.period = period;
@@ -49,13 +52,12 @@ public abstract class PeriodicSource<T> extends Source<T> implements Runnable, P
     @Override
     public synchronized void start() {
         ControlService cs = getOpletContext().getService(ControlService.class);
-        // TODO BUG HERE: the control alias needs to be unique across the
-        // entire provider instance (multiple topologies) because the ControlService
-        // is provider-wide, not org.apache.edgent.org.apache.edgent.topology specific.
-        // Scope it with just the jobId.  What's going to unregister this control?
-        if (cs != null)
-            cs.registerControl(TSTREAM_TYPE, getOpletContext().uniquify(getClass().getSimpleName()), 
-                    getAlias(), PeriodMXBean.class, this);
+        // the control service is provider-wide, the alias is scoped by the job
+        String alias = getAlias();
+        if (cs != null && alias != null)
+            controlId = cs.registerControl(TSTREAM_TYPE, getOpletContext().uniquify(getClass().getSimpleName()), 
+                    Controls.jobAlias(getOpletContext().getJobContext().getId(), alias),
+                    PeriodMXBean.class, this);
         schedule(false);
     }
     
@@ -64,7 +66,22 @@ public abstract class PeriodicSource<T> extends Source<T> implements Runnable, P
         return oc.getAlias();
     }
 
+    @Override
+    public void close() throws Exception {
+        if (controlId != null) {
+            ControlService cs = getOpletContext().getService(ControlService.class);
+            if (cs != null)
+                cs.unregister(controlId);
+            controlId = null;
+        }
+    }
+
     private synchronized void schedule(boolean delay) {
+        PollGroupService pollGroups = getOpletContext().getService(PollGroupService.class);
+        if (pollGroups != null) {
+            future = pollGroups.schedule(getRunnable(), delay ? getPeriod() : 0, getPeriod(), getUnit());
+            return;
+        }
         future = getOpletContext().getService(ScheduledExecutorService.class).scheduleAtFixedRate(
                 getRunnable(), delay ? getPeriod() : 0, getPeriod(), getUnit());
     }
@@ -75,8 +92,15 @@ public abstract class PeriodicSource<T> extends Source<T> implements Runnable, P
 
     protected abstract void fetchTuples() throws Exception;
 
+    /**
+     * Fetch the tuples, unless the source is paused.
+     * The source remains scheduled while it is paused,
+     * its periods elapse without fetching tuples.
+     */
     @Override
     public void run() {
+        if (isPaused())
+            return;
         try {
             fetchTuples();
         } catch (Exception e) {
@@ -21,18 +21,27 @@ package org.apache.edgent.oplet.core;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.edgent.function.BatchConsumer;
 import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.Functions;
 import org.apache.edgent.oplet.OpletContext;
 
 /**
  * Pipe oplet with a single input and output. 
+ * <P>
+ * A batch of input tuples is processed by {@link #acceptBatch(List)},
+ * which by default calls {@link #accept(Object)} for each tuple.
+ * Subclasses may override it to process the batch as a whole, and
+ * use {@link #submitBatch(List)} to pass a batch of output tuples
+ * downstream.
+ * </P>
  *
  * @param <I>
  *            Data container type for input tuples.
  * @param <O>
  *            Data container type for output tuples.
  */
-public abstract class Pipe<I, O> extends AbstractOplet<I, O>implements Consumer<I> {
+public abstract class Pipe<I, O> extends AbstractOplet<I, O>implements BatchConsumer<I> {
     private static final long serialVersionUID = 1L;
 
     private Consumer<O> destination;
@@ -64,4 +73,24 @@ public abstract class Pipe<I, O> extends AbstractOplet<I, O>implements Consumer<
     protected void submit(O tuple) {
         getDestination().accept(tuple);
     }
+    
+    /**
+     * Process a batch of input tuples, calling {@link #accept(Object)}
+     * for each tuple.
+     * @param tuples Tuples to be processed.
+     */
+    @Override
+    public void acceptBatch(List<I> tuples) {
+        for (I tuple : tuples)
+            accept(tuple);
+    }
+    
+    /**
+     * Submit a batch of tuples to single output.
+     * @param tuples Tuples to be submitted, in order.
+     * @see Functions#acceptBatch(Consumer, List)
+     */
+    protected void submitBatch(List<O> tuples) {
+        Functions.acceptBatch(getDestination(), tuples);
+    }
 }
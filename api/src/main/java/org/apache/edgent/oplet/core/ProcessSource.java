@@ -25,10 +25,24 @@ public abstract class ProcessSource<T> extends Source<T>implements Runnable {
     @Override
     public void start() {
         Thread t = getOpletContext().getService(ThreadFactory.class).newThread(this);
-        t.setDaemon(false);
+        setNonDaemon(t);
         t.start();
     }
 
+    /**
+     * Mark a thread as non-daemon so the job does not complete while it runs.
+     * Virtual threads are always daemon threads, the job's runtime
+     * tracks them as non-daemon threads.
+     * @param t the thread
+     */
+    static void setNonDaemon(Thread t) {
+        try {
+            t.setDaemon(false);
+        } catch (IllegalArgumentException e) {
+            // virtual thread
+        }
+    }
+
     protected Runnable getRunnable() {
         return this;
     }
@@ -19,10 +19,14 @@ under the License.
 package org.apache.edgent.oplet.core;
 
 import static org.apache.edgent.function.Functions.closeFunction;
+import static org.apache.edgent.function.Functions.restoreFunction;
+import static org.apache.edgent.function.Functions.snapshotFunction;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.edgent.function.Checkpointable;
 import org.apache.edgent.function.Consumer;
 import org.apache.edgent.function.Functions;
 
@@ -31,10 +35,14 @@ import org.apache.edgent.function.Functions;
  * a {@link Consumer}.
  * If the {@code sinker} function implements {@code AutoCloseable}
  * then when this oplet is closed {@code sinker.close()} is called.
+ * If the {@code sinker} function implements
+ * {@link org.apache.edgent.function.BatchConsumer BatchConsumer}
+ * then batches of tuples are passed to {@code sinker.acceptBatch()},
+ * for example to write them to an external system together.
  *
  * @param <T> Tuple type.
  */
-public class Sink<T> extends AbstractOplet<T, Void> {
+public class Sink<T> extends AbstractOplet<T, Void> implements Checkpointable {
     
     private Consumer<T> sinker;
 
@@ -64,6 +72,16 @@ public class Sink<T> extends AbstractOplet<T, Void> {
     public void start() {
     }
     
+    @Override
+    public Serializable snapshotState() {
+        return snapshotFunction(getSinker());
+    }
+
+    @Override
+    public void restoreState(Serializable state) {
+        restoreFunction(getSinker(), state);
+    }
+
     @Override
     public void close() throws Exception {
         closeFunction(getSinker());
@@ -20,13 +20,19 @@ package org.apache.edgent.oplet.core;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.edgent.function.Consumer;
+import org.apache.edgent.oplet.Credit;
 import org.apache.edgent.oplet.OpletContext;
+import org.apache.edgent.oplet.Pausable;
 
-public abstract class Source<T> extends AbstractOplet<Void, T> {
+public abstract class Source<T> extends AbstractOplet<Void, T> implements Pausable {
 
     private Consumer<T> destination;
+    private volatile Credit credit;
+    private final Object pauseLock = new Object();
+    private volatile boolean paused;
 
     @Override
     public void initialize(OpletContext<Void, T> context) {
@@ -47,6 +53,77 @@ public abstract class Source<T> extends AbstractOplet<Void, T> {
         getDestination().accept(tuple);
     }
 
+    /**
+     * Get the credit of the single output.
+     * @return the output's credit
+     * @see OpletContext#getOutputCredit(int)
+     */
+    protected Credit getOutputCredit() {
+        Credit c = credit;
+        if (c == null)
+            credit = c = getOpletContext().getOutputCredit(0);
+        return c;
+    }
+
+    /**
+     * Wait until the source is not paused and the single output has
+     * credit, so that a tuple can be submitted without blocking.
+     * A source calls this before obtaining each tuple from its
+     * external system.
+     * @return {@code true} if the output has credit, {@code false} if
+     *         the thread was interrupted, leaving it interrupted
+     */
+    protected boolean awaitOutputCredit() {
+        Credit c = getOutputCredit();
+        try {
+            for (;;) {
+                awaitResume();
+                if (c.available() > 0)
+                    return true;
+                c.await(1, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Pause the source, {@link #awaitOutputCredit()} waits
+     * until the source is resumed.
+     */
+    @Override
+    public void pause() {
+        synchronized (pauseLock) {
+            paused = true;
+        }
+    }
+
+    @Override
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    /**
+     * Is the source paused.
+     * @return {@code true} if the source is paused
+     */
+    protected boolean isPaused() {
+        return paused;
+    }
+
+    private void awaitResume() throws InterruptedException {
+        if (!paused)
+            return;
+        synchronized (pauseLock) {
+            while (paused)
+                pauseLock.wait();
+        }
+    }
+
     @Override
     public final List<Consumer<Void>> getInputs() {
         return Collections.emptyList();
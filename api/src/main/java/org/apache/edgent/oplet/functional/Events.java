@@ -21,6 +21,7 @@ package org.apache.edgent.oplet.functional;
 
 import static org.apache.edgent.function.Functions.closeFunction;
 
+import java.util.ArrayDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 
@@ -32,16 +33,41 @@ import org.apache.edgent.oplet.core.Source;
  * This oplet implements {@link Consumer} which
  * can be called directly from an event handler,
  * listener or callback. 
+ * <P>
+ * While the job is paused events are buffered, up to a capacity,
+ * so that event handlers are not blocked. Once the buffer is full
+ * an event handler waits until the job is resumed.
+ * Buffered events are submitted, in order, when the job
+ * is resumed and before any subsequent events.
+ * </P>
  * 
  * @param <T> Data container type for output tuples.
  */
 public class Events<T> extends Source<T>implements Consumer<T> {
 
+    /** The default number of events buffered while paused, {@value}. */
+    public static final int DEFAULT_PAUSE_CAPACITY = 10000;
+
     private static final long serialVersionUID = 1L;
     private Consumer<Consumer<T>> eventSetup;
+    private final int pauseCapacity;
+    private final ArrayDeque<T> buffered = new ArrayDeque<>();
+    private boolean draining;
 
     public Events(Consumer<Consumer<T>> eventSetup) {
+        this(eventSetup, DEFAULT_PAUSE_CAPACITY);
+    }
+
+    /**
+     * Generate tuples from events.
+     * @param eventSetup function that registers the oplet with the event source
+     * @param pauseCapacity number of events buffered while the job is paused
+     */
+    public Events(Consumer<Consumer<T>> eventSetup, int pauseCapacity) {
+        if (pauseCapacity < 0)
+            throw new IllegalArgumentException("pauseCapacity");
         this.eventSetup = eventSetup;
+        this.pauseCapacity = pauseCapacity;
     }
 
     @Override
@@ -63,7 +89,11 @@ public class Events<T> extends Source<T>implements Consumer<T> {
                         // cancelled; we're done.
                     }
                 });
-        endlessEventSource.setDaemon(false);
+        try {
+            endlessEventSource.setDaemon(false);
+        } catch (IllegalArgumentException e) {
+            // virtual threads are always daemon, the runtime tracks them as non-daemon
+        }
         endlessEventSource.start();
 
         // It's possible for uses to do things like a blocking connect
@@ -73,8 +103,68 @@ public class Events<T> extends Source<T>implements Consumer<T> {
                     .submit(() -> eventSetup.accept(this));
     }
 
+    /**
+     * Submit an event's tuple, waiting for the output to have credit.
+     * The tuple is buffered if the job is paused, or buffered
+     * tuples are being submitted.
+     * The tuple is discarded if the calling thread is interrupted
+     * while waiting.
+     */
     @Override
     public void accept(T tuple) {
-        submit(tuple);
+        synchronized (buffered) {
+            if (isPaused() || draining) {
+                try {
+                    while (buffered.size() >= pauseCapacity && (isPaused() || draining))
+                        buffered.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (isPaused() || draining) {
+                    buffered.add(tuple);
+                    return;
+                }
+            }
+        }
+        if (awaitOutputCredit())
+            submit(tuple);
+    }
+
+    /**
+     * Resume the source, submitting the buffered tuples
+     * using the job's scheduler.
+     */
+    @Override
+    public void resume() {
+        boolean drain;
+        synchronized (buffered) {
+            drain = !draining && !buffered.isEmpty();
+            if (drain)
+                draining = true;
+        }
+        super.resume();
+        synchronized (buffered) {
+            buffered.notifyAll();
+        }
+        if (drain)
+            getOpletContext().getService(ScheduledExecutorService.class).execute(this::drain);
+    }
+
+    private void drain() {
+        for (;;) {
+            T tuple;
+            synchronized (buffered) {
+                tuple = buffered.poll();
+                if (tuple == null) {
+                    draining = false;
+                    buffered.notifyAll();
+                    return;
+                }
+                buffered.notifyAll();
+            }
+            if (awaitOutputCredit())
+                submit(tuple);
+        }
     }
 }
@@ -19,26 +19,140 @@ under the License.
 package org.apache.edgent.oplet.functional;
 
 import static org.apache.edgent.function.Functions.closeFunction;
+import static org.apache.edgent.function.Functions.restoreFunction;
+import static org.apache.edgent.function.Functions.snapshotFunction;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.edgent.execution.mbeans.FunctionMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.execution.services.Controls;
+import org.apache.edgent.execution.services.FunctionLibraryService;
+import org.apache.edgent.function.Checkpointable;
 import org.apache.edgent.function.Predicate;
+import org.apache.edgent.oplet.OutputPortContext;
 import org.apache.edgent.oplet.core.Pipe;
 
-public class Filter<T> extends Pipe<T, T> {
+/**
+ * Filter tuples using a predicate.
+ * <P>
+ * When the job provides a {@link FunctionLibraryService} and the filter's
+ * output stream has an alias, the filter registers a {@link FunctionMXBean}
+ * control with the {@link ControlService} with the type {@code stream} and
+ * the alias of its output stream qualified by the job,
+ * see {@link Controls#jobAlias(String, String)}.
+ * The control replaces the predicate with a {@link Predicate}
+ * registered with the library, while the job is running.
+ * The predicate is replaced between tuples, and between batches
+ * of tuples, the predicate provided when the filter was created
+ * is closed when the filter is closed.
+ * </P>
+ * <P>
+ * The state of the active predicate is {@link Checkpointable checkpointed}
+ * with the name of the library predicate, if one replaced the predicate.
+ * Restoring it replaces the predicate with the named library predicate
+ * before restoring its state, the state is not restored if the library
+ * no longer provides the predicate.
+ * </P>
+ *
+ * @param <T> Type of the tuples.
+ */
+public class Filter<T> extends Pipe<T, T> implements Checkpointable, FunctionMXBean {
     private static final long serialVersionUID = 1L;
-    private Predicate<T> filter;
+
+    // see comment in TStream.TYPE
+    private static final String TSTREAM_TYPE = /*TStream.TYPE*/"stream";
+
+    private final Predicate<T> initial;
+    private volatile Predicate<T> filter;
+    private volatile String name;
+    private String controlId;
 
     public Filter(Predicate<T> filter) {
+        this.initial = filter;
         this.filter = filter;
     }
 
+    @Override
+    public void start() {
+        super.start();
+        if (getOpletContext().getService(FunctionLibraryService.class) == null)
+            return;
+        ControlService cs = getOpletContext().getService(ControlService.class);
+        OutputPortContext oc = getOpletContext().getOutputContext().get(0);
+        if (cs != null && oc.getAlias() != null) {
+            controlId = cs.registerControl(TSTREAM_TYPE, getOpletContext().uniquify(getClass().getSimpleName()),
+                    Controls.jobAlias(getOpletContext().getJobContext().getId(), oc.getAlias()),
+                    FunctionMXBean.class, this);
+        }
+    }
+
     @Override
     public void accept(T tuple) {
         if (filter.test(tuple))
             submit(tuple);
     }
 
+    @Override
+    public void acceptBatch(List<T> tuples) {
+        final Predicate<T> filter = this.filter;
+        List<T> passed = new ArrayList<>(tuples.size());
+        for (T tuple : tuples) {
+            if (filter.test(tuple))
+                passed.add(tuple);
+        }
+        if (!passed.isEmpty())
+            submitBatch(passed);
+    }
+
+    @Override
+    public String getFunction() {
+        return name;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public synchronized void setFunction(String name) {
+        FunctionLibraryService library = getOpletContext().getService(FunctionLibraryService.class);
+        Predicate<T> replacement = library == null ? null : library.getFunction(name, Predicate.class);
+        if (replacement == null)
+            throw new IllegalArgumentException(name);
+        this.filter = replacement;
+        this.name = name;
+    }
+
+    @Override
+    public synchronized Serializable snapshotState() {
+        Serializable state = snapshotFunction(filter);
+        if (state == null && name == null)
+            return null;
+        return new Object[] {name, state};
+    }
+
+    @Override
+    public synchronized void restoreState(Serializable state) {
+        Object[] values = (Object[]) state;
+        String function = (String) values[0];
+        if (function != null) {
+            try {
+                setFunction(function);
+            } catch (IllegalArgumentException e) {
+                return;
+            }
+        }
+        restoreFunction(filter, (Serializable) values[1]);
+    }
+
     @Override
     public void close() throws Exception {
-        closeFunction(filter);
+        if (controlId != null) {
+            ControlService cs = getOpletContext().getService(ControlService.class);
+            if (cs != null)
+                cs.unregister(controlId);
+            controlId = null;
+        }
+        closeFunction(initial);
     }
 }
@@ -19,7 +19,12 @@ under the License.
 package org.apache.edgent.oplet.functional;
 
 import static org.apache.edgent.function.Functions.closeFunction;
+import static org.apache.edgent.function.Functions.restoreFunction;
+import static org.apache.edgent.function.Functions.snapshotFunction;
 
+import java.io.Serializable;
+
+import org.apache.edgent.function.Checkpointable;
 import org.apache.edgent.function.Function;
 import org.apache.edgent.oplet.core.Pipe;
 
@@ -39,7 +44,7 @@ import org.apache.edgent.oplet.core.Pipe;
  * @param <O>
  *            Data container type for output tuples.
  */
-public class FlatMap<I, O> extends Pipe<I, O> {
+public class FlatMap<I, O> extends Pipe<I, O> implements Checkpointable {
 	private static final long serialVersionUID = 1L;
 	
 	private Function<I, Iterable<O>> function;
@@ -59,6 +64,16 @@ public class FlatMap<I, O> extends Pipe<I, O> {
         }
     }
 
+    @Override
+    public Serializable snapshotState() {
+        return snapshotFunction(function);
+    }
+
+    @Override
+    public void restoreState(Serializable state) {
+        restoreFunction(function, state);
+    }
+
     @Override
     public void close() throws Exception {
         closeFunction(function);
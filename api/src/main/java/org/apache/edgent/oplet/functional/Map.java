@@ -19,7 +19,14 @@ under the License.
 package org.apache.edgent.oplet.functional;
 
 import static org.apache.edgent.function.Functions.closeFunction;
+import static org.apache.edgent.function.Functions.restoreFunction;
+import static org.apache.edgent.function.Functions.snapshotFunction;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.edgent.function.Checkpointable;
 import org.apache.edgent.function.Function;
 import org.apache.edgent.oplet.core.Pipe;
 
@@ -32,7 +39,7 @@ import org.apache.edgent.oplet.core.Pipe;
  * @param <O>
  *            Data container type for output tuples.
  */
-public class Map<I, O> extends Pipe<I, O> {
+public class Map<I, O> extends Pipe<I, O> implements Checkpointable {
     private static final long serialVersionUID = 1L;
     private Function<I, O> function;
 
@@ -47,6 +54,28 @@ public class Map<I, O> extends Pipe<I, O> {
             submit(output);
     }
 
+    @Override
+    public void acceptBatch(List<I> tuples) {
+        List<O> outputs = new ArrayList<>(tuples.size());
+        for (I tuple : tuples) {
+            O output = function.apply(tuple);
+            if (output != null)
+                outputs.add(output);
+        }
+        if (!outputs.isEmpty())
+            submitBatch(outputs);
+    }
+
+    @Override
+    public Serializable snapshotState() {
+        return snapshotFunction(function);
+    }
+
+    @Override
+    public void restoreState(Serializable state) {
+        restoreFunction(function, state);
+    }
+
     @Override
     public void close() throws Exception {
         closeFunction(function);
@@ -20,7 +20,12 @@ package org.apache.edgent.oplet.functional;
 
 
 import static org.apache.edgent.function.Functions.closeFunction;
+import static org.apache.edgent.function.Functions.restoreFunction;
+import static org.apache.edgent.function.Functions.snapshotFunction;
 
+import java.io.Serializable;
+
+import org.apache.edgent.function.Checkpointable;
 import org.apache.edgent.function.Consumer;
 
 /**
@@ -30,7 +35,7 @@ import org.apache.edgent.function.Consumer;
  *
  * @param <T> Tuple type.
  */
-public class Peek<T> extends org.apache.edgent.oplet.core.Peek<T> {
+public class Peek<T> extends org.apache.edgent.oplet.core.Peek<T> implements Checkpointable {
     private static final long serialVersionUID = 1L;
     private final Consumer<T> peeker;
 
@@ -51,6 +56,16 @@ public class Peek<T> extends org.apache.edgent.oplet.core.Peek<T> {
         peeker.accept(tuple);
     }
 
+    @Override
+    public Serializable snapshotState() {
+        return snapshotFunction(peeker);
+    }
+
+    @Override
+    public void restoreState(Serializable state) {
+        restoreFunction(peeker, state);
+    }
+
     @Override
     public void close() throws Exception {
         closeFunction(peeker);
@@ -42,6 +42,7 @@ public class SupplierPeriodicSource<T> extends PeriodicSource<T> {
 
     @Override
     public void close() throws Exception {
+        super.close();
         closeFunction(data);
     }
 
@@ -20,6 +20,8 @@ package org.apache.edgent.oplet.functional;
 
 import static org.apache.edgent.function.Functions.closeFunction;
 
+import java.util.Iterator;
+
 import org.apache.edgent.function.Supplier;
 import org.apache.edgent.oplet.OpletContext;
 import org.apache.edgent.oplet.core.ProcessSource;
@@ -45,9 +47,15 @@ public class SupplierSource<T> extends ProcessSource<T> {
         closeFunction(data);
     }
 
+    /**
+     * Submit the tuples of the supplied iterable, only obtaining each
+     * tuple from the iterable once the output has credit.
+     */
     @Override
     public void process() {
-        for (T tuple : data.get()) {
+        Iterator<T> tuples = data.get().iterator();
+        while (awaitOutputCredit() && tuples.hasNext()) {
+            T tuple = tuples.next();
             if (tuple != null)
                 submit(tuple);
 
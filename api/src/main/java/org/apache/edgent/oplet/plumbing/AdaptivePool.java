@@ -0,0 +1,350 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.oplet.plumbing;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.edgent.execution.mbeans.ParallelMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.function.ToIntFunction;
+import org.apache.edgent.oplet.OpletContext;
+import org.apache.edgent.oplet.core.Pipe;
+
+/**
+ * A work-stealing pool of channels whose active width adapts to the load.
+ * <P>
+ * The pool is the splitter function of a split stream with
+ * {@code maxWidth} channels, each channel starts with a
+ * {@link #newWorker(int) worker} oplet. A worker queues the tuples
+ * it is sent, and its thread processes them through the channel's
+ * downstream pipeline. A worker with an empty queue steals
+ * from the tail of the other workers' queues, so a channel processing
+ * an expensive tuple does not delay the tuples queued behind it.
+ * </P><P>
+ * Tuples are sent to the least loaded of the first {@code activeWidth}
+ * channels, the other workers are idle.
+ * The splitter blocks while {@code 2 * maxWidth} tuples are queued.
+ * Each {@code adaptPeriod} the active width is adjusted by one:
+ * <UL>
+ * <LI>increased when tuples were waiting to be processed,</LI>
+ * <LI>decreased when the rate of tuples times their mean latency,
+ * the number of busy channels needed, fits in fewer channels.</LI>
+ * </UL>
+ * The widths, queue depth and latency are available from
+ * the pool's {@link ParallelMXBean} control, which can also set the
+ * active width.
+ * </P>
+ *
+ * @param <T> Type of the tuple.
+ */
+public class AdaptivePool<T> implements ToIntFunction<T>, ParallelMXBean, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /** The default adjustment period, in milliseconds. */
+    public static final long DEFAULT_ADAPT_PERIOD_MS = 500;
+    
+    private static final int QUEUE_PER_CHANNEL = 2;
+    // fraction of the remaining channels' capacity the load must fit in to shrink
+    private static final double SHRINK_HEADROOM = 0.75;
+    
+    private final int minWidth;
+    private final int maxWidth;
+    private final int capacity;
+    private final long adaptPeriodNanos;
+    private final List<LinkedBlockingDeque<T>> queues;
+    private final Semaphore permits;
+    private final Object idle = new Object();
+    private volatile int idleWaiters;
+    private volatile int activeWidth;
+    private volatile boolean adaptive = true;
+    private volatile long meanLatencyNanos;
+    
+    // guarded by this
+    private long windowStart;
+    private long windowArrivals;
+    private long windowDepth;
+    private final AtomicLong latencyCount = new AtomicLong();
+    private final AtomicLong latencyNanos = new AtomicLong();
+    private String controlId;
+    
+    /**
+     * Create a new pool adjusted every {@link #DEFAULT_ADAPT_PERIOD_MS}.
+     * @param minWidth minimum number of active channels
+     * @param maxWidth maximum number of active channels, and number of channels
+     */
+    public AdaptivePool(int minWidth, int maxWidth) {
+        this(minWidth, maxWidth, DEFAULT_ADAPT_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Create a new pool.
+     * @param minWidth minimum number of active channels
+     * @param maxWidth maximum number of active channels, and number of channels
+     * @param adaptPeriod period between adjustments of the active width
+     * @param unit unit of {@code adaptPeriod}
+     */
+    public AdaptivePool(int minWidth, int maxWidth, long adaptPeriod, TimeUnit unit) {
+        if (minWidth < 1)
+            throw new IllegalArgumentException("minWidth");
+        if (maxWidth < minWidth)
+            throw new IllegalArgumentException("maxWidth");
+        if (adaptPeriod <= 0)
+            throw new IllegalArgumentException("adaptPeriod");
+        this.minWidth = minWidth;
+        this.maxWidth = maxWidth;
+        this.capacity = QUEUE_PER_CHANNEL * maxWidth;
+        this.adaptPeriodNanos = unit.toNanos(adaptPeriod);
+        this.activeWidth = minWidth;
+        queues = new ArrayList<>(maxWidth);
+        for (int i = 0; i < maxWidth; i++)
+            queues.add(new LinkedBlockingDeque<T>());
+        permits = new Semaphore(capacity);
+        windowStart = System.nanoTime();
+    }
+    
+    /**
+     * Create the worker oplet for a channel.
+     * @param channel the 0-based channel number
+     * @return the oplet processing the channel's tuples
+     */
+    public Pipe<T,T> newWorker(int channel) {
+        if (channel < 0 || channel >= maxWidth)
+            throw new IllegalArgumentException("channel");
+        return new Worker(channel);
+    }
+    
+    /**
+     * Await space in the pool's queue and select the
+     * least loaded active channel for a tuple.
+     */
+    @Override
+    public int applyAsInt(T tuple) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted", e);
+        }
+        
+        synchronized (this) {
+            windowArrivals++;
+            // the tuples queued ahead of this one
+            windowDepth += getQueueDepth() - 1;
+            if (adaptive) {
+                long now = System.nanoTime();
+                if (now - windowStart >= adaptPeriodNanos)
+                    adapt(now);
+            }
+        }
+        
+        int width = activeWidth;
+        int channel = 0;
+        int depth = Integer.MAX_VALUE;
+        for (int ch = 0; ch < width; ch++) {
+            int d = queues.get(ch).size();
+            if (d < depth) {
+                depth = d;
+                channel = ch;
+                if (d == 0)
+                    break;
+            }
+        }
+        return channel;
+    }
+    
+    private void adapt(long now) {
+        long elapsed = now - windowStart;
+        long count = latencyCount.getAndSet(0);
+        long nanos = latencyNanos.getAndSet(0);
+        if (count != 0)
+            meanLatencyNanos = nanos / count;
+        
+        // tuples waiting on arrival, and the number of channels busy with the load
+        double meanDepth = (double) windowDepth / windowArrivals;
+        double busy = (double) windowArrivals / elapsed * meanLatencyNanos;
+        
+        int width = activeWidth;
+        if (meanDepth >= 1 && width < maxWidth)
+            setWidth(width + 1);
+        else if (meanDepth < 1 && width > minWidth && busy <= (width - 1) * SHRINK_HEADROOM)
+            setWidth(width - 1);
+        
+        windowStart = now;
+        windowArrivals = 0;
+        windowDepth = 0;
+    }
+    
+    private void setWidth(int width) {
+        activeWidth = width;
+        synchronized (idle) {
+            idle.notifyAll();
+        }
+    }
+    
+    private void queue(int channel, T tuple) {
+        queues.get(channel).addLast(tuple);
+        if (idleWaiters != 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+    
+    private T take(int channel) throws InterruptedException {
+        for (;;) {
+            T tuple = channel < activeWidth ? poll(channel) : null;
+            if (tuple != null) {
+                permits.release();
+                return tuple;
+            }
+            synchronized (idle) {
+                idleWaiters++;
+                try {
+                    if (channel >= activeWidth || getQueueDepth() == 0)
+                        idle.wait(TimeUnit.NANOSECONDS.toMillis(adaptPeriodNanos) + 1);
+                } finally {
+                    idleWaiters--;
+                }
+            }
+        }
+    }
+    
+    private T poll(int channel) {
+        T tuple = queues.get(channel).pollFirst();
+        for (int i = 1; tuple == null && i < maxWidth; i++)
+            tuple = queues.get((channel + i) % maxWidth).pollLast();
+        return tuple;
+    }
+    
+    private void processed(long start) {
+        latencyNanos.addAndGet(System.nanoTime() - start);
+        latencyCount.incrementAndGet();
+    }
+    
+    @Override
+    public int getMinWidth() {
+        return minWidth;
+    }
+    
+    @Override
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+    
+    @Override
+    public int getActiveWidth() {
+        return activeWidth;
+    }
+    
+    @Override
+    public void setActiveWidth(int width) {
+        if (width < minWidth || width > maxWidth)
+            throw new IllegalArgumentException("width");
+        synchronized (this) {
+            setWidth(width);
+        }
+    }
+    
+    @Override
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+    
+    @Override
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+    
+    @Override
+    public int getQueueDepth() {
+        return capacity - permits.availablePermits();
+    }
+    
+    @Override
+    public long getMeanLatency() {
+        return TimeUnit.NANOSECONDS.toMicros(meanLatencyNanos);
+    }
+    
+    /**
+     * Queues the tuples sent to a channel and
+     * processes the pool's tuples on its own thread.
+     */
+    private class Worker extends Pipe<T,T> {
+        private static final long serialVersionUID = 1L;
+        private final int channel;
+        private Thread thread;
+        
+        Worker(int channel) {
+            this.channel = channel;
+        }
+        
+        @Override
+        public void initialize(OpletContext<T, T> context) {
+            super.initialize(context);
+            thread = context.getService(ThreadFactory.class).newThread(() -> run());
+        }
+        
+        @Override
+        public void start() {
+            super.start();
+            if (channel == 0) {
+                ControlService cs = getOpletContext().getService(ControlService.class);
+                if (cs != null)
+                    controlId = cs.registerControl(ParallelMXBean.TYPE, getOpletContext().uniquify(AdaptivePool.class.getSimpleName()),
+                            null, ParallelMXBean.class, AdaptivePool.this);
+            }
+            thread.start();
+        }
+        
+        @Override
+        public void accept(T tuple) {
+            queue(channel, tuple);
+        }
+        
+        private void run() {
+            while (!Thread.interrupted()) {
+                try {
+                    T tuple = take(channel);
+                    final long start = System.nanoTime();
+                    submit(tuple);
+                    processed(start);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+        
+        @Override
+        public void close() throws Exception {
+            if (channel == 0 && controlId != null) {
+                ControlService cs = getOpletContext().getService(ControlService.class);
+                if (cs != null)
+                    cs.unregister(controlId);
+                controlId = null;
+            }
+        }
+    }
+}
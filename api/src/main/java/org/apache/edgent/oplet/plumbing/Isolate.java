@@ -18,9 +18,16 @@ under the License.
 */
 package org.apache.edgent.oplet.plumbing;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.edgent.execution.mbeans.FlowControlMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.oplet.Credit;
 import org.apache.edgent.oplet.OpletContext;
 import org.apache.edgent.oplet.core.Pipe;
 
@@ -30,14 +37,34 @@ import org.apache.edgent.oplet.core.Pipe;
  * Input tuples are placed at the tail of a queue
  * and dedicated thread removes them from the
  * head and is used for downstream processing.
+ * <P>
+ * The free capacity of a bounded queue is granted as
+ * {@link Credit credit} for the input port, and the queue's depth
+ * and the time upstream processing was blocked, waiting for credit
+ * or for space in the queue, are available from the oplet's
+ * {@link FlowControlMXBean} control.
+ * </P><P>
+ * Optionally the thread removes up to {@code maxBatchSize} tuples
+ * at a time, waiting up to {@code maxBatchLatency} for the batch
+ * to fill, and passes them downstream as a batch,
+ * see {@link org.apache.edgent.function.BatchConsumer BatchConsumer}.
+ * </P>
  *
  * @param <T> Type of the tuple.
  */
-public class Isolate<T> extends Pipe<T,T> {
+public class Isolate<T> extends Pipe<T,T> implements FlowControlMXBean {
     private static final long serialVersionUID = 1L;
     
     private Thread thread;
     private final LinkedBlockingQueue<T> tuples;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final long maxBatchLatencyNanos;
+    private final Object creditLock = new Object();
+    private volatile int creditWaiters;
+    private final AtomicLong blockedCount = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+    private String controlId;
     
     /**
      * Create a new Isolate oplet.
@@ -55,43 +82,181 @@ public class Isolate<T> extends Pipe<T,T> {
      *          {@link #accept(Object) accept} blocks when the queue is full.
      */
     public Isolate(int queueCapacity) {
+      this(queueCapacity, 1, 0, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Create a new Isolate oplet passing batches of tuples downstream.
+     * @param queueCapacity size of the queue between the input stream
+     *          and the output stream.
+     *          {@link #accept(Object) accept} blocks when the queue is full.
+     * @param maxBatchSize maximum number of tuples passed downstream
+     *          as a batch, 1 to pass each tuple individually.
+     * @param maxBatchLatency maximum time to wait for a batch to fill,
+     *          from the removal of its first tuple, 0 to only batch the
+     *          tuples already in the queue.
+     * @param unit unit of {@code maxBatchLatency}
+     */
+    public Isolate(int queueCapacity, int maxBatchSize, long maxBatchLatency, TimeUnit unit) {
+      if (maxBatchSize < 1)
+        throw new IllegalArgumentException("maxBatchSize");
+      if (maxBatchLatency < 0)
+        throw new IllegalArgumentException("maxBatchLatency");
       tuples = new LinkedBlockingQueue<>(queueCapacity);
+      this.queueCapacity = queueCapacity;
+      this.maxBatchSize = maxBatchSize;
+      this.maxBatchLatencyNanos = unit.toNanos(maxBatchLatency);
     }
     
     @Override
     public void initialize(OpletContext<T, T> context) {
         super.initialize(context);
         thread = context.getService(ThreadFactory.class).newThread(() -> run());
+        context.setInputCredit(0, queueCapacity == Integer.MAX_VALUE ? Credit.UNBOUNDED : new QueueCredit());
     }
    
     @Override
     public void start() {
         super.start();
+        ControlService cs = getOpletContext().getService(ControlService.class);
+        if (cs != null)
+            controlId = cs.registerControl(FlowControlMXBean.TYPE, getOpletContext().uniquify(getClass().getSimpleName()),
+                    null, FlowControlMXBean.class, this);
         thread.start();
     }
 
     @Override
     public void accept(T tuple) {
+        if (tuples.offer(tuple))
+            return;
+        final long start = System.nanoTime();
         try {
             tuples.put(tuple);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException(e);
-        }      
+        } finally {
+            blocked(start);
+        }
+    }
+
+    private void blocked(long start) {
+        blockedCount.incrementAndGet();
+        blockedNanos.addAndGet(System.nanoTime() - start);
     }
 
     private void run() {
+        final List<T> batch = maxBatchSize == 1 ? null : new ArrayList<T>(Math.min(maxBatchSize, 1024));
         while (!Thread.interrupted()) {
             try {
-                submit(tuples.take());
+                T tuple = tuples.take();
+                if (batch == null) {
+                    dequeued();
+                    submit(tuple);
+                    continue;
+                }
+                
+                batch.add(tuple);
+                tuples.drainTo(batch, maxBatchSize - 1);
+                dequeued();
+                if (maxBatchLatencyNanos != 0) {
+                    final long deadline = System.nanoTime() + maxBatchLatencyNanos;
+                    long remaining;
+                    while (batch.size() < maxBatchSize
+                            && (remaining = deadline - System.nanoTime()) > 0) {
+                        tuple = tuples.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (tuple == null)
+                            break;
+                        batch.add(tuple);
+                        tuples.drainTo(batch, maxBatchSize - batch.size());
+                        dequeued();
+                    }
+                }
+                try {
+                    if (batch.size() == 1)
+                        submit(batch.get(0));
+                    else
+                        submitBatch(batch);
+                } finally {
+                    batch.clear();
+                }
             } catch (InterruptedException e) {
                 break;
             }
         }
     }
+
+    private void dequeued() {
+        if (creditWaiters != 0) {
+            synchronized (creditLock) {
+                creditLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return tuples.size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    @Override
+    public long getBlockedTime() {
+        return TimeUnit.NANOSECONDS.toMicros(blockedNanos.get());
+    }
     
     @Override
     public void close() throws Exception {
+        if (controlId != null) {
+            ControlService cs = getOpletContext().getService(ControlService.class);
+            if (cs != null)
+                cs.unregister(controlId);
+            controlId = null;
+        }
+    }
+
+    /**
+     * Credit of the free capacity of the queue.
+     */
+    private class QueueCredit implements Credit {
+
+        @Override
+        public long available() {
+            return tuples.remainingCapacity();
+        }
+
+        @Override
+        public long await(long timeout, TimeUnit unit) throws InterruptedException {
+            long available = available();
+            if (available > 0)
+                return available;
+            final long start = System.nanoTime();
+            final long nanos = unit.toNanos(timeout);
+            synchronized (creditLock) {
+                creditWaiters++;
+                try {
+                    while ((available = available()) <= 0) {
+                        long remaining = nanos - (System.nanoTime() - start);
+                        if (remaining <= 0)
+                            break;
+                        TimeUnit.NANOSECONDS.timedWait(creditLock, remaining);
+                    }
+                } finally {
+                    creditWaiters--;
+                    blocked(start);
+                }
+            }
+            return Math.max(0, available);
+        }
     }
     
 }
@@ -18,19 +18,32 @@ under the License.
 */
 package org.apache.edgent.oplet.plumbing;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.edgent.execution.mbeans.CountMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.execution.services.Controls;
 import org.apache.edgent.function.BiConsumer;
+import org.apache.edgent.function.Checkpointable;
 import org.apache.edgent.function.Function;
 import org.apache.edgent.function.Functions;
+import org.apache.edgent.oplet.Credit;
 import org.apache.edgent.oplet.OpletContext;
+import org.apache.edgent.oplet.OutputPortContext;
 import org.apache.edgent.oplet.core.Pipe;
+import org.apache.edgent.window.CheckpointableWindow;
 import org.apache.edgent.window.Partition;
 import org.apache.edgent.window.PartitionedState;
 import org.apache.edgent.window.Policies;
 import org.apache.edgent.window.Window;
+import org.apache.edgent.window.WindowCount;
 import org.apache.edgent.window.Windows;
 
 /**
@@ -70,15 +83,32 @@ import org.apache.edgent.window.Windows;
  * so that downstream processing is executed on a different
  * thread to the thread that processed the input tuple.
  * </P>
+ * <P>
+ * The tuples waiting to be submitted are {@link Checkpointable checkpointed},
+ * restored tuples are submitted once the oplet is started.
+ * </P>
+ * <P>
+ * If the output stream has an alias, the count is a {@link CountMXBean control}
+ * registered with the {@link ControlService} with the type {@code stream} and
+ * the alias of the output stream qualified by the job, see {@link Controls#jobAlias(String, String)},
+ * so that it can be changed while the job is running.
+ * Once the count is reduced, the next tuple inserted into a partition
+ * discards its oldest tuples until it contains fewer than {@code count} tuples.
+ * </P>
  * 
  * @param <T> Tuple type.
  * @param <K> Key type.
  */
-public class PressureReliever<T, K> extends Pipe<T, T> {
+public class PressureReliever<T, K> extends Pipe<T, T> implements Checkpointable, CountMXBean {
     private static final long serialVersionUID = 1L;
 
+    // see comment in TStream.TYPE
+    private static final String TSTREAM_TYPE = /*TStream.TYPE*/"stream";
+
     private ScheduledExecutorService executor;
     private final Window<T, K, LinkedList<T>> window;
+    private final WindowCount count;
+    private String controlId;
 
     /**
      * Pressure reliever that maintains up to {@code count} most recent tuples per key.
@@ -87,9 +117,10 @@ public class PressureReliever<T, K> extends Pipe<T, T> {
      * @param keyFunction Key function for tuples.
      */
     public PressureReliever(int count, Function<T, K> keyFunction) {
+        this.count = new WindowCount(count);
         window = Windows.window(
                 Policies.alwaysInsert(),
-                Policies.countContentsPolicy(count),
+                Policies.countContentsPolicy(this.count),
                 Policies.evictOldest(),
                 new FirstSubmitter(),
                 keyFunction,
@@ -103,6 +134,27 @@ public class PressureReliever<T, K> extends Pipe<T, T> {
     public void initialize(OpletContext<T, T> context) {
         super.initialize(context);
         executor = context.getService(ScheduledExecutorService.class);
+        // upstream processing is never blocked, tuples are discarded instead
+        context.setInputCredit(0, Credit.UNBOUNDED);
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        ControlService cs = getOpletContext().getService(ControlService.class);
+        OutputPortContext oc = getOpletContext().getOutputContext().get(0);
+        if (cs != null && oc.getAlias() != null) {
+            controlId = cs.registerControl(TSTREAM_TYPE, getOpletContext().uniquify(getClass().getSimpleName()),
+                    Controls.jobAlias(getOpletContext().getJobContext().getId(), oc.getAlias()),
+                    CountMXBean.class, this);
+        }
+        // submit any restored tuples
+        List<Partition<T, K, LinkedList<T>>> partitions;
+        synchronized (window.getPartitions()) {
+            partitions = new ArrayList<>(window.getPartitions().values());
+        }
+        for (Partition<T, K, LinkedList<T>> partition : partitions)
+            window.getTriggerPolicy().accept(partition, null);
     }
 
     @Override
@@ -110,8 +162,38 @@ public class PressureReliever<T, K> extends Pipe<T, T> {
         window.insert(tuple);
     }
 
+    @Override
+    public int getCount() {
+        return count.getCount();
+    }
+
+    @Override
+    public void setCount(int count) {
+        this.count.setCount(count);
+    }
+
+    @Override
+    public Serializable snapshotState() {
+        if (!(window instanceof CheckpointableWindow))
+            return null;
+        return new HashMap<>(((CheckpointableWindow<T, K, ? extends List<T>>) window).snapshotContents());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void restoreState(Serializable state) {
+        if (window instanceof CheckpointableWindow)
+            ((CheckpointableWindow<T, K, ? extends List<T>>) window).restoreContents((Map<K, List<T>>) state);
+    }
+
     @Override
     public void close() throws Exception {
+        if (controlId != null) {
+            ControlService cs = getOpletContext().getService(ControlService.class);
+            if (cs != null)
+                cs.unregister(controlId);
+            controlId = null;
+        }
     }
 
     private class FirstSubmitter extends PartitionedState<K, AtomicBoolean>
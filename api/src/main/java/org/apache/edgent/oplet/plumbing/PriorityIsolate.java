@@ -0,0 +1,354 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.oplet.plumbing;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.edgent.execution.mbeans.PriorityLanesMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.oplet.Credit;
+import org.apache.edgent.oplet.OpletContext;
+import org.apache.edgent.oplet.OutputPortContext;
+import org.apache.edgent.oplet.core.FanIn;
+
+/**
+ * Isolate upstream processing from downstream processing,
+ * serving tuples from higher priority input ports first.
+ * <P>
+ * Each input port is a lane with its own bounded queue, port 0
+ * being the highest priority lane. A dedicated thread removes
+ * tuples from the highest priority lane with queued tuples and uses
+ * it for downstream processing, so that for example commands are
+ * not queued behind bulk telemetry.
+ * Tuples of a lane are processed in the order they were received.
+ * </P><P>
+ * A lane may have a deadline, the maximum time its tuples should
+ * wait in its queue. A tuple whose deadline has been reached is
+ * served ahead of tuples of higher priority lanes whose deadline has
+ * not, protecting lower priority lanes from starvation. A lane without
+ * a deadline is never promoted. Of the lanes whose deadline has been
+ * reached, the highest priority lane is served first.
+ * Tuples are promoted one at a time, after a promoted tuple the
+ * highest priority lane with queued tuples is served, so a lower
+ * priority lane that is overloaded at most doubles the wait of the
+ * higher priority lanes.
+ * </P><P>
+ * The free capacity of each lane's queue is granted as
+ * {@link Credit credit} for its input port, upstream processing
+ * blocks when the queue is full.
+ * Each lane's queue depth and latency are available from
+ * the oplet's {@link PriorityLanesMXBean} control.
+ * </P>
+ *
+ * @param <T> Type of the tuple.
+ */
+public class PriorityIsolate<T> extends FanIn<T, T> implements PriorityLanesMXBean {
+
+    private static final long serialVersionUID = 1L;
+    private final int queueCapacity;
+    private final long[] deadlines;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private Lane<T>[] lanes;
+    private int queued;
+    private boolean promoted;
+    private Thread thread;
+    private String controlId;
+
+    /**
+     * Create a new PriorityIsolate oplet.
+     * @param queueCapacity size of each lane's queue
+     * @param deadlines deadline of each lane, in decreasing priority order,
+     *          0 for a lane without a deadline.
+     *          {@code null} for strict priority, no lane has a deadline.
+     * @param unit unit of {@code deadlines}
+     */
+    public PriorityIsolate(int queueCapacity, long[] deadlines, TimeUnit unit) {
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("queueCapacity");
+        this.queueCapacity = queueCapacity;
+        if (deadlines != null) {
+            this.deadlines = new long[deadlines.length];
+            for (int i = 0; i < deadlines.length; i++) {
+                if (deadlines[i] < 0)
+                    throw new IllegalArgumentException("deadlines");
+                this.deadlines[i] = unit.toNanos(deadlines[i]);
+            }
+        }
+        else {
+            this.deadlines = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void initialize(OpletContext<T, T> context) {
+        super.initialize(context);
+        int count = context.getInputCount();
+        if (deadlines != null && deadlines.length != count)
+            throw new IllegalArgumentException("deadlines");
+        lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane<>(deadlines == null ? 0 : deadlines[i]);
+            context.setInputCredit(i, new LaneCredit(lanes[i]));
+        }
+        setReceiver((tuple, lane) -> {
+            accept(tuple, lane);
+            return null;
+        });
+        thread = context.getService(ThreadFactory.class).newThread(() -> run());
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        ControlService cs = getOpletContext().getService(ControlService.class);
+        if (cs != null) {
+            OutputPortContext oc = getOpletContext().getOutputContext().get(0);
+            controlId = cs.registerControl(PriorityLanesMXBean.TYPE, getOpletContext().uniquify(getClass().getSimpleName()),
+                    oc.getAlias(), PriorityLanesMXBean.class, this);
+        }
+        thread.start();
+    }
+
+    private void accept(T tuple, int index) {
+        final Lane<T> lane = lanes[index];
+        lock.lock();
+        try {
+            while (lane.tuples.size() >= queueCapacity)
+                notFull.await();
+            lane.tuples.add(new Entry<>(tuple, System.nanoTime()));
+            queued++;
+            notEmpty.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (!Thread.interrupted()) {
+            T tuple;
+            try {
+                lock.lockInterruptibly();
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                while (queued == 0)
+                    notEmpty.await();
+                tuple = next(System.nanoTime());
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+            submit(tuple);
+        }
+    }
+
+    /**
+     * Remove the next tuple to be served, the lock is held.
+     */
+    private T next(long now) {
+        int first = -1;
+        int due = -1;
+        for (int i = 0; i < lanes.length; i++) {
+            Lane<T> lane = lanes[i];
+            Entry<T> head = lane.tuples.peek();
+            if (head == null)
+                continue;
+            if (first == -1)
+                first = i;
+            if (lane.deadline != 0 && now - head.time >= lane.deadline) {
+                due = i;
+                break;
+            }
+        }
+        int index = due == -1 || promoted ? first : due;
+        promoted = index != first;
+        Lane<T> lane = lanes[index];
+        if (promoted)
+            lane.promoted++;
+        Entry<T> entry = lane.tuples.remove();
+        queued--;
+        long latency = now - entry.time;
+        lane.count++;
+        lane.totalLatency += latency;
+        if (latency > lane.maxLatency)
+            lane.maxLatency = latency;
+        if (lane.deadline != 0 && latency > lane.deadline)
+            lane.missed++;
+        return entry.tuple;
+    }
+
+    @Override
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    @Override
+    public long getDeadline(int lane) {
+        return TimeUnit.NANOSECONDS.toMicros(lanes[lane].deadline);
+    }
+
+    @Override
+    public int getQueueDepth(int lane) {
+        lock.lock();
+        try {
+            return lanes[lane].tuples.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getTupleCount(int lane) {
+        lock.lock();
+        try {
+            return lanes[lane].count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getMeanLatency(int lane) {
+        lock.lock();
+        try {
+            Lane<T> l = lanes[lane];
+            return l.count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(l.totalLatency / l.count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getMaxLatency(int lane) {
+        lock.lock();
+        try {
+            return TimeUnit.NANOSECONDS.toMicros(lanes[lane].maxLatency);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getDeadlineMissCount(int lane) {
+        lock.lock();
+        try {
+            return lanes[lane].missed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getPromotedCount(int lane) {
+        lock.lock();
+        try {
+            return lanes[lane].promoted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (controlId != null) {
+            ControlService cs = getOpletContext().getService(ControlService.class);
+            if (cs != null)
+                cs.unregister(controlId);
+            controlId = null;
+        }
+    }
+
+    private static final class Entry<T> {
+        final T tuple;
+        final long time;
+
+        Entry(T tuple, long time) {
+            this.tuple = tuple;
+            this.time = time;
+        }
+    }
+
+    /**
+     * A lane's queue and statistics, guarded by the lock.
+     */
+    private static final class Lane<T> {
+        final ArrayDeque<Entry<T>> tuples = new ArrayDeque<>();
+        final long deadline;
+        long count;
+        long totalLatency;
+        long maxLatency;
+        long missed;
+        long promoted;
+
+        Lane(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Credit of the free capacity of a lane's queue.
+     */
+    private class LaneCredit implements Credit {
+        private final Lane<T> lane;
+
+        LaneCredit(Lane<T> lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public long available() {
+            lock.lock();
+            try {
+                return queueCapacity - lane.tuples.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public long await(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                long available;
+                while ((available = queueCapacity - lane.tuples.size()) <= 0) {
+                    if (nanos <= 0)
+                        return 0;
+                    nanos = notFull.awaitNanos(nanos);
+                }
+                return available;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
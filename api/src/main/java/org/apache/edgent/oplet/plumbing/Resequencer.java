@@ -0,0 +1,207 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.oplet.plumbing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.edgent.execution.mbeans.FlowControlMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.function.BiFunction;
+import org.apache.edgent.oplet.OpletContext;
+import org.apache.edgent.oplet.core.FanIn;
+
+/**
+ * Restores the order of tuples processed by parallel channels.
+ * <P>
+ * {@code Resequencer} has an input port per channel.
+ * Each tuple sent to a channel is assigned the next sequence number
+ * by {@link #sequence(int)}, the channel's sequence numbers are kept
+ * in order of assignment. A channel must yield exactly one result, in
+ * order, for each of its tuples, so a result received on input
+ * port {@code n} has the oldest sequence number assigned to channel
+ * {@code n}. Results are submitted in sequence number order, results
+ * received ahead of their turn are buffered.
+ * </P><P>
+ * At most {@code maxReorderDistance} tuples are between the
+ * assignment of their sequence number and their submission,
+ * {@link #sequence(int)} blocks until a sequence number is available,
+ * bounding the buffer.
+ * The number of buffered results, and the number of times and the time
+ * {@link #sequence(int)} was blocked, are available from the oplet's
+ * {@link FlowControlMXBean} control.
+ * </P>
+ *
+ * @param <T> Type of the tuple.
+ */
+public class Resequencer<T> extends FanIn<T, T> implements FlowControlMXBean {
+    private static final long serialVersionUID = 1L;
+
+    private final int maxReorderDistance;
+    private final Object lock = new Object();
+    // guarded by lock
+    private final List<Queue<Long>> channels;
+    private final Map<Long, T> buffer = new HashMap<>();
+    private long nextSequence;
+    private long nextSubmit;
+    private boolean submitting;
+
+    private final AtomicLong stallCount = new AtomicLong();
+    private final AtomicLong stallNanos = new AtomicLong();
+    private String controlId;
+
+    /**
+     * Create a new instance.
+     * @param width number of channels, and of input ports
+     * @param maxReorderDistance maximum number of tuples between the
+     *        assignment of their sequence number and their submission
+     */
+    public Resequencer(int width, int maxReorderDistance) {
+        if (width < 1)
+            throw new IllegalArgumentException("width");
+        if (maxReorderDistance < 1)
+            throw new IllegalArgumentException("maxReorderDistance");
+        this.maxReorderDistance = maxReorderDistance;
+        channels = new ArrayList<>(width);
+        for (int i = 0; i < width; i++)
+            channels.add(new ArrayDeque<Long>());
+    }
+
+    @Override
+    public void initialize(OpletContext<T, T> context) {
+        super.initialize(context);
+        setReceiver(receiver());
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        ControlService cs = getOpletContext().getService(ControlService.class);
+        if (cs != null)
+            controlId = cs.registerControl(FlowControlMXBean.TYPE, getOpletContext().uniquify(getClass().getSimpleName()),
+                    null, FlowControlMXBean.class, this);
+    }
+
+    /**
+     * Assign the next sequence number to a tuple sent to a channel.
+     * Blocks while {@code maxReorderDistance} tuples are awaiting submission.
+     * @param channel the tuple's channel
+     * @return {@code channel}
+     */
+    public int sequence(int channel) {
+        synchronized (lock) {
+            if (nextSequence - nextSubmit >= maxReorderDistance) {
+                final long start = System.nanoTime();
+                try {
+                    while (nextSequence - nextSubmit >= maxReorderDistance)
+                        lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("interrupted", e);
+                } finally {
+                    stallCount.incrementAndGet();
+                    stallNanos.addAndGet(System.nanoTime() - start);
+                }
+            }
+            channels.get(channel).add(nextSequence++);
+        }
+        return channel;
+    }
+
+    protected BiFunction<T,Integer,T> receiver() {
+        return (tuple, iportIndex) -> {
+            accept(tuple, iportIndex);
+            return null;
+        };
+    }
+
+    protected void accept(T tuple, int iportIndex) {
+        synchronized (lock) {
+            Long sequence = channels.get(iportIndex).poll();
+            if (sequence == null)
+                throw new IllegalStateException("channel " + iportIndex + " yielded an unexpected result");
+            buffer.put(sequence, tuple);
+            // a single thread submits, in order
+            if (submitting)
+                return;
+            submitting = true;
+        }
+        boolean done = false;
+        try {
+            for (;;) {
+                T next;
+                synchronized (lock) {
+                    next = buffer.remove(nextSubmit);
+                    if (next == null) {
+                        submitting = false;
+                        done = true;
+                        return;
+                    }
+                    nextSubmit++;
+                    lock.notifyAll();
+                }
+                submit(next);
+            }
+        } finally {
+            if (!done) {
+                synchronized (lock) {
+                    submitting = false;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return buffer.size();
+        }
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return maxReorderDistance;
+    }
+
+    @Override
+    public long getBlockedCount() {
+        return stallCount.get();
+    }
+
+    @Override
+    public long getBlockedTime() {
+        return TimeUnit.NANOSECONDS.toMicros(stallNanos.get());
+    }
+
+    @Override
+    public void close() {
+        if (controlId != null) {
+            ControlService cs = getOpletContext().getService(ControlService.class);
+            if (cs != null)
+                cs.unregister(controlId);
+            controlId = null;
+        }
+    }
+}
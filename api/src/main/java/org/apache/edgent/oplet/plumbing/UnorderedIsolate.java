@@ -21,6 +21,7 @@ package org.apache.edgent.oplet.plumbing;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.edgent.function.Functions;
+import org.apache.edgent.oplet.Credit;
 import org.apache.edgent.oplet.OpletContext;
 import org.apache.edgent.oplet.core.Pipe;
 
@@ -42,6 +43,8 @@ public class UnorderedIsolate<T> extends Pipe<T,T> {
     public void initialize(OpletContext<T, T> context) {
         super.initialize(context);
         executor = context.getService(ScheduledExecutorService.class);
+        // tuples are queued without bound
+        context.setInputCredit(0, Credit.UNBOUNDED);
     }
 
     @Override
@@ -20,13 +20,22 @@ package org.apache.edgent.oplet.window;
 
 import static org.apache.edgent.function.Functions.closeFunction;
 
+import java.io.Serializable;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 
+import org.apache.edgent.execution.mbeans.CountMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.execution.services.Controls;
 import org.apache.edgent.function.BiConsumer;
 import org.apache.edgent.function.BiFunction;
+import org.apache.edgent.function.Checkpointable;
 import org.apache.edgent.oplet.OpletContext;
+import org.apache.edgent.oplet.OutputPortContext;
 import org.apache.edgent.oplet.core.Pipe;
+import org.apache.edgent.window.CheckpointableWindow;
 import org.apache.edgent.window.Window;
 
 /**
@@ -37,21 +46,52 @@ import org.apache.edgent.window.Window;
  * the partition key. The returned value
  * is submitted to the sole output port
  * if it is not {@code null}. 
+ * <P>
+ * If the window is a {@link CheckpointableWindow}, as windows
+ * created by {@code Windows} are, the contents of the window's
+ * partitions are {@link Checkpointable checkpointed}, restoring
+ * them does not process the window.
+ * </P>
+ * <P>
+ * An aggregate created with the {@link CountMXBean count control} of
+ * its window, whose output stream has an alias, registers the control
+ * with the {@link ControlService} with the type {@code stream} and the alias of its output stream
+ * qualified by the job, see {@link Controls#jobAlias(String, String)},
+ * so that the window's count can be changed while the job is running.
+ * </P>
  *
  * @param <T> Type of the input tuples.
  * @param <U> Type of the output tuples.
  * @param <K> Type of the partition key.
  */
-public class Aggregate<T,U,K> extends Pipe<T, U> {
+public class Aggregate<T,U,K> extends Pipe<T, U> implements Checkpointable {
     private static final long serialVersionUID = 1L;
+
+    // see comment in TStream.TYPE
+    private static final String TSTREAM_TYPE = /*TStream.TYPE*/"stream";
+
     private final Window<T,K, ? extends List<T>> window;
     /**
      * The aggregator provided by the user.
      */
     private final BiFunction<List<T>,K, U> aggregator;
+    private final CountMXBean count;
+    private String controlId;
     
     public Aggregate(Window<T,K, ? extends List<T>> window, BiFunction<List<T>,K, U> aggregator){
+        this(window, aggregator, null);
+    }
+
+    /**
+     * Aggregate a window whose count can be changed.
+     * @param window the window
+     * @param aggregator the aggregator
+     * @param count control of the count of the window's policies, may be null
+     */
+    public Aggregate(Window<T,K, ? extends List<T>> window, BiFunction<List<T>,K, U> aggregator,
+            CountMXBean count){
         this.aggregator = aggregator;
+        this.count = count;
         BiConsumer<List<T>, K> partProcessor = (tuples, key) -> {
             U aggregateTuple = aggregator.apply(tuples, key);
             if (aggregateTuple != null)
@@ -68,13 +108,47 @@ public class Aggregate<T,U,K> extends Pipe<T, U> {
         window.registerScheduledExecutorService(this.getOpletContext().getService(ScheduledExecutorService.class));
     }
     
+    @Override
+    public void start() {
+        super.start();
+        if (count != null) {
+            ControlService cs = getOpletContext().getService(ControlService.class);
+            OutputPortContext oc = getOpletContext().getOutputContext().get(0);
+            if (cs != null && oc.getAlias() != null) {
+                controlId = cs.registerControl(TSTREAM_TYPE, getOpletContext().uniquify(getClass().getSimpleName()),
+                        Controls.jobAlias(getOpletContext().getJobContext().getId(), oc.getAlias()),
+                        CountMXBean.class, count);
+            }
+        }
+    }
+    
     @Override
     public void accept(T tuple) {
         window.insert(tuple);   
     }
 
+    @Override
+    public Serializable snapshotState() {
+        if (!(window instanceof CheckpointableWindow))
+            return null;
+        return new HashMap<>(((CheckpointableWindow<T, K, ? extends List<T>>) window).snapshotContents());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void restoreState(Serializable state) {
+        if (window instanceof CheckpointableWindow)
+            ((CheckpointableWindow<T, K, ? extends List<T>>) window).restoreContents((Map<K, List<T>>) state);
+    }
+
     @Override
     public void close() throws Exception {
+        if (controlId != null) {
+            ControlService cs = getOpletContext().getService(ControlService.class);
+            if (cs != null)
+                cs.unregister(controlId);
+            controlId = null;
+        }
         closeFunction(aggregator);
     }
 
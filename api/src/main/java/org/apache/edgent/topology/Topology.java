@@ -101,7 +101,8 @@ public interface Topology extends TopologyElement {
      * In order to use this mechanism the caller must provide a 
      * alias for the stream when building the org.apache.edgent.org.apache.edgent.topology.
      * The {@code PeriodMXBean} is registered with the {@link ControlService}
-     * with type {@link TStream#TYPE} and the stream's alias.  
+     * with type {@link TStream#TYPE} and the stream's alias qualified by the
+     * job's identifier, see {@link org.apache.edgent.execution.services.Controls#jobAlias(String, String) Controls.jobAlias}.
      * e.g.,
      * </p>
      * <pre>{@code
@@ -109,9 +110,9 @@ public interface Topology extends TopologyElement {
      * TStream<Integer> stream = t.poll(...).alias("myStreamControlAlias");
      * 
      * // change the poll frequency at runtime
-     * static <T> void setPollFrequency(TStream<T> pollStream, long period, TimeUnit unit) {
+     * static <T> void setPollFrequency(Job job, TStream<T> pollStream, long period, TimeUnit unit) {
      *     ControlService cs = t.getRuntimeServiceSupplier().getService(ControlService.class);
-     *     String alias = pollStream.getAlias();
+     *     String alias = Controls.jobAlias(job.getId(), pollStream.getAlias());
      *     PeriodMXBean control = cs.getControl(TStream.TYPE, alias, PeriodMXBean.class);
      *     control.setPoll(period, unit);
      * }
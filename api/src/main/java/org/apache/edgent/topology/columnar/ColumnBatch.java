@@ -0,0 +1,278 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.topology.columnar;
+
+import java.io.Serializable;
+
+import org.apache.edgent.topology.columnar.Schema.Type;
+
+import com.google.gson.JsonObject;
+
+/**
+ * A micro-batch of rows held as columns of primitive values.
+ * <P>
+ * Each column of the batch's {@link Schema} is a {@code long[]} or
+ * {@code double[]} whose length is the batch's {@link #size() size},
+ * so that numeric processing of a column is a loop over a primitive array.
+ * </P><P>
+ * The column arrays are shared, not copied, by the batch, by the
+ * batches derived from it, and with the functions processing it. They must
+ * not be modified once the batch has been submitted on a stream.
+ * </P>
+ *
+ * @see ColumnarStreams
+ */
+public final class ColumnBatch implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Schema schema;
+    private final int size;
+    private final Object[] columns;
+
+    /**
+     * Create a batch whose columns are filled with zeros.
+     * @param schema the batch's schema
+     * @param size number of rows
+     */
+    public ColumnBatch(Schema schema, int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("size");
+        this.schema = schema;
+        this.size = size;
+        this.columns = new Object[schema.getColumnCount()];
+        for (int i = 0; i < columns.length; i++)
+            columns[i] = schema.getType(i) == Type.LONG ? new long[size] : new double[size];
+    }
+
+    private ColumnBatch(Schema schema, int size, Object[] columns) {
+        this.schema = schema;
+        this.size = size;
+        this.columns = columns;
+    }
+
+    /**
+     * Get the batch's schema.
+     * @return the schema
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Get the number of rows.
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get a {@code DOUBLE} column.
+     * @param column index of the column
+     * @return the column's values
+     * @throws IllegalArgumentException if the column is not a {@code DOUBLE} column
+     */
+    public double[] getDoubles(int column) {
+        if (schema.getType(column) != Type.DOUBLE)
+            throw new IllegalArgumentException("not a DOUBLE column: " + schema.getName(column));
+        return (double[]) columns[column];
+    }
+
+    /**
+     * Get a {@code DOUBLE} column.
+     * @param name name of the column
+     * @return the column's values
+     * @throws IllegalArgumentException if the column is not a {@code DOUBLE} column
+     */
+    public double[] getDoubles(String name) {
+        return getDoubles(index(name));
+    }
+
+    /**
+     * Get a {@code LONG} column.
+     * @param column index of the column
+     * @return the column's values
+     * @throws IllegalArgumentException if the column is not a {@code LONG} column
+     */
+    public long[] getLongs(int column) {
+        if (schema.getType(column) != Type.LONG)
+            throw new IllegalArgumentException("not a LONG column: " + schema.getName(column));
+        return (long[]) columns[column];
+    }
+
+    /**
+     * Get a {@code LONG} column.
+     * @param name name of the column
+     * @return the column's values
+     * @throws IllegalArgumentException if the column is not a {@code LONG} column
+     */
+    public long[] getLongs(String name) {
+        return getLongs(index(name));
+    }
+
+    /**
+     * Get the values of a column of either type as {@code double} values.
+     * A {@code DOUBLE} column's array is returned, a {@code LONG}
+     * column is converted.
+     * @param column index of the column
+     * @return the column's values
+     */
+    public double[] getAsDoubles(int column) {
+        if (schema.getType(column) == Type.DOUBLE)
+            return (double[]) columns[column];
+        final long[] values = (long[]) columns[column];
+        final double[] doubles = new double[size];
+        for (int i = 0; i < size; i++)
+            doubles[i] = values[i];
+        return doubles;
+    }
+
+    /**
+     * Get a value as a {@code double}.
+     * @param column index of the column
+     * @param row index of the row
+     * @return the value
+     */
+    public double getAsDouble(int column, int row) {
+        if (schema.getType(column) == Type.DOUBLE)
+            return ((double[]) columns[column])[row];
+        return ((long[]) columns[column])[row];
+    }
+
+    /**
+     * Get a value.
+     * @param column index of the column
+     * @param row index of the row
+     * @return the value, a {@code Long} or a {@code Double}
+     */
+    public Number get(int column, int row) {
+        if (schema.getType(column) == Type.DOUBLE)
+            return ((double[]) columns[column])[row];
+        return ((long[]) columns[column])[row];
+    }
+
+    /**
+     * Set a value, converting it to the column's type.
+     * @param column index of the column
+     * @param row index of the row
+     * @param value the value
+     */
+    public void set(int column, int row, Number value) {
+        if (schema.getType(column) == Type.DOUBLE)
+            ((double[]) columns[column])[row] = value.doubleValue();
+        else
+            ((long[]) columns[column])[row] = value.longValue();
+    }
+
+    /**
+     * Get a batch with an additional, or replaced, {@code DOUBLE} column.
+     * @param name the column's name
+     * @param values the column's values, one per row
+     * @return the batch, sharing the other columns with this batch
+     */
+    public ColumnBatch withColumn(String name, double[] values) {
+        return withColumn(name, Type.DOUBLE, values, values.length);
+    }
+
+    /**
+     * Get a batch with an additional, or replaced, {@code LONG} column.
+     * @param name the column's name
+     * @param values the column's values, one per row
+     * @return the batch, sharing the other columns with this batch
+     */
+    public ColumnBatch withColumn(String name, long[] values) {
+        return withColumn(name, Type.LONG, values, values.length);
+    }
+
+    private ColumnBatch withColumn(String name, Type type, Object values, int length) {
+        if (length != size)
+            throw new IllegalArgumentException("column " + name + " has " + length + " values, expected " + size);
+        Schema schema = this.schema.with(name, type);
+        Object[] columns = new Object[schema.getColumnCount()];
+        System.arraycopy(this.columns, 0, columns, 0, this.columns.length);
+        columns[schema.indexOf(name)] = values;
+        return new ColumnBatch(schema, size, columns);
+    }
+
+    /**
+     * Get a batch containing the rows selected by a mask.
+     * @param mask {@code true} for each row to select
+     * @return the batch of the selected rows, in order. This batch
+     *         if all the rows are selected.
+     */
+    public ColumnBatch select(boolean[] mask) {
+        if (mask.length != size)
+            throw new IllegalArgumentException("mask has " + mask.length + " values, expected " + size);
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (mask[i])
+                n++;
+        }
+        if (n == size)
+            return this;
+
+        Object[] selected = new Object[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            int j = 0;
+            if (schema.getType(c) == Type.DOUBLE) {
+                final double[] from = (double[]) columns[c];
+                final double[] to = new double[n];
+                for (int i = 0; i < size; i++) {
+                    if (mask[i])
+                        to[j++] = from[i];
+                }
+                selected[c] = to;
+            }
+            else {
+                final long[] from = (long[]) columns[c];
+                final long[] to = new long[n];
+                for (int i = 0; i < size; i++) {
+                    if (mask[i])
+                        to[j++] = from[i];
+                }
+                selected[c] = to;
+            }
+        }
+        return new ColumnBatch(schema, n, selected);
+    }
+
+    /**
+     * Get a row as a JSON object with a property per column.
+     * @param row index of the row
+     * @return the row
+     */
+    public JsonObject toJson(int row) {
+        JsonObject jo = new JsonObject();
+        for (int c = 0; c < columns.length; c++)
+            jo.addProperty(schema.getName(c), get(c, row));
+        return jo;
+    }
+
+    private int index(String name) {
+        int column = schema.indexOf(name);
+        if (column == -1)
+            throw new IllegalArgumentException("no column: " + name);
+        return column;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnBatch" + schema + " size=" + size;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.topology.columnar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.edgent.function.BiFunction;
+import org.apache.edgent.function.Function;
+import org.apache.edgent.function.Functions;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.columnar.Schema.Type;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Operations on streams of columnar micro-batches.
+ * <P>
+ * A numeric pipeline processing a high rate of small tuples can
+ * {@link #batch(TStream, int, Schema, List) batch} them into
+ * {@link ColumnBatch} tuples and process a column of each batch with
+ * a loop over a primitive array, rather than calling a function, and
+ * unboxing the value, for each tuple:
+ * <pre>{@code
+ * Schema schema = new Schema.Builder().add("temp", Schema.Type.DOUBLE).build();
+ * TStream<JsonObject> readings = ...
+ * TStream<ColumnBatch> batches = ColumnarStreams.batchJson(readings, 1000, schema);
+ * batches = ColumnarStreams.mapColumn(batches, "tempF", batch -> {
+ *     double[] temp = batch.getDoubles("temp");
+ *     double[] tempF = new double[temp.length];
+ *     for (int i = 0; i < temp.length; i++)
+ *         tempF[i] = temp[i] * 1.8 + 32;
+ *     return tempF;
+ *   });
+ * batches = ColumnarStreams.filter(batches, batch -> {
+ *     double[] tempF = batch.getDoubles("tempF");
+ *     boolean[] hot = new boolean[tempF.length];
+ *     for (int i = 0; i < tempF.length; i++)
+ *         hot[i] = tempF[i] > 100;
+ *     return hot;
+ *   });
+ * TStream<JsonObject> hotReadings = ColumnarStreams.unbatchJson(batches);
+ * }</pre>
+ */
+public class ColumnarStreams {
+
+    /**
+     * Batch a stream's tuples into columnar batches of {@code size} rows.
+     * <P>
+     * A row is added to the batch for each tuple, with the value of
+     * column {@code i} obtained by {@code getters.get(i)} and converted to
+     * the column's type.
+     * </P>
+     * @param <T> Tuple type
+     * @param stream the stream to batch
+     * @param size number of rows in each batch
+     * @param schema the batches' schema
+     * @param getters a function per column obtaining the column's value from a tuple
+     * @return stream of batches
+     */
+    public static <T> TStream<ColumnBatch> batch(TStream<T> stream, int size, Schema schema,
+            List<? extends Function<T, ? extends Number>> getters) {
+        checkGetters(schema, getters);
+        return stream.last(size, Functions.unpartitioned())
+                .batch((tuples, key) -> toBatch(tuples, schema, getters));
+    }
+
+    /**
+     * Batch a stream's tuples into columnar batches of the tuples received
+     * each {@code time} period. No batch is created for a period
+     * without tuples.
+     * @param <T> Tuple type
+     * @param stream the stream to batch
+     * @param time the period
+     * @param unit unit of {@code time}
+     * @param schema the batches' schema
+     * @param getters a function per column obtaining the column's value from a tuple
+     * @return stream of batches
+     * @see #batch(TStream, int, Schema, List)
+     */
+    public static <T> TStream<ColumnBatch> batch(TStream<T> stream, long time, TimeUnit unit, Schema schema,
+            List<? extends Function<T, ? extends Number>> getters) {
+        checkGetters(schema, getters);
+        return stream.last(time, unit, Functions.unpartitioned())
+                .batch((tuples, key) -> tuples.isEmpty() ? null : toBatch(tuples, schema, getters));
+    }
+
+    /**
+     * Batch a stream of JSON objects into columnar batches of {@code size} rows.
+     * The value of a column is the object's property named
+     * by the column, a missing or null property's value is 0.
+     * @param stream the stream to batch
+     * @param size number of rows in each batch
+     * @param schema the batches' schema
+     * @return stream of batches
+     */
+    public static TStream<ColumnBatch> batchJson(TStream<JsonObject> stream, int size, Schema schema) {
+        List<Function<JsonObject, Number>> getters = new ArrayList<>(schema.getColumnCount());
+        for (int c = 0; c < schema.getColumnCount(); c++) {
+            String name = schema.getName(c);
+            getters.add(jo -> {
+                JsonElement e = jo.get(name);
+                return e == null || e.isJsonNull() ? 0 : e.getAsNumber();
+            });
+        }
+        return batch(stream, size, schema, getters);
+    }
+
+    /**
+     * Add, or replace, a {@code DOUBLE} column of each batch.
+     * @param stream the stream of batches
+     * @param name the column's name
+     * @param mapper function returning the column's values for a batch,
+     *        one value per row
+     * @return stream of batches with the column
+     */
+    public static TStream<ColumnBatch> mapColumn(TStream<ColumnBatch> stream, String name,
+            Function<ColumnBatch, double[]> mapper) {
+        return stream.map(batch -> batch.withColumn(name, mapper.apply(batch)));
+    }
+
+    /**
+     * Filter the rows of each batch.
+     * Batches without selected rows are discarded.
+     * @param stream the stream of batches
+     * @param mask function returning, for a batch, {@code true}
+     *        for each row to keep
+     * @return stream of batches of the kept rows
+     * @see ColumnBatch#select(boolean[])
+     */
+    public static TStream<ColumnBatch> filter(TStream<ColumnBatch> stream,
+            Function<ColumnBatch, boolean[]> mask) {
+        return stream.map(batch -> {
+            ColumnBatch selected = batch.select(mask.apply(batch));
+            return selected.size() == 0 ? null : selected;
+        });
+    }
+
+    /**
+     * Convert each row of the batches to a tuple.
+     * @param <U> Tuple type
+     * @param stream the stream of batches
+     * @param rowMapper function returning the tuple for a row,
+     *        {@code rowMapper.apply(batch, row)}. A null result is discarded.
+     * @return stream of the tuples of the rows, in row order
+     */
+    public static <U> TStream<U> unbatch(TStream<ColumnBatch> stream,
+            BiFunction<ColumnBatch, Integer, U> rowMapper) {
+        return stream.flatMap(batch -> {
+            List<U> tuples = new ArrayList<>(batch.size());
+            for (int row = 0; row < batch.size(); row++) {
+                U tuple = rowMapper.apply(batch, row);
+                if (tuple != null)
+                    tuples.add(tuple);
+            }
+            return tuples;
+        });
+    }
+
+    /**
+     * Convert each row of the batches to a JSON object with
+     * a property per column.
+     * @param stream the stream of batches
+     * @return stream of the rows, in row order
+     * @see ColumnBatch#toJson(int)
+     */
+    public static TStream<JsonObject> unbatchJson(TStream<ColumnBatch> stream) {
+        return unbatch(stream, (batch, row) -> batch.toJson(row));
+    }
+
+    private static <T> void checkGetters(Schema schema, List<? extends Function<T, ? extends Number>> getters) {
+        if (getters.size() != schema.getColumnCount())
+            throw new IllegalArgumentException("getters: " + getters.size() + " expected " + schema.getColumnCount());
+    }
+
+    private static <T> ColumnBatch toBatch(List<T> tuples, Schema schema,
+            List<? extends Function<T, ? extends Number>> getters) {
+        final int size = tuples.size();
+        final ColumnBatch batch = new ColumnBatch(schema, size);
+        for (int c = 0; c < schema.getColumnCount(); c++) {
+            final Function<T, ? extends Number> getter = getters.get(c);
+            int row = 0;
+            if (schema.getType(c) == Type.DOUBLE) {
+                final double[] values = batch.getDoubles(c);
+                for (T tuple : tuples)
+                    values[row++] = getter.apply(tuple).doubleValue();
+            }
+            else {
+                final long[] values = batch.getLongs(c);
+                for (T tuple : tuples)
+                    values[row++] = getter.apply(tuple).longValue();
+            }
+        }
+        return batch;
+    }
+}
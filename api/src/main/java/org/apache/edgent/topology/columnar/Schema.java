@@ -0,0 +1,189 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.topology.columnar;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The names and types of the columns of a {@link ColumnBatch}.
+ * <P>
+ * A schema is immutable, schemas are created using a {@link Builder}:
+ * <pre>{@code
+ * Schema schema = new Schema.Builder()
+ *     .add("ts", Schema.Type.LONG)
+ *     .add("temp", Schema.Type.DOUBLE)
+ *     .build();
+ * }</pre>
+ */
+public final class Schema implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Type of a column, the type of the column's primitive array.
+     */
+    public enum Type {
+        /** Column held in a {@code long[]}. */
+        LONG,
+        /** Column held in a {@code double[]}. */
+        DOUBLE
+    }
+
+    /**
+     * Builder of a {@link Schema}.
+     */
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<Type> types = new ArrayList<>();
+
+        /**
+         * Add a column.
+         * @param name the column's name
+         * @param type the column's type
+         * @return this builder
+         * @throws IllegalArgumentException if the schema already has a column named {@code name}
+         */
+        public Builder add(String name, Type type) {
+            if (name == null)
+                throw new NullPointerException("name");
+            if (type == null)
+                throw new NullPointerException("type");
+            if (names.contains(name))
+                throw new IllegalArgumentException("duplicate column: " + name);
+            names.add(name);
+            types.add(type);
+            return this;
+        }
+
+        /**
+         * Create the schema.
+         * @return the schema of the added columns
+         */
+        public Schema build() {
+            return new Schema(names.toArray(new String[names.size()]), types.toArray(new Type[types.size()]));
+        }
+    }
+
+    private final String[] names;
+    private final Type[] types;
+
+    private Schema(String[] names, Type[] types) {
+        this.names = names;
+        this.types = types;
+    }
+
+    /**
+     * Get the number of columns.
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return names.length;
+    }
+
+    /**
+     * Get the index of a column.
+     * @param name the column's name
+     * @return the column's 0-based index, -1 if there is no column named {@code name}
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the name of a column.
+     * @param column the column's index
+     * @return the column's name
+     */
+    public String getName(int column) {
+        return names[column];
+    }
+
+    /**
+     * Get the type of a column.
+     * @param column the column's index
+     * @return the column's type
+     */
+    public Type getType(int column) {
+        return types[column];
+    }
+
+    /**
+     * Get the column names.
+     * @return the names in column order
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Get a schema with an additional column, or with the type of
+     * an existing column replaced.
+     * @param name the column's name
+     * @param type the column's type
+     * @return the schema
+     */
+    public Schema with(String name, Type type) {
+        int column = indexOf(name);
+        if (column == -1) {
+            String[] names = Arrays.copyOf(this.names, this.names.length + 1);
+            Type[] types = Arrays.copyOf(this.types, this.types.length + 1);
+            names[column = this.names.length] = name;
+            types[column] = type;
+            return new Schema(names, types);
+        }
+        if (types[column] == type)
+            return this;
+        Type[] types = this.types.clone();
+        types[column] = type;
+        return new Schema(names, types);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Schema))
+            return false;
+        Schema other = (Schema) obj;
+        return Arrays.equals(names, other.names) && Arrays.equals(types, other.types);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(names) + Arrays.hashCode(types);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            if (i != 0)
+                sb.append(", ");
+            sb.append(names[i]).append(':').append(types[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.topology.plumbing;
+
+import java.util.Arrays;
+
+import org.apache.edgent.function.Function;
+import org.apache.edgent.function.ToIntFunction;
+import org.apache.edgent.topology.TStream;
+
+/**
+ * A consistent hashing splitter function.
+ * <P>
+ * This is intended to be used as an argument to {@link TStream#split(int, ToIntFunction)}.
+ * Each of the {@code numChannels} splitter channels owns
+ * {@code pointsPerChannel} points on a hash ring, a tuple is sent to
+ * the channel owning the first point at or after the hash of the tuple's key.
+ * All the tuples with the same key are sent to the same channel.
+ * </P><P>
+ * The ring depends only on the number of channels, so the key to
+ * channel mapping is the same for every splitter with the same number
+ * of channels. When the number of channels changes from {@code n}
+ * to {@code m} only about {@code |m - n| / max(m, n)} of the keys
+ * are mapped to a different channel.
+ * </P>
+ *
+ * @param <T> Tuple type.
+ * @param <K> Key type.
+ * @see PlumbingStreams#parallelByKey(TStream, int, Function, org.apache.edgent.function.BiFunction) parallelByKey
+ */
+public class ConsistentHashSplitter<T,K> implements ToIntFunction<T> {
+  private static final long serialVersionUID = 1L;
+  
+  /** The default number of points each channel owns on the ring. */
+  public static final int DEFAULT_POINTS_PER_CHANNEL = 64;
+  
+  private final Function<T,K> keyFunction;
+  private final int[] points;
+  private final int[] owners;
+  
+  /**
+   * Create a new splitter with {@link #DEFAULT_POINTS_PER_CHANNEL} points per channel.
+   * @param numChannels the number of splitter channels
+   * @param keyFunction function that obtains the tuple's key
+   */
+  public ConsistentHashSplitter(int numChannels, Function<T,K> keyFunction) {
+    this(numChannels, DEFAULT_POINTS_PER_CHANNEL, keyFunction);
+  }
+  
+  /**
+   * Create a new splitter.
+   * @param numChannels the number of splitter channels
+   * @param pointsPerChannel the number of points each channel owns on the ring.
+   *        More points spread the keys more evenly across the channels.
+   * @param keyFunction function that obtains the tuple's key
+   */
+  public ConsistentHashSplitter(int numChannels, int pointsPerChannel, Function<T,K> keyFunction) {
+    if (numChannels < 1)
+      throw new IllegalArgumentException("numChannels");
+    if (pointsPerChannel < 1)
+      throw new IllegalArgumentException("pointsPerChannel");
+    if (keyFunction == null)
+      throw new NullPointerException("keyFunction");
+    this.keyFunction = keyFunction;
+    
+    // a channel's points depend only on the channel and the point number
+    long[] ring = new long[numChannels * pointsPerChannel];
+    int i = 0;
+    for (int ch = 0; ch < numChannels; ch++) {
+      for (int p = 0; p < pointsPerChannel; p++) {
+        long point = mix((ch * 0x9E3779B9) ^ mix(p));
+        ring[i++] = (point << 32) | ch;
+      }
+    }
+    Arrays.sort(ring);
+    points = new int[ring.length];
+    owners = new int[ring.length];
+    for (i = 0; i < ring.length; i++) {
+      points[i] = (int) (ring[i] >> 32);
+      owners[i] = (int) ring[i];
+    }
+  }
+  
+  /**
+   * Get the channel for a key.
+   * @param key the key
+   * @return the 0-based channel number
+   */
+  public int channel(K key) {
+    int hash = mix(key == null ? 0 : key.hashCode());
+    int i = Arrays.binarySearch(points, hash);
+    if (i < 0) {
+      i = -i - 1;
+      if (i == points.length)
+        i = 0;
+    }
+    return owners[i];
+  }
+  
+  @Override
+  public int applyAsInt(T value) {
+    return channel(keyFunction.apply(value));
+  }
+  
+  /**
+   * Spread the bits of a hash code, the MurmurHash3 finalizer.
+   */
+  private static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+}
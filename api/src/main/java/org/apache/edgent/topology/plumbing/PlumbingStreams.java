@@ -19,6 +19,7 @@ under the License.
 package org.apache.edgent.topology.plumbing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -29,9 +30,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.edgent.function.BiFunction;
 import org.apache.edgent.function.Function;
 import org.apache.edgent.function.ToIntFunction;
+import org.apache.edgent.oplet.plumbing.AdaptivePool;
 import org.apache.edgent.oplet.plumbing.Barrier;
 import org.apache.edgent.oplet.plumbing.Isolate;
 import org.apache.edgent.oplet.plumbing.PressureReliever;
+import org.apache.edgent.oplet.plumbing.PriorityIsolate;
+import org.apache.edgent.oplet.plumbing.Resequencer;
 import org.apache.edgent.oplet.plumbing.UnorderedIsolate;
 import org.apache.edgent.topology.TStream;
 import org.apache.edgent.topology.TopologyProvider;
@@ -251,6 +255,86 @@ public class PlumbingStreams {
       return stream.pipe(new Isolate<T>(queueCapacity));
     }
     
+    /**
+     * Isolate upstream processing from downstream processing, passing
+     * batches of tuples to the downstream processing.
+     * <P>
+     * Same as {@link #isolate(TStream, int)} except that the tuples
+     * in the queue are passed downstream in batches of up to
+     * {@code maxBatchSize} tuples, amortizing the per-tuple cost
+     * of the queue and of downstream oplets and sinks that process a
+     * batch at a time, see {@link org.apache.edgent.function.BatchConsumer BatchConsumer}.
+     * A batch is passed downstream when it is full, when the queue is empty
+     * and {@code maxBatchLatency} is 0, or {@code maxBatchLatency} after
+     * its first tuple was removed from the queue.
+     * </P><P>
+     * Processing of tuples occurs in the order they were received.
+     * </P>
+     * 
+     * @param <T> Tuple type
+     * @param stream Stream to be isolated from downstream processing.
+     * @param queueCapacity size of the queue between {@code stream} and
+     *        the returned stream.
+     * @param maxBatchSize maximum number of tuples in a batch
+     * @param maxBatchLatency maximum time to wait for a batch to fill
+     * @param unit unit of {@code maxBatchLatency}
+     * @return Stream that is isolated from {@code stream}.
+     */
+    public static <T> TStream<T> isolate(TStream<T> stream, int queueCapacity, int maxBatchSize, long maxBatchLatency, TimeUnit unit) {
+      return stream.pipe(new Isolate<T>(queueCapacity, maxBatchSize, maxBatchLatency, unit));
+    }
+    
+    /**
+     * Isolate upstream processing from downstream processing, serving
+     * the tuples of higher priority streams first.
+     * <P>
+     * The returned stream contains the tuples of all the {@code lanes}
+     * streams. Each stream has a queue of size {@code queueCapacity},
+     * a dedicated thread takes the tuples from the queue of the highest
+     * priority stream that has queued tuples.
+     * For example commands can be given precedence over bulk telemetry
+     * processed by the same downstream processing:
+     * </P>
+     * <pre>{@code
+     * TStream<JsonObject> commands = device.commands();
+     * TStream<JsonObject> telemetry = ...;
+     * TStream<JsonObject> all = PlumbingStreams.priorityIsolate(
+     *         Arrays.asList(commands, telemetry), 1000, 100, TimeUnit.MILLISECONDS);
+     * }</pre>
+     * <P>
+     * To avoid starving lower priority streams, a tuple of a stream
+     * other than the first that has waited {@code maxDelay} is served
+     * ahead of tuples of higher priority streams that have not.
+     * Such tuples are served one at a time, alternating with tuples
+     * of the higher priority streams, so the first stream's tuples
+     * are still served promptly when the others are overloaded.
+     * Processing of the tuples of each stream occurs in the order they were received.
+     * </P><P>
+     * The latency of each stream's tuples is available from the
+     * {@link org.apache.edgent.execution.mbeans.PriorityLanesMXBean PriorityLanesMXBean} control.
+     * {@link PriorityIsolate} allows a different deadline for each stream.
+     * </P>
+     * 
+     * @param <T> Tuple type
+     * @param lanes the input streams, in decreasing priority order
+     * @param queueCapacity size of each stream's queue
+     * @param maxDelay maximum time a tuple of a stream other than the first waits
+     *        while tuples of higher priority streams are served, 0 for strict priority
+     * @param unit unit of {@code maxDelay}
+     * @return Stream that is isolated from {@code lanes}.
+     * @see #isolate(TStream, int) isolate
+     */
+    public static <T> TStream<T> priorityIsolate(List<TStream<T>> lanes, int queueCapacity, long maxDelay, TimeUnit unit) {
+      if (lanes.size() < 2)
+        throw new IllegalArgumentException("lanes");
+      // the first lane has no deadline, it is only passed over by overdue tuples
+      long[] deadlines = new long[lanes.size()];
+      Arrays.fill(deadlines, 1, deadlines.length, maxDelay);
+      List<TStream<T>> others = new ArrayList<>(lanes);
+      TStream<T> s1 = others.remove(0);
+      return s1.fanin(new PriorityIsolate<T>(queueCapacity, deadlines, unit), others);
+    }
+    
     /**
      * Perform analytics concurrently.
      * <P>
@@ -529,6 +613,170 @@ public class PlumbingStreams {
       return isolate(result, width);
     }
 
+    /**
+     * Perform an analytic pipeline on tuples in parallel, partitioned by key.
+     * <P>
+     * Same as {@code parallel(stream, width, new ConsistentHashSplitter<>(width, keyFunction), pipeline)}.
+     * </P><P>
+     * All the tuples with the same key are processed by the same
+     * channel, in the order of {@code stream}, so stateful per-key
+     * processing in {@code pipeline}, such as a window partitioned by
+     * the same key, sees all the key's tuples.
+     * The tuples of different keys are not ordered with respect
+     * to each other in the result.
+     * </P><P>
+     * Keys are mapped to channels using a consistent hash ring,
+     * so the mapping depends only on {@code width}, and when
+     * {@code width} is changed, for a later submission of the topology,
+     * only the keys moved to or from the added or removed channels
+     * are processed by a different channel.
+     * </P>
+     * 
+     * @param <T> Input stream tuple type
+     * @param <K> Key type
+     * @param <R> Result stream tuple type
+     * 
+     * @param stream the input stream
+     * @param width number of parallel processing channels
+     * @param keyFunction function that obtains the tuple's key
+     * @param pipeline the pipeline for each channel.  
+     *        {@code pipeline.apply(inputStream,channel)}
+     *        is called to generate the pipeline for each channel.
+     * @return the isolated result from each parallel channel, ordered per key
+     * @see ConsistentHashSplitter
+     * @see #parallel(TStream, int, ToIntFunction, BiFunction) parallel
+     */
+    public static <T,K,R> TStream<R> parallelByKey(TStream<T> stream, int width, Function<T,K> keyFunction, BiFunction<TStream<T>,Integer,TStream<R>> pipeline) {
+      Objects.requireNonNull(keyFunction, "keyFunction");
+      if (width < 1)
+        throw new IllegalArgumentException("width");
+      return parallel(stream, width, new ConsistentHashSplitter<T,K>(width, keyFunction), pipeline);
+    }
+
+    /**
+     * Perform an analytic function on tuples in parallel, maintaining
+     * the order of the tuples.
+     * <P>
+     * Same as {@code parallelOrdered(stream, width, splitter, (s,ch) -> s.map(t -> mapper.apply(t, ch)), maxReorderDistance)}
+     * </P>
+     * @param <T> Input stream tuple type
+     * @param <U> Result stream tuple type
+     * @param stream input stream
+     * @param width number of channels
+     * @param splitter the tuple channel allocation function
+     * @param mapper analytic function, MUST return a non-null result.
+     *        A {@code NullPointerException} is thrown if a null result
+     *        is returned, as the result's turn would never come.
+     * @param maxReorderDistance maximum number of tuples being processed
+     *        by the channels or waiting for their turn to be submitted
+     * @return the ordered result stream
+     * @see #parallelOrdered(TStream, int, ToIntFunction, BiFunction, int) parallelOrdered
+     */
+    public static <T,U> TStream<U> parallelMapOrdered(TStream<T> stream, int width, ToIntFunction<T> splitter, BiFunction<T,Integer,U> mapper, int maxReorderDistance) {
+      Objects.requireNonNull(mapper, "mapper");
+      BiFunction<TStream<T>,Integer,TStream<U>> pipeline = (s,ch) -> s.map(t -> {
+        U result = mapper.apply(t, ch);
+        if (result == null)
+          throw new NullPointerException("parallelMapOrdered mapper returned null for tuple " + t);
+        return result;
+      });
+      return parallelOrdered(stream, width, splitter, pipeline, maxReorderDistance);
+    }
+
+    /**
+     * Perform an analytic pipeline on tuples in parallel, maintaining
+     * the order of the tuples.
+     * <P>
+     * Splits {@code stream} into {@code width} parallel processing channels,
+     * partitioning tuples among the channels using {@code splitter}.
+     * Each channel runs a copy of {@code pipeline}.
+     * The resulting stream is isolated from the upstream parallel channels.
+     * </P><P>
+     * Each tuple is assigned a sequence number as it is split,
+     * the results from the channels are resequenced so that the result
+     * of a tuple is submitted after the results of the tuples preceding it
+     * in {@code stream}. Results yielded ahead of their turn are buffered.
+     * At most {@code maxReorderDistance} tuples are in the channels or
+     * buffered, the split blocks until a tuple's result is submitted
+     * when the limit is reached. The limit also bounds the number of
+     * tuples processed concurrently, it should be at least {@code width}.
+     * </P><P>
+     * A {@code pipeline} <b>MUST</b> yield exactly one result for each input
+     * tuple, in the order of its input tuples.  Failure to do so stalls
+     * the submission of results.
+     * </P><P>
+     * The buffer's size and the number of times and the time the split
+     * was blocked are available from the {@link org.apache.edgent.execution.mbeans.FlowControlMXBean}
+     * control of the {@link Resequencer}.
+     * </P><P>
+     * The generated org.apache.edgent.graph looks like this:
+     * </P>
+     * <pre>{@code
+     * -
+     *                                    |-> isolate(10) -> pipeline-ch1 -> |
+     * stream -> split(width,splitter) -> |-> isolate(10) -> pipeline-ch2 -> |-> resequencer -> isolate(width)
+     *                                    |-> isolate(10) -> pipeline-ch3 -> |
+     *                                                . . .
+     * }</pre>
+     * <P>
+     * Note, this implementation requires that the splitter and the
+     * resequencer are in a single JVM.  The {@code org.apache.edgent.providers.direct.DirectProvider}
+     * provider meets this requirement.
+     * </P>
+     * 
+     * @param <T> Input stream tuple type
+     * @param <R> Result stream tuple type
+     * 
+     * @param stream the input stream
+     * @param width number of parallel processing channels
+     * @param splitter the tuple channel allocation function
+     * @param pipeline the pipeline for each channel.  
+     *        {@code pipeline.apply(inputStream,channel)}
+     *        is called to generate the pipeline for each channel.
+     * @param maxReorderDistance maximum number of tuples being processed
+     *        by the channels or waiting for their turn to be submitted
+     * @return the isolated result from the parallel channels, in the order
+     *        of {@code stream}
+     * @see #parallel(TStream, int, ToIntFunction, BiFunction) parallel
+     * @see Resequencer
+     */
+    public static <T,R> TStream<R> parallelOrdered(TStream<T> stream, int width, ToIntFunction<T> splitter, BiFunction<TStream<T>,Integer,TStream<R>> pipeline, int maxReorderDistance) {
+      Objects.requireNonNull(stream, "stream");
+      if (width < 1)
+        throw new IllegalArgumentException("width");
+      Objects.requireNonNull(splitter, "splitter");
+      Objects.requireNonNull(pipeline, "pipeline");
+      if (maxReorderDistance < 1)
+        throw new IllegalArgumentException("maxReorderDistance");
+      
+      Resequencer<R> resequencer = new Resequencer<>(width, maxReorderDistance);
+      
+      // Add the splitter, sequencing the tuples
+      List<TStream<T>> channels = stream.split(width, tuple -> {
+        int ch = splitter.applyAsInt(tuple);
+        return ch < 0 ? ch : resequencer.sequence(ch % width);
+      });
+      for (int ch = 0; ch < width; ch++)
+        channels.set(ch, channels.get(ch).tag("parallel.split-ch"+ch));
+      
+      // Add concurrency (isolation) to the channels
+      int chBufferSize = 10; // don't immediately block stream if channel is busy
+      for (int ch = 0; ch < width; ch++)
+        channels.set(ch, isolate(channels.get(ch), chBufferSize).tag("parallel.isolated-ch"+ch));
+      
+      // Add pipelines
+      List<TStream<R>> results = new ArrayList<>(width);
+      for (int ch = 0; ch < width; ch++) {
+        results.add(pipeline.apply(channels.get(ch), ch).tag("parallel-ch"+ch));
+      }
+      
+      // Add the Resequencer
+      TStream<R> result = results.remove(0).fanin(resequencer, results).tag("parallel.resequencer");
+      
+      // Add the isolate - keep channel threads to just their pipeline processing
+      return isolate(result, width);
+    }
+
     /**
      * Perform an analytic pipeline on tuples in parallel.
      * <P>
@@ -607,6 +855,103 @@ public class PlumbingStreams {
       return isolate(result, width);
     }
     
+    /**
+     * Perform an analytic pipeline on tuples in parallel, adapting
+     * the number of channels processing tuples to the load.
+     * <P>
+     * Same as {@code parallelAdaptive(stream, new AdaptivePool<T>(minWidth, maxWidth), pipeline)}.
+     * </P>
+     * 
+     * @param <T> Input stream tuple type
+     * @param <R> Result stream tuple type
+     * 
+     * @param stream the input stream
+     * @param minWidth minimum number of channels processing tuples
+     * @param maxWidth maximum number of channels processing tuples
+     * @param pipeline the pipeline for each channel.  
+     *        {@code pipeline.apply(inputStream,channel)}
+     *        is called to generate the pipeline for each channel.
+     * @return the isolated unordered result from each parallel channel
+     * @see #parallelAdaptive(TStream, AdaptivePool, BiFunction)
+     */
+    public static <T,R> TStream<R> parallelAdaptive(TStream<T> stream, int minWidth, int maxWidth, BiFunction<TStream<T>,Integer,TStream<R>> pipeline) {
+      return parallelAdaptive(stream, new AdaptivePool<T>(minWidth, maxWidth), pipeline);
+    }
+    
+    /**
+     * Perform an analytic pipeline on tuples in parallel, adapting
+     * the number of channels processing tuples to the load.
+     * <P>
+     * Splits {@code stream} into {@code pool.getMaxWidth()} parallel
+     * processing channels, each running a copy of {@code pipeline}.
+     * Tuples are queued by the {@link AdaptivePool}, and processed by
+     * its active channels, an active channel whose queue is empty
+     * takes the tuples queued for other channels.
+     * The number of active channels is adjusted between {@code pool.getMinWidth()}
+     * and {@code pool.getMaxWidth()} from the depth of the pool's queue and
+     * the measured per-tuple latency, and is available and can be set through the
+     * pool's {@link org.apache.edgent.execution.mbeans.ParallelMXBean ParallelMXBean} control.
+     * The resulting stream is isolated from the upstream parallel channels.
+     * </P><P>
+     * The ordering of tuples in {@code stream} is not maintained in the
+     * results from {@code parallelAdaptive}.
+     * Unlike {@link #parallelBalanced(TStream, int, BiFunction) parallelBalanced}
+     * a {@code pipeline} may yield any number of results for a tuple.
+     * </P><P>
+     * The generated org.apache.edgent.graph looks like this:
+     * </P>
+     * <pre>{@code
+     * -
+     *                              |-> pool.worker(0) -> pipeline-ch0 -> |
+     * stream -> split(max,pool) -> |-> pool.worker(1) -> pipeline-ch1 -> |-> union -> isolate(max)
+     *                              |-> pool.worker(2) -> pipeline-ch2 -> |
+     *                                          . . .
+     * }</pre>
+     * <P>
+     * Note, this implementation requires that the pool is used from
+     * only a single JVM.  The {@code org.apache.edgent.providers.direct.DirectProvider}
+     * provider meets this requirement.
+     * </P>
+     * 
+     * @param <T> Input stream tuple type
+     * @param <R> Result stream tuple type
+     * 
+     * @param stream the input stream
+     * @param pool the pool distributing the tuples, used by a single region
+     * @param pipeline the pipeline for each channel.  
+     *        {@code pipeline.apply(inputStream,channel)}
+     *        is called to generate the pipeline for each channel.
+     * @return the isolated unordered result from each parallel channel
+     * @see AdaptivePool
+     */
+    public static <T,R> TStream<R> parallelAdaptive(TStream<T> stream, AdaptivePool<T> pool, BiFunction<TStream<T>,Integer,TStream<R>> pipeline) {
+      Objects.requireNonNull(stream, "stream");
+      Objects.requireNonNull(pool, "pool");
+      Objects.requireNonNull(pipeline, "pipeline");
+      int width = pool.getMaxWidth();
+      
+      // Add the splitter
+      List<TStream<T>> channels = stream.split(width, pool);
+      for (int ch = 0; ch < width; ch++)
+        channels.set(ch, channels.get(ch).tag("parallel.split-ch"+ch));
+      
+      // Add the pool's workers, providing the concurrency
+      for (int ch = 0; ch < width; ch++)
+        channels.set(ch, channels.get(ch).pipe(pool.newWorker(ch)).tag("parallel.worker-ch"+ch));
+      
+      // Add pipelines
+      List<TStream<R>> results = new ArrayList<>(width);
+      for (int ch = 0; ch < width; ch++) {
+        results.add(pipeline.apply(channels.get(ch), ch).tag("parallel-ch"+ch));
+      }
+      
+      // Add the Union
+      TStream<R> result =  results.get(0).union(new HashSet<>(results)).tag("parallel.union");
+      
+      // Add the isolate - keep channel threads to just their pipeline processing
+      return isolate(result, width);
+    }
+    
     /**
      * A round-robin splitter ToIntFunction
      * <P>
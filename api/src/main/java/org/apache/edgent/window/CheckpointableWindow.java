@@ -0,0 +1,60 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.window;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A window whose contents can be saved and restored,
+ * so the state of a windowed oplet can be checkpointed.
+ * Windows created by {@link Windows} are checkpointable.
+ *
+ * @param <T> Tuple type
+ * @param <K> Key type
+ * @param <L> List type that holds the contents of a partition
+ */
+public interface CheckpointableWindow<T, K, L extends List<T>> extends Window<T, K, L> {
+
+    /**
+     * Takes a copy of the contents of the window's partitions.
+     * Each partition's contents are copied while synchronizing on
+     * the partition, tuples may be inserted into other partitions
+     * while the copy is taken.
+     * 
+     * @return A map of the window's keys to copies of the contents of their partitions.
+     */
+    Map<K, List<T>> snapshotContents();
+
+    /**
+     * Restores the contents of the window's partitions.
+     * Each tuple is added to the contents of the partition for
+     * its key after applying the contents policy, as for
+     * {@link #insert(Object)}, but the insertion and trigger
+     * policies are not applied, so restoring the contents does not
+     * process the window.
+     * Tuples of windows with time based contents are
+     * treated as inserted when they are restored.
+     * 
+     * @param contents A map of keys to the contents of their partitions,
+     *        as returned by {@link #snapshotContents()}.
+     */
+    void restoreContents(Map<K, ? extends List<T>> contents);
+
+}
@@ -18,20 +18,33 @@ under the License.
 */
 package org.apache.edgent.window;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.edgent.function.Checkpointable;
 import org.apache.edgent.function.Supplier;
 
 /**
  * Maintain partitioned state.
  * Abstract class that can be used to maintain state 
  * for each keyed partition in a {@link Window}.
+ * <P>
+ * The state of all the keys is {@link Checkpointable checkpointed}
+ * when the subclass is a function of a functional oplet.
+ * States are copied by serializing them when the snapshot
+ * is taken, so the state type must be serializable.
+ * </P>
  *
  * @param <K> Key type.
  * @param <S> State type.
  */
-public abstract class PartitionedState<K, S> {
+public abstract class PartitionedState<K, S> implements Checkpointable {
 
     private final Supplier<S> initialState;
     private final Map<K, S> states = new HashMap<>();
@@ -77,4 +90,41 @@ public abstract class PartitionedState<K, S> {
     protected synchronized S removeState(K key) {
         return states.remove(key);
     }
+
+    /**
+     * Take a snapshot of the state of all the keys.
+     * @return A serialized copy of the states.
+     */
+    @Override
+    public synchronized Serializable snapshotState() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(new HashMap<>(states));
+            out.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Replace the state of all the keys with a snapshot.
+     * @param state A snapshot returned by {@link #snapshotState()}.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public void restoreState(Serializable state) {
+        Map<K, S> restored;
+        try {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream((byte[]) state));
+            restored = (Map<K, S>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+        synchronized (this) {
+            states.clear();
+            states.putAll(restored);
+        }
+    }
 }
@@ -169,6 +169,32 @@ public class Policies {
         };
     }
     
+    /**
+     * Returns a count-based contents policy whose count can change.
+     * If, when called, the number of tuples in the partition is
+     * greater than equal to the current {@code count} then {@code partition.evict()}
+     * is called, repeatedly while evicting reduces the number of tuples,
+     * so that a partition is trimmed once the count is reduced.
+     * @param <T> Tuple type
+     * @param <K> Key type
+     * @param <L> List type for the partition contents.
+     * @param count supplier of the count, e.g. a {@link WindowCount}
+     * @return A count-based contents policy.
+     */
+    public static <T, K, L extends List<T>> BiConsumer<Partition<T, K, L>, T> countContentsPolicy(final Supplier<Integer> count){
+        return (partition, tuple) -> {
+            final int max = count.get();
+            int size = partition.getContents().size();
+            while (size >= max) {
+                partition.evict();
+                final int evicted = size;
+                size = partition.getContents().size();
+                if (size >= evicted)
+                    break;
+            }
+        };
+    }
+    
     /**
      * Returns a Consumer representing an evict determiner that evict all tuples
      * from the window.
@@ -223,6 +249,25 @@ public class Policies {
         };
     }
     
+    /**
+     * Returns a trigger policy that triggers when the size of a partition
+     * equals or exceeds a value that can change, and then evicts its contents.
+     * @param <T> Tuple type
+     * @param <K> Key type
+     * @param <L> List type for the partition contents.
+     * @param size supplier of the partition size, e.g. a {@link WindowCount}
+     * @return A trigger policy that triggers processing when the size of 
+     * the partition equals or exceeds the current value.
+     */ 
+    public static <T, K, L extends List<T>> BiConsumer<Partition<T, K, L>, T> processWhenFullAndEvict(final Supplier<Integer> size){
+        return (partition, tuple) -> {
+            if(partition.getContents().size() >= size.get()){
+                partition.process();
+                partition.evict();
+            }
+        };
+    }
+    
     /**
      * A {@link BiConsumer} policy which does nothing.
      * @param <T> Tuple type
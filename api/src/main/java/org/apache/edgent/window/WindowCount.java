@@ -0,0 +1,65 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.window;
+
+import org.apache.edgent.execution.mbeans.CountMXBean;
+import org.apache.edgent.function.Supplier;
+
+/**
+ * A count of tuples for a window's count-based policies
+ * that can be changed while the window is in use.
+ * <P>
+ * Policies created with a {@code WindowCount}, such as
+ * {@link Policies#countContentsPolicy(Supplier)}, read the count
+ * once each time they are invoked, which is while the partition
+ * being inserted into is locked. A changed count thus applies
+ * from the next tuple inserted into a partition.
+ * </P>
+ */
+public final class WindowCount implements Supplier<Integer>, CountMXBean {
+    private static final long serialVersionUID = 1L;
+
+    private volatile int count;
+
+    /**
+     * Create a window count.
+     * @param count the initial count
+     * @throws IllegalArgumentException if {@code count} is not positive
+     */
+    public WindowCount(int count) {
+        setCount(count);
+    }
+
+    @Override
+    public Integer get() {
+        return count;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void setCount(int count) {
+        if (count <= 0)
+            throw new IllegalArgumentException("count");
+        this.count = count;
+    }
+}
@@ -18,6 +18,7 @@ under the License.
 */
 package org.apache.edgent.window;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,7 +31,7 @@ import org.apache.edgent.function.Function;
 import org.apache.edgent.function.Supplier;
 
 
-class WindowImpl<T, K, L extends List<T>> implements Window<T, K, L> {
+class WindowImpl<T, K, L extends List<T>> implements CheckpointableWindow<T, K, L> {
     private final BiFunction<Partition<T, K, L>, T, Boolean> insertionPolicy;
     private final BiConsumer<Partition<T, K, L>, T> contentsPolicy;
     private final Consumer<Partition<T, K, L> > evictDeterminer;
@@ -59,17 +60,20 @@ class WindowImpl<T, K, L extends List<T>> implements Window<T, K, L> {
     @Override
     public boolean insert(T tuple) {
         K key = keyFunction.apply(tuple);
-        Partition<T, K, L> partition;
+        Partition<T, K, L> partition = getPartition(key);
         
+        return partition.insert(tuple);      
+    }
+
+    private Partition<T, K, L> getPartition(K key) {
         synchronized (partitions) {
-            partition = partitions.get(key);
+            Partition<T, K, L> partition = partitions.get(key);
             if (partition == null) {
                 partition = new PartitionImpl<T, K, L>(this, listSupplier.get(), key);
                 partitions.put(key, partition);
             }
+            return partition;
         }
-        
-        return partition.insert(tuple);      
     }
 
    
@@ -124,4 +128,32 @@ class WindowImpl<T, K, L extends List<T>> implements Window<T, K, L> {
         return partitions;
     }
 
+    @Override
+    public Map<K, List<T>> snapshotContents() {
+        List<Partition<T, K, L>> current;
+        synchronized (partitions) {
+            current = new ArrayList<>(partitions.values());
+        }
+        Map<K, List<T>> contents = new HashMap<>();
+        for (Partition<T, K, L> partition : current) {
+            synchronized (partition) {
+                contents.put(partition.getKey(), new ArrayList<>(partition.getContents()));
+            }
+        }
+        return contents;
+    }
+
+    @Override
+    public void restoreContents(Map<K, ? extends List<T>> contents) {
+        for (Map.Entry<K, ? extends List<T>> entry : contents.entrySet()) {
+            Partition<T, K, L> partition = getPartition(entry.getKey());
+            synchronized (partition) {
+                for (T tuple : entry.getValue()) {
+                    contentsPolicy.accept(partition, tuple);
+                    partition.getContents().add(tuple);
+                }
+            }
+        }
+    }
+
 }
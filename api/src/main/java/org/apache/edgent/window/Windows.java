@@ -99,5 +99,36 @@ public class Windows {
 
         return window;
     }
+
+    /**
+     * Return a window that maintains the last {@code count} tuples inserted
+     * with processing triggered on every insert, where {@code count}
+     * can change while the window is in use.
+     * Once the count is reduced the next insertion into a partition
+     * evicts its oldest tuples until the partition contains
+     * fewer than {@code count} tuples.
+     * 
+     * @param <T> Tuple type.
+     * @param <K> Key type.
+     * 
+     * @param count Supplier of the number of tuples to maintain per partition,
+     * e.g. a {@link WindowCount}
+     * @param keyFunction Tuple partitioning key function
+     * @return window that maintains the last {@code count} tuples on a stream
+     * @see #lastNProcessOnInsert(int, Function)
+     */
+    public static <T, K> Window<T, K, LinkedList<T>> lastNProcessOnInsert(final Supplier<Integer> count,
+            Function<T, K> keyFunction) {
+
+        Window<T, K, LinkedList<T>> window = Windows.window(
+                alwaysInsert(),
+                countContentsPolicy(count), 
+                evictOldest(), 
+                processOnInsert(), 
+                keyFunction, 
+                () -> new LinkedList<T>());
+
+        return window;
+    }
     
 }
@@ -0,0 +1,184 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.topology;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.apache.edgent.topology.columnar.ColumnBatch;
+import org.apache.edgent.topology.columnar.Schema;
+import org.apache.edgent.topology.columnar.Schema.Type;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+
+public class ColumnBatchTest {
+
+    private static Schema newSchema() {
+        return new Schema.Builder()
+                .add("ts", Type.LONG)
+                .add("temp", Type.DOUBLE)
+                .build();
+    }
+
+    private static ColumnBatch newBatch() {
+        ColumnBatch batch = new ColumnBatch(newSchema(), 4);
+        long[] ts = batch.getLongs("ts");
+        double[] temp = batch.getDoubles("temp");
+        for (int i = 0; i < batch.size(); i++) {
+            ts[i] = 100 + i;
+            temp[i] = i * 1.5;
+        }
+        return batch;
+    }
+
+    @Test
+    public void testSchema() {
+        Schema schema = newSchema();
+        assertEquals(2, schema.getColumnCount());
+        assertEquals(0, schema.indexOf("ts"));
+        assertEquals(1, schema.indexOf("temp"));
+        assertEquals(-1, schema.indexOf("humidity"));
+        assertEquals("temp", schema.getName(1));
+        assertEquals(Type.LONG, schema.getType(0));
+        assertEquals(Type.DOUBLE, schema.getType(1));
+        assertEquals(Arrays.asList("ts", "temp"), schema.getNames());
+        assertEquals("{ts:LONG, temp:DOUBLE}", schema.toString());
+
+        assertEquals(newSchema(), schema);
+        assertEquals(newSchema().hashCode(), schema.hashCode());
+        assertNotEquals(new Schema.Builder().add("ts", Type.DOUBLE).add("temp", Type.DOUBLE).build(), schema);
+
+        try {
+            new Schema.Builder().add("ts", Type.LONG).add("ts", Type.DOUBLE);
+            fail("duplicate column");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSchemaWith() {
+        Schema schema = newSchema();
+        assertSame(schema, schema.with("temp", Type.DOUBLE));
+
+        Schema added = schema.with("humidity", Type.DOUBLE);
+        assertEquals(Arrays.asList("ts", "temp", "humidity"), added.getNames());
+        assertEquals(Type.DOUBLE, added.getType(2));
+        assertEquals(2, schema.getColumnCount());
+
+        Schema replaced = schema.with("ts", Type.DOUBLE);
+        assertEquals(Arrays.asList("ts", "temp"), replaced.getNames());
+        assertEquals(Type.DOUBLE, replaced.getType(0));
+        assertEquals(Type.LONG, schema.getType(0));
+    }
+
+    @Test
+    public void testColumnTypes() {
+        ColumnBatch batch = new ColumnBatch(newSchema(), 3);
+        assertEquals(3, batch.size());
+        assertArrayEquals(new long[3], batch.getLongs(0));
+        assertArrayEquals(new double[3], batch.getDoubles(1), 0.0);
+
+        try {
+            batch.getDoubles("ts");
+            fail("LONG column");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            batch.getLongs(1);
+            fail("DOUBLE column");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            batch.getLongs("humidity");
+            fail("no column");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // values are converted to the column's type
+        batch.set(0, 1, 2.7);
+        batch.set(1, 1, 3L);
+        assertEquals(Long.valueOf(2), batch.get(0, 1));
+        assertEquals(Double.valueOf(3.0), batch.get(1, 1));
+        assertEquals(2.0, batch.getAsDouble(0, 1), 0.0);
+        assertArrayEquals(new double[] {0, 2, 0}, batch.getAsDoubles(0), 0.0);
+        assertSame(batch.getDoubles(1), batch.getAsDoubles(1));
+    }
+
+    @Test
+    public void testWithColumn() {
+        ColumnBatch batch = newBatch();
+        double[] tempF = {32, 34.7, 37.4, 40.1};
+        ColumnBatch mapped = batch.withColumn("tempF", tempF);
+        assertEquals(batch.getSchema().with("tempF", Type.DOUBLE), mapped.getSchema());
+        assertSame(tempF, mapped.getDoubles("tempF"));
+        assertSame(batch.getLongs("ts"), mapped.getLongs("ts"));
+        assertEquals(2, batch.getSchema().getColumnCount());
+
+        // replacing a column may change its type
+        long[] temp = {0, 1, 3, 4};
+        ColumnBatch replaced = batch.withColumn("temp", temp);
+        assertEquals(Type.LONG, replaced.getSchema().getType(1));
+        assertSame(temp, replaced.getLongs("temp"));
+
+        try {
+            batch.withColumn("tempF", new double[3]);
+            fail("wrong length");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSelect() {
+        ColumnBatch batch = newBatch();
+        ColumnBatch selected = batch.select(new boolean[] {false, true, false, true});
+        assertEquals(batch.getSchema(), selected.getSchema());
+        assertEquals(2, selected.size());
+        assertArrayEquals(new long[] {101, 103}, selected.getLongs("ts"));
+        assertArrayEquals(new double[] {1.5, 4.5}, selected.getDoubles("temp"), 0.0);
+
+        assertSame(batch, batch.select(new boolean[] {true, true, true, true}));
+        assertEquals(0, batch.select(new boolean[4]).size());
+
+        try {
+            batch.select(new boolean[3]);
+            fail("wrong length");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testToJson() {
+        JsonObject expected = new JsonObject();
+        expected.addProperty("ts", 102L);
+        expected.addProperty("temp", 3.0);
+        assertEquals(expected, newBatch().toJson(2));
+    }
+}
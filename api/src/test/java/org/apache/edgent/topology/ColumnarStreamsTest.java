@@ -0,0 +1,181 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.topology;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.edgent.function.Function;
+import org.apache.edgent.topology.columnar.ColumnBatch;
+import org.apache.edgent.topology.columnar.ColumnarStreams;
+import org.apache.edgent.topology.columnar.Schema;
+import org.apache.edgent.topology.columnar.Schema.Type;
+import org.apache.edgent.topology.tester.Condition;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+
+@Ignore
+public abstract class ColumnarStreamsTest extends TopologyAbstractTest {
+
+    private static final Schema SCHEMA = new Schema.Builder()
+            .add("ts", Type.LONG)
+            .add("temp", Type.DOUBLE)
+            .build();
+
+    private static JsonObject reading(long ts, double temp) {
+        JsonObject jo = new JsonObject();
+        jo.addProperty("ts", ts);
+        jo.addProperty("temp", temp);
+        return jo;
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        Topology topology = newTopology();
+
+        // the seventh tuple does not fill a batch
+        TStream<Integer> values = topology.of(1, 2, 3, 4, 5, 6, 7);
+        List<Function<Integer, Number>> getters = new ArrayList<>();
+        getters.add(v -> v * 10);
+        getters.add(v -> v / 2.0);
+        TStream<ColumnBatch> batches = ColumnarStreams.batch(values, 3, SCHEMA, getters);
+
+        Condition<Long> count = topology.getTester().tupleCount(batches, 2);
+        Condition<List<ColumnBatch>> contents = topology.getTester().streamContents(batches);
+        complete(topology, count);
+        assertTrue(count.valid());
+
+        List<ColumnBatch> result = contents.getResult();
+        assertEquals(2, result.size());
+        assertEquals(SCHEMA, result.get(0).getSchema());
+        assertArrayEquals(new long[] {10, 20, 30}, result.get(0).getLongs("ts"));
+        assertArrayEquals(new double[] {0.5, 1.0, 1.5}, result.get(0).getDoubles("temp"), 0.0);
+        assertArrayEquals(new long[] {40, 50, 60}, result.get(1).getLongs("ts"));
+        assertArrayEquals(new double[] {2.0, 2.5, 3.0}, result.get(1).getDoubles("temp"), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchGetters() throws Exception {
+        Topology topology = newTopology();
+        List<Function<Integer, Number>> getters = new ArrayList<>();
+        getters.add(v -> v);
+        ColumnarStreams.batch(topology.of(1, 2), 2, SCHEMA, getters);
+    }
+
+    @Test
+    public void testBatchJson() throws Exception {
+        Topology topology = newTopology();
+
+        // a missing or null property's value is 0
+        JsonObject missing = new JsonObject();
+        missing.addProperty("ts", 3);
+        JsonObject nullTemp = reading(4, 0);
+        nullTemp.add("temp", null);
+        TStream<JsonObject> readings = topology.of(reading(1, 20.5), reading(2, 21.5), missing, nullTemp);
+        TStream<ColumnBatch> batches = ColumnarStreams.batchJson(readings, 4, SCHEMA);
+
+        Condition<Long> count = topology.getTester().tupleCount(batches, 1);
+        Condition<List<ColumnBatch>> contents = topology.getTester().streamContents(batches);
+        complete(topology, count);
+        assertTrue(count.valid());
+
+        ColumnBatch batch = contents.getResult().get(0);
+        assertArrayEquals(new long[] {1, 2, 3, 4}, batch.getLongs("ts"));
+        assertArrayEquals(new double[] {20.5, 21.5, 0, 0}, batch.getDoubles("temp"), 0.0);
+    }
+
+    @Test
+    public void testMapColumnFilter() throws Exception {
+        Topology topology = newTopology();
+
+        // the second batch has no hot readings and is discarded
+        TStream<JsonObject> readings = topology.of(
+                reading(1, 20), reading(2, 40), reading(3, 37), reading(4, 50),
+                reading(5, 10), reading(6, 12), reading(7, 14), reading(8, 16),
+                reading(9, 45), reading(10, 0), reading(11, 0), reading(12, 0));
+        TStream<ColumnBatch> batches = ColumnarStreams.batchJson(readings, 4, SCHEMA);
+        batches = ColumnarStreams.mapColumn(batches, "tempF", batch -> {
+            double[] temp = batch.getDoubles("temp");
+            double[] tempF = new double[temp.length];
+            for (int i = 0; i < temp.length; i++)
+                tempF[i] = temp[i] * 1.8 + 32;
+            return tempF;
+        });
+        batches = ColumnarStreams.filter(batches, batch -> {
+            double[] tempF = batch.getDoubles("tempF");
+            boolean[] hot = new boolean[tempF.length];
+            for (int i = 0; i < tempF.length; i++)
+                hot[i] = tempF[i] > 100;
+            return hot;
+        });
+
+        Condition<Long> count = topology.getTester().tupleCount(batches, 2);
+        Condition<List<ColumnBatch>> contents = topology.getTester().streamContents(batches);
+        complete(topology, count);
+        assertTrue(count.valid());
+
+        List<ColumnBatch> result = contents.getResult();
+        assertEquals(2, result.size());
+        assertEquals(Arrays.asList("ts", "temp", "tempF"), result.get(0).getSchema().getNames());
+        assertArrayEquals(new long[] {2, 4}, result.get(0).getLongs("ts"));
+        assertArrayEquals(new double[] {104, 122}, result.get(0).getDoubles("tempF"), 1e-9);
+        assertArrayEquals(new long[] {9}, result.get(1).getLongs("ts"));
+        assertArrayEquals(new double[] {113}, result.get(1).getDoubles("tempF"), 1e-9);
+    }
+
+    @Test
+    public void testUnbatch() throws Exception {
+        Topology topology = newTopology();
+
+        // rows mapped to null are discarded
+        TStream<JsonObject> readings = topology.of(
+                reading(1, 20), reading(2, 21), reading(3, 22), reading(4, 23));
+        TStream<ColumnBatch> batches = ColumnarStreams.batchJson(readings, 2, SCHEMA);
+        TStream<String> rows = ColumnarStreams.unbatch(batches,
+                (batch, row) -> row == 1 ? null : batch.getLongs("ts")[row] + ":" + batch.getDoubles("temp")[row]);
+
+        Condition<Long> count = topology.getTester().tupleCount(rows, 2);
+        Condition<List<String>> contents = topology.getTester().streamContents(rows, "1:20.0", "3:22.0");
+        complete(topology, count);
+        assertTrue(contents.getResult().toString(), contents.valid());
+    }
+
+    @Test
+    public void testUnbatchJson() throws Exception {
+        Topology topology = newTopology();
+
+        TStream<JsonObject> readings = topology.of(
+                reading(1, 20.5), reading(2, 21.5), reading(3, 22.5));
+        TStream<ColumnBatch> batches = ColumnarStreams.batchJson(readings, 3, SCHEMA);
+        TStream<JsonObject> rows = ColumnarStreams.unbatchJson(batches);
+
+        Condition<Long> count = topology.getTester().tupleCount(rows, 3);
+        Condition<List<JsonObject>> contents = topology.getTester().streamContents(rows,
+                reading(1, 20.5), reading(2, 21.5), reading(3, 22.5));
+        complete(topology, count);
+        assertTrue(contents.getResult().toString(), contents.valid());
+    }
+}
@@ -25,17 +25,28 @@ import static org.junit.Assume.assumeTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
+import org.apache.edgent.execution.Job;
+import org.apache.edgent.function.BatchConsumer;
 import org.apache.edgent.function.BiFunction;
 import org.apache.edgent.function.Function;
 import org.apache.edgent.function.Functions;
 import org.apache.edgent.function.ToIntFunction;
+import org.apache.edgent.oplet.plumbing.AdaptivePool;
+import org.apache.edgent.oplet.plumbing.Isolate;
+import org.apache.edgent.oplet.plumbing.PriorityIsolate;
+import org.apache.edgent.oplet.plumbing.Resequencer;
+import org.apache.edgent.topology.plumbing.ConsistentHashSplitter;
 import org.apache.edgent.topology.plumbing.PlumbingStreams;
 import org.apache.edgent.topology.plumbing.Valve;
 import org.apache.edgent.topology.tester.Condition;
@@ -209,6 +220,63 @@ public abstract class PlumbingTest extends TopologyAbstractTest {
         assertTrue(contents.valid());
     }
     
+    @Test
+    public void testIsolateCredit() throws Exception {
+
+        Topology topology = newTopology();
+        
+        // The source only obtains a tuple when the bounded isolate's
+        // queue, reached through the filter, has space for it.
+        final int capacity = 5;
+        AtomicInteger obtained = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        TStream<Integer> raw = topology.source(() -> new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    @Override
+                    public boolean hasNext() {
+                        return obtained.get() < 50;
+                    }
+                    @Override
+                    public Integer next() {
+                        int n = obtained.incrementAndGet();
+                        int ahead = n - processed.get();
+                        if (ahead > maxAhead.get())
+                            maxAhead.set(ahead);
+                        return n;
+                    }
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        });
+        
+        Isolate<Integer> isolate = new Isolate<>(capacity);
+        TStream<Integer> isolated = raw.filter(t -> t > 0).pipe(isolate);
+        TStream<Integer> slow = isolated.peek(t -> {
+            processed.incrementAndGet();
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        
+        Condition<Long> tcCount = topology.getTester().tupleCount(slow, 50);
+        complete(topology, tcCount);
+        
+        assertTrue(tcCount.valid());
+        // queued tuples, one taken from the queue and the one obtained
+        assertTrue("ahead " + maxAhead.get(), maxAhead.get() <= capacity + 1);
+        assertEquals(capacity, isolate.getQueueCapacity());
+        assertTrue(isolate.getBlockedCount() > 0);
+        assertTrue(isolate.getBlockedTime() > 0);
+    }
+    
     @Test
     public void testPressureRelieverContinuous() throws Exception {
 		// Timing variances on shared machines can cause this test to fail
@@ -683,6 +751,422 @@ public abstract class PlumbingTest extends TopologyAbstractTest {
                 && evenChCnt <= (expEvenChCnt + thresholdCnt)); 
     }
     
+    @Test
+    public void testParallelOrdered() throws Exception {
+        Topology top = newTopology("testParallelOrdered");
+        
+        // channel 0 is slower, its results are ready after those of the other channels
+        int width = 4;
+        BiFunction<TStream<Integer>,Integer,TStream<JsonObject>> pipeline =
+            (stream,ch) -> stream.map(fakeAnalytic(ch, ch == 0 ? 30 : 5, TimeUnit.MILLISECONDS));
+        ToIntFunction<Integer> splitter = tuple -> tuple % width;
+        
+        int tupCnt = 40;
+        Integer[] resultTuples = new Integer[tupCnt];
+        for (int i = 0; i < tupCnt; i++)
+          resultTuples[i] = i;
+        TStream<Integer> values = top.of(resultTuples);
+        
+        TStream<JsonObject> result = PlumbingStreams.parallelOrdered(values, width, splitter, pipeline, 8).tag("result");
+        TStream<Integer> result2 = result.map(jo -> {
+            int r = jo.get("result").getAsInt();
+            assertEquals(splitter.applyAsInt(r), jo.get("channel").getAsInt());
+            return r;
+          });
+        
+        Condition<Long> count = top.getTester().tupleCount(result2, resultTuples.length);
+        Condition<List<Integer>> contents = top.getTester().streamContents(result2, resultTuples);
+        complete(top, count);
+        
+        assertTrue(contents.getResult().toString(), contents.valid());
+    }
+    
+    @Test
+    public void testParallelMapOrderedNullResult() throws Exception {
+        Topology top = newTopology("testParallelMapOrderedNullResult");
+        
+        // a null result fails the job instead of stalling the resequencer
+        TStream<Integer> values = top.of(1, 2, 3, 4, 5, 6, 7, 8);
+        TStream<Integer> result = PlumbingStreams.parallelMapOrdered(values, 2,
+            tuple -> tuple % 2, (tuple, ch) -> tuple == 3 ? null : tuple, 4);
+        result.sink(tuple -> {});
+        
+        Job job = (Job) getSubmitter().submit(top).get();
+        try {
+            job.complete(10, TimeUnit.SECONDS);
+            Assert.fail("expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertEquals(Job.Health.UNHEALTHY, job.getHealth());
+            assertTrue(job.getLastError(), job.getLastError().contains("parallelMapOrdered mapper returned null"));
+        }
+    }
+    
+    @Test
+    public void testResequencerStall() throws Exception {
+        Topology top = newTopology("testResequencerStall");
+        
+        int width = 2;
+        int maxReorderDistance = 3;
+        Resequencer<Integer> resequencer = new Resequencer<>(width, maxReorderDistance);
+        AtomicInteger maxBuffered = new AtomicInteger();
+        
+        Integer[] resultTuples = new Integer[20];
+        for (int i = 0; i < resultTuples.length; i++)
+          resultTuples[i] = i;
+        TStream<Integer> values = top.of(resultTuples);
+        
+        List<TStream<Integer>> channels = values.split(width, tuple -> resequencer.sequence(tuple % width));
+        List<TStream<Integer>> results = new ArrayList<>();
+        for (int ch = 0; ch < width; ch++) {
+          long delay = ch == 0 ? 20 : 1;
+          results.add(PlumbingStreams.isolate(channels.get(ch), 10).map(tuple -> {
+              int buffered = resequencer.getQueueDepth();
+              if (buffered > maxBuffered.get())
+                maxBuffered.set(buffered);
+              try {
+                Thread.sleep(delay);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return tuple;
+            }));
+        }
+        TStream<Integer> result = results.remove(0).fanin(resequencer, results);
+        
+        Condition<Long> count = top.getTester().tupleCount(result, resultTuples.length);
+        Condition<List<Integer>> contents = top.getTester().streamContents(result, resultTuples);
+        complete(top, count);
+        
+        assertTrue(contents.getResult().toString(), contents.valid());
+        assertTrue(maxBuffered.get() < maxReorderDistance);
+        assertEquals(maxReorderDistance, resequencer.getQueueCapacity());
+        assertTrue(resequencer.getBlockedCount() > 0);
+    }
+    
+    @Test
+    public void testParallelAdaptiveGrow() throws Exception {
+        Topology top = newTopology("testParallelAdaptiveGrow");
+        
+        // tuples arrive faster than a single channel processes them
+        AdaptivePool<Integer> pool = new AdaptivePool<>(1, 4, 50, TimeUnit.MILLISECONDS);
+        AtomicInteger maxWidth = new AtomicInteger();
+        BiFunction<TStream<Integer>,Integer,TStream<JsonObject>> pipeline =
+            (stream,ch) -> stream.peek(tuple -> {
+                int width = pool.getActiveWidth();
+                if (width > maxWidth.get())
+                  maxWidth.set(width);
+              }).map(fakeAnalytic(ch, 5, TimeUnit.MILLISECONDS));
+        
+        int tupCnt = 200;
+        Integer[] resultTuples = new Integer[tupCnt];
+        for (int i = 0; i < tupCnt; i++)
+          resultTuples[i] = i;
+        TStream<Integer> values = top.of(resultTuples);
+        
+        TStream<JsonObject> result = PlumbingStreams.parallelAdaptive(values, pool, pipeline).tag("result");
+        TStream<Integer> result2 = result.map(jo -> jo.get("result").getAsInt());
+        
+        Condition<Long> count = top.getTester().tupleCount(result2, resultTuples.length);
+        Condition<List<Integer>> contents = top.getTester().contentsUnordered(result2, resultTuples);
+        complete(top, count);
+        
+        assertTrue(contents.getResult().toString(), contents.valid());
+        assertTrue("width " + maxWidth.get(), maxWidth.get() > 1);
+        assertTrue(pool.getMeanLatency() > 0);
+    }
+    
+    @Test
+    public void testParallelAdaptiveShrink() throws Exception {
+        Topology top = newTopology("testParallelAdaptiveShrink");
+        
+        // a light load needs fewer channels than are active
+        AdaptivePool<Integer> pool = new AdaptivePool<>(1, 4, 50, TimeUnit.MILLISECONDS);
+        pool.setActiveWidth(4);
+        AtomicInteger cnt = new AtomicInteger();
+        TStream<Integer> values = top.poll(() -> cnt.incrementAndGet(), 5, TimeUnit.MILLISECONDS);
+        
+        TStream<Integer> result = PlumbingStreams.parallelAdaptive(values, pool,
+            (stream,ch) -> stream.peek(tuple -> {}));
+        
+        Condition<Long> count = top.getTester().atLeastTupleCount(result, 100);
+        complete(top, count);
+        
+        assertTrue(count.valid());
+        assertTrue("width " + pool.getActiveWidth(), pool.getActiveWidth() < 4);
+    }
+    
+    @Test
+    public void testParallelAdaptiveWidth() throws Exception {
+        AdaptivePool<Integer> pool = new AdaptivePool<>(2, 3);
+        assertEquals(2, pool.getActiveWidth());
+        pool.setActiveWidth(3);
+        assertEquals(3, pool.getActiveWidth());
+        assertTrue(pool.isAdaptive());
+        pool.setAdaptive(false);
+        assertFalse(pool.isAdaptive());
+        try {
+            pool.setActiveWidth(1);
+            Assert.fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new AdaptivePool<Integer>(2, 1);
+            Assert.fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void testParallelByKey() throws Exception {
+        Topology top = newTopology("testParallelByKey");
+        
+        // a running sum per key, partitioned across the channels
+        int width = 4;
+        int keys = 10;
+        Function<Integer,Integer> keyFunction = tuple -> tuple % keys;
+        BiFunction<TStream<Integer>,Integer,TStream<JsonObject>> pipeline =
+            (stream,ch) -> stream.last(3, keyFunction).aggregate((tuples, key) -> {
+                int sum = 0;
+                for (int tuple : tuples)
+                  sum += tuple;
+                JsonObject jo = new JsonObject();
+                jo.addProperty("channel", ch);
+                jo.addProperty("key", key);
+                jo.addProperty("last", tuples.get(tuples.size() - 1));
+                jo.addProperty("sum", sum);
+                return jo;
+              });
+        
+        int tupCnt = 200;
+        Integer[] tuples = new Integer[tupCnt];
+        for (int i = 0; i < tupCnt; i++)
+          tuples[i] = i;
+        TStream<Integer> values = top.of(tuples);
+        
+        TStream<JsonObject> result = PlumbingStreams.parallelByKey(values, width, keyFunction, pipeline).tag("result");
+        
+        Condition<Long> count = top.getTester().tupleCount(result, tupCnt);
+        Condition<List<JsonObject>> contents = top.getTester().streamContents(result);
+        complete(top, count);
+        
+        assertTrue(count.valid());
+        int[] channels = new int[keys];
+        int[] last = new int[keys];
+        Arrays.fill(channels, -1);
+        Arrays.fill(last, -1);
+        for (JsonObject jo : contents.getResult()) {
+          int key = jo.get("key").getAsInt();
+          int ch = jo.get("channel").getAsInt();
+          int tuple = jo.get("last").getAsInt();
+          if (channels[key] == -1)
+            channels[key] = ch;
+          assertEquals("key " + key, channels[key], ch);
+          assertTrue("key " + key + " order", tuple > last[key]);
+          
+          // the window holds the key's last three tuples
+          int expected = 0;
+          for (int i = tuple; i >= 0 && i > tuple - 3 * keys; i -= keys)
+            expected += i;
+          assertEquals("key " + key, expected, jo.get("sum").getAsInt());
+          last[key] = tuple;
+        }
+    }
+    
+    @Test
+    public void testConsistentHashSplitter() throws Exception {
+        int keys = 10000;
+        ConsistentHashSplitter<Integer,Integer> splitter4 = new ConsistentHashSplitter<>(4, tuple -> tuple);
+        ConsistentHashSplitter<Integer,Integer> splitter5 = new ConsistentHashSplitter<>(5, tuple -> tuple);
+        
+        int[] counts = new int[4];
+        int moved = 0;
+        for (int key = 0; key < keys; key++) {
+          int ch4 = splitter4.applyAsInt(key);
+          int ch5 = splitter5.applyAsInt(key);
+          counts[ch4]++;
+          // a key only moves to the added channel
+          if (ch4 != ch5) {
+            assertEquals(4, ch5);
+            moved++;
+          }
+          assertEquals(ch4, new ConsistentHashSplitter<Integer,Integer>(4, tuple -> tuple).channel(key));
+        }
+        for (int count : counts)
+          assertTrue("count " + count, count > keys / 4 / 2);
+        assertTrue("moved " + moved, moved > keys / 5 / 2 && moved < keys / 5 * 2);
+    }
+    
+    @Test
+    public void testIsolateBatch() throws Exception {
+        Topology topology = newTopology();
+        
+        int tupCnt = 100;
+        int maxBatchSize = 16;
+        Integer[] tuples = new Integer[tupCnt];
+        for (int i = 0; i < tupCnt; i++)
+          tuples[i] = i;
+        
+        // batches pass through the functional oplets to the sink
+        List<Integer> sunk = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger batches = new AtomicInteger();
+        AtomicInteger maxBatch = new AtomicInteger();
+        TStream<Integer> batched = PlumbingStreams.isolate(topology.of(tuples),
+            tupCnt, maxBatchSize, 20, TimeUnit.MILLISECONDS);
+        TStream<Integer> result = batched.map(t -> t * 2).filter(t -> t % 4 == 0).peek(t -> {});
+        result.sink(new BatchConsumer<Integer>() {
+          private static final long serialVersionUID = 1L;
+          @Override
+          public void accept(Integer value) {
+            sunk.add(value);
+          }
+          @Override
+          public void acceptBatch(List<Integer> values) {
+            batches.incrementAndGet();
+            if (values.size() > maxBatch.get())
+              maxBatch.set(values.size());
+            sunk.addAll(values);
+          }
+        });
+        
+        Integer[] expected = new Integer[tupCnt / 2];
+        for (int i = 0; i < expected.length; i++)
+          expected[i] = i * 4;
+        Condition<Long> count = topology.getTester().tupleCount(result, expected.length);
+        Condition<List<Integer>> contents = topology.getTester().streamContents(result, expected);
+        complete(topology, count);
+        
+        assertTrue(contents.getResult().toString(), contents.valid());
+        assertEquals(Arrays.asList(expected), sunk);
+        assertTrue("batches " + batches.get(), batches.get() > 0);
+        assertTrue("max batch " + maxBatch.get(), maxBatch.get() > 1 && maxBatch.get() <= maxBatchSize / 2);
+    }
+    
+    @Test
+    public void testPriorityIsolate() throws Exception {
+        Topology topology = newTopology();
+
+        // all the tuples are queued while the first is processed,
+        // the remaining commands are then served before the telemetry
+        AtomicInteger arrived = new AtomicInteger();
+        TStream<String> commands = topology.of("c1", "c2", "c3").peek(t -> arrived.incrementAndGet());
+        TStream<String> telemetry = topology.of("t1", "t2", "t3", "t4", "t5").peek(t -> arrived.incrementAndGet());
+        TStream<String> prioritized = PlumbingStreams.priorityIsolate(
+            Arrays.asList(commands, telemetry), 10, 0, TimeUnit.MILLISECONDS);
+        List<String> served = Collections.synchronizedList(new ArrayList<>());
+        TStream<String> result = prioritized.peek(t -> {
+            if (served.isEmpty())
+                awaitQueued(() -> arrived.get() == 8);
+            served.add(t);
+        });
+
+        Condition<Long> count = topology.getTester().tupleCount(result, 8);
+        complete(topology, count);
+        assertTrue(count.valid());
+
+        List<String> rest = new ArrayList<>(served.subList(1, served.size()));
+        List<String> expected = new ArrayList<>(Arrays.asList("c1", "c2", "c3", "t1", "t2", "t3", "t4", "t5"));
+        expected.remove(served.get(0));
+        assertEquals(expected, rest);
+    }
+
+    @Test
+    public void testPriorityIsolateDeadline() throws Exception {
+        Topology topology = newTopology();
+
+        // telemetry waiting longer than its deadline is served ahead of commands,
+        // a tuple at a time in turn with the commands
+        PriorityIsolate<String> lanes = new PriorityIsolate<>(10, new long[] {0, 50}, TimeUnit.MILLISECONDS);
+        TStream<String> commands = topology.of("c1", "c2", "c3");
+        TStream<String> telemetry = topology.of("t1", "t2", "t3");
+        List<String> served = Collections.synchronizedList(new ArrayList<>());
+        TStream<String> result = commands.fanin(lanes, Arrays.asList(telemetry)).peek(t -> {
+            if (served.isEmpty()) {
+                awaitQueued(() -> lanes.getQueueDepth(0) + lanes.getQueueDepth(1) == 5);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            served.add(t);
+        });
+
+        Condition<Long> count = topology.getTester().tupleCount(result, 6);
+        complete(topology, count);
+        assertTrue(count.valid());
+
+        List<String> rest = served.subList(1, served.size());
+        int telemetryLeft = served.get(0).startsWith("t") ? 2 : 3;
+        int commandsLeft = rest.size() - telemetryLeft;
+        StringBuilder expected = new StringBuilder();
+        for (int t = telemetryLeft, c = commandsLeft; t + c > 0; ) {
+            if (t-- > 0)
+                expected.append('t');
+            if (c-- > 0)
+                expected.append('c');
+        }
+        StringBuilder actual = new StringBuilder();
+        for (String tuple : rest)
+            actual.append(tuple.charAt(0));
+        assertEquals(rest.toString(), expected.toString(), actual.toString());
+        assertEquals(2, lanes.getLaneCount());
+        assertEquals(0, lanes.getDeadline(0));
+        assertEquals(TimeUnit.MILLISECONDS.toMicros(50), lanes.getDeadline(1));
+        assertEquals(3, lanes.getTupleCount(0));
+        assertEquals(3, lanes.getTupleCount(1));
+        assertEquals(Math.min(telemetryLeft, commandsLeft), lanes.getPromotedCount(1));
+        assertEquals(telemetryLeft, lanes.getDeadlineMissCount(1));
+        assertEquals(0, lanes.getDeadlineMissCount(0));
+        assertTrue(lanes.getMaxLatency(0) >= TimeUnit.MILLISECONDS.toMicros(100));
+        assertTrue(lanes.getMeanLatency(1) > 0);
+    }
+
+    @Test
+    public void testPriorityIsolateOverloaded() throws Exception {
+        Topology topology = newTopology();
+
+        // telemetry is always queued and overdue, a command
+        // still waits for at most a telemetry tuple
+        int queueCapacity = 200;
+        TStream<String> commands = topology.poll(() -> "c" + System.nanoTime(), 20, TimeUnit.MILLISECONDS);
+        TStream<String> telemetry = topology.generate(() -> "t" + System.nanoTime());
+        TStream<String> prioritized = PlumbingStreams.priorityIsolate(
+            Arrays.asList(commands, telemetry), queueCapacity, 5, TimeUnit.MILLISECONDS);
+        long[] maxLatency = new long[2];
+        TStream<String> result = prioritized.peek(t -> {
+            long latency = System.nanoTime() - Long.parseLong(t.substring(1));
+            int lane = t.startsWith("c") ? 0 : 1;
+            maxLatency[lane] = Math.max(maxLatency[lane], latency);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).filter(t -> t.startsWith("c"));
+
+        Condition<Long> count = topology.getTester().atLeastTupleCount(result, 20);
+        complete(topology, count);
+        assertTrue(count.valid());
+
+        // the telemetry backlog takes at least queueCapacity milliseconds to serve
+        long telemetryLatency = TimeUnit.NANOSECONDS.toMillis(maxLatency[1]);
+        long commandLatency = TimeUnit.NANOSECONDS.toMillis(maxLatency[0]);
+        assertTrue("telemetry latency " + telemetryLatency, telemetryLatency >= queueCapacity);
+        assertTrue("command latency " + commandLatency, commandLatency < queueCapacity / 2);
+    }
+
+    private static void awaitQueued(BooleanSupplier queued) {
+        try {
+            for (int i = 0; i < 1000 && !queued.getAsBoolean(); i++)
+                Thread.sleep(10);
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
 //    @Test
 //    public void testParallelTiming() throws Exception {
 //        Topology top = newTopology("testParallelTiming");
@@ -34,6 +34,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.edgent.execution.Job;
 import org.apache.edgent.execution.mbeans.PeriodMXBean;
 import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.execution.services.Controls;
 import org.apache.edgent.execution.services.RuntimeServices;
 import org.apache.edgent.function.Supplier;
 import org.apache.edgent.topology.tester.Condition;
@@ -132,19 +133,19 @@ public abstract class TopologyTest extends TopologyAbstractTest {
             job = jf.get();
             assertEquals(Job.State.RUNNING, job.getCurrentState());
             
-            setPollFrequency(s, 10, TimeUnit.MILLISECONDS);
+            setPollFrequency(job, s, 10, TimeUnit.MILLISECONDS);
             cnt.set(0);
             Thread.sleep(TimeUnit.SECONDS.toMillis(1));
             int curCnt = cnt.get();
             assertTrue("curCnt="+curCnt, curCnt >= 70);
             
-            setPollFrequency(s, 100, TimeUnit.MILLISECONDS);
+            setPollFrequency(job, s, 100, TimeUnit.MILLISECONDS);
             cnt.set(0);
             Thread.sleep(TimeUnit.SECONDS.toMillis(1));
             curCnt = cnt.get();
             assertTrue("curCnt="+curCnt, curCnt >= 5 && curCnt <= 20);
             
-            setPollFrequency(s, 10, TimeUnit.MILLISECONDS);
+            setPollFrequency(job, s, 10, TimeUnit.MILLISECONDS);
             cnt.set(0);
             Thread.sleep(TimeUnit.SECONDS.toMillis(1));
             curCnt = cnt.get();
@@ -157,11 +158,11 @@ public abstract class TopologyTest extends TopologyAbstractTest {
         
     }
 
-    static <T> void setPollFrequency(TStream<T> pollStream, long period, TimeUnit unit) {
+    static <T> void setPollFrequency(Job job, TStream<T> pollStream, long period, TimeUnit unit) {
         ControlService cs = pollStream.topology().getRuntimeServiceSupplier()
                                     .get().getService(ControlService.class);
         PeriodMXBean control = cs.getControl(TStream.TYPE,
-                                  pollStream.getAlias(), PeriodMXBean.class);
+                                  Controls.jobAlias(job.getId(), pollStream.getAlias()), PeriodMXBean.class);
         control.setPeriod(period, unit);
     }
 
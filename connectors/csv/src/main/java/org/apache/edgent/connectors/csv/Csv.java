@@ -21,6 +21,9 @@ package org.apache.edgent.connectors.csv;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.edgent.function.Function;
+import org.apache.edgent.topology.TStream;
+
 import com.google.gson.JsonObject;
 
 /**
@@ -50,6 +53,14 @@ import com.google.gson.JsonObject;
  *    .map(csv -> toJson(parseCsv(csv), fieldNames);
  * cars.print(); 
  * }</pre>
+ * <P>
+ * For high volume streams, {@link #parse(TStream, char, Function)} maps
+ * CSV strings directly to tuples through a reusable {@link CsvRecord}
+ * without creating a {@code List} or {@code String} for each field:
+ * <pre>{@code
+ * TStream<Reading> readings = Csv.parse(lines, ',',
+ *     record -> new Reading(record.parseLong(0), record.parseDouble(1)));
+ * }</pre>
  */
 public class Csv {
   private Csv() { }
@@ -173,4 +184,56 @@ public class Csv {
     return jo;
   }
 
+  /**
+   * Create a {@link JsonObject} containing the specified {@code fieldNames}
+   * properties each with its corresponding value from {@code record}.
+   * <P>
+   * Same as {@link #toJson(List, String...)} without requiring
+   * the record's fields as a list.
+   * </P>
+   *
+   * @param record the record
+   * @param fieldNames the corresponding field value names
+   * @return the JsonObject
+   * @throws IllegalArgumentException if the number of fields and the number
+   * of fieldNames don't match
+   */
+  public static JsonObject toJson(CsvRecord record, String... fieldNames) {
+    if (record.getFieldCount() != fieldNames.length) {
+      throw new IllegalArgumentException("Mismatched number of fields and names");
+    }
+    JsonObject jo = new JsonObject();
+    for (int i = 0; i < fieldNames.length; i++) {
+      String name = fieldNames[i];
+      
+      // skip the field if so indicated
+      if (name == null || name.isEmpty())
+        continue;
+      
+      jo.addProperty(name, record.getString(i));
+    }
+    return jo;
+  }
+
+  /**
+   * Map a stream of CSV strings to tuples.
+   * <P>
+   * Each CSV string is parsed into a {@link CsvRecord} that is reused
+   * for every tuple and passed to {@code mapper}. The record and the
+   * views of its fields are only valid for the duration of the call
+   * to {@code mapper}. If {@code mapper} returns {@code null} then no
+   * tuple is submitted.
+   * </P>
+   *
+   * @param <T> tuple type
+   * @param csv stream of CSV strings
+   * @param separator the separator to use
+   * @param mapper function creating a tuple from a record
+   * @return the stream of tuples
+   * @throws IllegalArgumentException if a CSV string is malformed
+   */
+  public static <T> TStream<T> parse(TStream<String> csv, char separator, Function<CsvRecord, T> mapper) {
+    return csv.map(new CsvMapper<>(separator, mapper));
+  }
+
 }
@@ -0,0 +1,46 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.csv;
+
+import org.apache.edgent.function.Function;
+
+/**
+ * Function mapping CSV strings to tuples through a reusable {@link CsvRecord}.
+ *
+ * @param <T> tuple type
+ */
+class CsvMapper<T> implements Function<String, T> {
+  private static final long serialVersionUID = 1L;
+
+  private final char separator;
+  private final Function<CsvRecord, T> mapper;
+  private transient CsvRecord record;
+
+  CsvMapper(char separator, Function<CsvRecord, T> mapper) {
+    this.separator = separator;
+    this.mapper = mapper;
+  }
+
+  @Override
+  public T apply(String csv) {
+    if (record == null)
+      record = new CsvRecord(separator);
+    return mapper.apply(record.parse(csv));
+  }
+}
@@ -0,0 +1,167 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV reader.
+ * <P>
+ * Reads CSV records from a {@code Reader} into a single reusable
+ * {@link CsvRecord}, so reading a file creates no objects per record
+ * or per field. Records are separated by a line feed, optionally preceded
+ * by a carriage return. A quoted field may contain line breaks.
+ * </P>
+ * Sample use:
+ * <pre>{@code
+ * try (CsvReader reader = new CsvReader(new FileReader("readings.csv"))) {
+ *   CsvRecord record;
+ *   while ((record = reader.next()) != null) {
+ *     sum += record.parseDouble(2);
+ *   }
+ * }
+ * }</pre>
+ */
+public class CsvReader implements Closeable {
+  private final Reader reader;
+  private final CsvRecord record;
+  private final char[] input;
+  private int position;
+  private int limit;
+  private boolean eof;
+  private char[] line = new char[256];
+  private long lineNumber;
+
+  /**
+   * Create a reader using comma for the field separator.
+   * @param reader the reader to read records from
+   */
+  public CsvReader(Reader reader) {
+    this(reader, ',');
+  }
+
+  /**
+   * Create a reader using the specified field separator.
+   * @param reader the reader to read records from
+   * @param separator the separator to use
+   */
+  public CsvReader(Reader reader, char separator) {
+    this(reader, separator, 8192);
+  }
+
+  /**
+   * Create a reader using the specified field separator and buffer size.
+   * @param reader the reader to read records from
+   * @param separator the separator to use
+   * @param bufferSize size in characters of the input buffer
+   */
+  public CsvReader(Reader reader, char separator, int bufferSize) {
+    if (bufferSize < 1)
+      throw new IllegalArgumentException("bufferSize");
+    this.reader = reader;
+    this.record = new CsvRecord(separator);
+    this.input = new char[bufferSize];
+  }
+
+  /**
+   * Read the next record.
+   * <P>
+   * The returned record is the same object for every call, its
+   * contents are replaced by each call.
+   * </P>
+   * @return the next record, or null at the end of the input
+   * @throws IOException if reading fails
+   * @throws IllegalArgumentException if the record is malformed
+   */
+  public CsvRecord next() throws IOException {
+    final long recordLine = lineNumber + 1;
+    int length = 0;
+    boolean inQuote = false;
+    boolean any = false;
+    for (;;) {
+      if (position == limit && !fill())
+        break;
+      any = true;
+
+      // Copy up to the end of the physical line, tracking quote parity.
+      final char[] input = this.input;
+      int i = position;
+      boolean newline = false;
+      for (; i < limit; i++) {
+        final char c = input[i];
+        if (c == '\n') {
+          newline = true;
+          break;
+        }
+        if (c == '"')
+          inQuote = !inQuote;
+      }
+      final int n = i - position;
+      if (length + n > line.length)
+        line = Arrays.copyOf(line, Math.max(length + n, line.length * 2));
+      System.arraycopy(input, position, line, length, n);
+      length += n;
+      position = newline ? i + 1 : i;
+
+      if (newline) {
+        lineNumber++;
+        if (!inQuote)
+          break;
+        // line break within a quoted field
+        if (length == line.length)
+          line = Arrays.copyOf(line, line.length * 2);
+        line[length++] = '\n';
+      }
+    }
+    if (!any)
+      return null;
+    if (!inQuote && length != 0 && line[length - 1] == '\r')
+      length--;
+    if (!record.parse(line, length))
+      throw new IllegalArgumentException("malformed csv record: unbalanced quotes at line " + recordLine);
+    return record;
+  }
+
+  private boolean fill() throws IOException {
+    if (eof)
+      return false;
+    int n;
+    do {
+      n = reader.read(input, 0, input.length);
+    } while (n == 0);
+    if (n < 0) {
+      eof = true;
+      return false;
+    }
+    position = 0;
+    limit = n;
+    return true;
+  }
+
+  /**
+   * Close the underlying reader.
+   */
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,449 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable cursor over the fields of a CSV record.
+ * <P>
+ * A {@code CsvRecord} parses a record using the same rules as
+ * {@link Csv#parseCsv(String, char)} but without creating a {@code List}
+ * or a {@code String} for each field. The parsed field characters are held
+ * in an internal buffer that is reused for each record parsed, and fields are
+ * accessed as {@code CharSequence} views or through typed accessors that
+ * convert directly from the buffered characters.
+ * </P>
+ * <P>
+ * Views returned by {@link #field(int)} are only valid until the next record
+ * is parsed. A {@code CsvRecord} is not thread safe.
+ * </P>
+ * Sample use:
+ * <pre>{@code
+ * CsvRecord record = new CsvRecord();
+ * for (String line : lines) {
+ *   record.parse(line);
+ *   long timestamp = record.parseLong(0);
+ *   double reading = record.parseDouble(2);
+ *   ...
+ * }
+ * }</pre>
+ *
+ * @see CsvReader
+ */
+public class CsvRecord {
+  private static final char QC = '"';
+
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+      1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+      1e21, 1e22 };
+
+  private final char separator;
+  private char[] chars = new char[128];
+  private int[] starts = new int[16];
+  private int[] ends = new int[16];
+  private int count;
+  private Field[] views = new Field[0];
+
+  /**
+   * Create a record using comma for the field separator.
+   */
+  public CsvRecord() {
+    this(',');
+  }
+
+  /**
+   * Create a record using the specified field separator.
+   * @param separator the separator to use
+   */
+  public CsvRecord(char separator) {
+    if (separator == QC)
+      throw new IllegalArgumentException("separator");
+    this.separator = separator;
+  }
+
+  /**
+   * Get the field separator.
+   * @return the separator
+   */
+  public char getSeparator() {
+    return separator;
+  }
+
+  /**
+   * Parse a CSV string, replacing the record's fields.
+   *
+   * @param csv the csv string
+   * @return this record
+   * @throws IllegalArgumentException if the csv is malformed
+   */
+  public CsvRecord parse(CharSequence csv) {
+    final int length = csv.length();
+    if (chars.length < length)
+      chars = new char[Math.max(length, chars.length * 2)];
+    if (csv instanceof String)
+      ((String) csv).getChars(0, length, chars, 0);
+    else {
+      for (int i = 0; i < length; i++)
+        chars[i] = csv.charAt(i);
+    }
+    if (!parseBuffer(length))
+      throw new IllegalArgumentException("malformed csv string: unbalanced quotes in csv: " + csv);
+    return this;
+  }
+
+  /**
+   * Parse a record held in a buffer, replacing the record's fields.
+   * The buffer is retained by the record and the field values are
+   * unescaped in place.
+   * @return false if the record is malformed
+   */
+  boolean parse(char[] buffer, int length) {
+    chars = buffer;
+    return parseBuffer(length);
+  }
+
+  /**
+   * Parse the characters in {@code chars[0..length)} in place,
+   * the unescaped value of a field is never longer than its
+   * escaped form so values are written over the consumed input.
+   */
+  private boolean parseBuffer(final int length) {
+    final char[] chars = this.chars;
+    final char separator = this.separator;
+    count = 0;
+
+    int out = 0;
+    int start = 0;
+    boolean inQuote = false;
+    for (int i = 0; i < length; i++) {
+      char c = chars[i];
+      if (c == QC) {
+        if (i+1 < length && chars[i+1] == QC) {
+          // a quoted quote yields a quote. no affect on inQuote status.
+          i++;
+          chars[out++] = QC;
+          continue;
+        }
+        inQuote = !inQuote;
+        // if now OUT, it must be the end of a field
+        if (!inQuote && !(i+1 == length || chars[i+1] == separator)) {
+          inQuote = true; // trigger the malformed check below
+          break;
+        }
+      }
+      else if (c == separator && !inQuote) {
+        addField(start, out);
+        start = out;
+      }
+      else {
+        chars[out++] = c;
+      }
+    }
+    if (inQuote)
+      return false;
+
+    if (out != start)
+      addField(start, out);
+    return true;
+  }
+
+  private void addField(int start, int end) {
+    if (count == starts.length) {
+      starts = Arrays.copyOf(starts, count * 2);
+      ends = Arrays.copyOf(ends, count * 2);
+    }
+    starts[count] = start;
+    ends[count] = end;
+    count++;
+  }
+
+  /**
+   * Get the number of fields in the record.
+   * @return the number of fields
+   */
+  public int getFieldCount() {
+    return count;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= count)
+      throw new IndexOutOfBoundsException("field " + index + " of " + count);
+  }
+
+  /**
+   * Get a view of a field's value.
+   * <P>
+   * The view is only valid until the next record is parsed,
+   * use {@code toString()} to obtain a copy.
+   * </P>
+   * @param index the field's index
+   * @return view of the field's value
+   */
+  public CharSequence field(int index) {
+    checkIndex(index);
+    if (index >= views.length) {
+      Field[] grown = Arrays.copyOf(views, Math.max(index + 1, views.length * 2));
+      for (int i = views.length; i < grown.length; i++)
+        grown[i] = new Field(i);
+      views = grown;
+    }
+    return views[index];
+  }
+
+  /**
+   * Get the length of a field's value.
+   * @param index the field's index
+   * @return length of the field's value
+   */
+  public int length(int index) {
+    checkIndex(index);
+    return ends[index] - starts[index];
+  }
+
+  /**
+   * Test if a field's value is empty.
+   * @param index the field's index
+   * @return true if the field's value is the empty string
+   */
+  public boolean isEmpty(int index) {
+    return length(index) == 0;
+  }
+
+  /**
+   * Get a field's value as a new {@code String}.
+   * @param index the field's index
+   * @return the field's value
+   */
+  public String getString(int index) {
+    checkIndex(index);
+    return new String(chars, starts[index], ends[index] - starts[index]);
+  }
+
+  /**
+   * Parse a field's value as a {@code long}.
+   * <P>
+   * Accepts the same values as {@link Long#parseLong(String)}.
+   * </P>
+   * @param index the field's index
+   * @return the field's value
+   * @throws NumberFormatException if the value is not a valid {@code long}
+   */
+  public long parseLong(int index) {
+    checkIndex(index);
+    final int end = ends[index];
+    int i = starts[index];
+    if (i == end)
+      throw numberFormat(index);
+
+    boolean negative = false;
+    char c = chars[i];
+    if (c == '-' || c == '+') {
+      negative = c == '-';
+      if (++i == end)
+        throw numberFormat(index);
+    }
+
+    // accumulate negatively to handle Long.MIN_VALUE
+    final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long result = 0;
+    for (; i < end; i++) {
+      final int digit = chars[i] - '0';
+      if (digit < 0 || digit > 9 || result < limit / 10)
+        throw numberFormat(index);
+      result *= 10;
+      if (result < limit + digit)
+        throw numberFormat(index);
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+  /**
+   * Parse a field's value as an {@code int}.
+   * <P>
+   * Accepts the same values as {@link Integer#parseInt(String)}.
+   * </P>
+   * @param index the field's index
+   * @return the field's value
+   * @throws NumberFormatException if the value is not a valid {@code int}
+   */
+  public int parseInt(int index) {
+    final long value = parseLong(index);
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+      throw numberFormat(index);
+    return (int) value;
+  }
+
+  /**
+   * Parse a field's value as a {@code double}.
+   * <P>
+   * Accepts the same values as {@link Double#parseDouble(String)}.
+   * Plain decimal values with up to 15 significant digits are converted
+   * directly from the buffered characters, other values are converted
+   * using {@code Double.parseDouble()}.
+   * </P>
+   * @param index the field's index
+   * @return the field's value
+   * @throws NumberFormatException if the value is not a valid {@code double}
+   */
+  public double parseDouble(int index) {
+    checkIndex(index);
+    final int start = starts[index];
+    final int end = ends[index];
+    final double value = fastParseDouble(chars, start, end);
+    if (!Double.isNaN(value))
+      return value;
+    return Double.parseDouble(new String(chars, start, end - start));
+  }
+
+  /**
+   * Convert {@code [-+]digits[.digits][(e|E)[-+]digits]} exactly
+   * when the significand fits in 15 digits and the power of ten
+   * is itself exact, otherwise return NaN.
+   */
+  private static double fastParseDouble(char[] chars, int i, final int end) {
+    if (i == end)
+      return Double.NaN;
+    boolean negative = false;
+    char c = chars[i];
+    if (c == '-' || c == '+') {
+      negative = c == '-';
+      i++;
+    }
+
+    long significand = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean anyDigits = false;
+    boolean point = false;
+    for (; i < end; i++) {
+      c = chars[i];
+      if (c >= '0' && c <= '9') {
+        anyDigits = true;
+        if (significand != 0 || c != '0') {
+          if (++digits > 15)
+            return Double.NaN;
+          significand = significand * 10 + (c - '0');
+        }
+        if (point)
+          scale--;
+      }
+      else if (c == '.' && !point) {
+        point = true;
+      }
+      else {
+        break;
+      }
+    }
+    if (!anyDigits)
+      return Double.NaN;
+
+    if (i < end) {
+      c = chars[i];
+      if (c != 'e' && c != 'E')
+        return Double.NaN;
+      if (++i == end)
+        return Double.NaN;
+      boolean negativeExponent = false;
+      c = chars[i];
+      if (c == '-' || c == '+') {
+        negativeExponent = c == '-';
+        if (++i == end)
+          return Double.NaN;
+      }
+      int exponent = 0;
+      for (; i < end; i++) {
+        c = chars[i];
+        if (c < '0' || c > '9' || exponent > 1000)
+          return Double.NaN;
+        exponent = exponent * 10 + (c - '0');
+      }
+      scale += negativeExponent ? -exponent : exponent;
+    }
+
+    double value = significand;
+    if (significand != 0) {
+      if (scale < -22 || scale > 22)
+        return Double.NaN;
+      value = scale < 0 ? value / POWERS_OF_TEN[-scale] : value * POWERS_OF_TEN[scale];
+    }
+    return negative ? -value : value;
+  }
+
+  private NumberFormatException numberFormat(int index) {
+    return new NumberFormatException("For input string: \"" + getString(index) + "\"");
+  }
+
+  /**
+   * Get the record's fields as a list of new {@code String}s.
+   * @return the fields
+   * @see Csv#parseCsv(String, char)
+   */
+  public List<String> toList() {
+    List<String> list = new ArrayList<>(count);
+    for (int i = 0; i < count; i++)
+      list.add(getString(i));
+    return list;
+  }
+
+  /**
+   * Returns a String for development/debug support.  Content subject to change.
+   */
+  @Override
+  public String toString() {
+    return toList().toString();
+  }
+
+  /**
+   * View of a field's value in the record's buffer.
+   */
+  private final class Field implements CharSequence {
+    private final int index;
+
+    Field(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int length() {
+      return CsvRecord.this.length(index);
+    }
+
+    @Override
+    public char charAt(int i) {
+      if (i < 0 || i >= length())
+        throw new IndexOutOfBoundsException(Integer.toString(i));
+      return chars[starts[index] + i];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return getString(index);
+    }
+  }
+}
@@ -19,13 +19,22 @@ under the License.
 package org.apache.edgent.test.connectors.csv;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.apache.edgent.connectors.csv.Csv;
+import org.apache.edgent.connectors.csv.CsvReader;
+import org.apache.edgent.connectors.csv.CsvRecord;
 import org.apache.edgent.test.providers.direct.DirectTopologyTestBase;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.apache.edgent.topology.tester.Condition;
 import org.junit.Test;
 
 import com.google.gson.JsonObject;
@@ -83,6 +92,15 @@ public class CsvTest extends DirectTopologyTestBase {
     else
       fields = Csv.parseCsv(csv, sep.charAt((0)));
     assertEquals("csv: "+csv, exp, fields);
+    
+    // CsvRecord must agree with parseCsv
+    CsvRecord record = sep == null ? new CsvRecord() : new CsvRecord(sep.charAt(0));
+    record.parse(csv);
+    assertEquals("record csv: "+csv, exp, record.toList());
+    for (int i = 0; i < exp.size(); i++) {
+      assertEquals(exp.get(i).length(), record.length(i));
+      assertEquals(exp.get(i), record.field(i).toString());
+    }
   }
 
   private void testParseMalformed(String csv) {
@@ -93,6 +111,13 @@ public class CsvTest extends DirectTopologyTestBase {
     catch(IllegalArgumentException e) {
       System.out.println("Got expected exception for malformed for csv: "+csv+"  :" + e); // expected one
     }
+    try {
+      CsvRecord record = new CsvRecord().parse(csv);
+      fail("expected malformed for csv: "+csv+" but got record: "+record);
+    }
+    catch(IllegalArgumentException e) {
+      // expected
+    }
   }
   
   @Test 
@@ -124,4 +149,156 @@ public class CsvTest extends DirectTopologyTestBase {
       }
     }
   }
+  
+  @Test
+  public void testRecordReuse() {
+    CsvRecord record = new CsvRecord();
+    record.parse("a,b,c,d,e,f,g,h,i,j,k,l,m,n,o,p,q,r,s,t");
+    assertEquals(20, record.getFieldCount());
+    assertEquals("t", record.getString(19));
+    CharSequence view = record.field(1);
+    
+    record.parse("x,\"y,z\"");
+    assertEquals(2, record.getFieldCount());
+    assertEquals("y,z", view.toString());
+    assertEquals('y', view.charAt(0));
+    assertEquals(",z", view.subSequence(1, 3).toString());
+    
+    record.parse("");
+    assertEquals(0, record.getFieldCount());
+    try {
+      record.field(0);
+      fail("expected IndexOutOfBoundsException");
+    }
+    catch(IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void testRecordNumbers() {
+    String[] longs = {"0", "-0", "+7", "42", "-42", "9223372036854775807", "-9223372036854775808"};
+    for (String s : longs) {
+      CsvRecord record = new CsvRecord().parse("x,"+s);
+      assertEquals(s, Long.parseLong(s), record.parseLong(1));
+    }
+    String[] badLongs = {"", "-", "+", "1a", "1.0", " 1", "9223372036854775808", "-9223372036854775809"};
+    for (String s : badLongs)
+      assertNumberFormat(new CsvRecord().parse("x,"+s+",y"), true);
+    
+    assertEquals(Integer.MIN_VALUE, new CsvRecord().parse("-2147483648").parseInt(0));
+    assertEquals(Integer.MAX_VALUE, new CsvRecord().parse("2147483647").parseInt(0));
+    try {
+      new CsvRecord().parse("2147483648").parseInt(0);
+      fail("expected NumberFormatException");
+    }
+    catch(NumberFormatException e) {
+      // expected
+    }
+    
+    String[] doubles = {"0", "-0.0", "1", "1.", ".5", "-.5", "3.14159", "-273.15",
+        "123456789012345", "1234567890123456789", "0.1", "0.000001", "1e10", "1E-5",
+        "2.5e+3", "1e22", "1e23", "1e-300", "4.9e-324", "1.7976931348623157e308",
+        "0.30000000000000004", "NaN", "-Infinity", "0x1p3", "1.5d", " 2.5 "};
+    for (String s : doubles) {
+      CsvRecord record = new CsvRecord().parse(s+",x");
+      double expected = Double.parseDouble(s);
+      assertEquals(s, Double.doubleToLongBits(expected), Double.doubleToLongBits(record.parseDouble(0)));
+    }
+    String[] badDoubles = {"", "-", ".", "e5", "1e", "1e+", "1.2.3", "abc"};
+    for (String s : badDoubles)
+      assertNumberFormat(new CsvRecord().parse("x,"+s+",y"), false);
+  }
+  
+  private void assertNumberFormat(CsvRecord record, boolean isLong) {
+    try {
+      if (isLong)
+        record.parseLong(1);
+      else
+        record.parseDouble(1);
+      fail("expected NumberFormatException for: "+record);
+    }
+    catch(NumberFormatException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void testReader() throws Exception {
+    String text = "a,1,2.5\r\n"
+        + "\"multi\nline\",2,3.5\n"
+        + "\n"
+        + "\"x\"\"y\",3,-1\r\n"
+        + "last,4,0";
+    String[][] expected = {
+        {"a", "1", "2.5"},
+        {"multi\nline", "2", "3.5"},
+        {},
+        {"x\"y", "3", "-1"},
+        {"last", "4", "0"},
+    };
+    
+    // small buffer sizes force records to span buffer fills
+    for (int bufferSize : new int[] {1, 3, 8192}) {
+      try (CsvReader reader = new CsvReader(new StringReader(text), ',', bufferSize)) {
+        for (String[] exp : expected) {
+          CsvRecord record = reader.next();
+          assertEquals("bufferSize: "+bufferSize, Arrays.asList(exp), record.toList());
+        }
+        assertNull(reader.next());
+        assertNull(reader.next());
+      }
+    }
+    
+    try (CsvReader reader = new CsvReader(new StringReader("a;b\nc;\"d\ne"), ';')) {
+      assertEquals(Arrays.asList("a", "b"), reader.next().toList());
+      try {
+        reader.next();
+        fail("expected malformed record");
+      }
+      catch(IllegalArgumentException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+      }
+    }
+  }
+  
+  @Test
+  public void testToJsonRecord() {
+    CsvRecord record = new CsvRecord().parse("one,two,three");
+    JsonObject jo = Csv.toJson(record, "fieldOne", null, "fieldThree");
+    assertEquals("one", jo.get("fieldOne").getAsString());
+    assertEquals("three", jo.get("fieldThree").getAsString());
+    assertEquals(2, jo.entrySet().size());
+    try {
+      Csv.toJson(record, "fieldOne");
+      fail("expected IllegalArgumentException");
+    }
+    catch(IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void testParseStream() throws Exception {
+    Topology topology = newTopology("testParseStream");
+    
+    List<String> lines = new ArrayList<>();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      lines.add("s" + i + ";" + i + ";" + (i * 0.25));
+      if (i % 10 != 0)
+        expected.add("s" + i + ":" + (i + i * 0.25));
+    }
+    
+    // tuples mapped to null are dropped
+    TStream<String> s = Csv.parse(topology.collection(lines), ';',
+        record -> record.parseInt(1) % 10 == 0 ? null
+            : record.getString(0) + ":" + (record.parseLong(1) + record.parseDouble(2)));
+    
+    Condition<Long> count = topology.getTester().tupleCount(s, expected.size());
+    Condition<List<String>> contents = topology.getTester().streamContents(s,
+        expected.toArray(new String[expected.size()]));
+    complete(topology, count);
+    assertTrue(contents.getResult().toString(), contents.valid());
+  }
 }
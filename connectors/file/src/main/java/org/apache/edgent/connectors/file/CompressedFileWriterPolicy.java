@@ -22,22 +22,50 @@ import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.apache.edgent.connectors.file.runtime.FileConnector;
+import org.apache.edgent.connectors.file.runtime.IFileWriterOutputPolicy;
+import org.slf4j.Logger;
+
 /**
- * A {@link FileWriterPolicy} that generates zip compressed files.
+ * A {@link FileWriterPolicy} that generates compressed files.
  * <P>
  * {@code CompressedFileWriterPolicy} is used exactly like {@code FileWriterPolicy}.
  * The generated file names are identical to those generated by {@code FileWriterPolicy}
- * except they have a {@code .zip} suffix.
+ * except they have a suffix for the compression {@link Format}.
  * </P>
  * <P>
- * The active file is uncompressed.  
+ * With the default {@link Format#ZIP ZIP} format the active file is uncompressed.  
  * It is compressed when cycled per the {@link FileWriterCycleConfig}.
- * Hence, a {@link FileWriterCycleConfig#newFileSizeBasedConfig(long) file size based}
+ * The compression may be performed by a background thread, see
+ * {@link #CompressedFileWriterPolicy(FileWriterFlushConfig, FileWriterCycleConfig, FileWriterRetentionConfig, Format, int)}.
+ * </P>
+ * <P>
+ * With the {@link Format#GZIP GZIP} and {@link Format#GZIP_FAST GZIP_FAST} formats
+ * the active file is compressed as tuples are written and is simply renamed
+ * when cycled.  Each flush of the active file completes a compressed block,
+ * so the flushed contents of the active file can be read.
+ * </P>
+ * <P>
+ * In all formats, a {@link FileWriterCycleConfig#newFileSizeBasedConfig(long) file size based}
  * cycle config specifies the size of the uncompressed active file.
  * </P>
  * <P>
@@ -62,37 +90,295 @@ import java.util.zip.ZipOutputStream;
  *
  * @param <T> stream tuple type
  */
-public class CompressedFileWriterPolicy<T> extends FileWriterPolicy<T> {
+public class CompressedFileWriterPolicy<T> extends FileWriterPolicy<T>
+    implements IFileWriterOutputPolicy {
   
+  private static final Logger trace = FileConnector.getTrace();
   private final static String SUFFIX = ".zip";
+  private final static String GZIP_SUFFIX = ".gz";
   private final static int BUFSIZE = 8192;
 
+  /**
+   * Compressed file format.
+   */
+  public enum Format {
+    /** Zip file compressed when the active file is cycled. */
+    ZIP,
+    /** Gzip file compressed as tuples are written. */
+    GZIP,
+    /**
+     * Gzip file compressed as tuples are written, favoring
+     * speed over compression ratio.
+     */
+    GZIP_FAST
+  }
+
+  private final Format format;
+  private final int maxPendingCompressions;
+  private volatile ThreadPoolExecutor compressor;
+  // final paths of the files waiting to be compressed, and when they were cycled
+  private final Map<Path, Long> pendingPaths = new HashMap<>();
+  private final Set<Path> deletedPaths = new HashSet<>();
+  private final AtomicLong uncompressedBytes = new AtomicLong();
+  private final AtomicLong compressedBytes = new AtomicLong();
+  private final AtomicLong compressionNanos = new AtomicLong();
+  private final AtomicLong compressedFiles = new AtomicLong();
+
   public CompressedFileWriterPolicy() {
     super();
+    this.format = Format.ZIP;
+    this.maxPendingCompressions = 0;
   }
   
   public CompressedFileWriterPolicy(FileWriterFlushConfig<T> flushConfig,
       FileWriterCycleConfig<T> cycleConfig,
       FileWriterRetentionConfig retentionConfig) {
+    this(flushConfig, cycleConfig, retentionConfig, Format.ZIP);
+  }
+
+  /**
+   * Create a new policy generating files of the specified format.
+   * <P>
+   * Same as {@code CompressedFileWriterPolicy(flushConfig, cycleConfig, retentionConfig, format, 0)}
+   * </P>
+   * @param flushConfig active file flush control configuration
+   * @param cycleConfig active file cycle control configuration
+   * @param retentionConfig final file retention control configuration
+   * @param format the compressed file format
+   */
+  public CompressedFileWriterPolicy(FileWriterFlushConfig<T> flushConfig,
+      FileWriterCycleConfig<T> cycleConfig,
+      FileWriterRetentionConfig retentionConfig,
+      Format format) {
+    this(flushConfig, cycleConfig, retentionConfig, format, 0);
+  }
+
+  /**
+   * Create a new policy generating files of the specified format.
+   * <P>
+   * When {@code maxPendingCompressions} is greater than zero a
+   * {@link Format#ZIP ZIP} file is compressed by a background thread.
+   * The cycled active file is moved to a hidden pending file and the
+   * compressed file appears at its final path once compressed.
+   * If {@code maxPendingCompressions} files are already waiting to be compressed
+   * the file is compressed by the thread cycling the active file.
+   * </P>
+   * @param flushConfig active file flush control configuration
+   * @param cycleConfig active file cycle control configuration
+   * @param retentionConfig final file retention control configuration
+   * @param format the compressed file format
+   * @param maxPendingCompressions maximum number of cycled files waiting for
+   *        background compression. 0 to compress when the active file is cycled.
+   *        Ignored unless {@code format} is {@code ZIP}.
+   */
+  public CompressedFileWriterPolicy(FileWriterFlushConfig<T> flushConfig,
+      FileWriterCycleConfig<T> cycleConfig,
+      FileWriterRetentionConfig retentionConfig,
+      Format format, int maxPendingCompressions) {
     super(flushConfig, cycleConfig, retentionConfig);
+    if (format == null)
+      throw new IllegalArgumentException("format");
+    if (maxPendingCompressions < 0)
+      throw new IllegalArgumentException("maxPendingCompressions");
+    this.format = format;
+    this.maxPendingCompressions = maxPendingCompressions;
+  }
+
+  /**
+   * Get the policy's compressed file format.
+   * @return the format
+   */
+  public Format getFormat() {
+    return format;
+  }
+
+  /**
+   * Get the total number of uncompressed bytes that have been compressed.
+   * @return the number of bytes
+   */
+  public long getUncompressedBytes() {
+    return uncompressedBytes.get();
+  }
+
+  /**
+   * Get the total number of compressed bytes generated.
+   * @return the number of bytes
+   */
+  public long getCompressedBytes() {
+    return compressedBytes.get();
+  }
+
+  /**
+   * Get the compression ratio, uncompressed size divided by compressed size,
+   * of the data compressed so far.
+   * @return the ratio, 0 if nothing has been compressed
+   */
+  public double getCompressionRatio() {
+    long compressed = getCompressedBytes();
+    return compressed == 0 ? 0 : (double) getUncompressedBytes() / compressed;
+  }
+
+  /**
+   * Get the total time spent compressing.
+   * @param unit unit of the returned value
+   * @return the time spent compressing
+   */
+  public long getCompressionTime(TimeUnit unit) {
+    return unit.convert(compressionNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Get the number of compressed files generated.
+   * @return the number of files
+   */
+  public long getCompressedFileCount() {
+    return compressedFiles.get();
+  }
+
+  private String suffix() {
+    return format == Format.ZIP ? SUFFIX : GZIP_SUFFIX;
   }
 
   @Override
   protected Path hookGenerateFinalFilePath(Path path) {
-    // finalPath = the normal finalPath + SUFFIX
+    // finalPath = the normal finalPath + suffix
     Path finalPath = super.hookGenerateFinalFilePath(path);
-    finalPath = finalPath.getParent().resolve(finalPath.getFileName() + SUFFIX);
+    finalPath = finalPath.getParent().resolve(finalPath.getFileName() + suffix());
     return finalPath;
   }
 
+  @Override
+  public OutputStream newActiveFileOutput(Path path, OutputStream out) throws IOException {
+    if (format == Format.ZIP)
+      return out;
+    CountingOutputStream compressed = new CountingOutputStream(out);
+    final int level = format == Format.GZIP_FAST ? Deflater.BEST_SPEED : Deflater.DEFAULT_COMPRESSION;
+    GZIPOutputStream gzip = new GZIPOutputStream(compressed, BUFSIZE, true) {
+      {
+        def.setLevel(level);
+      }
+    };
+    return new FilterOutputStream(gzip) {
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        out.write(b, off, len);
+        compressionNanos.addAndGet(System.nanoTime() - start);
+        uncompressedBytes.addAndGet(len);
+      }
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+      @Override
+      public void close() throws IOException {
+        long start = System.nanoTime();
+        super.close();
+        compressionNanos.addAndGet(System.nanoTime() - start);
+        compressedFiles.incrementAndGet();
+      }
+    };
+  }
+
   @Override
   protected void hookRenameFile(Path activePath, Path finalPath) throws IOException {
+    if (format != Format.ZIP) {
+      // compressed as written
+      super.hookRenameFile(activePath, finalPath);
+      return;
+    }
     // compress into finalPath instead of simple rename
     assert finalPath.toString().endsWith(SUFFIX) : finalPath.toString();
-    compressFile(activePath, finalPath);
-    activePath.toFile().delete();
+    if (maxPendingCompressions == 0) {
+      compressAndMeasure(activePath, finalPath);
+      activePath.toFile().delete();
+      return;
+    }
+
+    // free the active file path and compress in the background
+    Path pendingPath = hidden(finalPath, ".pending");
+    Files.move(activePath, pendingPath, StandardCopyOption.REPLACE_EXISTING);
+    synchronized (pendingPaths) {
+      pendingPaths.put(finalPath, System.currentTimeMillis());
+    }
+    getCompressor().execute(() -> compressPending(pendingPath, finalPath));
   }
-  
+
+  private static Path hidden(Path path, String suffix) {
+    return path.getParent().resolve("." + path.getFileName() + suffix);
+  }
+
+  private void compressPending(Path pendingPath, Path finalPath) {
+    Path tmpPath = hidden(finalPath, ".tmp");
+    try {
+      compressAndMeasure(pendingPath, tmpPath);
+      Files.move(tmpPath, finalPath, StandardCopyOption.REPLACE_EXISTING);
+      trace.info("finalized to {}", finalPath);
+    }
+    catch (IOException e) {
+      trace.error("error compressing {} to {}", pendingPath, finalPath, e);
+      tmpPath.toFile().delete();
+    }
+    finally {
+      synchronized (pendingPaths) {
+        pendingPaths.remove(finalPath);
+        if (deletedPaths.remove(finalPath))
+          finalPath.toFile().delete();
+      }
+      pendingPath.toFile().delete();
+    }
+  }
+
+  private synchronized ThreadPoolExecutor getCompressor() {
+    if (compressor == null) {
+      compressor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<Runnable>(maxPendingCompressions),
+          FileConnector.newDaemonThreadFactory("edgent-file-compressor"),
+          new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    return compressor;
+  }
+
+  @Override
+  protected void hookDeleteFile(Path path) {
+    synchronized (pendingPaths) {
+      // delete it once its compression completes
+      if (pendingPaths.containsKey(path))
+        deletedPaths.add(path);
+    }
+    super.hookDeleteFile(path);
+  }
+
+  @Override
+  protected long hookFileSize(Path path) {
+    synchronized (pendingPaths) {
+      // a pending file occupies its uncompressed size
+      if (pendingPaths.containsKey(path))
+        return hidden(path, ".pending").toFile().length();
+    }
+    return super.hookFileSize(path);
+  }
+
+  @Override
+  protected long hookFileLastModified(Path path) {
+    synchronized (pendingPaths) {
+      // ages from when it was cycled, its final file doesn't exist yet
+      Long cycled = pendingPaths.get(path);
+      if (cycled != null)
+        return cycled;
+    }
+    return super.hookFileLastModified(path);
+  }
+
+  private void compressAndMeasure(Path src, Path dst) throws IOException {
+    long start = System.nanoTime();
+    compressFile(src, dst);
+    compressionNanos.addAndGet(System.nanoTime() - start);
+    uncompressedBytes.addAndGet(src.toFile().length());
+    compressedBytes.addAndGet(dst.toFile().length());
+    compressedFiles.incrementAndGet();
+  }
+
   protected void compressFile(Path src, Path dst) throws IOException {
     try (
         BufferedInputStream in = new BufferedInputStream(
@@ -101,8 +387,10 @@ public class CompressedFileWriterPolicy<T> extends FileWriterPolicy<T> {
                 new BufferedOutputStream(new FileOutputStream(dst.toFile())));
         )
     {
-      // zip file entry name is "dst" minus the suffix.
+      // zip file entry name is the final file name minus the suffix.
       String dstFileName = dst.getFileName().toString();
+      if (dstFileName.startsWith(".") && dstFileName.endsWith(".tmp"))
+        dstFileName = dstFileName.substring(1, dstFileName.length() - ".tmp".length());
       String entryName = dstFileName.substring(0, dstFileName.length() - SUFFIX.length());
       
       out.putNextEntry(new ZipEntry(entryName));
@@ -115,4 +403,50 @@ public class CompressedFileWriterPolicy<T> extends FileWriterPolicy<T> {
     
   }
 
+  /**
+   * Waits for pending background compressions to complete.
+   */
+  @Override
+  public void close() {
+    super.close();
+    ThreadPoolExecutor compressor = this.compressor;
+    if (compressor != null) {
+      compressor.shutdown();
+      try {
+        while (!compressor.awaitTermination(1, TimeUnit.SECONDS))
+          trace.info("waiting for {} pending compressions", compressor.getQueue().size() + 1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s [format: %s maxPendingCompressions: %d]",
+        super.toString(), format, maxPendingCompressions);
+  }
+
+  /**
+   * Counts the compressed bytes written to the active file.
+   */
+  private class CountingOutputStream extends FilterOutputStream {
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      compressedBytes.incrementAndGet();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      compressedBytes.addAndGet(len);
+    }
+  }
+
 }
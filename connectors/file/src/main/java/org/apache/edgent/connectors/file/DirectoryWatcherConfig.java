@@ -0,0 +1,129 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file;
+
+/**
+ * Directory watcher configuration control.
+ * <p>
+ * New files are detected by:
+ * <ul>
+ * <li>watch - events from the file system's {@code WatchService}.</li>
+ * <li>polling - periodically listing the directory.  Use polling
+ * when the {@code WatchService} does not report events for the
+ * directory, e.g., for some network file systems.  Polling may also be
+ * combined with watch, as a fallback for missed events.</li>
+ * </ul>
+ * <p>
+ * A file may still be being written when it's detected.  With
+ * stability detection a file is only reported once its size and
+ * last modified time have not changed for a period.
+ * <p>
+ * The names of reported files may be persisted to a checkpoint file
+ * so that a restarted watcher does not report them again.
+ * A reported file whose last modified time differs from its checkpointed
+ * value when the watcher starts is considered to be a new file.
+ * The checkpoint is saved when all the detected files have been reported,
+ * so a file may be reported again if the watcher stops before then.
+ * The checkpoint file should not be a (non-hidden) file in the watched
+ * directory.
+ *
+ * @see FileStreams#directoryWatcher(org.apache.edgent.topology.TopologyElement, org.apache.edgent.function.Supplier, java.util.Comparator, DirectoryWatcherConfig)
+ */
+public class DirectoryWatcherConfig {
+
+    private final boolean watch;
+    private final long pollPeriodMsec;
+    private final long stableMsec;
+    private final String checkpointPathname;
+
+    /** same as {@code newConfig(true, 0, 0, null)}
+     *
+     * @return the watcher configuration
+     */
+    public static DirectoryWatcherConfig newWatchConfig() {
+        return newConfig(true, 0, 0, null);
+    }
+    /** same as {@code newConfig(false, pollPeriodMsec, 0, null)}
+     *
+     * @param pollPeriodMsec the directory listing period
+     * @return the watcher configuration
+     */
+    public static DirectoryWatcherConfig newPollingConfig(long pollPeriodMsec) {
+        return newConfig(false, pollPeriodMsec, 0, null);
+    }
+    /**
+     * Create a new configuration.
+     *
+     * @param watch true to use the file system's {@code WatchService}
+     * @param pollPeriodMsec period for listing the directory. 0 to disable.
+     *        Must be greater than 0 if {@code watch} is false.
+     * @param stableMsec time a file's size and last modified time must be
+     *        unchanged before it's reported. 0 to disable.
+     * @param checkpointPathname pathname of the file recording the reported files.
+     *        May be null.
+     * @return the watcher configuration
+     */
+    public static DirectoryWatcherConfig newConfig(boolean watch, long pollPeriodMsec,
+            long stableMsec, String checkpointPathname) {
+        return new DirectoryWatcherConfig(watch, pollPeriodMsec, stableMsec, checkpointPathname);
+    }
+
+    private DirectoryWatcherConfig(boolean watch, long pollPeriodMsec,
+            long stableMsec, String checkpointPathname) {
+        if (pollPeriodMsec < 0 || (!watch && pollPeriodMsec == 0))
+            throw new IllegalArgumentException("pollPeriodMsec");
+        if (stableMsec < 0)
+            throw new IllegalArgumentException("stableMsec");
+        this.watch = watch;
+        this.pollPeriodMsec = pollPeriodMsec;
+        this.stableMsec = stableMsec;
+        this.checkpointPathname = checkpointPathname;
+    }
+
+    /**
+     * Get the watch configuration value.
+     * @return the value
+     */
+    public boolean isWatch() { return watch; }
+
+    /**
+     * Get the poll period configuration value.
+     * @return the value
+     */
+    public long getPollPeriodMsec() { return pollPeriodMsec; }
+
+    /**
+     * Get the stability period configuration value.
+     * @return the value
+     */
+    public long getStableMsec() { return stableMsec; }
+
+    /**
+     * Get the checkpoint pathname configuration value.
+     * @return the value, may be null
+     */
+    public String getCheckpointPathname() { return checkpointPathname; }
+
+    @Override
+    public String toString() {
+        return String.format("watch:%s pollPeriodMsec:%d stableMsec:%d checkpoint:%s",
+                isWatch(), getPollPeriodMsec(), getStableMsec(), getCheckpointPathname());
+    }
+
+}
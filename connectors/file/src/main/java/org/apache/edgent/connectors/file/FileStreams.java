@@ -24,11 +24,14 @@ import java.util.Comparator;
 
 import org.apache.edgent.connectors.file.runtime.DirectoryWatcher;
 import org.apache.edgent.connectors.file.runtime.IFileWriterPolicy;
+import org.apache.edgent.connectors.file.runtime.RecordFileReader;
+import org.apache.edgent.connectors.file.runtime.RecordFileWriter;
 import org.apache.edgent.connectors.file.runtime.TextFileReader;
 import org.apache.edgent.connectors.file.runtime.TextFileWriter;
 import org.apache.edgent.function.BiFunction;
 import org.apache.edgent.function.Function;
 import org.apache.edgent.function.Supplier;
+import org.apache.edgent.function.ToLongFunction;
 import org.apache.edgent.topology.TSink;
 import org.apache.edgent.topology.TStream;
 import org.apache.edgent.topology.TopologyElement;
@@ -41,6 +44,8 @@ import org.apache.edgent.topology.TopologyElement;
  * <li>Write tuples to text files - {@link #textFileWriter(TStream, Supplier, Supplier) textFileWriter}</li>
  * <li>Watch a directory for new files - {@link #directoryWatcher(TopologyElement, Supplier) directoryWatcher}</li>
  * <li>Create tuples from text files - {@link #textFileReader(TStream, Function, BiFunction) textFileReader}</li>
+ * <li>Write tuples as timestamped binary records - {@link #recordFileWriter(TStream, Supplier, Supplier, Function, ToLongFunction) recordFileWriter}</li>
+ * <li>Replay tuples from binary record files - {@link #recordFileReader(TopologyElement, Supplier, long, Function) recordFileReader}</li>
  * </ul>
  */
 public class FileStreams {
@@ -107,7 +112,50 @@ public class FileStreams {
      */
     public static TStream<String> directoryWatcher(TopologyElement te,
             Supplier<String> directory, Comparator<File> comparator) {
-        return te.topology().source(() -> new DirectoryWatcher(directory, comparator));
+        return directoryWatcher(te, directory, comparator, null);
+    }
+    
+    /**
+     * Declare a stream containing the absolute pathname of 
+     * newly created file names from watching {@code directory}
+     * as controlled by {@code config}.
+     * <p>
+     * This is the same as {@link #directoryWatcher(TopologyElement, Supplier, Comparator)}
+     * except that new files may be detected by polling the directory,
+     * a file may be reported only once it is no longer being written,
+     * and reported files may be recorded in a checkpoint so that they are
+     * not reported again when the application is restarted.
+     * <p>
+     * Sample use:
+     * <pre>{@code
+     * // poll an NFS mounted directory every 5 seconds, reading
+     * // up to 4 of the files concurrently once they have been
+     * // unchanged for 2 seconds.
+     * String dir = "/mnt/nfs/incoming";
+     * Topology t = ...
+     * TStream<String> pathnames = FileStreams.directoryWatcher(t, () -> dir, null,
+     *           DirectoryWatcherConfig.newConfig(false, 5000, 2000, "/var/myapp/incoming.seen"));
+     * TStream<String> contents = FileStreams.textFileReader(pathnames, null, null,
+     *           TextFileReaderConfig.newParallelConfig(Mode.BUFFERED, 4, false));
+     * }</pre>
+     *
+     * @param te topology element whose topology the watcher will be added to
+     * @param directory
+     *            Name of the directory to watch.
+     * @param comparator
+     *            Comparator to use to order newly seen file pathnames.
+     *            May be null.
+     * @param config how files are detected.  May be null, in which case
+     *            the directory is watched as for
+     *            {@link #directoryWatcher(TopologyElement, Supplier, Comparator)}.
+     * @return Stream containing absolute pathnames of newly created files in
+     *            {@code directory}.
+     * @see DirectoryWatcherConfig
+     */
+    public static TStream<String> directoryWatcher(TopologyElement te,
+            Supplier<String> directory, Comparator<File> comparator,
+            DirectoryWatcherConfig config) {
+        return te.topology().source(() -> new DirectoryWatcher(directory, comparator, config));
     }
     
     /**
@@ -207,9 +255,59 @@ public class FileStreams {
     public static TStream<String> textFileReader(TStream<String> pathnames,
         Function<String,String> preFn, BiFunction<String,Exception,String> postFn) {
         
+        return textFileReader(pathnames, preFn, postFn, null);
+    }
+
+    /**
+     * Declare a stream containing the lines read from the files
+     * whose pathnames correspond to each tuple on the {@code pathnames}
+     * stream, reading the files as specified by {@code config}.
+     * <p>
+     * The result is the same as {@link #textFileReader(TStream, Function, BiFunction)}
+     * except that when {@code config} specifies a parallelism greater than one:
+     * <ul>
+     * <li>Up to {@code parallelism} files are read concurrently, each on its
+     * own thread, and the lines are submitted from those threads.
+     * Processing of a {@code pathnames} tuple blocks while {@code parallelism}
+     * files are being read.</li>
+     * <li>{@code preFn} and {@code postFn} are called on the reading threads
+     * and may be called concurrently for different files.</li>
+     * <li>If the configuration is not ordered, the lines of concurrently
+     * read files are interleaved.</li>
+     * </ul>
+     * Files compressed with gzip are decompressed.
+     * <p>
+     * Sample use:
+     * <pre>{@code
+     * // replay a directory of compressed logs, reading four files at a time
+     * // and keeping the lines of each file together in pathname order
+     * TStream<String> pathnames = ...
+     * TStream<String> contents = FileStreams.textFileReader(pathnames, null, null,
+     *     TextFileReaderConfig.newParallelConfig(TextFileReaderConfig.Mode.MAPPED, 4, true));
+     * }</pre>
+     *
+     * @param pathnames
+     *            Stream containing pathnames of files to read.
+     * @param preFn
+     *            Pre-visit {@code Function<String,String>}.
+     *            The function may be null.
+     * @param postFn
+     *            Post-visit {@code BiFunction<String,Exception,String>}.
+     *            The function may be null.
+     * @param config
+     *            How the files are read.  May be null, in which case
+     *            files are read as for {@link #textFileReader(TStream, Function, BiFunction)}.
+     * @return Stream containing lines from the files.
+     * @see TextFileReaderConfig
+     */
+    public static TStream<String> textFileReader(TStream<String> pathnames,
+        Function<String,String> preFn, BiFunction<String,Exception,String> postFn,
+        TextFileReaderConfig config) {
+        
         TextFileReader reader = new TextFileReader();
         reader.setPre(preFn);
         reader.setPost(postFn);
+        reader.setConfig(config);
         return pathnames.pipe(reader);
     }
     
@@ -267,10 +365,143 @@ public class FileStreams {
      */
     public static TSink<String> textFileWriter(TStream<String> contents,
             Supplier<String> basePathname, Supplier<IFileWriterPolicy<String>> policy) {
+        return textFileWriter(contents, basePathname, policy, null);
+    }
+    
+    /**
+     * Write the contents of a stream to files subject to the control
+     * of a file writer policy, writing the files as specified by {@code config}.
+     * <p>
+     * The result is the same as {@link #textFileWriter(TStream, Supplier, Supplier)}
+     * except that lines are encoded into large buffers that are written
+     * to the file by a background thread, and a flush requested by the
+     * policy completes asynchronously.
+     * <p>
+     * Sample use:
+     * <pre>{@code
+     * // write an audit log, forcing it to the storage device every second
+     * // and cycling the active file every 64MB
+     * IFileWriterPolicy<String> policy = new FileWriterPolicy<String>(
+     *           FileWriterFlushConfig.newTimeBasedConfig(1000),
+     *           FileWriterCycleConfig.newFileSizeBasedConfig(64 * 1024 * 1024),
+     *           FileWriterRetentionConfig.newFileCountBasedConfig(10)
+     *           );
+     * TStream<String> auditEvents = ...
+     * FileStreams.textFileWriter(auditEvents, () -> "/audit/LOG", () -> policy,
+     *           TextFileWriterConfig.newSyncConfig());
+     * }</pre>
+     * @param contents the lines to write
+     * @param basePathname the base pathname of the created files
+     * @param policy the policy to use.  may be null.
+     * @param config how files are written.  May be null, in which case
+     *          files are written as for {@link #textFileWriter(TStream, Supplier, Supplier)}.
+     * @return a TSink
+     * @see TextFileWriterConfig
+     */
+    public static TSink<String> textFileWriter(TStream<String> contents,
+            Supplier<String> basePathname, Supplier<IFileWriterPolicy<String>> policy,
+            TextFileWriterConfig config) {
         if (policy == null) {
             IFileWriterPolicy<String> defaultPolicy = new FileWriterPolicy<String>(){};
             policy = () -> defaultPolicy;
         }
-        return contents.sink(new TextFileWriter(basePathname, policy));
+        return contents.sink(new TextFileWriter(basePathname, policy, config));
+    }
+    
+    /**
+     * Write tuples as timestamped binary records to segment files.
+     * <p>
+     * Each tuple is written as a record containing its timestamp and its
+     * payload, the bytes returned by {@code serializer}, with a checksum.
+     * A segment file includes a sparse index of record timestamps,
+     * allowing {@link #recordFileReader(TopologyElement, Supplier, long, Function) recordFileReader}
+     * to start a replay at a point in time without reading the
+     * preceding records.
+     * <p>
+     * Segment files are flushed, cycled and retained as controlled by
+     * {@code policy} in the same way as text files, the number of bytes
+     * written for a tuple is the size of its record.
+     * <p>
+     * Sample use:
+     * <pre>{@code
+     * // record sensor readings, a new segment every minute
+     * IFileWriterPolicy<SensorReading> policy = new FileWriterPolicy<SensorReading>(
+     *           FileWriterFlushConfig.newTimeBasedConfig(1000),
+     *           FileWriterCycleConfig.newTimeBasedConfig(60 * 1000),
+     *           FileWriterRetentionConfig.newAgeBasedConfig(24 * 60 * 60, 60 * 1000)
+     *           );
+     * TStream<SensorReading> readings = ...
+     * FileStreams.recordFileWriter(readings, () -> "/readings/SENSOR", () -> policy,
+     *           reading -> reading.toBytes(), reading -> reading.getTime());
+     * }</pre>
+     * 
+     * @param <T> tuple type
+     * @param contents the tuples to write
+     * @param basePathname the base pathname of the created segment files
+     * @param policy the policy to use.  may be null.
+     * @param serializer function serializing a tuple to a record's payload
+     * @param timestamp function obtaining a tuple's timestamp.
+     *          Timestamps must be non-decreasing, a tuple whose timestamp
+     *          is before that of the previous record in its segment
+     *          is not written.
+     * @return a TSink
+     * @see FileWriterPolicy
+     */
+    public static <T> TSink<T> recordFileWriter(TStream<T> contents,
+            Supplier<String> basePathname, Supplier<IFileWriterPolicy<T>> policy,
+            Function<T,byte[]> serializer, ToLongFunction<T> timestamp) {
+        if (policy == null) {
+            IFileWriterPolicy<T> defaultPolicy = new FileWriterPolicy<T>(){};
+            policy = () -> defaultPolicy;
+        }
+        return contents.sink(new RecordFileWriter<T>(basePathname, policy, serializer, timestamp));
+    }
+    
+    /**
+     * Declare a stream replaying the tuples written by
+     * {@link #recordFileWriter(TStream, Supplier, Supplier, Function, ToLongFunction) recordFileWriter}.
+     * <p>
+     * The final segment files written with {@code basePathname} are
+     * read in timestamp order when the topology starts.
+     * Reading a segment starts at the first record whose timestamp
+     * is greater than or equal to {@code fromTime}, located using the
+     * segment's index.  Segments entirely before {@code fromTime} are
+     * not read.
+     * <p>
+     * Reading a segment stops at a truncated or corrupt record.
+     * 
+     * @param <T> tuple type
+     * @param te topology element whose topology the reader will be added to
+     * @param basePathname the base pathname the segment files were written with
+     * @param fromTime timestamp of the earliest tuple to replay.
+     *          {@code Long.MIN_VALUE} to replay all the tuples.
+     * @param deserializer function creating a tuple from a record's payload
+     * @return stream of the replayed tuples
+     */
+    public static <T> TStream<T> recordFileReader(TopologyElement te,
+            Supplier<String> basePathname, long fromTime, Function<byte[],T> deserializer) {
+        return te.topology().source(
+                () -> RecordFileReader.segments(basePathname.get(), fromTime, deserializer));
+    }
+    
+    /**
+     * Declare a stream replaying the tuples from segment files written by
+     * {@link #recordFileWriter(TStream, Supplier, Supplier, Function, ToLongFunction) recordFileWriter}.
+     * <p>
+     * For each segment file pathname tuple, the tuples whose timestamp is greater
+     * than or equal to {@code fromTime} are read, starting at the position located using
+     * the segment's index.  Reading a segment stops at a truncated or corrupt record.
+     * 
+     * @param <T> tuple type
+     * @param pathnames stream of segment file pathnames
+     * @param fromTime timestamp of the earliest tuple to replay.
+     *          {@code Long.MIN_VALUE} to replay all the tuples.
+     * @param deserializer function creating a tuple from a record's payload
+     * @return stream of the replayed tuples
+     */
+    public static <T> TStream<T> recordFileReader(TStream<String> pathnames,
+            long fromTime, Function<byte[],T> deserializer) {
+        return pathnames.flatMap(pathname -> RecordFileReader.segment(
+                new File(pathname).toPath(), fromTime, deserializer));
     }
 }
@@ -261,16 +261,14 @@ public class FileWriterPolicy<T> implements IFileWriterPolicy<T> {
         long aggregateFileSize = 0; // compute when enabled
         if (retentionConfig.getAggregateFileSize() > 0) {
             for (Path path : retainedPaths) {
-                File file = path.toFile();
-                aggregateFileSize += file.length(); // 0 if doesn't exist
+                aggregateFileSize += hookFileSize(path);
             }
         }
         
         if (retentionConfig.evaluate(retainedPaths.size(), aggregateFileSize)) {
             Path oldestPath = retainedPaths.remove(0);
-            File file = oldestPath.toFile();
-            trace.info("deleting file {}", file);
-            file.delete();
+            trace.info("deleting file {}", oldestPath);
+            hookDeleteFile(oldestPath);
         }
     }
     
@@ -279,15 +277,14 @@ public class FileWriterPolicy<T> implements IFileWriterPolicy<T> {
         long minTime = now - TimeUnit.SECONDS.toMillis(retentionConfig.getAgeSec());
         ArrayList<Path> toDelete = new ArrayList<>();
         for (Path path : retainedPaths) {  // oldest first
-            File file = path.toFile();
-            if (file.lastModified() < minTime)
+            if (hookFileLastModified(path) < minTime)
                 toDelete.add(path);
             else
                 break;
         }
         for (Path path : toDelete) {
             trace.info("deleting file {}", path);
-            path.toFile().delete();
+            hookDeleteFile(path);
         }
         retainedPaths.removeAll(toDelete);
     }
@@ -374,6 +371,47 @@ public class FileWriterPolicy<T> implements IFileWriterPolicy<T> {
         activePath.toFile().renameTo(finalPath.toFile());
     }
     
+    /**
+     * Delete a final file per the retention policy.
+     * <p>
+     * The default implementation uses {@code java.io.File.delete()}.
+     * <p>
+     * This hook method can be overridden.
+     * 
+     * @param path path of the final file
+     */
+    protected void hookDeleteFile(Path path) {
+        path.toFile().delete();
+    }
+
+    /**
+     * Get the size of a final file for the aggregate size retention policy.
+     * <p>
+     * The default implementation uses {@code java.io.File.length()}.
+     * <p>
+     * This hook method can be overridden.
+     * 
+     * @param path path of the final file
+     * @return size of the file in bytes, 0 if it doesn't exist
+     */
+    protected long hookFileSize(Path path) {
+        return path.toFile().length();
+    }
+
+    /**
+     * Get the last modified time of a final file for the age retention policy.
+     * <p>
+     * The default implementation uses {@code java.io.File.lastModified()}.
+     * <p>
+     * This hook method can be overridden.
+     * 
+     * @param path path of the final file
+     * @return last modified time in milliseconds since the epoch, 0 if it doesn't exist
+     */
+    protected long hookFileLastModified(Path path) {
+        return path.toFile().lastModified();
+    }
+    
     @Override
     public String toString() {
         return String.format("basePathname:%s [retention: %s] [cycle: %s] [flush: %s]",
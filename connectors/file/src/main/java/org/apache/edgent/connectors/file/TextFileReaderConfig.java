@@ -0,0 +1,144 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file;
+
+/**
+ * Text file reader configuration control for high volume reading.
+ * <p>
+ * Files are read in large blocks, either into a direct
+ * {@code ByteBuffer} or by memory mapping the file, lines are found by
+ * scanning the bytes for line terminators and only the bytes of each
+ * line are decoded.
+ * Files compressed with gzip are detected and decompressed transparently.
+ * <p>
+ * Multiple files may be read concurrently, with the lines of each
+ * file submitted either in pathname order or as they are read:
+ * <ul>
+ * <li>ordered - all the lines of a file are submitted before the lines of
+ * the following pathname, later files are read ahead while waiting.</li>
+ * <li>unordered - blocks of lines from concurrently read files are
+ * interleaved, the lines of each file remain in file order.</li>
+ * </ul>
+ *
+ * @see FileStreams#textFileReader(org.apache.edgent.topology.TStream, org.apache.edgent.function.Function, org.apache.edgent.function.BiFunction, TextFileReaderConfig)
+ */
+public class TextFileReaderConfig {
+
+    /**
+     * How file contents are read.
+     */
+    public enum Mode {
+        /** Read the file into a direct {@code ByteBuffer}. */
+        BUFFERED,
+        /** Memory map the file. Compressed files are read as {@code BUFFERED}. */
+        MAPPED
+    }
+
+    /** The default buffer size, 1MB. */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final Mode mode;
+    private final int bufferSize;
+    private final int parallelism;
+    private final boolean ordered;
+
+    /** same as {@code newConfig(Mode.BUFFERED, DEFAULT_BUFFER_SIZE, 1, true)}
+     *
+     * @return the reader configuration
+     */
+    public static TextFileReaderConfig newBufferedConfig() {
+        return newConfig(Mode.BUFFERED, DEFAULT_BUFFER_SIZE, 1, true);
+    }
+    /** same as {@code newConfig(Mode.MAPPED, DEFAULT_BUFFER_SIZE, 1, true)}
+     *
+     * @return the reader configuration
+     */
+    public static TextFileReaderConfig newMappedConfig() {
+        return newConfig(Mode.MAPPED, DEFAULT_BUFFER_SIZE, 1, true);
+    }
+    /** same as {@code newConfig(mode, DEFAULT_BUFFER_SIZE, parallelism, ordered)}
+     *
+     * @param mode how file contents are read
+     * @param parallelism maximum number of files read concurrently
+     * @param ordered true to submit the lines of each file in pathname order
+     * @return the reader configuration
+     */
+    public static TextFileReaderConfig newParallelConfig(Mode mode, int parallelism, boolean ordered) {
+        return newConfig(mode, DEFAULT_BUFFER_SIZE, parallelism, ordered);
+    }
+    /**
+     * Create a new configuration.
+     *
+     * @param mode how file contents are read
+     * @param bufferSize size in bytes of the read buffer or of the mapped
+     *        region of a file.  The buffer grows if a line is longer.
+     * @param parallelism maximum number of files read concurrently.
+     *        1 to read files one at a time on the caller's thread.
+     * @param ordered true to submit the lines of each file in pathname order.
+     *        Ignored if {@code parallelism} is 1.
+     * @return the reader configuration
+     */
+    public static TextFileReaderConfig newConfig(Mode mode, int bufferSize, int parallelism, boolean ordered) {
+        return new TextFileReaderConfig(mode, bufferSize, parallelism, ordered);
+    }
+
+    private TextFileReaderConfig(Mode mode, int bufferSize, int parallelism, boolean ordered) {
+        if (mode == null)
+            throw new IllegalArgumentException("mode");
+        if (bufferSize < 16)
+            throw new IllegalArgumentException("bufferSize");
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism");
+        this.mode = mode;
+        this.bufferSize = bufferSize;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Get the read mode configuration value.
+     * @return the value
+     */
+    public Mode getMode() { return mode; }
+
+    /**
+     * Get the buffer size configuration value.
+     * @return the value
+     */
+    public int getBufferSize() { return bufferSize; }
+
+    /**
+     * Get the parallelism configuration value.
+     * @return the value
+     */
+    public int getParallelism() { return parallelism; }
+
+    /**
+     * Get the ordered configuration value.
+     * @return the value
+     */
+    public boolean isOrdered() { return ordered; }
+
+    @Override
+    public String toString() {
+        return String.format("mode:%s bufferSize:%d parallelism:%d ordered:%s",
+                getMode(), getBufferSize(), getParallelism(), isOrdered());
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file;
+
+/**
+ * Text file writer configuration control for high volume writing.
+ * <p>
+ * Lines are encoded directly into a direct {@code ByteBuffer}, which
+ * also yields the number of bytes written for the policy's size based
+ * cycling.  Full buffers, and the active buffer when the policy
+ * requests a flush, are written to the file's {@code FileChannel} by a
+ * background thread, so the tuple's thread does not perform file I/O
+ * unless all the buffers are waiting to be written.
+ * <p>
+ * Optionally a flush also forces the written data to the storage
+ * device. Flushes requested while a previous flush is waiting to be
+ * written are committed together, with a single force of the file.
+ * <p>
+ * A flush requested by the policy completes asynchronously,
+ * cycling the active file waits for all its data to be written.
+ *
+ * @see FileStreams#textFileWriter(org.apache.edgent.topology.TStream, org.apache.edgent.function.Supplier, org.apache.edgent.function.Supplier, TextFileWriterConfig)
+ */
+public class TextFileWriterConfig {
+
+    /** The default buffer size, 256KB. */
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private final int bufferSize;
+    private final boolean sync;
+
+    /** same as {@code newConfig(DEFAULT_BUFFER_SIZE, false)}
+     *
+     * @return the writer configuration
+     */
+    public static TextFileWriterConfig newConfig() {
+        return newConfig(DEFAULT_BUFFER_SIZE, false);
+    }
+    /** same as {@code newConfig(DEFAULT_BUFFER_SIZE, true)}
+     *
+     * @return the writer configuration
+     */
+    public static TextFileWriterConfig newSyncConfig() {
+        return newConfig(DEFAULT_BUFFER_SIZE, true);
+    }
+    /**
+     * Create a new configuration.
+     *
+     * @param bufferSize size in bytes of each buffer
+     * @param sync true to force written data to the storage device
+     *        on each flush and when the active file is closed.
+     * @return the writer configuration
+     */
+    public static TextFileWriterConfig newConfig(int bufferSize, boolean sync) {
+        return new TextFileWriterConfig(bufferSize, sync);
+    }
+
+    private TextFileWriterConfig(int bufferSize, boolean sync) {
+        if (bufferSize < 16)
+            throw new IllegalArgumentException("bufferSize");
+        this.bufferSize = bufferSize;
+        this.sync = sync;
+    }
+
+    /**
+     * Get the buffer size configuration value.
+     * @return the value
+     */
+    public int getBufferSize() { return bufferSize; }
+
+    /**
+     * Get the sync configuration value.
+     * @return the value
+     */
+    public boolean isSync() { return sync; }
+
+    @Override
+    public String toString() {
+        return String.format("bufferSize:%d sync:%s", getBufferSize(), isSync());
+    }
+
+}
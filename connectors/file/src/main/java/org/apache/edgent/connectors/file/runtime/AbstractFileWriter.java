@@ -0,0 +1,154 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file.runtime;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.edgent.function.BatchConsumer;
+import org.apache.edgent.function.Supplier;
+import org.slf4j.Logger;
+
+/**
+ * Generic file writer sink driven by an {@link IFileWriterPolicy}.
+ * <p>
+ * Subclasses supply the {@link AbstractWriterFile} that writes
+ * tuples to the active file.
+ * A batch of tuples is written without releasing the writer's lock
+ * between tuples, the policy is consulted after each tuple.
+ *
+ * @param <T> stream tuple type
+ */
+abstract class AbstractFileWriter<T> implements BatchConsumer<T>, AutoCloseable {
+    private static final long serialVersionUID = 1L;
+    static final Logger trace = FileConnector.getTrace();
+    private final Supplier<String> basePathname;
+    private final Supplier<IFileWriterPolicy<T>> policyFn;
+    private volatile boolean initialized;
+    private volatile IFileWriterPolicy<T> policy;
+    private AbstractWriterFile<T> activeFile;
+
+    AbstractFileWriter(Supplier<String> basePathname, Supplier<IFileWriterPolicy<T>> policy) {
+        this.basePathname = basePathname;
+        this.policyFn = policy;
+    }
+    
+    IFileWriterPolicy<T> getPolicy() {
+        if (policy == null) {
+            policy = policyFn.get();
+        }
+        return policy;
+    }
+    
+    /**
+     * Create the writer for a new active file.
+     * @param path the active file
+     * @return the writer
+     * @throws IOException on failure
+     */
+    abstract AbstractWriterFile<T> newWriterFile(Path path) throws IOException;
+    
+    private void initialize() {
+        getPolicy().initialize(basePathname.get(),
+                                () -> flushActiveFile(),
+                                () -> closeActiveFile());
+        initialized = true;
+        trace.info("writer policy: {}", getPolicy());
+    }
+    
+    private synchronized void flushActiveFile() {
+        if (activeFile != null) {
+            try {
+                activeFile.flush();
+            } catch (IOException e) {
+                trace.trace("flush of {} failed", activeFile.path(), e);
+            }
+        }
+    }
+
+    @Override
+    public void accept(T tuple) {
+        if (!initialized)
+            initialize();
+        write(tuple);
+    }
+    
+    @Override
+    public void acceptBatch(List<T> tuples) {
+        if (!initialized)
+            initialize();
+        synchronized(this) {
+            for (T tuple : tuples)
+                write(tuple);
+        }
+    }
+    
+    private void write(T tuple) {
+        // prevent async time based cycle or flush while writing the tuple
+        synchronized(this) {
+            try {
+                if (activeFile == null) {
+                    newActiveFile();
+                }
+                int nbytes = activeFile.write(tuple);
+                getPolicy().wrote(tuple, nbytes);
+            }
+            catch (IOException e) {
+                trace.error("Error writing tuple {} to {}",
+                        activeFile.tupleCnt(), activeFile.path(), e);
+            }
+        }
+        if (getPolicy().shouldCycle()) {
+            closeActiveFile();
+        }
+        else if (getPolicy().shouldFlush()) {
+            flushActiveFile();
+        }
+    }
+    
+    private synchronized void newActiveFile() throws IOException {
+        Path path = getPolicy().getNextActiveFilePath();
+        activeFile = newWriterFile(path);
+    }
+
+    /**
+     * close, finalize, and apply retention policy
+     */
+    private synchronized void closeActiveFile() {
+        AbstractWriterFile<T> activeFile = this.activeFile;
+        try {
+            this.activeFile = null;
+            if (activeFile != null) {
+                activeFile.close();
+                getPolicy().closeActiveFile(activeFile.path());
+                activeFile = null;
+            }
+        }
+        catch (IOException e) {
+            trace.error("error closing active file '{}'", activeFile.path(), e);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        closeActiveFile();
+        getPolicy().close();
+    }
+}
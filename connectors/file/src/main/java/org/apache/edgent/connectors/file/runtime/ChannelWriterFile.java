@@ -0,0 +1,329 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file.runtime;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+
+/**
+ * Writes lines to a {@code FileChannel}, encoding into direct buffers
+ * that are written by a background executor.
+ * <p>
+ * The number of bytes written for a tuple is the number of
+ * bytes produced by the encoder. A tuple that does not fit in the
+ * active buffer is encoded again into the next buffer, so nothing of a
+ * tuple that fails to encode is written. Once writing the file fails,
+ * all later writes to it fail with that error.
+ */
+class ChannelWriterFile extends AbstractWriterFile<String> {
+    private static Logger trace = FileConnector.getTrace();
+    private static final int BUFFERS = 3;
+
+    private final CharsetEncoder encoder;
+    private final byte[] newline;
+    private final boolean sync;
+    private final Executor writer;
+    private final IFileWriterOutputPolicy output;
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFERS);
+    private final AtomicInteger queuedFlushes = new AtomicInteger();
+    private volatile IOException error;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    // only used by the writer
+    private OutputStream out;
+    private byte[] bytes;
+
+    /**
+     * @param path the file to write
+     * @param cs the file's charset
+     * @param bufferSize size of each buffer in bytes
+     * @param sync true to force the file on flush and close
+     * @param writer single threaded executor that writes the buffers
+     * @param output transforms the file's output, may be null
+     */
+    public ChannelWriterFile(Path path, Charset cs, int bufferSize, boolean sync, Executor writer,
+            IFileWriterOutputPolicy output) {
+        super(path);
+        this.output = output;
+        this.encoder = cs.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.newline = "\n".getBytes(cs);
+        this.sync = sync;
+        this.writer = writer;
+        for (int i = 0; i < BUFFERS; i++)
+            free.add(ByteBuffer.allocateDirect(Math.max(bufferSize, newline.length)));
+    }
+
+    @Override
+    protected int writeTuple(String tuple) throws IOException {
+        checkError();
+        if (channel == null) {
+            trace.info("creating file {}", path());
+            channel = FileChannel.open(path(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = takeBuffer();
+            if (output != null) {
+                final FileChannel channel = this.channel;
+                writer.execute(() -> {
+                    try {
+                        // the channel is closed, and forced, after the output is closed
+                        out = output.newActiveFileOutput(path(),
+                                new FilterOutputStream(Channels.newOutputStream(channel)) {
+                                    @Override
+                                    public void write(byte[] b, int off, int len) throws IOException {
+                                        this.out.write(b, off, len);
+                                    }
+                                    @Override
+                                    public void close() throws IOException {
+                                        flush();
+                                    }
+                                });
+                    }
+                    catch (IOException e) {
+                        trace.error("error creating output for file {}", path(), e);
+                        error = e;
+                    }
+                });
+            }
+        }
+
+        int nbytes = encode(tuple);
+        if (buffer.remaining() < newline.length)
+            submit(false);
+        buffer.put(newline);
+        return nbytes + newline.length;
+    }
+
+    /**
+     * Encode a tuple into the active buffer.
+     * On an encoding error the buffer is left as it was.
+     * @return the number of bytes
+     */
+    private int encode(String tuple) throws IOException {
+        for (;;) {
+            int start = buffer.position();
+            encoder.reset();
+            CoderResult cr = encoder.encode(CharBuffer.wrap(tuple), buffer, true);
+            if (cr.isUnderflow())
+                cr = encoder.flush(buffer);
+            if (cr.isUnderflow())
+                return buffer.position() - start;
+            ((Buffer) buffer).position(start);
+            if (cr.isError())
+                cr.throwException();
+            if (start == 0)
+                return encodeLarge(tuple);
+            // submit the complete tuples and encode again into the next buffer
+            submit(false);
+        }
+    }
+
+    /**
+     * Encode a tuple larger than a buffer, it is encoded entirely
+     * before any of it is written.
+     * @return the number of bytes
+     */
+    private int encodeLarge(String tuple) throws IOException {
+        ByteBuffer bytes = encoder.encode(CharBuffer.wrap(tuple));
+        int nbytes = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            if (!buffer.hasRemaining())
+                submit(false);
+            int limit = bytes.limit();
+            ((Buffer) bytes).limit(bytes.position() + Math.min(buffer.remaining(), bytes.remaining()));
+            buffer.put(bytes);
+            ((Buffer) bytes).limit(limit);
+        }
+        return nbytes;
+    }
+
+    /**
+     * Take a free buffer, the writer always returns the buffers
+     * so the wait is not interrupted, closing the job interrupts
+     * its threads and the tuple must still be written.
+     */
+    private ByteBuffer takeBuffer() {
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                try {
+                    return free.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fail if writing the file failed, the error remains
+     * until the file is closed.
+     */
+    private void checkError() throws IOException {
+        IOException e = error;
+        if (e != null)
+            throw e;
+    }
+
+    /**
+     * Pass the active buffer to the writer and take a free one.
+     * @param flush true to flush, and when sync force, the file
+     *        once the buffer is written
+     */
+    private void submit(boolean flush) throws IOException {
+        final ByteBuffer full = buffer;
+        buffer = null;
+        ((Buffer) full).flip();
+        if (flush)
+            queuedFlushes.incrementAndGet();
+        final FileChannel channel = this.channel;
+        writer.execute(() -> {
+            try {
+                // after an error nothing more is written, which
+                // would leave a gap in the file
+                if (error != null) {
+                    if (flush)
+                        queuedFlushes.decrementAndGet();
+                    return;
+                }
+                if (output == null) {
+                    while (full.hasRemaining())
+                        channel.write(full);
+                }
+                else {
+                    write(full);
+                }
+                // a later queued flush commits this buffer too
+                if (flush && queuedFlushes.decrementAndGet() == 0) {
+                    if (out != null)
+                        out.flush();
+                    if (sync)
+                        channel.force(false);
+                }
+            }
+            catch (IOException e) {
+                trace.error("error writing file {}", path(), e);
+                error = e;
+            }
+            finally {
+                ((Buffer) full).clear();
+                free.add(full);
+            }
+        });
+        buffer = takeBuffer();
+    }
+
+    private void write(ByteBuffer full) throws IOException {
+        if (bytes == null)
+            bytes = new byte[Math.min(full.capacity(), 64 * 1024)];
+        while (full.hasRemaining()) {
+            int n = Math.min(bytes.length, full.remaining());
+            full.get(bytes, 0, n);
+            out.write(bytes, 0, n);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (channel != null) {
+            checkError();
+            if (buffer.position() != 0 || sync || output != null) {
+                trace.trace("flushing {}", path());
+                submit(true);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            trace.info("closing {}", path());
+            FileChannel channel = this.channel;
+            try {
+                submit(false);
+                // wait for the writer to complete all the submitted buffers
+                FutureTask<Void> done = new FutureTask<>(() -> {
+                    try {
+                        if (out != null) {
+                            OutputStream out = this.out;
+                            this.out = null;
+                            out.close();
+                        }
+                        if (sync)
+                            channel.force(false);
+                    }
+                    catch (IOException e) {
+                        trace.error("error closing file {}", path(), e);
+                        error = e;
+                    }
+                }, null);
+                writer.execute(done);
+                // not interrupted, the submitted buffers are written
+                // even when the job is being closed
+                boolean interrupted = false;
+                try {
+                    for (;;) {
+                        try {
+                            done.get();
+                            break;
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+                } finally {
+                    if (interrupted)
+                        Thread.currentThread().interrupt();
+                }
+                checkError();
+            }
+            finally {
+                this.channel = null;
+                error = null;
+                channel.close();
+            }
+        }
+    }
+
+}
@@ -23,25 +23,36 @@ import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.edgent.connectors.file.DirectoryWatcherConfig;
 import org.apache.edgent.function.Supplier;
 import org.slf4j.Logger;
 
@@ -69,6 +80,12 @@ import org.slf4j.Logger;
  * as well not detecting rapid deletion and recreation of a file.
  * See:
  * http://stackoverflow.com/questions/9588737/is-java-7-watchservice-slow-for-anyone-else
+ * <p>
+ * A {@link DirectoryWatcherConfig} may specify polling instead of,
+ * or in addition to, the {@code WatchService}, that files are only reported
+ * once they are stable, and a checkpoint of the reported files.
+ * Only newly detected files are sorted, the directory is listed
+ * with a {@link DirectoryStream}.
  */
 
 public class DirectoryWatcher implements AutoCloseable, 
@@ -77,9 +94,18 @@ public class DirectoryWatcher implements AutoCloseable,
     private static final Logger trace = FileConnector.getTrace();
     private final Supplier<String> dirSupplier;
     private final Comparator<File> comparator;
-    private final Set<String> seenFiles = Collections.synchronizedSet(new HashSet<>());
+    private final boolean watch;
+    private final long pollPeriodMsec;
+    private final long stableMsec;
+    private final String checkpointPathname;
+    // name -> lastModified of the reported files
+    private final Map<String,Long> seenFiles = Collections.synchronizedMap(new HashMap<>());
+    // name -> {size, lastModified, unchanged since} of files awaiting stability
+    private final Map<String,long[]> unstableFiles = new HashMap<>();
     private volatile File dirFile;
     private WatchService watcher;
+    private long nextPollMsec;
+    private volatile boolean checkpointDirty;
     
     private Queue<String> pendingNames = new LinkedList<>();
     
@@ -96,6 +122,24 @@ public class DirectoryWatcher implements AutoCloseable,
      *        multiple newly seen files in the directory.  may be null.
      */
     public DirectoryWatcher(Supplier<String> dirSupplier, Comparator<File> comparator) {
+        this(dirSupplier, comparator, null);
+    }
+
+    /**
+     * Watch the specified directory and generate tuples corresponding
+     * to files that are created in the directory.
+     * <p>
+     * If a null {@code comparator} is specified, the default comparator
+     * described in {@link DirectoryWatcher} is used.
+     * 
+     * @param dirSupplier the directory to watch
+     * @param comparator a comparator to order the processing of
+     *        multiple newly seen files in the directory.  may be null.
+     * @param config how files are detected.  may be null, in which case
+     *        {@link DirectoryWatcherConfig#newWatchConfig()} is used.
+     */
+    public DirectoryWatcher(Supplier<String> dirSupplier, Comparator<File> comparator,
+            DirectoryWatcherConfig config) {
         this.dirSupplier = dirSupplier;
         if (comparator == null) {
             comparator = // TODO 2nd order alfanum compare when same LMT?
@@ -103,24 +147,39 @@ public class DirectoryWatcher implements AutoCloseable,
                                             o2.lastModified());
         }
         this.comparator = comparator;
+        if (config == null)
+            config = DirectoryWatcherConfig.newWatchConfig();
+        this.watch = config.isWatch();
+        this.pollPeriodMsec = config.getPollPeriodMsec();
+        this.stableMsec = config.getStableMsec();
+        this.checkpointPathname = config.getCheckpointPathname();
     }
     
     private void initialize() throws IOException {
         dirFile = new File(dirSupplier.get());
         
-        trace.info("watching directory {}", dirFile);
+        trace.info("watching directory {} watch:{} pollPeriodMsec:{} stableMsec:{} checkpoint:{}",
+                dirFile, watch, pollPeriodMsec, stableMsec, checkpointPathname);
         
         Path dir = dirFile.toPath();
 
-        watcher = FileSystems.getDefault().newWatchService();
-        dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE);
+        if (checkpointPathname != null)
+            loadCheckpoint();
+
+        if (watch) {
+            watcher = FileSystems.getDefault().newWatchService();
+            dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE);
+        }
+        nextPollMsec = System.currentTimeMillis() + pollPeriodMsec;
 
-        sortAndSubmit(Arrays.asList(dirFile.listFiles(this)));
+        submitNewFiles(scan(true));
     }
 
     @Override
     public void close() throws IOException {
-        watcher.close();
+        if (watcher != null)
+            watcher.close();
+        saveCheckpoint();
     }
 
     protected void sortAndSubmit(List<File> files) {
@@ -131,9 +190,93 @@ public class DirectoryWatcher implements AutoCloseable,
         for (File file : files) {
             if (accept(file) && file.exists()) {
                 pendingNames.add(file.getAbsolutePath());
-                seenFiles.add(file.getName());
+                seenFiles.put(file.getName(), file.lastModified());
+                checkpointDirty = true;
+            }
+        }
+    }
+    
+    /**
+     * List the directory.
+     * @param initial true if the watcher is starting
+     * @return the files not yet seen
+     */
+    private List<File> scan(boolean initial) throws IOException {
+        List<File> newFiles = new ArrayList<>();
+        Set<String> present = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirFile.toPath())) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                present.add(name);
+                File file = new File(dirFile, name);
+                if (initial) {
+                    // a checkpointed file that changed while not watching is new
+                    Long lastModified = seenFiles.get(name);
+                    if (lastModified != null && lastModified != file.lastModified())
+                        seenFiles.remove(name);
+                }
+                if (accept(file) && !unstableFiles.containsKey(name))
+                    newFiles.add(file);
+            }
+        }
+        // forget removed files
+        if (seenFiles.keySet().retainAll(present))
+            checkpointDirty = true;
+        unstableFiles.keySet().retainAll(present);
+        return newFiles;
+    }
+    
+    private void submitNewFiles(List<File> files) {
+        if (stableMsec == 0) {
+            sortAndSubmit(files);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            unstableFiles.put(file.getName(),
+                    new long[] { file.length(), file.lastModified(), now });
+        }
+        checkStability(now);
+    }
+    
+    /**
+     * Submit the files whose size and last modified time have not
+     * changed for {@code stableMsec}.
+     */
+    private void checkStability(long now) {
+        List<File> stableFiles = new ArrayList<>();
+        for (Iterator<Map.Entry<String,long[]>> it = unstableFiles.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String,long[]> e = it.next();
+            File file = new File(dirFile, e.getKey());
+            long[] state = e.getValue();
+            long size = file.length();
+            long lastModified = file.lastModified();
+            if (!file.exists()) {
+                it.remove();
+            }
+            else if (size != state[0] || lastModified != state[1]) {
+                state[0] = size;
+                state[1] = lastModified;
+                state[2] = now;
+            }
+            else if (now - state[2] >= stableMsec) {
+                it.remove();
+                stableFiles.add(file);
             }
         }
+        sortAndSubmit(stableFiles);
+    }
+    
+    /**
+     * @return msec until the next poll or stability check, -1 for none
+     */
+    private long nextTimeout(long now) {
+        long timeout = Long.MAX_VALUE;
+        if (pollPeriodMsec > 0)
+            timeout = Math.max(1, nextPollMsec - now);
+        for (long[] state : unstableFiles.values())
+            timeout = Math.min(timeout, Math.max(1, state[2] + stableMsec - now));
+        return timeout == Long.MAX_VALUE ? -1 : timeout;
     }
 
     /**
@@ -144,31 +287,50 @@ public class DirectoryWatcher implements AutoCloseable,
     @SuppressWarnings("unchecked")
     private void watchForFiles() throws Exception {
 
-        WatchKey key = watcher.take();
+        long timeout = nextTimeout(System.currentTimeMillis());
+        WatchKey key = null;
+        if (watcher == null)
+            Thread.sleep(timeout);
+        else if (timeout < 0)
+            key = watcher.take();
+        else
+            key = watcher.poll(timeout, TimeUnit.MILLISECONDS);
 
-        List<File> newFiles = new ArrayList<>();
+        Map<String,File> newFiles = new LinkedHashMap<>();
         boolean needFullScan = false;
-        for (WatchEvent<?> watchEvent : key.pollEvents()) {
-
-            if (ENTRY_CREATE == watchEvent.kind()) {
-                Path newPath = ((WatchEvent<Path>) watchEvent).context();
-                File newFile = toAbsFile(newPath);
-                if (accept(newFile))
-                    newFiles.add(newFile);
-            } else if (ENTRY_DELETE == watchEvent.kind()) {
-                Path deletedPath = ((WatchEvent<Path>) watchEvent).context();
-                File deletedFile = toAbsFile(deletedPath);
-                seenFiles.remove(deletedFile.getName());
-            } else if (OVERFLOW == watchEvent.kind()) {
-                needFullScan = true;
+        if (key != null) {
+            for (WatchEvent<?> watchEvent : key.pollEvents()) {
+    
+                if (ENTRY_CREATE == watchEvent.kind()) {
+                    Path newPath = ((WatchEvent<Path>) watchEvent).context();
+                    File newFile = toAbsFile(newPath);
+                    if (accept(newFile) && !unstableFiles.containsKey(newFile.getName()))
+                        newFiles.put(newFile.getName(), newFile);
+                } else if (ENTRY_DELETE == watchEvent.kind()) {
+                    Path deletedPath = ((WatchEvent<Path>) watchEvent).context();
+                    File deletedFile = toAbsFile(deletedPath);
+                    if (seenFiles.remove(deletedFile.getName()) != null)
+                        checkpointDirty = true;
+                    unstableFiles.remove(deletedFile.getName());
+                } else if (OVERFLOW == watchEvent.kind()) {
+                    needFullScan = true;
+                }
             }
+            key.reset();
         }
-        key.reset();
 
+        long now = System.currentTimeMillis();
+        if (pollPeriodMsec > 0 && now >= nextPollMsec) {
+            needFullScan = true;
+            nextPollMsec = now + pollPeriodMsec;
+        }
         if (needFullScan) {
-            Collections.addAll(newFiles, dirFile.listFiles(this));
+            for (File file : scan(false))
+                newFiles.put(file.getName(), file);
         }
-        sortAndSubmit(newFiles);
+        submitNewFiles(new ArrayList<>(newFiles.values()));
+        if (!unstableFiles.isEmpty())
+            checkStability(now);
     }
 
     private File toAbsFile(Path relPath) {
@@ -179,7 +341,68 @@ public class DirectoryWatcher implements AutoCloseable,
     public boolean accept(File pathname) {
         // our "filter" function
         return !pathname.getName().startsWith(".")
-                && !seenFiles.contains(pathname.getName());
+                && !seenFiles.containsKey(pathname.getName());
+    }
+    
+    /**
+     * Load the reported files from the checkpoint.
+     * Each line of the checkpoint is {@code <lastModified> <name>}.
+     */
+    private void loadCheckpoint() {
+        Path checkpoint = new File(checkpointPathname).toPath();
+        if (!Files.exists(checkpoint))
+            return;
+        try (BufferedReader br = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                int sep = line.indexOf(' ');
+                try {
+                    seenFiles.put(line.substring(sep + 1), Long.parseLong(line.substring(0, sep)));
+                } catch (RuntimeException e) {
+                    trace.warn("ignoring malformed checkpoint entry {} in {}", line, checkpoint);
+                }
+            }
+            trace.info("loaded {} checkpoint entries from {}", seenFiles.size(), checkpoint);
+        } catch (IOException e) {
+            trace.error("Unable to read checkpoint {}", checkpoint, e);
+        }
+    }
+    
+    /**
+     * Save the reported files to the checkpoint if they changed.
+     * The checkpoint is written to a temporary file that's then
+     * moved to replace the checkpoint.
+     */
+    private void saveCheckpoint() {
+        if (checkpointPathname == null || !checkpointDirty)
+            return;
+        checkpointDirty = false;
+        Map<String,Long> entries;
+        synchronized (seenFiles) {
+            entries = new HashMap<>(seenFiles);
+        }
+        Path checkpoint = new File(checkpointPathname).toPath();
+        Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter bw = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String,Long> e : entries.entrySet()) {
+                    bw.write(Long.toString(e.getValue()));
+                    bw.write(' ');
+                    bw.write(e.getKey());
+                    bw.newLine();
+                }
+            }
+            try {
+                Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+            }
+            trace.trace("saved {} checkpoint entries to {}", entries.size(), checkpoint);
+        } catch (IOException e) {
+            checkpointDirty = true;
+            trace.error("Unable to write checkpoint {}", checkpoint, e);
+        }
     }
 
     @Override
@@ -197,6 +420,8 @@ public class DirectoryWatcher implements AutoCloseable,
      * It is endless for hasNext() always returns
      * true, and next() will block in WatcherService.take
      * if no files are available.
+     * next() returns null, with the thread's interrupt
+     * status set, if interrupted while waiting.
      */
     private class WatcherIterator implements Iterator<String> {
 
@@ -213,6 +438,9 @@ public class DirectoryWatcher implements AutoCloseable,
                 String name = pendingNames.poll();
                 if (name != null)
                     return name;
+                
+                // all the seen files have been returned
+                saveCheckpoint();
 
                 // blocks until a file appears
                 // note that even when watchForFiles()
@@ -223,10 +451,17 @@ public class DirectoryWatcher implements AutoCloseable,
                 } catch (InterruptedException e) {
                     // interpret as shutdown
                     trace.debug("Interrupted");
+                    Thread.currentThread().interrupt();
+                    return null;
                 } catch (Exception e) {
                     throw new RuntimeException(e);
                 }
             }
         }
+        
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 }
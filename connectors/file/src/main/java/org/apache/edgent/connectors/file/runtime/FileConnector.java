@@ -19,6 +19,9 @@ under the License.
 
 package org.apache.edgent.connectors.file.runtime;
 
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,4 +36,19 @@ public class FileConnector {
         return TRACER;
     }
 
+    /**
+     * Create a factory for named daemon threads, used for background
+     * writing that must not be interrupted when the job is closed.
+     * @param name prefix of the thread names
+     * @return the thread factory
+     */
+    public static ThreadFactory newDaemonThreadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
 }
@@ -0,0 +1,48 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file.runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * An optional interface for {@link IFileWriterPolicy} implementations
+ * that transform the bytes written to the active file, for example
+ * to compress them as they are written.
+ * <p>
+ * A file writer whose policy implements this interface writes
+ * the active file through the returned stream.  The stream is flushed
+ * when the active file is flushed and closed, closing {@code out},
+ * before {@link IFileWriterPolicy#closeActiveFile(Path)} is called.
+ * <p>
+ * The number of bytes passed to {@link IFileWriterPolicy#wrote(Object, long)}
+ * is the number of bytes written to the returned stream.
+ */
+public interface IFileWriterOutputPolicy {
+
+    /**
+     * Create the stream used to write the active file.
+     * @param path the active file
+     * @param out stream writing to the active file
+     * @return the stream to write the active file's contents to
+     * @throws IOException on failure
+     */
+    OutputStream newActiveFileOutput(Path path, OutputStream out) throws IOException;
+}
@@ -0,0 +1,305 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file.runtime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads lines from a file using a direct {@code ByteBuffer}
+ * or a memory mapped region of the file.
+ * <p>
+ * Line terminators are found by scanning the bytes, so the charset
+ * must encode carriage return and line feed as single bytes. Only
+ * the bytes of each line are decoded, lines consisting of only
+ * ASCII characters are converted without using the decoder when the
+ * charset is ASCII compatible.
+ * <p>
+ * Lines are terminated as for {@link java.io.BufferedReader#readLine()}.
+ * A file starting with the gzip magic number is decompressed,
+ * and is always read into a buffer.
+ */
+public class NioLineReader implements Closeable {
+
+    private static final int GZIP_MAGIC0 = 0x1f;
+    private static final int GZIP_MAGIC1 = 0x8b;
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    private final CharsetDecoder decoder;
+    private final boolean asciiCompatible;
+    private final Closeable resource;
+
+    // buffered
+    private final ReadableByteChannel in;
+
+    // mapped
+    private final FileChannel mapped;
+    private final long fileSize;
+    private long mapOffset;
+    private int mapSize;
+
+    private ByteBuffer buf;
+    private int scan;
+    private boolean eof;
+    private boolean skipLF;
+    private CharBuffer chars = CharBuffer.allocate(256);
+
+    /**
+     * Open a file for reading.
+     * @param path the file to read
+     * @param map true to memory map the file
+     * @param bufferSize size of the buffer or mapped region, in bytes
+     * @param charset the file's charset
+     * @throws IOException if the file can not be opened
+     */
+    public NioLineReader(Path path, boolean map, int bufferSize, Charset charset) throws IOException {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("bufferSize");
+        byte[] crlf = "\r\n".getBytes(charset);
+        if (crlf.length != 2 || crlf[0] != '\r' || crlf[1] != '\n')
+            throw new IllegalArgumentException("charset: " + charset);
+        decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        asciiCompatible = charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+
+        FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            while (magic.hasRemaining() && fc.read(magic, magic.position()) > 0)
+                ;
+            boolean gzip = magic.position() == 2
+                    && (magic.get(0) & 0xff) == GZIP_MAGIC0
+                    && (magic.get(1) & 0xff) == GZIP_MAGIC1;
+            if (gzip) {
+                GZIPInputStream gis = new GZIPInputStream(Channels.newInputStream(fc),
+                        Math.min(bufferSize, 64 * 1024));
+                in = Channels.newChannel(gis);
+                resource = gis;
+                mapped = null;
+            }
+            else if (map) {
+                in = null;
+                resource = fc;
+                mapped = fc;
+            }
+            else {
+                in = fc;
+                resource = fc;
+                mapped = null;
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            fc.close();
+            throw e;
+        }
+
+        if (mapped != null) {
+            fileSize = mapped.size();
+            mapSize = bufferSize;
+            buf = ByteBuffer.allocate(0);
+        }
+        else {
+            fileSize = -1;
+            buf = ByteBuffer.allocateDirect(bufferSize);
+            // Buffer methods are called through Buffer, Java 8 has no
+            // covariant ByteBuffer and CharBuffer overrides
+            ((Buffer) buf).flip();
+        }
+    }
+
+    /**
+     * Read the next line.
+     * @return the line without its terminator, or null at the end of the file
+     * @throws IOException if reading or decoding fails
+     */
+    public String readLine() throws IOException {
+        for (;;) {
+            final ByteBuffer buf = this.buf;
+            final int limit = buf.limit();
+            if (skipLF && buf.position() < limit) {
+                // previous line ended with a carriage return at the end of the buffer
+                skipLF = false;
+                if (buf.get(buf.position()) == '\n')
+                    ((Buffer) buf).position(buf.position() + 1);
+                scan = buf.position();
+            }
+
+            for (int i = scan; i < limit; i++) {
+                final byte b = buf.get(i);
+                if (b == '\n' || b == '\r') {
+                    final String line = decode(i);
+                    int next = i + 1;
+                    if (b == '\r') {
+                        if (next < limit) {
+                            if (buf.get(next) == '\n')
+                                next++;
+                        }
+                        else {
+                            skipLF = true;
+                        }
+                    }
+                    ((Buffer) buf).position(next);
+                    scan = next;
+                    return line;
+                }
+            }
+            scan = limit;
+
+            if (!fill()) {
+                if (!this.buf.hasRemaining())
+                    return null;
+                final String line = decode(this.buf.limit());
+                scan = this.buf.limit();
+                return line;
+            }
+        }
+    }
+
+    /**
+     * Decode the bytes from the buffer's position to {@code end},
+     * leaving the position at {@code end}.
+     */
+    private String decode(int end) throws IOException {
+        final ByteBuffer buf = this.buf;
+        final int start = buf.position();
+        final int length = end - start;
+        if (asciiCompatible && isAscii(buf, start, end)) {
+            if (chars.capacity() < length)
+                chars = CharBuffer.allocate(Math.max(length, chars.capacity() * 2));
+            final char[] a = chars.array();
+            for (int i = 0; i < length; i++)
+                a[i] = (char) buf.get(start + i);
+            ((Buffer) buf).position(end);
+            return new String(a, 0, length);
+        }
+
+        final int maxChars = (int) Math.min(MAX_BUFFER_SIZE, (long) Math.ceil(length * (double) decoder.maxCharsPerByte()) + 1);
+        if (chars.capacity() < maxChars)
+            chars = CharBuffer.allocate(Math.max(maxChars, chars.capacity() * 2));
+        final int limit = buf.limit();
+        ((Buffer) buf).limit(end);
+        try {
+            ((Buffer) chars).clear();
+            decoder.reset();
+            CoderResult cr = decoder.decode(buf, chars, true);
+            if (!cr.isUnderflow())
+                cr.throwException();
+            cr = decoder.flush(chars);
+            if (!cr.isUnderflow())
+                cr.throwException();
+        }
+        finally {
+            ((Buffer) buf).limit(limit);
+        }
+        ((Buffer) chars).flip();
+        return chars.toString();
+    }
+
+    private static boolean isAscii(ByteBuffer buf, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buf.get(i) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Make more of the file available in the buffer, retaining
+     * the unconsumed bytes.
+     * @return false if there is no more data
+     */
+    private boolean fill() throws IOException {
+        if (eof)
+            return false;
+        return mapped != null ? map() : read();
+    }
+
+    private boolean read() throws IOException {
+        final int consumed = buf.position();
+        if (consumed == 0 && buf.limit() == buf.capacity()) {
+            // line is longer than the buffer
+            if (buf.capacity() == MAX_BUFFER_SIZE)
+                throw new IOException("line too long");
+            ByteBuffer grown = ByteBuffer.allocateDirect(
+                    (int) Math.min(MAX_BUFFER_SIZE, buf.capacity() * 2L));
+            grown.put(buf);
+            buf = grown;
+        }
+        else {
+            buf.compact();
+        }
+        scan -= consumed;
+
+        int n;
+        do {
+            n = in.read(buf);
+        } while (n == 0);
+        ((Buffer) buf).flip();
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean map() throws IOException {
+        final long start = mapOffset + buf.position();
+        if (mapOffset + buf.limit() >= fileSize) {
+            eof = true;
+            return false;
+        }
+        if (buf.position() == 0 && buf.limit() != 0) {
+            // line is longer than the mapped region
+            if (mapSize == MAX_BUFFER_SIZE)
+                throw new IOException("line too long");
+            mapSize = (int) Math.min(MAX_BUFFER_SIZE, mapSize * 2L);
+        }
+        scan -= buf.position();
+
+        final int length = (int) Math.min(fileSize - start, mapSize);
+        buf = mapped.map(FileChannel.MapMode.READ_ONLY, start, length);
+        mapOffset = start;
+        return true;
+    }
+
+    /**
+     * Close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        resource.close();
+    }
+}
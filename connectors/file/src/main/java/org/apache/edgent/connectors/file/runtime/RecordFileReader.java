@@ -0,0 +1,342 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+import org.apache.edgent.function.Function;
+import org.slf4j.Logger;
+
+/**
+ * Reads the records of segment files written by {@link RecordFileWriter}.
+ * <p>
+ * A segment is memory mapped and the position of the first record
+ * at or after a time is located using the segment's index, so
+ * replaying from a point in time does not read the preceding records.
+ * <p>
+ * Each record's checksum is verified.  Reading a segment stops at the
+ * first record that is truncated or whose checksum does not match.
+ * A segment without an index, for example one whose writer
+ * did not close it, is read from its beginning.
+ */
+public class RecordFileReader {
+    private static final Logger trace = FileConnector.getTrace();
+    
+    private RecordFileReader() {}
+    
+    /**
+     * Read the records of a segment file.
+     * <p>
+     * The file is read each time an iterator is created.
+     * 
+     * @param <T> tuple type
+     * @param path the segment file
+     * @param fromTime only records with a timestamp greater than or equal
+     *        to {@code fromTime} are returned
+     * @param deserializer function creating a tuple from a record's payload
+     * @return the segment's tuples
+     */
+    public static <T> Iterable<T> segment(Path path, long fromTime, Function<byte[],T> deserializer) {
+        return () -> new SegmentIterator<T>(path, fromTime, deserializer);
+    }
+    
+    /**
+     * Read the records of the segment files written with a base pathname.
+     * <p>
+     * The segments are the final files named {@code basePathname_*},
+     * ordered by the timestamp of their first record.
+     * Segments whose last record is before {@code fromTime} are not read.
+     * The segments are listed each time an iterator is created.
+     * 
+     * @param <T> tuple type
+     * @param basePathname the base pathname the segments were written with
+     * @param fromTime only records with a timestamp greater than or equal
+     *        to {@code fromTime} are returned
+     * @param deserializer function creating a tuple from a record's payload
+     * @return the segments' tuples
+     */
+    public static <T> Iterable<T> segments(String basePathname, long fromTime, Function<byte[],T> deserializer) {
+        return () -> {
+            final Iterator<Path> paths = listSegments(basePathname, fromTime).iterator();
+            return new Iterator<T>() {
+                private Iterator<T> current = Collections.<T>emptyList().iterator();
+                
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext()) {
+                        if (!paths.hasNext())
+                            return false;
+                        current = new SegmentIterator<T>(paths.next(), fromTime, deserializer);
+                    }
+                    return true;
+                }
+                
+                @Override
+                public T next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    return current.next();
+                }
+                
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        };
+    }
+    
+    /**
+     * List the segment files written with a base pathname that
+     * contain records at or after {@code fromTime}.
+     * 
+     * @param basePathname the base pathname the segments were written with
+     * @param fromTime the earliest record timestamp of interest
+     * @return the segments, ordered by the timestamp of their first record
+     */
+    public static List<Path> listSegments(String basePathname, long fromTime) {
+        Path basePath = new File(basePathname).toPath().toAbsolutePath();
+        String prefix = basePath.getFileName() + "_";
+        List<SegmentInfo> infos = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(basePath.getParent(), prefix + "*")) {
+            for (Path path : dir) {
+                SegmentInfo info = SegmentInfo.read(path);
+                if (info != null && info.lastTimestamp >= fromTime)
+                    infos.add(info);
+            }
+        }
+        catch (IOException e) {
+            trace.error("Unable to list segments for {}", basePathname, e);
+        }
+        Collections.sort(infos, (a, b) -> {
+            int c = Long.compare(a.firstTimestamp, b.firstTimestamp);
+            return c != 0 ? c : a.path.compareTo(b.path);
+        });
+        List<Path> paths = new ArrayList<>(infos.size());
+        for (SegmentInfo info : infos)
+            paths.add(info.path);
+        return paths;
+    }
+    
+    /**
+     * Offset of the end of a segment's records, from its footer.
+     * @return the offset of the index, or -1 if the footer is missing or invalid
+     */
+    private static long indexOffset(ByteBuffer footer, long size) {
+        long indexOffset = footer.getLong(0);
+        int count = footer.getInt(16);
+        int magic = footer.getInt(20);
+        if (magic != RecordWriterFile.INDEX_MAGIC || count < 0
+                || indexOffset < RecordWriterFile.HEADER_SIZE
+                || indexOffset + count * 16L + RecordWriterFile.FOOTER_SIZE != size)
+            return -1;
+        return indexOffset;
+    }
+    
+    private static final class SegmentInfo {
+        final Path path;
+        final long firstTimestamp;
+        final long lastTimestamp;
+        
+        SegmentInfo(Path path, long firstTimestamp, long lastTimestamp) {
+            this.path = path;
+            this.firstTimestamp = firstTimestamp;
+            this.lastTimestamp = lastTimestamp;
+        }
+        
+        /**
+         * @return the segment's info, or null if the file is not a segment
+         */
+        static SegmentInfo read(Path path) {
+            if (!Files.isRegularFile(path))
+                return null;
+            try (FileChannel fc = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = fc.size();
+                ByteBuffer head = ByteBuffer.allocate(RecordWriterFile.HEADER_SIZE + RecordWriterFile.RECORD_HEADER_SIZE);
+                readFully(fc, head, 0);
+                if (head.position() < RecordWriterFile.HEADER_SIZE
+                        || head.getInt(0) != RecordWriterFile.MAGIC
+                        || head.getInt(4) != RecordWriterFile.VERSION)
+                    return null;
+                long first = head.position() == head.capacity()
+                        ? head.getLong(RecordWriterFile.HEADER_SIZE + 8) : Long.MAX_VALUE;
+                
+                // without a valid footer the last timestamp is unknown
+                long last = Long.MAX_VALUE;
+                if (size >= RecordWriterFile.HEADER_SIZE + RecordWriterFile.FOOTER_SIZE) {
+                    ByteBuffer footer = ByteBuffer.allocate(RecordWriterFile.FOOTER_SIZE);
+                    readFully(fc, footer, size - RecordWriterFile.FOOTER_SIZE);
+                    if (!footer.hasRemaining() && indexOffset(footer, size) != -1)
+                        last = footer.getLong(8);
+                }
+                return new SegmentInfo(path, first, last);
+            }
+            catch (IOException e) {
+                trace.error("Unable to read segment {}", path, e);
+                return null;
+            }
+        }
+    }
+    
+    private static void readFully(FileChannel fc, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = fc.read(buf, position + buf.position());
+            if (n < 0)
+                break;
+        }
+    }
+    
+    private static final class SegmentIterator<T> implements Iterator<T> {
+        private final Path path;
+        private final long fromTime;
+        private final Function<byte[],T> deserializer;
+        private final CRC32 crc = new CRC32();
+        private final byte[] scratch = new byte[8];
+        private MappedByteBuffer buf;
+        private int end;
+        private T next;
+        
+        SegmentIterator(Path path, long fromTime, Function<byte[],T> deserializer) {
+            this.path = path;
+            this.fromTime = fromTime;
+            this.deserializer = deserializer;
+            try {
+                open();
+            }
+            catch (IOException e) {
+                trace.error("Unable to read segment {}", path, e);
+                buf = null;
+            }
+        }
+        
+        private void open() throws IOException {
+            try (FileChannel fc = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = fc.size();
+                if (size > Integer.MAX_VALUE)
+                    throw new IOException("segment too large: " + size);
+                if (size < RecordWriterFile.HEADER_SIZE)
+                    return;
+                // the mapping remains valid after the channel is closed
+                buf = fc.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            if (buf.getInt(0) != RecordWriterFile.MAGIC || buf.getInt(4) != RecordWriterFile.VERSION)
+                throw new IOException("not a record segment");
+            
+            end = buf.capacity();
+            int start = RecordWriterFile.HEADER_SIZE;
+            if (end >= RecordWriterFile.HEADER_SIZE + RecordWriterFile.FOOTER_SIZE) {
+                ((Buffer) buf).position(end - RecordWriterFile.FOOTER_SIZE);
+                long indexOffset = indexOffset(buf.slice(), end);
+                if (indexOffset != -1) {
+                    int count = buf.getInt(end - 8);
+                    start = seek((int) indexOffset, count);
+                    end = (int) indexOffset;
+                }
+            }
+            ((Buffer) buf).position(start);
+            ((Buffer) buf).limit(end);
+        }
+        
+        /**
+         * Use the index to find the offset of the last indexed
+         * record before {@code fromTime}.
+         */
+        private int seek(int indexOffset, int count) {
+            int lo = 0;
+            int hi = count - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                long ts = buf.getLong(indexOffset + mid * 16);
+                if (ts < fromTime) {
+                    found = mid;
+                    lo = mid + 1;
+                }
+                else
+                    hi = mid - 1;
+            }
+            if (found == -1)
+                return RecordWriterFile.HEADER_SIZE;
+            return (int) buf.getLong(indexOffset + found * 16 + 8);
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (next == null && buf != null) {
+                if (buf.remaining() < RecordWriterFile.RECORD_HEADER_SIZE) {
+                    if (buf.hasRemaining())
+                        trace.warn("Truncated record at offset {} in {}", buf.position(), path);
+                    buf = null;
+                    break;
+                }
+                int offset = buf.position();
+                int length = buf.getInt();
+                int checksum = buf.getInt();
+                long ts = buf.getLong();
+                if (length < 0 || length > buf.remaining()) {
+                    trace.warn("Truncated record at offset {} in {}", offset, path);
+                    buf = null;
+                    break;
+                }
+                if (ts < fromTime) {
+                    ((Buffer) buf).position(buf.position() + length);
+                    continue;
+                }
+                byte[] payload = new byte[length];
+                buf.get(payload);
+                if (RecordWriterFile.checksum(crc, scratch, ts, payload, 0, length) != checksum) {
+                    trace.warn("Corrupt record at offset {} in {}", offset, path);
+                    buf = null;
+                    break;
+                }
+                next = deserializer.apply(payload);
+            }
+            return next != null;
+        }
+        
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            T tuple = next;
+            next = null;
+            return tuple;
+        }
+        
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
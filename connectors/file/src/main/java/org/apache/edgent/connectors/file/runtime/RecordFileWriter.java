@@ -0,0 +1,59 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file.runtime;
+
+import java.nio.file.Path;
+
+import org.apache.edgent.function.Function;
+import org.apache.edgent.function.Supplier;
+import org.apache.edgent.function.ToLongFunction;
+
+/**
+ * Writes tuples as timestamped binary records to segment files
+ * subject to the control of a file writer policy.
+ *
+ * @param <T> stream tuple type
+ * @see RecordFileReader
+ */
+public class RecordFileWriter<T> extends AbstractFileWriter<T> {
+    private static final long serialVersionUID = 1L;
+    private final Function<T,byte[]> serializer;
+    private final ToLongFunction<T> timestamp;
+
+    /**
+     * @param basePathname the base pathname of the created segment files
+     * @param policy the policy to use
+     * @param serializer function serializing a tuple to a record's payload
+     * @param timestamp function obtaining a tuple's timestamp.
+     *        Timestamps must be non-decreasing, a tuple whose timestamp
+     *        is before that of the previous record in its segment
+     *        is not written.
+     */
+    public RecordFileWriter(Supplier<String> basePathname, Supplier<IFileWriterPolicy<T>> policy,
+            Function<T,byte[]> serializer, ToLongFunction<T> timestamp) {
+        super(basePathname, policy);
+        this.serializer = serializer;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    AbstractWriterFile<T> newWriterFile(Path path) {
+        return new RecordWriterFile<>(path, serializer, timestamp);
+    }
+}
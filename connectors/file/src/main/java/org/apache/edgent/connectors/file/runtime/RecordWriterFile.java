@@ -0,0 +1,159 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.connectors.file.runtime;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.apache.edgent.function.Function;
+import org.apache.edgent.function.ToLongFunction;
+import org.slf4j.Logger;
+
+/**
+ * Writes tuples as binary records to a segment file.
+ * <p>
+ * A segment consists of:
+ * <ul>
+ * <li>a header - {@code int} magic, {@code int} version</li>
+ * <li>records - {@code int} payload length, {@code int} CRC32 of the
+ *     timestamp and payload, {@code long} timestamp, payload bytes</li>
+ * <li>a footer, written when the segment is closed - the sparse index
+ *     of {@code long} timestamp, {@code long} record offset pairs followed by
+ *     {@code long} index offset, {@code long} last timestamp,
+ *     {@code int} index entry count, {@code int} index magic</li>
+ * </ul>
+ * The index contains the first record and then a record at least every
+ * {@link #INDEX_INTERVAL} bytes.
+ * <p>
+ * The index is searched by timestamp, so a segment's timestamps must be
+ * non-decreasing.  A tuple whose timestamp is before that of the
+ * segment's previous record is not written, it fails with an
+ * {@code IOException}.
+ */
+class RecordWriterFile<T> extends AbstractWriterFile<T> {
+    private static Logger trace = FileConnector.getTrace();
+
+    static final int MAGIC = 0x45445253; // EDRS
+    static final int VERSION = 1;
+    static final int INDEX_MAGIC = 0x45445249; // EDRI
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 16;
+    static final int FOOTER_SIZE = 24;
+    static final int INDEX_INTERVAL = 64 * 1024;
+
+    private final Function<T,byte[]> serializer;
+    private final ToLongFunction<T> timestamp;
+    private final CRC32 crc = new CRC32();
+    private final byte[] timestampBytes = new byte[8];
+    private DataOutputStream out;
+    private long offset;
+    private long nextIndexOffset;
+    private long lastTimestamp;
+    private long[] index = new long[32];
+    private int indexCount;
+
+    RecordWriterFile(Path path, Function<T,byte[]> serializer, ToLongFunction<T> timestamp) {
+        super(path);
+        this.serializer = serializer;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    protected int writeTuple(T tuple) throws IOException {
+        long ts = timestamp.applyAsLong(tuple);
+        if (out != null && ts < lastTimestamp)
+            throw new IOException("Timestamp " + ts + " is before the previous record's timestamp " + lastTimestamp);
+        if (out == null) {
+            trace.info("creating file {}", path());
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path()), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            offset = HEADER_SIZE;
+        }
+        byte[] payload = serializer.apply(tuple);
+
+        if (offset >= nextIndexOffset) {
+            if (indexCount * 2 == index.length)
+                index = Arrays.copyOf(index, index.length * 2);
+            index[indexCount * 2] = ts;
+            index[indexCount * 2 + 1] = offset;
+            indexCount++;
+            nextIndexOffset = offset + INDEX_INTERVAL;
+        }
+
+        out.writeInt(payload.length);
+        out.writeInt(checksum(crc, timestampBytes, ts, payload, 0, payload.length));
+        out.writeLong(ts);
+        out.write(payload);
+        lastTimestamp = ts;
+
+        int nbytes = RECORD_HEADER_SIZE + payload.length;
+        offset += nbytes;
+        return nbytes;
+    }
+
+    /**
+     * CRC32 of the big endian timestamp and the payload.
+     */
+    static int checksum(CRC32 crc, byte[] scratch, long ts, byte[] payload, int off, int len) {
+        for (int i = 7; i >= 0; i--) {
+            scratch[i] = (byte) ts;
+            ts >>>= 8;
+        }
+        crc.reset();
+        crc.update(scratch, 0, 8);
+        crc.update(payload, off, len);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            trace.trace("flushing {}", path());
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            trace.info("closing {}", path());
+            DataOutputStream out = this.out;
+            this.out = null;
+            try {
+                long indexOffset = offset;
+                for (int i = 0; i < indexCount * 2; i++)
+                    out.writeLong(index[i]);
+                out.writeLong(indexOffset);
+                out.writeLong(lastTimestamp);
+                out.writeInt(indexCount);
+                out.writeInt(INDEX_MAGIC);
+            }
+            finally {
+                out.close();
+            }
+        }
+    }
+
+}
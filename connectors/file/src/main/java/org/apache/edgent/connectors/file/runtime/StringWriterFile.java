@@ -21,6 +21,7 @@ package org.apache.edgent.connectors.file.runtime;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -31,17 +32,28 @@ class StringWriterFile extends AbstractWriterFile<String> {
     private static Logger trace = FileConnector.getTrace();
     private BufferedWriter bw;
     private final Charset cs;
+    private final IFileWriterOutputPolicy output;
 
     public StringWriterFile(Path path, Charset cs) {
+        this(path, cs, null);
+    }
+
+    public StringWriterFile(Path path, Charset cs, IFileWriterOutputPolicy output) {
         super(path);
         this.cs = cs;
+        this.output = output;
     }
 
     @Override
     protected int writeTuple(String tuple) throws IOException {
         if (bw == null) {
             trace.info("creating file {}", path());
-            bw = Files.newBufferedWriter(path(), cs);
+            if (output == null)
+                bw = Files.newBufferedWriter(path(), cs);
+            else
+                bw = new BufferedWriter(new OutputStreamWriter(
+                        output.newActiveFileOutput(path(), Files.newOutputStream(path())),
+                        cs.newEncoder()));
         }
         bw.write(tuple);
         bw.write("\n");
@@ -25,7 +25,15 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.edgent.connectors.file.TextFileReaderConfig;
+import org.apache.edgent.connectors.file.TextFileReaderConfig.Mode;
 import org.apache.edgent.function.BiFunction;
 import org.apache.edgent.function.Consumer;
 import org.apache.edgent.function.Function;
@@ -37,11 +45,21 @@ public class TextFileReader extends Pipe<String,String> {
 
     private static final long serialVersionUID = 1L;
     private static final Logger trace = FileConnector.getTrace();
+    private static final int BATCH_SIZE = 256;
+    private static final int READ_AHEAD_LINES = 64 * BATCH_SIZE;
     private volatile String encoding = "UTF-8";
     private volatile Charset charset;
     private volatile boolean shutdown;
     private volatile Function<String,String> preFn = path -> null;
     private volatile BiFunction<String,Exception,String> postFn = (path,exc) -> null;
+    private Mode mode;
+    private int bufferSize;
+    private int parallelism = 1;
+    private boolean ordered;
+    private transient Semaphore permits;
+    private transient ThreadFactory threads;
+    private transient Object submitLock;
+    private transient FileTask lastTask;
 
     private void setShutdown(boolean b) {
         shutdown = b;
@@ -69,11 +87,34 @@ public class TextFileReader extends Pipe<String,String> {
             this.postFn = postFn;
     }
 
+    /**
+     * Read files using NIO as specified by {@code config}.
+     * @param config the configuration, null to read files
+     *        using a {@code BufferedReader}
+     */
+    public void setConfig(TextFileReaderConfig config) {
+        if (config == null) {
+            mode = null;
+            parallelism = 1;
+        }
+        else {
+            mode = config.getMode();
+            bufferSize = config.getBufferSize();
+            parallelism = config.getParallelism();
+            ordered = config.isOrdered();
+        }
+    }
+
     @Override
     public synchronized void initialize(OpletContext<String,String> context) {
         super.initialize(context);
 
         charset = Charset.forName(getEncoding());
+        if (parallelism > 1) {
+            permits = new Semaphore(parallelism);
+            threads = context.getService(ThreadFactory.class);
+            submitLock = new Object();
+        }
     }
     
     private void pre(String pathname, Consumer<String> dst) {
@@ -90,22 +131,17 @@ public class TextFileReader extends Pipe<String,String> {
 
     @Override
     public void accept(String pathname) {
+        if (parallelism > 1) {
+            acceptConcurrent(pathname);
+            return;
+        }
         trace.trace("reading path={}", pathname);
         Consumer<String> dst = getDestination();
         pre(pathname, dst);
-        Path path = new File(pathname).toPath();
         Exception exc = null;
         int nlines = 0;
-        try (BufferedReader br = Files.newBufferedReader(path, charset)) {
-            for (int i = 0;;i++) {
-                if (i % 10 == 0 && isShutdown())
-                    break;
-                String line = br.readLine();
-                if (line == null)
-                    break;
-                nlines++;
-                dst.accept(line);
-            }
+        try {
+            nlines = readLines(pathname, dst);
         }
         catch (IOException e) {
             trace.error("Error processing file '{}'", pathname, e);
@@ -117,6 +153,160 @@ public class TextFileReader extends Pipe<String,String> {
         }
     }
 
+    private interface LineSupplier {
+        String readLine() throws IOException;
+    }
+
+    private int readLines(String pathname, Consumer<String> dst) throws IOException {
+        Path path = new File(pathname).toPath();
+        if (mode == null) {
+            try (BufferedReader br = Files.newBufferedReader(path, charset)) {
+                return submitLines(br::readLine, dst);
+            }
+        }
+        try (NioLineReader reader = new NioLineReader(path, mode == Mode.MAPPED, bufferSize, charset)) {
+            return submitLines(reader::readLine, dst);
+        }
+    }
+
+    private int submitLines(LineSupplier lines, Consumer<String> dst) throws IOException {
+        int nlines = 0;
+        for (int i = 0;;i++) {
+            if (i % 10 == 0 && isShutdown())
+                break;
+            String line = lines.readLine();
+            if (line == null)
+                break;
+            nlines++;
+            dst.accept(line);
+        }
+        return nlines;
+    }
+
+    /**
+     * Read the file on its own thread, blocking while
+     * {@code parallelism} files are being read.
+     */
+    private void acceptConcurrent(String pathname) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        FileTask task = new FileTask(pathname, ordered ? lastTask : null);
+        if (ordered)
+            lastTask = task;
+        try {
+            threads.newThread(task).start();
+        }
+        catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void submitBatch(List<String> lines) {
+        if (isShutdown())
+            return;
+        synchronized (submitLock) {
+            super.submitBatch(lines);
+        }
+    }
+
+    /**
+     * Reads a file, submitting its lines in batches.
+     * When ordered the lines are held back until the
+     * previous file's lines have been submitted.
+     */
+    private class FileTask implements Runnable {
+        private final String pathname;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private FileTask previous;
+        private List<String> batch = new ArrayList<>(BATCH_SIZE);
+        private List<List<String>> readAhead = new ArrayList<>();
+        private int readAheadLines;
+        private boolean submitting;
+
+        FileTask(String pathname, FileTask previous) {
+            this.pathname = pathname;
+            this.previous = previous;
+        }
+
+        @Override
+        public void run() {
+            try {
+                trace.trace("reading path={}", pathname);
+                Consumer<String> dst = line -> add(line);
+                pre(pathname, dst);
+                Exception exc = null;
+                int nlines = 0;
+                try {
+                    nlines = readLines(pathname, dst);
+                }
+                catch (IOException e) {
+                    trace.error("Error processing file '{}'", pathname, e);
+                    exc = e;
+                }
+                finally {
+                    trace.trace("done reading nlines={} path={} ", nlines, pathname);
+                    post(pathname, exc, dst);
+                }
+                flush(true);
+            }
+            finally {
+                done.countDown();
+                permits.release();
+            }
+        }
+
+        private void add(String line) {
+            batch.add(line);
+            if (batch.size() >= BATCH_SIZE)
+                flush(false);
+        }
+
+        private void flush(boolean last) {
+            if (!submitting && (previous == null || previous.done.getCount() == 0))
+                startSubmitting();
+            if (!batch.isEmpty()) {
+                if (submitting) {
+                    submitBatch(batch);
+                    batch.clear();
+                }
+                else {
+                    readAhead.add(batch);
+                    readAheadLines += batch.size();
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!submitting && (last || readAheadLines >= READ_AHEAD_LINES)) {
+                awaitPrevious();
+                startSubmitting();
+            }
+        }
+
+        private void awaitPrevious() {
+            try {
+                while (!previous.done.await(100, TimeUnit.MILLISECONDS)) {
+                    if (isShutdown())
+                        return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void startSubmitting() {
+            submitting = true;
+            previous = null;
+            for (List<String> lines : readAhead)
+                submitBatch(lines);
+            readAhead = null;
+        }
+    }
+
     @Override
     public void close() throws Exception {
         setShutdown(true);
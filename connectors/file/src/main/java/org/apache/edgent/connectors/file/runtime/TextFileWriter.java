@@ -16,119 +16,66 @@ KIND, either express or implied.  See the License for the
 specific language governing permissions and limitations
 under the License.
 */
-
 package org.apache.edgent.connectors.file.runtime;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import org.apache.edgent.function.Consumer;
+import org.apache.edgent.connectors.file.TextFileWriterConfig;
 import org.apache.edgent.function.Supplier;
-import org.slf4j.Logger;
 
-public class TextFileWriter implements Consumer<String>, AutoCloseable {
+public class TextFileWriter extends AbstractFileWriter<String> {
     private static final long serialVersionUID = 1L;
-    static final Logger trace = FileConnector.getTrace();
     private volatile String encoding = "UTF-8";
     private volatile Charset charset;
-    private final Supplier<String> basePathname;
-    private final Supplier<IFileWriterPolicy<String>> policyFn;
-    private volatile boolean initialized;
-    private volatile IFileWriterPolicy<String> policy;
-    private StringWriterFile activeFile;
+    private final TextFileWriterConfig config;
+    private ExecutorService writer;
     
     private String getEncoding() {
         return encoding;
     }
 
     public TextFileWriter(Supplier<String> basePathname, Supplier<IFileWriterPolicy<String>> policy) {
-        this.basePathname = basePathname;
-        this.policyFn = policy;
-        charset = Charset.forName(getEncoding());
-    }
-    
-    private IFileWriterPolicy<String> getPolicy() {
-        if (policy == null) {
-            policy = policyFn.get();
-        }
-        return policy;
+        this(basePathname, policy, null);
     }
     
-    private void initialize() {
-        getPolicy().initialize(basePathname.get(),
-                                () -> flushActiveFile(),
-                                () -> closeActiveFile());
-        initialized = true;
-        trace.info("writer policy: {}", getPolicy());
+    /**
+     * @param basePathname the base pathname of the created files
+     * @param policy the policy to use
+     * @param config how files are written, null to use a {@code BufferedWriter}
+     */
+    public TextFileWriter(Supplier<String> basePathname, Supplier<IFileWriterPolicy<String>> policy,
+            TextFileWriterConfig config) {
+        super(basePathname, policy);
+        this.config = config;
+        charset = Charset.forName(getEncoding());
     }
     
-    private synchronized void flushActiveFile() {
-        if (activeFile != null) {
-            try {
-                activeFile.flush();
-            } catch (IOException e) {
-                trace.trace("flush of {} failed", activeFile.path(), e);
-            }
-        }
-    }
-
     @Override
-    public void accept(String line) {
-        if (!initialized)
-            initialize();
-        writeLine(line);
-    }
-    
-    private void writeLine(String line) {
-        // prevent async time based cycle or flush while writing the tuple
-        synchronized(this) {
-            try {
-                if (activeFile == null) {
-                    newActiveFile();
-                }
-                int nbytes = activeFile.write(line);
-                getPolicy().wrote(line, nbytes);
-            }
-            catch (IOException e) {
-                trace.error("Error writing tuple {} of length {} to {}",
-                        activeFile.tupleCnt(), line.length(), activeFile.path(), e);
-            }
-        }
-        if (getPolicy().shouldCycle()) {
-            closeActiveFile();
-        }
-        else if (getPolicy().shouldFlush()) {
-            flushActiveFile();
-        }
-    }
-    
-    private synchronized void newActiveFile() throws IOException {
-        Path path = getPolicy().getNextActiveFilePath();
-        activeFile = new StringWriterFile(path, charset);
-    }
-
-    /**
-     * close, finalize, and apply retention policy
-     */
-    private synchronized void closeActiveFile() {
-        StringWriterFile activeFile = this.activeFile;
-        try {
-            this.activeFile = null;
-            if (activeFile != null) {
-                activeFile.close();
-                getPolicy().closeActiveFile(activeFile.path());
-                activeFile = null;
-            }
-        }
-        catch (IOException e) {
-            trace.error("error closing active file '{}'", activeFile.path(), e);
+    synchronized AbstractWriterFile<String> newWriterFile(Path path) throws IOException {
+        IFileWriterOutputPolicy output = getPolicy() instanceof IFileWriterOutputPolicy
+                ? (IFileWriterOutputPolicy) getPolicy() : null;
+        if (config == null)
+            return new StringWriterFile(path, charset, output);
+        if (writer == null) {
+            // not a job thread, closing the job interrupts its threads
+            // before this writer is closed, which would lose the final buffers
+            writer = Executors.newSingleThreadExecutor(
+                    FileConnector.newDaemonThreadFactory("edgent-file-writer"));
         }
+        return new ChannelWriterFile(path, charset,
+                config.getBufferSize(), config.isSync(), writer, output);
     }
 
     @Override
     public void close() throws Exception {
-        closeActiveFile();
-        getPolicy().close();
+        super.close();
+        synchronized (this) {
+            if (writer != null)
+                writer.shutdown();
+        }
     }
 }
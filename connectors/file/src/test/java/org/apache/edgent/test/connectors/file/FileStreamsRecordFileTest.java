@@ -0,0 +1,261 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.connectors.file;
+
+import static org.apache.edgent.test.connectors.common.FileUtil.createTempFile;
+import static org.junit.Assert.assertEquals;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.edgent.connectors.file.FileStreams;
+import org.apache.edgent.connectors.file.FileWriterCycleConfig;
+import org.apache.edgent.connectors.file.FileWriterFlushConfig;
+import org.apache.edgent.connectors.file.FileWriterPolicy;
+import org.apache.edgent.connectors.file.FileWriterRetentionConfig;
+import org.apache.edgent.connectors.file.runtime.IFileWriterPolicy;
+import org.apache.edgent.connectors.file.runtime.RecordFileReader;
+import org.apache.edgent.connectors.file.runtime.RecordFileWriter;
+import org.apache.edgent.test.providers.direct.DirectTopologyTestBase;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.apache.edgent.topology.tester.Condition;
+import org.junit.Test;
+
+public class FileStreamsRecordFileTest extends DirectTopologyTestBase {
+    
+    // large enough that a segment has multiple index entries
+    private static final String PAD = new String(new char[2000]).replace('\0', 'x');
+    private static final int TMO_SEC = 5;
+    
+    // tuple "<n>-<pad>" has timestamp n*10
+    private static String tuple(int n) {
+        return n + "-" + PAD;
+    }
+    private static long timestamp(String tuple) {
+        return Long.parseLong(tuple.substring(0, tuple.indexOf('-'))) * 10;
+    }
+    private static byte[] serialize(String tuple) {
+        return tuple.getBytes(StandardCharsets.UTF_8);
+    }
+    private static String deserialize(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+    
+    private static String[] tuples(int from, int to) {
+        String[] tuples = new String[to - from];
+        for (int i = from; i < to; i++)
+            tuples[i - from] = tuple(i);
+        return tuples;
+    }
+    
+    private static List<String> read(Iterable<String> records) {
+        List<String> tuples = new ArrayList<>();
+        for (String tuple : records)
+            tuples.add(tuple);
+        return tuples;
+    }
+    
+    private static IFileWriterPolicy<String> newPolicy(int cntTuples) {
+        return new FileWriterPolicy<String>(
+                FileWriterFlushConfig.newImplicitConfig(),
+                FileWriterCycleConfig.newCountBasedConfig(cntTuples),
+                FileWriterRetentionConfig.newFileCountBasedConfig(10)
+                );
+    }
+    
+    // write tuples without a topology
+    private static void write(Path basePath, int cntTuples, String... tuples) throws Exception {
+        IFileWriterPolicy<String> policy = newPolicy(cntTuples);
+        try (RecordFileWriter<String> writer = new RecordFileWriter<String>(
+                () -> basePath.toString(), () -> policy,
+                FileStreamsRecordFileTest::serialize, FileStreamsRecordFileTest::timestamp)) {
+            for (String tuple : tuples)
+                writer.accept(tuple);
+        }
+    }
+    
+    private static void deleteAll(Path basePath) {
+        Path parent = basePath.getParent();
+        String baseLeaf = basePath.getFileName().toString();
+        String[] actLeafs = parent.toFile().list(
+                (dir,leaf) -> leaf.startsWith(baseLeaf));
+        for (String leaf : actLeafs) {
+            parent.resolve(leaf).toFile().delete();
+        }
+    }
+
+    @Test
+    public void testWriteReplay() throws Exception {
+        Topology t = newTopology("testWriteReplay");
+        Path basePath = createTempFile("test1", "rec", new String[0]);
+        try {
+            String[] tuples = tuples(0, 500);
+            TStream<String> s = t.strings(tuples);
+            IFileWriterPolicy<String> policy = newPolicy(100);
+            FileStreams.recordFileWriter(s, () -> basePath.toString(), () -> policy,
+                    FileStreamsRecordFileTest::serialize, FileStreamsRecordFileTest::timestamp);
+            
+            Condition<Object> tc = new Condition<Object>() {
+                public boolean valid() {
+                    return getResult() == 5;
+                }
+                public Integer getResult() {
+                    return RecordFileReader.listSegments(basePath.toString(), Long.MIN_VALUE).size();
+                }
+            };
+            complete(t, tc, TMO_SEC, TimeUnit.SECONDS);
+            assertEquals(5, RecordFileReader.listSegments(basePath.toString(), Long.MIN_VALUE).size());
+            
+            // replay all
+            Topology t2 = newTopology("testWriteReplay2");
+            TStream<String> replay = FileStreams.recordFileReader(t2,
+                    () -> basePath.toString(), Long.MIN_VALUE, FileStreamsRecordFileTest::deserialize);
+            completeAndValidate("", t2, replay, TMO_SEC, tuples);
+        }
+        finally {
+            deleteAll(basePath);
+        }
+    }
+
+    @Test
+    public void testSeek() throws Exception {
+        Path basePath = createTempFile("test1", "rec", new String[0]);
+        try {
+            write(basePath, 100, tuples(0, 500));
+            
+            // segments wholly before fromTime are skipped
+            assertEquals(5, RecordFileReader.listSegments(basePath.toString(), 0).size());
+            assertEquals(3, RecordFileReader.listSegments(basePath.toString(), 2375).size());
+            assertEquals(0, RecordFileReader.listSegments(basePath.toString(), 5000).size());
+            
+            Iterable<String> records = RecordFileReader.segments(basePath.toString(), 2375,
+                    FileStreamsRecordFileTest::deserialize);
+            assertEquals(Arrays.asList(tuples(238, 500)), read(records));
+            
+            // exact timestamp, on an index entry boundary and at the start
+            for (int from : new int[] {0, 1, 31, 99, 100, 101, 250, 499}) {
+                records = RecordFileReader.segments(basePath.toString(), from * 10,
+                        FileStreamsRecordFileTest::deserialize);
+                assertEquals(Integer.toString(from), Arrays.asList(tuples(from, 500)), read(records));
+            }
+            
+            // replay a stream of segment pathnames
+            Topology t = newTopology("testSeek");
+            List<String> pathnames = new ArrayList<>();
+            for (Path path : RecordFileReader.listSegments(basePath.toString(), Long.MIN_VALUE))
+                pathnames.add(path.toString());
+            TStream<String> replay = FileStreams.recordFileReader(
+                    t.collection(pathnames), 3005, FileStreamsRecordFileTest::deserialize);
+            completeAndValidate("", t, replay, TMO_SEC, tuples(301, 500));
+        }
+        finally {
+            deleteAll(basePath);
+        }
+    }
+
+    @Test
+    public void testOutOfOrderTimestamps() throws Exception {
+        Path basePath = createTempFile("test1", "rec", new String[0]);
+        try {
+            // records before the segment's previous record are not written
+            List<String> tuples = new ArrayList<>();
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                tuples.add(tuple(i));
+                expected.add(tuple(i));
+                if (i % 10 == 5)
+                    tuples.add(tuple(i - 3));
+            }
+            write(basePath, 1000, tuples.toArray(new String[0]));
+            assertEquals(1, RecordFileReader.listSegments(basePath.toString(), Long.MIN_VALUE).size());
+            
+            for (int from : new int[] {0, 33, 100, 199}) {
+                Iterable<String> records = RecordFileReader.segments(basePath.toString(), from * 10,
+                        FileStreamsRecordFileTest::deserialize);
+                assertEquals(Integer.toString(from), expected.subList(from, 200), read(records));
+            }
+        }
+        finally {
+            deleteAll(basePath);
+        }
+    }
+
+    @Test
+    public void testCorruptSegment() throws Exception {
+        Path basePath = createTempFile("test1", "rec", new String[0]);
+        try {
+            write(basePath, 100, tuples(0, 100));
+            List<Path> segments = RecordFileReader.listSegments(basePath.toString(), Long.MIN_VALUE);
+            assertEquals(1, segments.size());
+            Path segment = segments.get(0);
+            
+            // corrupt the payload of record 50
+            int recordSize = 16 + serialize(tuple(50)).length;
+            long offset = 8 + 50L * recordSize + 16 + 5;
+            try (RandomAccessFile raf = new RandomAccessFile(segment.toFile(), "rw")) {
+                raf.seek(offset);
+                int b = raf.read();
+                raf.seek(offset);
+                raf.write(b ^ 0xff);
+            }
+            
+            assertEquals(Arrays.asList(tuples(0, 50)), read(RecordFileReader.segment(
+                    segment, Long.MIN_VALUE, FileStreamsRecordFileTest::deserialize)));
+            assertEquals(Arrays.asList(tuples(20, 50)), read(RecordFileReader.segment(
+                    segment, 200, FileStreamsRecordFileTest::deserialize)));
+        }
+        finally {
+            deleteAll(basePath);
+        }
+    }
+
+    @Test
+    public void testTruncatedSegment() throws Exception {
+        Path basePath = createTempFile("test1", "rec", new String[0]);
+        try {
+            write(basePath, 100, tuples(0, 100));
+            Path segment = RecordFileReader.listSegments(basePath.toString(), Long.MIN_VALUE).get(0);
+            
+            // truncate in the middle of record 75, losing the index
+            int recordSize = 16 + serialize(tuple(75)).length;
+            long size = 8 + 75L * recordSize + recordSize / 2;
+            try (RandomAccessFile raf = new RandomAccessFile(segment.toFile(), "rw")) {
+                raf.setLength(size);
+            }
+            assertEquals(size, Files.size(segment));
+            
+            // without its index the segment is scanned, it may contain any timestamp
+            assertEquals(1, RecordFileReader.listSegments(basePath.toString(), 5000).size());
+            assertEquals(Arrays.asList(tuples(0, 75)), read(RecordFileReader.segments(
+                    basePath.toString(), Long.MIN_VALUE, FileStreamsRecordFileTest::deserialize)));
+            assertEquals(Arrays.asList(tuples(60, 75)), read(RecordFileReader.segments(
+                    basePath.toString(), 600, FileStreamsRecordFileTest::deserialize)));
+        }
+        finally {
+            deleteAll(basePath);
+        }
+    }
+}
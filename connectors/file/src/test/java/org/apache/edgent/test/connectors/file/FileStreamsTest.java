@@ -18,10 +18,16 @@ under the License.
 */
 package org.apache.edgent.test.connectors.file;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -31,9 +37,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.edgent.connectors.file.DirectoryWatcherConfig;
 import org.apache.edgent.connectors.file.FileStreams;
+import org.apache.edgent.connectors.file.TextFileReaderConfig;
+import org.apache.edgent.connectors.file.TextFileReaderConfig.Mode;
+import org.apache.edgent.connectors.file.runtime.DirectoryWatcher;
 import org.apache.edgent.function.BiFunction;
 import org.apache.edgent.function.Function;
 import org.apache.edgent.test.connectors.common.FileUtil;
@@ -81,7 +94,26 @@ public class FileStreamsTest extends DirectTopologyTestBase {
         runDirectoryWatcher(t, 20, -1);
     }
     
+    @Test
+    public void testDirectoryWatcherPolling() throws Exception {
+        Topology t = newTopology("testDirectoryWatcherPolling");
+        
+        runDirectoryWatcher(t, 20, 1, DirectoryWatcherConfig.newPollingConfig(100));
+    }
+    
+    @Test
+    public void testDirectoryWatcherPollingPreExisting() throws Exception {
+        Topology t = newTopology("testDirectoryWatcherPollingPreExisting");
+        
+        runDirectoryWatcher(t, 20, -1, DirectoryWatcherConfig.newPollingConfig(100));
+    }
+    
     private void runDirectoryWatcher(Topology t, int numberOfFiles, int repeat) throws Exception {
+        runDirectoryWatcher(t, numberOfFiles, repeat, null);
+    }
+    
+    private void runDirectoryWatcher(Topology t, int numberOfFiles, int repeat,
+            DirectoryWatcherConfig config) throws Exception {
         
         boolean preExistingMode = repeat < 0;
         repeat = Math.abs(repeat);
@@ -136,7 +168,7 @@ public class FileStreamsTest extends DirectTopologyTestBase {
         }
 
         TStream<String> fileNames = FileStreams.directoryWatcher(t, 
-                () -> dir.toAbsolutePath().toString());
+                () -> dir.toAbsolutePath().toString(), null, config);
         
         try {
             // These tests require unordered validation because the
@@ -154,6 +186,114 @@ public class FileStreamsTest extends DirectTopologyTestBase {
         }
     }
 
+    @Test
+    public void testDirectoryWatcherCheckpoint() throws Exception {
+        final Path dir = Files.createTempDirectory("testdw");
+        final Path checkpoint = Files.createTempFile("testdw", ".seen");
+        String[] files = new String[] {
+                dir.resolve("A1").toString(),
+                dir.resolve("A2").toString(),
+                dir.resolve("A3").toString(),
+        };
+        try {
+            checkpoint.toFile().delete();
+            createFiles(Arrays.copyOf(files, 2), 1);
+            DirectoryWatcherConfig config = DirectoryWatcherConfig.newConfig(
+                    false, 100, 0, checkpoint.toString());
+            
+            try (DirectoryWatcher watcher = new DirectoryWatcher(() -> dir.toString(), null, config)) {
+                Iterator<String> it = watcher.iterator();
+                List<String> names = Arrays.asList(it.next(), it.next());
+                assertTrue(names.toString(), names.containsAll(Arrays.asList(files[0], files[1])));
+            }
+            assertEquals(2, Files.readAllLines(checkpoint, StandardCharsets.UTF_8).size());
+            
+            // a restarted watcher reports only new and changed files
+            Files.createFile(Paths.get(files[2]));
+            File changed = new File(files[0]);
+            changed.setLastModified(changed.lastModified() - 10000);
+            try (DirectoryWatcher watcher = new DirectoryWatcher(() -> dir.toString(), null, config)) {
+                Iterator<String> it = watcher.iterator();
+                // default comparator orders by lastModified
+                assertEquals(files[0], it.next());
+                assertEquals(files[2], it.next());
+            }
+            assertEquals(3, Files.readAllLines(checkpoint, StandardCharsets.UTF_8).size());
+        }
+        finally {
+            checkpoint.toFile().delete();
+            deleteFilesAndDir(dir, files);
+        }
+    }
+    
+    @Test
+    public void testDirectoryWatcherStability() throws Exception {
+        final Path dir = Files.createTempDirectory("testdw");
+        final Path path = dir.resolve("A1");
+        final long stableMsec = 500;
+        AtomicLong lastWrite = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            try (OutputStream os = Files.newOutputStream(path)) {
+                for (int i = 0; i < 10; i++) {
+                    os.write(getLines()[0].getBytes(StandardCharsets.UTF_8));
+                    os.flush();
+                    lastWrite.set(System.currentTimeMillis());
+                    Thread.sleep(100);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        try {
+            writer.start();
+            DirectoryWatcherConfig config = DirectoryWatcherConfig.newConfig(
+                    true, 50, stableMsec, null);
+            try (DirectoryWatcher watcher = new DirectoryWatcher(() -> dir.toString(), null, config)) {
+                assertEquals(path.toString(), watcher.iterator().next());
+                long reported = System.currentTimeMillis();
+                writer.join();
+                assertTrue("reported while being written",
+                        reported >= lastWrite.get() + stableMsec);
+            }
+        }
+        finally {
+            writer.join();
+            deleteFilesAndDir(dir, new String[] { path.toString() });
+        }
+    }
+    
+    @Test
+    public void testDirectoryWatcherParallelRead() throws Exception {
+        Topology t = newTopology("testDirectoryWatcherParallelRead");
+        
+        final Path dir = Files.createTempDirectory("testdw");
+        String[] files = new String[5];
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < files.length; i++) {
+            Path path = dir.resolve("A" + i);
+            files[i] = path.toString();
+            List<String> lines = new ArrayList<>();
+            for (String line : getLines())
+                lines.add(i + "-" + line);
+            Files.write(path, lines, StandardCharsets.UTF_8);
+            expected.addAll(lines);
+        }
+        
+        try {
+            TStream<String> pathnames = FileStreams.directoryWatcher(t,
+                    () -> dir.toString(), null,
+                    DirectoryWatcherConfig.newConfig(false, 100, 200, null));
+            TStream<String> contents = FileStreams.textFileReader(pathnames, null, null,
+                    TextFileReaderConfig.newParallelConfig(Mode.BUFFERED, 3, false));
+            
+            completeAndValidate(false/*ordered*/, "", t, contents, 20,
+                    expected.toArray(new String[0]));
+        }
+        finally {
+            deleteFilesAndDir(dir, files);
+        }
+    }
+
     private void deleteFilesAndDir(final Path dir, final String[] files) {
         // Ensure we clean up!
         for (int i = 0; i < files.length; i++) {
@@ -311,4 +451,147 @@ public class FileStreamsTest extends DirectTopologyTestBase {
             tempFile2.toFile().delete();
         }
     }
+
+    /**
+     * Content exercising line terminators, buffer boundaries and decoding.
+     */
+    private static String nioContent() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("first\r\n");
+        sb.append("\n");
+        sb.append("carriage return only\r");
+        sb.append("caf\u00e9 \u20ac \ud83d\ude00 non-ascii\n");
+        for (int i = 0; i < 40; i++)
+            sb.append('x');
+        sb.append("\r\n\r\n");
+        for (int i = 0; i < 100; i++)
+            sb.append("line ").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+        sb.append("no terminator");
+        return sb.toString();
+    }
+
+    private static String[] readLines(String content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new StringReader(content))) {
+            String line;
+            while ((line = br.readLine()) != null)
+                lines.add(line);
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    private static Path createGzipFile(String content) throws IOException {
+        Path path = Files.createTempFile("test", ".txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return path;
+    }
+
+    @Test
+    public void testTextFileReaderNio() throws Exception {
+        String content = nioContent();
+        String[] expected = readLines(content);
+        Path tempFile = Files.createTempFile("test", ".txt");
+        Files.write(tempFile, content.getBytes(StandardCharsets.UTF_8));
+        Path gzipFile = createGzipFile(content);
+        
+        try {
+            // small buffers force lines and terminators across buffer boundaries
+            for (Mode mode : Mode.values()) {
+                for (int bufferSize : new int[] {16, 17, 1024}) {
+                    TextFileReaderConfig config = TextFileReaderConfig.newConfig(mode, bufferSize, 1, true);
+                    for (Path path : new Path[] {tempFile, gzipFile}) {
+                        Topology t = newTopology("testTextFileReaderNio");
+                        TStream<String> contents = FileStreams.textFileReader(
+                                t.strings(path.toAbsolutePath().toString()), null, null, config);
+                        completeAndValidate(config + " " + path, t, contents, 10, expected);
+                    }
+                }
+            }
+        }
+        finally {
+            tempFile.toFile().delete();
+            gzipFile.toFile().delete();
+        }
+    }
+
+    @Test
+    public void testTextFileReaderNioPrePost() throws Exception {
+        Topology t = newTopology("testTextFileReaderNioPrePost");
+        
+        String[] lines = getLines();
+        Path tempFile1 = FileUtil.createTempFile("test1", "txt", lines);
+        String noSuchFilePath = new File(tempFile1.toFile().getParentFile(), "no-such-file").toString();
+        
+        Function<String,String> preFn = path -> "[PRE] " + path;
+        BiFunction<String,Exception,String> postFn
+            = (path,exc) -> "[POST] " + path + " " + (exc == null ? "" : exc.getClass().getSimpleName());
+        
+        List<String> allLines = new ArrayList<>();
+        allLines.add(preFn.apply(tempFile1.toAbsolutePath().toString()));
+        allLines.addAll(Arrays.asList(lines));
+        allLines.add(postFn.apply(tempFile1.toAbsolutePath().toString(), null));
+        allLines.add(preFn.apply(noSuchFilePath));
+        allLines.add(postFn.apply(noSuchFilePath, new NoSuchFileException(noSuchFilePath)));
+        
+        TStream<String> contents = FileStreams.textFileReader(
+                t.strings(tempFile1.toAbsolutePath().toString(), noSuchFilePath),
+                preFn, postFn, TextFileReaderConfig.newMappedConfig());
+        
+        try {
+            completeAndValidate("", t, contents, 10, allLines.toArray(new String[0]));
+        }
+        finally {
+            tempFile1.toFile().delete();
+        }
+    }
+
+    private void runTextFileReaderParallel(String name, boolean ordered) throws Exception {
+        Topology t = newTopology(name);
+        
+        // enough lines per file to span several batches and exceed the read ahead
+        int[] sizes = {20000, 10, 3000, 0, 700, 1};
+        List<Path> paths = new ArrayList<>();
+        List<String> pathnames = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        try {
+            for (int f = 0; f < sizes.length; f++) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < sizes[f]; i++)
+                    sb.append("file").append(f).append(" line ").append(i).append('\n');
+                Path path = f % 2 == 0 ? Files.createTempFile("test", ".txt") : createGzipFile(sb.toString());
+                if (f % 2 == 0)
+                    Files.write(path, sb.toString().getBytes(StandardCharsets.UTF_8));
+                paths.add(path);
+                pathnames.add(path.toAbsolutePath().toString());
+                
+                expected.add("[PRE] " + f);
+                expected.addAll(Arrays.asList(readLines(sb.toString())));
+                expected.add("[POST] " + f);
+            }
+            
+            TStream<String> contents = FileStreams.textFileReader(
+                    t.collection(pathnames),
+                    path -> "[PRE] " + pathnames.indexOf(path),
+                    (path,exc) -> "[POST] " + pathnames.indexOf(path),
+                    TextFileReaderConfig.newParallelConfig(Mode.BUFFERED, 3, ordered));
+            
+            completeAndValidate(ordered, "", t, contents, 20, expected.toArray(new String[0]));
+        }
+        finally {
+            for (Path path : paths)
+                path.toFile().delete();
+        }
+    }
+
+    @Test
+    public void testTextFileReaderParallelOrdered() throws Exception {
+        runTextFileReaderParallel("testTextFileReaderParallelOrdered", true);
+    }
+
+    @Test
+    public void testTextFileReaderParallelUnordered() throws Exception {
+        runTextFileReaderParallel("testTextFileReaderParallelUnordered", false);
+    }
 }
@@ -33,8 +33,11 @@ import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
@@ -46,18 +49,24 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import org.apache.edgent.connectors.file.CompressedFileWriterPolicy;
+import org.apache.edgent.connectors.file.CompressedFileWriterPolicy.Format;
 import org.apache.edgent.connectors.file.FileStreams;
 import org.apache.edgent.connectors.file.FileWriterCycleConfig;
 import org.apache.edgent.connectors.file.FileWriterFlushConfig;
 import org.apache.edgent.connectors.file.FileWriterPolicy;
 import org.apache.edgent.connectors.file.FileWriterRetentionConfig;
+import org.apache.edgent.connectors.file.TextFileWriterConfig;
+import org.apache.edgent.connectors.file.runtime.IFileWriterOutputPolicy;
 import org.apache.edgent.connectors.file.runtime.IFileWriterPolicy;
+import org.apache.edgent.execution.Job;
 import org.apache.edgent.function.Predicate;
 import org.apache.edgent.test.providers.direct.DirectTopologyTestBase;
 import org.apache.edgent.topology.TSink;
@@ -660,6 +669,237 @@ public class FileStreamsTextFileWriterTest extends DirectTopologyTestBase {
         completeAndValidateWriter(t, TMO_SEC, basePath, expResults);
     }
 
+    @Test
+    public void testBatchedCycleSizeBased() throws Exception {
+        Topology t = newTopology("testBatchedCycleSizeBased");
+        
+        // establish a base path
+        Path basePath = createTempFile("test1", "txt", new String[0]);
+        
+        // multi-byte characters and lines longer than the buffer
+        String[] lines = new String[] {
+                "1-caf\u00e9 \u20ac "+getStr()+getStr(),
+                "2-caf\u00e9 \u20ac "+getStr()+getStr(),
+                "3-caf\u00e9 \u20ac "+getStr()+getStr(),
+                "4-caf\u00e9 \u20ac "+getStr()+getStr(),
+        };
+        
+        // build expected results
+        // net two tuples per file, which requires the byte count
+        // rather than the char count of each line
+        AtomicInteger cnt = new AtomicInteger();
+        List<List<String>> expResults = buildExpResults(lines, tuple -> cnt.incrementAndGet() % 2 == 0);
+        // cycles once the size exceeds fileSize
+        int fileSize = 2 * (lines[0].getBytes(StandardCharsets.UTF_8).length + 1) - 1;
+
+        TStream<String> s = t.strings(lines);
+        
+        IFileWriterPolicy<String> policy = new FileWriterPolicy<String>(
+                FileWriterFlushConfig.newImplicitConfig(),
+                FileWriterCycleConfig.newFileSizeBasedConfig(fileSize),
+                FileWriterRetentionConfig.newFileCountBasedConfig(10)
+                );
+        FileStreams.textFileWriter(s, () -> basePath.toString(), () -> policy,
+                TextFileWriterConfig.newConfig(16, false));
+
+        completeAndValidateWriter(t, TMO_SEC, basePath, expResults);
+    }
+
+    @Test
+    public void testBatchedFlushSync() throws Exception {
+        Topology t = newTopology("testBatchedFlushSync");
+        
+        // establish a base path
+        Path basePath = createTempFile("test1", "txt", new String[0]);
+        
+        String[] lines = new String[100];
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = i + "-" + getStr();
+
+        // build expected results
+        // net all in one, the first, file
+        List<List<String>> expResults = buildExpResults(lines, tuple -> false);
+
+        TStream<String> s = t.strings(lines);
+        
+        IFileWriterPolicy<String> policy = new FileWriterPolicy<String>(
+                FileWriterFlushConfig.newCountBasedConfig(3),
+                FileWriterCycleConfig.newCountBasedConfig(expResults.get(0).size()),  // all in 1 file
+                FileWriterRetentionConfig.newFileCountBasedConfig(10)
+                );
+        FileStreams.textFileWriter(s, () -> basePath.toString(), () -> policy,
+                TextFileWriterConfig.newConfig(64, true));
+
+        completeAndValidateWriter(t, TMO_SEC, basePath, expResults);
+    }
+
+    @Test
+    public void testBatchedCloseWithPendingWrites() throws Exception {
+        Topology t = newTopology("testBatchedCloseWithPendingWrites");
+        
+        // establish a base path
+        Path basePath = createTempFile("test1", "txt", new String[0]);
+        
+        String[] lines = new String[100];
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = i + "-" + getStr();
+
+        // build expected results
+        // net all in one, the first, file
+        List<List<String>> expResults = buildExpResults(lines, tuple -> false);
+
+        TStream<String> s = t.strings(lines);
+        
+        // slow output so buffers are still being written when the job is closed
+        AtomicInteger wrote = new AtomicInteger();
+        SlowOutputPolicy policy = new SlowOutputPolicy(
+                FileWriterFlushConfig.newImplicitConfig(),
+                FileWriterCycleConfig.newCountBasedConfig(lines.length + 1),  // closing the job closes the file
+                FileWriterRetentionConfig.newFileCountBasedConfig(10),
+                wrote);
+        FileStreams.textFileWriter(s, () -> basePath.toString(), () -> policy,
+                TextFileWriterConfig.newConfig(64, false));
+
+        try {
+            Job job = (Job) getSubmitter().submit(t).get();
+            long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (wrote.get() < lines.length && System.currentTimeMillis() < end)
+                Thread.sleep(1);
+            assertEquals(lines.length, wrote.get());
+
+            // close while the writer is writing the last buffers
+            job.stateChange(Job.Action.CLOSE);
+            assertEquals(Job.State.CLOSED, job.getCurrentState());
+            assertEquals("", job.getLastError());
+
+            checkFiles(basePath, expResults, false);
+        }
+        finally {
+            deleteAll(basePath);
+        }
+    }
+    
+    private static class SlowOutputPolicy extends FileWriterPolicy<String>
+            implements IFileWriterOutputPolicy {
+        private final AtomicInteger wrote;
+
+        SlowOutputPolicy(FileWriterFlushConfig<String> flushConfig,
+                FileWriterCycleConfig<String> cycleConfig,
+                FileWriterRetentionConfig retentionConfig,
+                AtomicInteger wrote) {
+            super(flushConfig, cycleConfig, retentionConfig);
+            this.wrote = wrote;
+        }
+
+        @Override
+        public void wrote(String tuple, long nbytes) {
+            super.wrote(tuple, nbytes);
+            wrote.incrementAndGet();
+        }
+
+        @Override
+        public OutputStream newActiveFileOutput(Path path, OutputStream out) throws IOException {
+            return new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                    out.write(b, off, len);
+                }
+            };
+        }
+    }
+
+    @Test
+    public void testBatchedMalformedTuples() throws Exception {
+        Topology t = newTopology("testBatchedMalformedTuples");
+        
+        // establish a base path
+        Path basePath = createTempFile("test1", "txt", new String[0]);
+        
+        String[] lines = new String[20];
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = i + "-" + getStr();
+
+        // build expected results
+        // net all in one, the first, file, without the malformed tuples
+        List<List<String>> expResults = buildExpResults(lines, tuple -> false);
+
+        // malformed tuples shorter and longer than the buffer, each fails
+        // after part of it is encoded
+        List<String> tuples = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            tuples.add(lines[i]);
+            if (i % 5 == 1)
+                tuples.add("bad-\ud800");
+            else if (i % 5 == 3)
+                tuples.add("bad-" + getStr() + getStr() + "\ud800");
+        }
+        TStream<String> s = t.strings(tuples.toArray(new String[0]));
+        
+        IFileWriterPolicy<String> policy = new FileWriterPolicy<String>(
+                FileWriterFlushConfig.newImplicitConfig(),
+                FileWriterCycleConfig.newCountBasedConfig(lines.length),  // all in 1 file
+                FileWriterRetentionConfig.newFileCountBasedConfig(10)
+                );
+        FileStreams.textFileWriter(s, () -> basePath.toString(), () -> policy,
+                TextFileWriterConfig.newConfig(16, false));
+
+        completeAndValidateWriter(t, TMO_SEC, basePath, expResults);
+    }
+
+    @Test
+    public void testBatchedOutputError() throws Exception {
+        Topology t = newTopology("testBatchedOutputError");
+        
+        // establish a base path
+        Path basePath = createTempFile("test1", "txt", new String[0]);
+        
+        String[] lines = new String[100];
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = i + "-" + getStr();
+
+        AtomicInteger attempted = new AtomicInteger();
+        TStream<String> s = t.strings(lines).peek(tuple -> attempted.incrementAndGet());
+        
+        // the file's output cannot be created
+        AtomicInteger wrote = new AtomicInteger();
+        SlowOutputPolicy policy = new SlowOutputPolicy(
+                FileWriterFlushConfig.newImplicitConfig(),
+                FileWriterCycleConfig.newCountBasedConfig(lines.length + 1),  // closing the job closes the file
+                FileWriterRetentionConfig.newFileCountBasedConfig(10),
+                wrote) {
+            @Override
+            public OutputStream newActiveFileOutput(Path path, OutputStream out) throws IOException {
+                throw new IOException("no output");
+            }
+        };
+        FileStreams.textFileWriter(s, () -> basePath.toString(), () -> policy,
+                TextFileWriterConfig.newConfig(16, false));
+
+        try {
+            Job job = (Job) getSubmitter().submit(t).get();
+            long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (attempted.get() < lines.length && System.currentTimeMillis() < end)
+                Thread.sleep(1);
+            assertEquals(lines.length, attempted.get());
+            job.stateChange(Job.Action.CLOSE);
+
+            // once the error occurs all the file's later writes fail,
+            // and nothing is written
+            assertTrue(String.valueOf(wrote.get()), wrote.get() < lines.length);
+            for (Path path : getActFiles(basePath))
+                assertEquals(path.toString(), 0, Files.size(path));
+        }
+        finally {
+            deleteAll(basePath);
+        }
+    }
+
     @Test
     public void testCycleTimeBased() throws Exception {
         Topology t = newTopology("testCycleTimeBased");
@@ -826,6 +1066,122 @@ public class FileStreamsTextFileWriterTest extends DirectTopologyTestBase {
         completeAndValidateWriter(t, TMO_SEC, basePath, expResults);
     }
 
+    private void runCompressedFileWriterPolicy(String name, Format format,
+            int maxPendingCompressions, TextFileWriterConfig config) throws Exception {
+        Topology t = newTopology(name);
+        
+        // establish a base path
+        Path basePath = createTempFile("test1", "txt", new String[0]);
+        
+        String[] lines = new String[200];
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = (i % 10) + "-" + getStr();
+        
+        // build expected results
+        // net 50 tuples per file
+        int cntTuples = 50;
+        AtomicInteger cnt = new AtomicInteger();
+        Predicate<String> cycleIt = tuple -> cnt.incrementAndGet() % cntTuples == 0;
+        List<List<String>> expResults = buildExpResults(lines, cycleIt);
+        assertEquals(lines.length / cntTuples, expResults.size());
+
+        TStream<String> s = t.strings(lines);
+        
+        CompressedFileWriterPolicy<String> policy = new CompressedFileWriterPolicy<String>(
+                FileWriterFlushConfig.newCountBasedConfig(7),
+                FileWriterCycleConfig.newCountBasedConfig(cntTuples),
+                FileWriterRetentionConfig.newFileCountBasedConfig(10),
+                format, maxPendingCompressions
+                );
+        FileStreams.textFileWriter(s, () -> basePath.toString(), () -> policy, config);
+
+        completeAndValidateWriter(t, TMO_SEC, basePath, expResults);
+        
+        assertEquals(expResults.size(), policy.getCompressedFileCount());
+        assertTrue(policy.toString(), policy.getCompressionRatio() > 2);
+        assertEquals(lines.length * (lines[0].getBytes(StandardCharsets.UTF_8).length + 1), policy.getUncompressedBytes());
+    }
+
+    @Test
+    public void testCompressedFileWriterPolicyBackground() throws Exception {
+        runCompressedFileWriterPolicy("testCompressedFileWriterPolicyBackground",
+                Format.ZIP, 1, null);
+    }
+
+    @Test
+    public void testCompressedFileWriterPolicyGzip() throws Exception {
+        runCompressedFileWriterPolicy("testCompressedFileWriterPolicyGzip",
+                Format.GZIP, 0, null);
+    }
+
+    @Test
+    public void testCompressedFileWriterPolicyGzipFastBatched() throws Exception {
+        runCompressedFileWriterPolicy("testCompressedFileWriterPolicyGzipFastBatched",
+                Format.GZIP_FAST, 0, TextFileWriterConfig.newConfig(256, true));
+    }
+
+    @Test
+    public void testCompressedFileWriterPolicyPendingRetention() throws Exception {
+        // establish a base path
+        Path basePath = createTempFile("test1", "txt", new String[0]);
+
+        // the second file's compression waits until released
+        AtomicInteger compressions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CompressedFileWriterPolicy<String> policy = new CompressedFileWriterPolicy<String>(
+                FileWriterFlushConfig.newImplicitConfig(),
+                FileWriterCycleConfig.newCountBasedConfig(1),
+                FileWriterRetentionConfig.newAgeBasedConfig(1, 100),
+                Format.ZIP, 1
+                ) {
+            @Override
+            protected void compressFile(Path src, Path dst) throws IOException {
+                if (compressions.incrementAndGet() == 2) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                }
+                super.compressFile(src, dst);
+            }
+        };
+        policy.initialize(basePath.toString(), () -> {}, () -> {});
+        try {
+            Path first = cycleFile(policy, "first");
+            assertTrue(awaitExists(first, true));
+
+            // the pending file is retained once the first file has aged out
+            Thread.sleep(1200);
+            Path second = cycleFile(policy, "second");
+            assertTrue(awaitExists(first, false));
+            Thread.sleep(300);
+
+            release.countDown();
+            assertTrue(awaitExists(second, true));
+            Thread.sleep(300);
+            assertTrue(second.toFile().exists());
+            assertEquals(2, policy.getCompressedFileCount());
+        }
+        finally {
+            release.countDown();
+            policy.close();
+            deleteAll(basePath);
+        }
+    }
+
+    private static Path cycleFile(IFileWriterPolicy<String> policy, String line) throws IOException {
+        Path active = policy.getNextActiveFilePath();
+        Files.write(active, Collections.singletonList(line), StandardCharsets.UTF_8);
+        return policy.closeActiveFile(active);
+    }
+
+    private static boolean awaitExists(Path path, boolean exists) throws InterruptedException {
+        for (int i = 0; i < 100 && path.toFile().exists() != exists; i++)
+            Thread.sleep(100);
+        return path.toFile().exists() == exists;
+    }
+
     private void deleteDirAndFiles(Path dir, String dirPrefix, boolean dump) {
         // exercise caution before removing all files in dir
         if (!dirPrefix.startsWith("test"))
@@ -959,7 +1315,10 @@ public class FileStreamsTextFileWriterTest extends DirectTopologyTestBase {
         }
         if (!silent) System.out.println("checking file "+path);
         int lineCnt = 0;
-        try (BufferedReader br = newBufferedReader(path)) {
+        try (BufferedReader br = path.getFileName().toString().endsWith(".gz")
+                ? new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))
+                : newBufferedReader(path)) {
             for (String line : lines) {
                 ++lineCnt;
                 String actLine = br.readLine();
@@ -18,21 +18,23 @@ under the License.
 */
 package org.apache.edgent.connectors.jdbc.runtime;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.edgent.connectors.jdbc.ParameterSetter;
 import org.apache.edgent.connectors.jdbc.ResultsHandler;
 import org.apache.edgent.connectors.jdbc.StatementSupplier;
-import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.BatchConsumer;
 import org.apache.edgent.function.Function;
 import org.slf4j.Logger;
 
-public class JdbcStatement<T,R> implements Function<T,Iterable<R>>,Consumer<T>,AutoCloseable {
+public class JdbcStatement<T,R> implements Function<T,Iterable<R>>,BatchConsumer<T>,AutoCloseable {
     private static final long serialVersionUID = 1L;
     private final Logger logger;
     private final JdbcConnector connector;
@@ -77,6 +79,75 @@ public class JdbcStatement<T,R> implements Function<T,Iterable<R>>,Consumer<T>,A
         executeStatement(tuple, null);
     }
 
+    /**
+     * Execute the statement for a batch of tuples as a single JDBC batch.
+     * A statement with a results handler is executed for each tuple.
+     * A tuple whose parameters cannot be set fails without
+     * failing the rest of the batch.
+     */
+    @Override
+    public void acceptBatch(List<T> tuples) {
+        if (resultsHandler != null || tuples.size() == 1) {
+            for (T tuple : tuples)
+                executeStatement(tuple, null);
+            return;
+        }
+        nTuples += tuples.size();
+        List<T> batch = new ArrayList<>(tuples.size());
+        int skipped = 0;
+        try {
+            logger.debug("executing statement batch size={} nTuples={} nTuplesFailed={}", tuples.size(), nTuples, nTuplesFailed);
+            Connection cn = connector.getConnection(this);
+            PreparedStatement stmt = getPreparedStatement(cn);
+            for (T tuple : tuples) {
+                try {
+                    paramSetter.setParameters(tuple, stmt);
+                    stmt.addBatch();
+                }
+                catch (Exception e) {
+                    skipped++;
+                    nTuplesFailed++;
+                    logger.error("setting statement parameters failed nTuples={} nTuplesFailed={}", nTuples, nTuplesFailed, e);
+                    continue;
+                }
+                batch.add(tuple);
+            }
+            if (!batch.isEmpty())
+                stmt.executeBatch();
+        }
+        catch (BatchUpdateException e) {
+            int[] counts = e.getUpdateCounts();
+            int executed = counts == null ? 0 : counts.length;
+            int failed = 0;
+            for (int i = 0; i < executed; i++) {
+                if (counts[i] == Statement.EXECUTE_FAILED)
+                    failed++;
+            }
+            int remaining = 0;
+            if (executed < batch.size()) {
+                // the driver stopped at the failed tuple
+                failed++;
+                remaining = batch.size() - executed - 1;
+            }
+            nTuples -= remaining;
+            nTuplesFailed += failed;
+            logger.trace("executing statement batch failed nTuples={} nTuplesFailed={}", nTuples, nTuplesFailed);
+            closeStmt();
+            connector.statementFailed(this, e);
+            
+            // execute the tuples following the failed tuple
+            for (T tuple : batch.subList(batch.size() - remaining, batch.size()))
+                executeStatement(tuple, null);
+        }
+        catch (Exception e) {
+            // the tuples that were not skipped
+            nTuplesFailed += tuples.size() - skipped;
+            logger.trace("executing statement batch failed nTuples={} nTuplesFailed={}", nTuples, nTuplesFailed);
+            closeStmt();
+            connector.statementFailed(this, e);
+        }
+    }
+
     @Override
     public Iterable<R> apply(T tuple) {
         // lame impl for large result sets but will do for now.
@@ -343,6 +343,81 @@ public class JdbcStreamsTest  extends ConnectorTestBase {
         completeAndValidate("", t, rcvd, SEC_TIMEOUT, expected.toArray(new String[0]));
     }
     
+    @Test
+    public void testBatchWrite() throws Exception {
+        Topology t = newTopology("testBatchWrite");
+        
+        truncatePersonsTable();
+        List<String> expected = expectedPersons(person->true, getPersonList());
+
+        JdbcStreams db = new JdbcStreams(t,
+                () -> getDataSource(DB_NAME),
+                dataSource -> connect(dataSource));
+        
+        // Add batches of Person to the db
+        TStream<Person> s = PlumbingStreams.isolate(t.collection(getPersonList()),
+                100, 10, 50, TimeUnit.MILLISECONDS);
+        TSink<Person> sink = db.executeStatement(s,
+                () -> "INSERT INTO persons VALUES(?,?,?,?,?)",
+                (tuple,stmt) -> {
+                    stmt.setInt(1, tuple.id);
+                    stmt.setString(2, tuple.firstName);
+                    stmt.setString(3, tuple.lastName);
+                    stmt.setString(4, tuple.gender);
+                    stmt.setInt(5, tuple.age);
+                    }
+                );
+        assertNotNull(sink);
+        
+        // Use the same code as testBasicRead to verify the write worked.
+        TStream<Person> rcvdPerson = readPersonsTable(t, db, getPersonIdList(), 3000/*msec*/);
+        TStream<String> rcvd = rcvdPerson.map(person -> person.toString());
+        
+        rcvd.sink(tuple -> System.out.println(
+                String.format("%s rcvd: %s", t.getName(), tuple)));
+        completeAndValidate("", t, rcvd, SEC_TIMEOUT, expected.toArray(new String[0]));
+    }
+    
+    @Test
+    public void testBatchWriteBadSetParams() throws Exception {
+        Topology t = newTopology("testBatchWriteBadSetParams");
+        // a tuple whose parameters can't be set fails alone,
+        // the rest of its batch is written
+        
+        truncatePersonsTable();
+        int badId = getPersonList().get(getPersonList().size() / 2).id;
+        List<String> expected = expectedPersons(person->person.id != badId, getPersonList());
+
+        JdbcStreams db = new JdbcStreams(t,
+                () -> getDataSource(DB_NAME),
+                dataSource -> connect(dataSource));
+        
+        // Add batches of Person to the db
+        TStream<Person> s = PlumbingStreams.isolate(t.collection(getPersonList()),
+                100, 10, 50, TimeUnit.MILLISECONDS);
+        TSink<Person> sink = db.executeStatement(s,
+                () -> "INSERT INTO persons VALUES(?,?,?,?,?)",
+                (tuple,stmt) -> {
+                    stmt.setInt(1, tuple.id);
+                    if (tuple.id == badId)
+                        throw new SQLException("bad tuple " + tuple);
+                    stmt.setString(2, tuple.firstName);
+                    stmt.setString(3, tuple.lastName);
+                    stmt.setString(4, tuple.gender);
+                    stmt.setInt(5, tuple.age);
+                    }
+                );
+        assertNotNull(sink);
+        
+        // Use the same code as testBasicRead to verify the write worked.
+        TStream<Person> rcvdPerson = readPersonsTable(t, db, getPersonIdList(), 3000/*msec*/);
+        TStream<String> rcvd = rcvdPerson.map(person -> person.toString());
+        
+        rcvd.sink(tuple -> System.out.println(
+                String.format("%s rcvd: %s", t.getName(), tuple)));
+        completeAndValidate("", t, rcvd, SEC_TIMEOUT, expected.toArray(new String[0]));
+    }
+    
     @Test
     public void testBasicWrite2() throws Exception {
         Topology t = newTopology("testBasicWrite2");
@@ -19,8 +19,11 @@ under the License.
 
 package org.apache.edgent.connectors.kafka.runtime;
 
-import org.apache.edgent.function.Consumer;
+import java.util.List;
+
+import org.apache.edgent.function.BatchConsumer;
 import org.apache.edgent.function.Function;
+import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 
@@ -29,7 +32,7 @@ import org.slf4j.Logger;
  *
  * @param <T> tuple type
  */
-public class KafkaPublisher<T> implements Consumer<T>, AutoCloseable {
+public class KafkaPublisher<T> implements BatchConsumer<T>, AutoCloseable {
     private static final long serialVersionUID = 1L;
     private static final Logger trace = KafkaProducerConnector.getTrace();
     private final Function<T, byte[]> keyFn;
@@ -56,6 +59,17 @@ public class KafkaPublisher<T> implements Consumer<T>, AutoCloseable {
 
     @Override
     public void accept(T t) {
+        send(connector.client(), t);
+    }
+
+    @Override
+    public void acceptBatch(List<T> tuples) {
+        KafkaProducer<byte[],byte[]> client = connector.client();
+        for (T t : tuples)
+            send(client, t);
+    }
+
+    private void send(KafkaProducer<byte[],byte[]> client, T t) {
         String topic = topicFn.apply(t);
         Integer partition = partitionFn.apply(t);
         byte[] key = keyFn.apply(t);
@@ -67,7 +81,7 @@ public class KafkaPublisher<T> implements Consumer<T>, AutoCloseable {
         
         // TODO add callback for trace of actual completion?
         
-        connector.client().send(rec);  // async; doesn't throw
+        client.send(rec);  // async; doesn't throw
     }
 
     @Override
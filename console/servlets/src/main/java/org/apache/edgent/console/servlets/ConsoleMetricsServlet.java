@@ -49,6 +49,7 @@ public class ConsoleMetricsServlet extends HttpServlet {
 		String metricName = "";
 		boolean availableMetrics = false;
 		boolean getAllMetrics = false;
+		boolean processingTimes = false;
 		for(Map.Entry<String,String[]> entry : parameterMap.entrySet()) {
 			if (entry.getKey().equals("job")) {
 				jobIds = entry.getValue();
@@ -70,6 +71,11 @@ public class ConsoleMetricsServlet extends HttpServlet {
 				if (getAll.length == 1) {
 					getAllMetrics = true;
 				}
+			} else if (entry.getKey().equals("processingTimes")) {
+				String[] getTimes = entry.getValue();
+				if (getTimes.length == 1) {
+					processingTimes = true;
+				}
 			}
 		}
 
@@ -85,6 +91,15 @@ public class ConsoleMetricsServlet extends HttpServlet {
 				return;
 			}
 			
+			if (processingTimes) {
+				MetricsGson gsonJob = MetricsUtil.getProcessingTimeMetrics(jobId);
+				Gson gson = new Gson();
+		    	response.setContentType("application/json");
+		    	response.setCharacterEncoding("UTF-8");
+		    	response.getWriter().write(gson.toJson(gsonJob));
+				return;
+			}
+
 			if (getAllMetrics) {
 				MetricsGson gsonJob = MetricsUtil.getAllRateMetrics(jobId);
 				Gson gson = new Gson();
@@ -79,6 +79,73 @@ final class MetricsUtil {
 		return meterInstances.iterator();
 	}
 	
+	static Iterator<ObjectInstance> getOpletObjectIterator() {
+		ObjectName opletObjName = null;
+		StringBuilder sbuf = new StringBuilder();
+		sbuf.append("*:interface=");
+		sbuf.append(ObjectName.quote("org.apache.edgent.execution.mbeans.OpletMXBean"));
+		sbuf.append(",type=");
+		sbuf.append(ObjectName.quote("oplet"));
+		sbuf.append(",*");
+
+		try {
+			opletObjName = new ObjectName(sbuf.toString());
+		} catch (MalformedObjectNameException e) {
+		    logger.error("Error caught while initializing ObjectName", e);
+		}
+		Set<ObjectInstance> opletInstances = mBeanServer.queryMBeans(opletObjName, null);
+		return opletInstances.iterator();
+	}
+
+	/**
+	 * Get the processing time metrics, i.e, mean, median, 99th percentile and max processing time
+	 * in microseconds, and the number of sampled tuples, of the profiled operators of a job
+	 * @param jobId id (e.g, "JOB_0")
+	 * 
+	 * @return  the processing time metrics for this job if its operators are profiled
+	 */
+	static MetricsGson getProcessingTimeMetrics(String jobId) {
+		MetricsGson gsonJob = new MetricsGson();
+		gsonJob.setJobId(jobId);
+
+		Iterator<ObjectInstance> opletIterator = getOpletObjectIterator();
+		while (opletIterator.hasNext()) {
+			ObjectName oObjName = opletIterator.next().getObjectName();
+			MBeanInfo mBeanInfo;
+			String opName;
+			try {
+				if (!jobId.equals(mBeanServer.getAttribute(oObjName, "JobId")))
+					continue;
+				opName = (String) mBeanServer.getAttribute(oObjName, "Id");
+				mBeanInfo = mBeanServer.getMBeanInfo(oObjName);
+			} catch (AttributeNotFoundException | MBeanException | IntrospectionException | InstanceNotFoundException | ReflectionException e) {
+			    logger.error("Exception caught while getting MBeanInfo", e);
+			    continue;
+			}
+
+			for (MBeanAttributeInfo attributeInfo : mBeanInfo.getAttributes()) {
+				if (!"long".equals(attributeInfo.getType()))
+					continue;
+				OpMetric aMetric = gsonJob.new OpMetric();
+				aMetric.name = attributeInfo.getName();
+				aMetric.type = "ProcessingTimeSampleCount".equals(aMetric.name) ? "counter" : "processingTime";
+				try {
+					aMetric.value = String.valueOf(mBeanServer.getAttribute(oObjName, aMetric.name));
+				} catch (AttributeNotFoundException | InstanceNotFoundException | MBeanException
+						| ReflectionException e) {
+				    logger.error("Exception caught while accessing MBean", e);
+				    continue;
+				}
+				Operator theOp = gsonJob.getOp(opName);
+				if (theOp == null) {
+					theOp = gsonJob.new Operator(opName);
+				}
+				theOp.metrics.add(aMetric);
+			}
+		}
+		return gsonJob;
+	}
+
 	static MetricsGson getAvailableMetricsForJob(String jobId, Iterator<ObjectInstance> meterIterator, Iterator<ObjectInstance> counterIterator) {
 		MetricsGson gsonJob = new MetricsGson();
 		gsonJob.setJobId(jobId);
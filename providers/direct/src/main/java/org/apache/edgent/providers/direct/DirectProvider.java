@@ -23,7 +23,15 @@ import java.util.concurrent.Future;
 import org.apache.edgent.execution.DirectSubmitter;
 import org.apache.edgent.execution.Job;
 import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.execution.services.EdgeMetricsService;
 import org.apache.edgent.execution.services.ServiceContainer;
+import org.apache.edgent.runtime.etiao.Checkpointing;
+import org.apache.edgent.runtime.etiao.EdgeInstrumentation;
+import org.apache.edgent.runtime.etiao.FunctionLibrary;
+import org.apache.edgent.runtime.etiao.OpletProfiling;
+import org.apache.edgent.runtime.etiao.PollGroups;
+import org.apache.edgent.runtime.etiao.SharedScheduler;
+import org.apache.edgent.runtime.etiao.VirtualThreads;
 import org.apache.edgent.runtime.jsoncontrol.JsonControlService;
 import org.apache.edgent.topology.Topology;
 import org.apache.edgent.topology.TopologyProvider;
@@ -48,6 +56,46 @@ import com.google.gson.JsonObject;
  * Hence a job with such sources runs until either it or some other
  * entity terminates it.
  * </P>
+ * <P>
+ * By default each job executes its scheduled tasks using thread pools
+ * owned by the job.  Jobs may instead share a bounded pool of worker threads
+ * by registering a {@link SharedScheduler} service before the jobs' topologies
+ * are created:
+ * <pre>{@code
+ * DirectProvider provider = new DirectProvider();
+ * provider.getServices().addService(SharedScheduler.class, new SharedScheduler());
+ * }</pre>
+ * Similarly, jobs' threads are virtual threads, when supported by the
+ * Java runtime, if a {@link VirtualThreads} service is registered:
+ * <pre>{@code
+ * provider.getServices().addService(VirtualThreads.class, new VirtualThreads());
+ * }</pre>
+ * polled sources with compatible periods share a single periodic
+ * tick if a {@link PollGroups} service is registered:
+ * <pre>{@code
+ * provider.getServices().addService(PollGroups.class, new PollGroups());
+ * }</pre>
+ * the tuples submitted on jobs' edges are counted if an
+ * {@link EdgeInstrumentation} service is registered:
+ * <pre>{@code
+ * provider.getServices().addService(EdgeMetricsService.class, new EdgeInstrumentation());
+ * }</pre>
+ * the processing time of jobs' oplets is profiled if an
+ * {@link OpletProfiling} service is registered:
+ * <pre>{@code
+ * provider.getServices().addService(OpletProfiling.class, new OpletProfiling());
+ * }</pre>
+ * the state of jobs' oplets is checkpointed to, and restored from,
+ * local files if a {@link Checkpointing} service is registered:
+ * <pre>{@code
+ * provider.getServices().addService(Checkpointing.class, new Checkpointing(directory));
+ * }</pre>
+ * and the predicates of running filters can be replaced by functions
+ * registered with a {@link FunctionLibrary} service:
+ * <pre>{@code
+ * provider.getServices().addService(FunctionLibraryService.class, new FunctionLibrary());
+ * }</pre>
+ * </P>
  */
 public class DirectProvider extends AbstractTopologyProvider<DirectTopology>
         implements DirectSubmitter<Topology, Job> {
@@ -0,0 +1,248 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.providers.direct;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.edgent.execution.Job;
+import org.apache.edgent.execution.services.FunctionLibraryService;
+import org.apache.edgent.function.Checkpointable;
+import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.Function;
+import org.apache.edgent.function.Functions;
+import org.apache.edgent.function.Predicate;
+import org.apache.edgent.graph.Vertex;
+import org.apache.edgent.oplet.functional.Filter;
+import org.apache.edgent.providers.direct.DirectProvider;
+import org.apache.edgent.runtime.etiao.Checkpointing;
+import org.apache.edgent.runtime.etiao.FunctionLibrary;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.apache.edgent.window.PartitionedState;
+import org.junit.Test;
+
+/**
+ * Tests of checkpointing and restoring the state of oplets.
+ */
+public class DirectCheckpointingTest {
+
+    @Test
+    public void testRestoreWindow() throws Exception {
+        File dir = Files.createTempDirectory("ckpt").toFile();
+
+        // window holds 1, 2, 3 when the job is closed
+        List<Integer> sums = run(dir, "windowed", Arrays.asList(1, 2, 3), 3);
+        assertEquals(Arrays.asList(1, 3, 6), sums);
+        assertTrue(new Checkpointing(dir).getFile("windowed").exists());
+
+        // restarted job's window starts with 1, 2, 3
+        sums = run(dir, "windowed", Arrays.asList(10, 20), 2);
+        assertEquals(Arrays.asList(16, 36), sums);
+    }
+
+    @Test
+    public void testRestoreCorrupt() throws Exception {
+        File dir = Files.createTempDirectory("ckpt").toFile();
+        File file = new Checkpointing(dir).getFile("corrupt");
+        Files.write(file.toPath(), "not a checkpoint".getBytes(StandardCharsets.UTF_8));
+
+        // the job runs from an empty state
+        List<Integer> sums = run(dir, "corrupt", Arrays.asList(1, 2), 2);
+        assertEquals(Arrays.asList(1, 3), sums);
+    }
+
+    @Test
+    public void testRestorePartitionedState() throws Exception {
+        File dir = Files.createTempDirectory("ckpt").toFile();
+
+        List<String> counts = runCounts(dir, Arrays.asList("a", "b", "a"));
+        assertEquals(Arrays.asList("a1", "b1", "a2"), counts);
+
+        counts = runCounts(dir, Arrays.asList("b", "a", "c"));
+        assertEquals(Arrays.asList("b2", "a3", "c1"), counts);
+    }
+
+    @Test
+    public void testRestoreReplacedFilterPredicate() throws Exception {
+        File dir = Files.createTempDirectory("ckpt").toFile();
+
+        // the predicate is replaced after 1, 2, 3 and has seen 4, 5, 6
+        List<Integer> passed = runFilter(dir, true, Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), 4);
+        assertEquals(Arrays.asList(1, 2, 3, 5), passed);
+
+        // restarted job's filter uses the replacement, which has seen 3 tuples
+        passed = runFilter(dir, false, Arrays.asList(7, 8, 9), Collections.emptyList(), 2);
+        assertEquals(Arrays.asList(7, 9), passed);
+    }
+
+    @Test
+    public void testCheckpointNow() throws Exception {
+        File dir = Files.createTempDirectory("ckpt").toFile();
+        DirectProvider provider = new DirectProvider();
+        Checkpointing checkpointing = new Checkpointing(dir, 1, TimeUnit.HOURS);
+        provider.getServices().addService(Checkpointing.class, checkpointing);
+
+        Topology t = provider.newTopology("now");
+        t.of(1, 2, 3).last(5, Functions.unpartitioned()).aggregate((l, k) -> l.size());
+        Job job = provider.submit(t).get();
+        try {
+            File file = checkpointing.getFile("now");
+            assertFalse(file.exists());
+            assertTrue(checkpointing.checkpoint(job.getId()));
+            assertTrue(file.exists());
+            assertFalse(checkpointing.checkpoint("JOB_unknown"));
+        } finally {
+            job.stateChange(Job.Action.CLOSE);
+        }
+    }
+
+    private static List<Integer> run(File dir, String name, List<Integer> values, int expected) throws Exception {
+        DirectProvider provider = new DirectProvider();
+        provider.getServices().addService(Checkpointing.class,
+                new Checkpointing(dir, 1, TimeUnit.HOURS));
+
+        List<Integer> sums = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(expected);
+        Topology t = provider.newTopology(name);
+        TStream<Integer> s = t.collection(values)
+                .last(5, Functions.unpartitioned())
+                .aggregate((l, k) -> l.stream().mapToInt(Integer::intValue).sum());
+        s.sink(v -> { sums.add(v); done.countDown(); });
+
+        Job job = provider.submit(t).get();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        job.stateChange(Job.Action.CLOSE);
+        assertEquals(Job.State.CLOSED, job.getCurrentState());
+        return sums;
+    }
+
+    private static List<String> runCounts(File dir, List<String> values) throws Exception {
+        DirectProvider provider = new DirectProvider();
+        provider.getServices().addService(Checkpointing.class,
+                new Checkpointing(dir, 1, TimeUnit.HOURS));
+
+        List<String> counts = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(values.size());
+        Topology t = provider.newTopology("counts");
+        t.collection(values).map(new KeyCounter())
+            .sink(v -> { counts.add(v); done.countDown(); });
+
+        Job job = provider.submit(t).get();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        job.stateChange(Job.Action.CLOSE);
+        return counts;
+    }
+
+    private static List<Integer> runFilter(File dir, boolean replace, List<Integer> before,
+            List<Integer> after, int expected) throws Exception {
+        DirectProvider provider = new DirectProvider();
+        provider.getServices().addService(Checkpointing.class,
+                new Checkpointing(dir, 1, TimeUnit.HOURS));
+        FunctionLibrary library = new FunctionLibrary();
+        provider.getServices().addService(FunctionLibraryService.class, library);
+        library.registerFunction("everyOther", new EveryOther());
+
+        List<Integer> passed = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<Consumer<Integer>> submitter = new AtomicReference<>();
+        Topology t = provider.newTopology("filter");
+        t.events(submitter::set).filter(v -> true).sink(passed::add);
+
+        Job job = provider.submit(t).get();
+        for (int i = 0; i < 1000 && submitter.get() == null; i++)
+            Thread.sleep(10);
+        for (Integer v : before)
+            submitter.get().accept(v);
+        if (replace) {
+            awaitSize(passed, before.size());
+            getFilter(t).setFunction("everyOther");
+        }
+        for (Integer v : after)
+            submitter.get().accept(v);
+        awaitSize(passed, expected);
+        assertEquals("everyOther", getFilter(t).getFunction());
+        job.stateChange(Job.Action.CLOSE);
+        return passed;
+    }
+
+    private static Filter<?> getFilter(Topology t) {
+        for (Vertex<?, ?, ?> v : t.graph().getVertices()) {
+            if (v.getInstance() instanceof Filter)
+                return (Filter<?>) v.getInstance();
+        }
+        throw new AssertionError();
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        for (int i = 0; i < 1000 && list.size() < size; i++)
+            Thread.sleep(10);
+        assertEquals(size, list.size());
+    }
+
+    /**
+     * Passes every other tuple, the number of tuples seen is checkpointed.
+     */
+    private static class EveryOther implements Predicate<Integer>, Checkpointable {
+        private static final long serialVersionUID = 1L;
+        private int count;
+
+        @Override
+        public synchronized boolean test(Integer value) {
+            return ++count % 2 == 0;
+        }
+
+        @Override
+        public synchronized Serializable snapshotState() {
+            return count;
+        }
+
+        @Override
+        public synchronized void restoreState(Serializable state) {
+            count = (Integer) state;
+        }
+    }
+
+    private static class KeyCounter extends PartitionedState<String, AtomicInteger>
+            implements Function<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        KeyCounter() {
+            super(() -> new AtomicInteger());
+        }
+
+        @Override
+        public String apply(String key) {
+            return key + getState(key).incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.providers.direct;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.edgent.execution.Job;
+import org.apache.edgent.execution.services.EdgeMetricsService;
+import org.apache.edgent.execution.services.EdgeSnapshot;
+import org.apache.edgent.function.Supplier;
+import org.apache.edgent.metrics.MetricsSetup;
+import org.apache.edgent.providers.direct.DirectProvider;
+import org.apache.edgent.runtime.etiao.EdgeInstrumentation;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.junit.Test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Tests of the counters of jobs' edges.
+ */
+public class DirectEdgeMetricsTest {
+
+    @Test
+    public void testSampleInterval() {
+        assertEquals(EdgeInstrumentation.DEFAULT_SAMPLE_INTERVAL, new EdgeInstrumentation().getSampleInterval());
+        assertEquals(1, new EdgeInstrumentation(1).getSampleInterval());
+        assertEquals(64, new EdgeInstrumentation(64).getSampleInterval());
+        assertEquals(128, new EdgeInstrumentation(100).getSampleInterval());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidSampleInterval() {
+        new EdgeInstrumentation(0);
+    }
+
+    @Test
+    public void testEdgeCounts() throws Exception {
+        DirectProvider provider = new DirectProvider();
+        EdgeInstrumentation edges = new EdgeInstrumentation(1);
+        provider.getServices().addService(EdgeMetricsService.class, edges);
+        MetricRegistry registry = new MetricRegistry();
+        MetricsSetup.withRegistry(provider.getServices(), registry).withEdgeMetrics(edges);
+        List<String> jobIds = new CopyOnWriteArrayList<>();
+        edges.addListener(jobId -> jobIds.add(jobId));
+
+        AtomicReference<List<EdgeSnapshot>> snapshot = new AtomicReference<>();
+        AtomicReference<List<EdgeSnapshot>> edgeByEdge = new AtomicReference<>();
+        AtomicReference<Map<String, Counter>> counters = new AtomicReference<>();
+        Topology t = provider.newTopology();
+        TStream<String> s = t.strings("a", "b", "c", "d").map(v -> v.toUpperCase());
+        s.sink(v -> {
+            if ("D".equals(v)) {
+                snapshot.set(edges.getSnapshot(jobIds.get(0)));
+                List<EdgeSnapshot> each = new ArrayList<>();
+                for (Supplier<EdgeSnapshot> edge : edges.getEdges(jobIds.get(0)))
+                    each.add(edge.get());
+                edgeByEdge.set(each);
+                counters.set(registry.getCounters());
+            }
+        });
+
+        Job job = provider.submit(t).get();
+        job.complete(10, TimeUnit.SECONDS);
+
+        assertEquals(1, jobIds.size());
+        String jobId = jobIds.get(0);
+        List<EdgeSnapshot> edgeSnapshots = snapshot.get();
+        assertNotNull(edgeSnapshots);
+        assertFalse(edgeSnapshots.isEmpty());
+        for (EdgeSnapshot edge : edgeSnapshots) {
+            assertEquals(jobId, edge.getJobId());
+            assertNotNull(edge.getTargetId());
+            assertEquals(edge.toString(), 4, edge.getTupleCount());
+            // the sink's latest tuple is still being processed
+            assertTrue(edge.toString(), edge.getLatencySampleCount() >= 3);
+            assertTrue(edge.toString(), edge.getMaxLatency(TimeUnit.NANOSECONDS) >= edge.getMeanLatency(TimeUnit.NANOSECONDS));
+        }
+
+        assertEquals(edgeSnapshots.size(), edgeByEdge.get().size());
+        for (int i = 0; i < edgeSnapshots.size(); i++) {
+            EdgeSnapshot edge = edgeByEdge.get().get(i);
+            assertEquals(edgeSnapshots.get(i).getSourceId(), edge.getSourceId());
+            assertEquals(edgeSnapshots.get(i).getSourcePort(), edge.getSourcePort());
+            assertEquals(edge.toString(), 4, edge.getTupleCount());
+        }
+
+        int edgeCounters = 0;
+        for (Map.Entry<String, Counter> counter : counters.get().entrySet()) {
+            if (counter.getKey().startsWith(MetricsSetup.EDGE_COUNTER_NAME)) {
+                assertTrue(counter.getKey(), counter.getKey().contains("." + jobId + "."));
+                assertEquals(counter.getKey(), 4, counter.getValue().getCount());
+                edgeCounters++;
+            }
+        }
+        assertEquals(edgeSnapshots.size(), edgeCounters);
+    }
+}
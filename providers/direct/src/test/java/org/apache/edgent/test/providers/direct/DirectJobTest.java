@@ -22,26 +22,37 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.edgent.execution.Configs;
 import org.apache.edgent.execution.Job;
+import org.apache.edgent.execution.mbeans.JobMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.function.Consumer;
 import org.apache.edgent.graph.Vertex;
 import org.apache.edgent.oplet.Oplet;
 import org.apache.edgent.oplet.core.PeriodicSource;
 import org.apache.edgent.oplet.core.Pipe;
 import org.apache.edgent.providers.direct.DirectProvider;
+import org.apache.edgent.runtime.jsoncontrol.JsonControlService;
 import org.apache.edgent.topology.TStream;
 import org.apache.edgent.topology.Topology;
+import org.apache.edgent.topology.plumbing.PlumbingStreams;
 import org.junit.Test;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 
 public class DirectJobTest extends DirectTopologyTestBase {
     @Test
@@ -216,6 +227,97 @@ public class DirectJobTest extends DirectTopologyTestBase {
         assertEquals("", job.getLastError());
     }
 
+    @Test
+    public void jobPauseResumePeriodicSource() throws Exception {
+        Topology t = newTopology();
+        AtomicInteger n = new AtomicInteger(0);
+        t.poll(() -> n.incrementAndGet(), 20, TimeUnit.MILLISECONDS);
+
+        Job job = ((DirectProvider)getTopologyProvider()).submit(t).get();
+        awaitGreater(n, 0);
+
+        job.stateChange(Job.Action.PAUSE);
+        assertEquals(Job.State.PAUSED, job.getCurrentState());
+        // unchanged for several periods
+        int paused = awaitQuiescent(n, 100);
+
+        job.stateChange(Job.Action.RESUME);
+        assertEquals(Job.State.RUNNING, job.getCurrentState());
+        awaitGreater(n, paused);
+        job.stateChange(Job.Action.CLOSE);
+        assertEquals(Job.State.CLOSED, job.getCurrentState());
+        assertEquals(Job.Health.HEALTHY, job.getHealth());
+    }
+
+    @Test
+    public void jobPauseResumeProcessSource() throws Exception {
+        Topology t = newTopology();
+        AtomicInteger n = new AtomicInteger(0);
+        PlumbingStreams.isolate(t.generate(() -> n.incrementAndGet()), 10).sink(v -> {});
+
+        Job job = ((DirectProvider)getTopologyProvider()).submit(t).get();
+        awaitGreater(n, 0);
+
+        job.stateChange(Job.Action.PAUSE);
+        assertEquals(Job.State.PAUSED, job.getCurrentState());
+        // unchanged for several periods
+        int paused = awaitQuiescent(n, 100);
+
+        job.stateChange(Job.Action.RESUME);
+        awaitGreater(n, paused);
+        job.stateChange(Job.Action.CLOSE);
+        assertEquals(Job.State.CLOSED, job.getCurrentState());
+    }
+
+    @Test
+    public void jobPauseResumeEvents() throws Exception {
+        Topology t = newTopology();
+        AtomicReference<Consumer<Integer>> submitter = new AtomicReference<>();
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        t.events(submitter::set).sink(received::add);
+
+        DirectProvider provider = (DirectProvider)getTopologyProvider();
+        Job job = provider.submit(t).get();
+        for (int i = 0; i < 1000 && submitter.get() == null; i++)
+            Thread.sleep(10);
+        Consumer<Integer> events = submitter.get();
+        events.accept(1);
+        awaitSize(received, 1);
+
+        // pause and resume using the job's control
+        JsonControlService controls = (JsonControlService) provider.getServices().getService(ControlService.class);
+        JsonObject pause = new JsonObject();
+        pause.addProperty(JsonControlService.TYPE_KEY, JobMXBean.TYPE);
+        pause.addProperty(JsonControlService.ALIAS_KEY, job.getName());
+        pause.addProperty(JsonControlService.OP_KEY, "stateChange");
+        JsonArray args = new JsonArray();
+        args.add(new JsonPrimitive(Job.Action.PAUSE.name()));
+        pause.add(JsonControlService.ARGS_KEY, args);
+        controls.controlRequest(pause);
+        assertEquals(Job.State.PAUSED, job.getCurrentState());
+
+        // buffered without blocking the event handler
+        events.accept(2);
+        events.accept(3);
+        Thread.sleep(100);
+        assertEquals(Arrays.asList(1), received);
+
+        JsonObject resume = new JsonObject();
+        resume.addProperty(JsonControlService.TYPE_KEY, JobMXBean.TYPE);
+        resume.addProperty(JsonControlService.ALIAS_KEY, job.getName());
+        resume.addProperty(JsonControlService.OP_KEY, "stateChange");
+        args = new JsonArray();
+        args.add(new JsonPrimitive(Job.Action.RESUME.name()));
+        resume.add(JsonControlService.ARGS_KEY, args);
+        controls.controlRequest(resume);
+        assertEquals(Job.State.RUNNING, job.getCurrentState());
+
+        events.accept(4);
+        awaitSize(received, 4);
+        assertEquals(Arrays.asList(1, 2, 3, 4), received);
+        job.stateChange(Job.Action.CLOSE);
+    }
+
     @Test(expected = TimeoutException.class)
     public void jobTimesOut() throws Exception {
         Topology t = newTopology();
@@ -280,6 +382,35 @@ public class DirectJobTest extends DirectTopologyTestBase {
         return awaitCompleteExecution(t, null);
     }
 
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        for (int i = 0; i < 1000 && list.size() < size; i++)
+            Thread.sleep(10);
+        assertEquals(size, list.size());
+    }
+
+    private static void awaitGreater(AtomicInteger n, int value) throws InterruptedException {
+        for (int i = 0; i < 1000 && n.get() <= value; i++)
+            Thread.sleep(10);
+        assertTrue(n.get() > value);
+    }
+
+    /**
+     * Wait until {@code n} is unchanged across an interval of {@code quietMillis},
+     * allowing any processing in progress when a job was paused to complete.
+     * @return the unchanged value
+     */
+    private static int awaitQuiescent(AtomicInteger n, long quietMillis) throws InterruptedException {
+        int last = n.get();
+        for (int i = 0; i < 100; i++) {
+            Thread.sleep(quietMillis);
+            int current = n.get();
+            if (current == last)
+                return current;
+            last = current;
+        }
+        throw new AssertionError("Still changing: " + last);
+    }
+
     private Job awaitCompleteExecution(Topology t, JsonObject config) throws InterruptedException, ExecutionException {
         Future<Job> fj = ((DirectProvider)getTopologyProvider()).submit(t, config);
         Job job = fj.get();
@@ -0,0 +1,184 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.providers.direct;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.edgent.execution.Job;
+import org.apache.edgent.execution.mbeans.JobMXBean;
+import org.apache.edgent.execution.mbeans.OpletMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.oplet.OpletContext;
+import org.apache.edgent.oplet.core.Pipe;
+import org.apache.edgent.providers.direct.DirectProvider;
+import org.apache.edgent.runtime.etiao.OpletProfiling;
+import org.apache.edgent.runtime.jsoncontrol.JsonControlService;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests of the processing time profiling of oplets.
+ */
+public class DirectOpletProfilingTest {
+
+    @Test
+    public void testProcessingTimes() throws Exception {
+        DirectProvider provider = new DirectProvider();
+        OpletProfiling profiling = new OpletProfiling(1);
+        provider.getServices().addService(OpletProfiling.class, profiling);
+
+        CountDownLatch last = new CountDownLatch(1);
+        CountDownLatch queried = new CountDownLatch(1);
+        Topology t = provider.newTopology();
+        TStream<String> s = t.strings("a", "b", "c", "d").map(v -> {
+            sleep(2);
+            return v.toUpperCase();
+        });
+        s.sink(v -> {
+            sleep(30);
+            if ("D".equals(v)) {
+                last.countDown();
+                try {
+                    queried.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        Job job = provider.submit(t).get();
+        try {
+            assertTrue(last.await(10, TimeUnit.SECONDS));
+
+            List<OpletMXBean> profiles = profiling.getProfiles(job.getId());
+            OpletMXBean map = null;
+            for (OpletMXBean profile : profiles) {
+                assertEquals(job.getId(), profile.getJobId());
+                if (profile.getKind().endsWith(".Map"))
+                    map = profile;
+            }
+            assertNotNull(map);
+            assertTrue(map.getProcessingTimeSampleCount() >= 3);
+            long min = TimeUnit.MILLISECONDS.toMicros(2);
+            assertTrue(map.getMedianProcessingTime() >= min);
+            assertTrue(map.getMeanProcessingTime() >= min);
+            // the sink's processing time is excluded
+            assertTrue(map.getMaxProcessingTime() < TimeUnit.MILLISECONDS.toMicros(25));
+
+            JsonControlService controls = (JsonControlService) provider.getServices().getService(ControlService.class);
+            JsonObject req = new JsonObject();
+            req.addProperty(JsonControlService.TYPE_KEY, OpletMXBean.TYPE);
+            req.addProperty(JsonControlService.ALIAS_KEY, job.getId() + "." + map.getId());
+            req.addProperty(JsonControlService.OP_KEY, "getProcessingTimeSampleCount");
+            JsonElement samples = controls.controlRequest(req);
+            assertEquals(map.getProcessingTimeSampleCount(), samples.getAsLong());
+
+            JobMXBean jobBean = controls.getControl(JobMXBean.TYPE, job.getName(), JobMXBean.class);
+            JsonArray snapshot = new JsonParser().parse(jobBean.processingTimeSnapshot()).getAsJsonArray();
+            assertEquals(profiles.size(), snapshot.size());
+            JsonObject mapSnapshot = new JsonParser().parse(map.processingTimeSnapshot()).getAsJsonObject();
+            assertEquals(map.getId(), mapSnapshot.get("id").getAsString());
+            assertTrue(mapSnapshot.get("p99").getAsLong() >= min);
+            JsonArray buckets = mapSnapshot.getAsJsonArray("buckets");
+            assertTrue(buckets.size() > 0);
+            long maxBound = buckets.get(buckets.size() - 1).getAsJsonArray().get(0).getAsLong();
+            assertTrue(maxBound >= min && maxBound < TimeUnit.MILLISECONDS.toMicros(25));
+        } finally {
+            queried.countDown();
+        }
+        job.complete(10, TimeUnit.SECONDS);
+        job.stateChange(Job.Action.CLOSE);
+        for (int i = 0; i < 1000 && job.getCurrentState() != Job.State.CLOSED; i++)
+            sleep(10);
+        assertEquals(Job.State.CLOSED, job.getCurrentState());
+
+        assertTrue(profiling.getProfiles(job.getId()).isEmpty());
+        ControlService controls = provider.getServices().getService(ControlService.class);
+        assertNull(controls.getControl(OpletMXBean.TYPE, job.getId() + ".OP_1", OpletMXBean.class));
+    }
+
+    @Test
+    public void testStartupTimes() throws Exception {
+        DirectProvider provider = new DirectProvider();
+        Topology t = provider.newTopology();
+        t.strings("a", "b").pipe(new SlowInitialize()).sink(v -> {});
+
+        Job job = provider.submit(t).get();
+        try {
+            job.complete(10, TimeUnit.SECONDS);
+            ControlService controls = provider.getServices().getService(ControlService.class);
+            JobMXBean jobBean = controls.getControl(JobMXBean.TYPE, job.getName(), JobMXBean.class);
+            JsonObject snapshot = new JsonParser().parse(jobBean.startupTimeSnapshot()).getAsJsonObject();
+
+            long min = TimeUnit.MILLISECONDS.toMicros(20);
+            assertTrue(snapshot.get("initializeTime").getAsLong() >= min);
+            assertTrue(snapshot.has("startTime"));
+            JsonArray oplets = snapshot.getAsJsonArray("oplets");
+            assertEquals(3, oplets.size());
+            for (JsonElement e : oplets) {
+                JsonObject oplet = e.getAsJsonObject();
+                assertTrue(oplet.has("startTime"));
+                if (oplet.get("kind").getAsString().equals(SlowInitialize.class.getName()))
+                    assertTrue(oplet.get("initializeTime").getAsLong() >= min);
+            }
+        } finally {
+            job.stateChange(Job.Action.CLOSE);
+        }
+    }
+
+    private static class SlowInitialize extends Pipe<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void initialize(OpletContext<String, String> context) {
+            super.initialize(context);
+            sleep(25);
+        }
+
+        @Override
+        public void accept(String tuple) {
+            submit(tuple);
+        }
+
+        @Override
+        public void close() throws Exception {
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
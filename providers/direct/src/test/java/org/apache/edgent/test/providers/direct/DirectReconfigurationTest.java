@@ -0,0 +1,337 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.providers.direct;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.edgent.execution.Job;
+import org.apache.edgent.execution.mbeans.CountMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.execution.services.Controls;
+import org.apache.edgent.execution.services.FunctionLibraryService;
+import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.Functions;
+import org.apache.edgent.function.Predicate;
+import org.apache.edgent.graph.Vertex;
+import org.apache.edgent.oplet.Oplet;
+import org.apache.edgent.oplet.plumbing.PressureReliever;
+import org.apache.edgent.providers.direct.DirectProvider;
+import org.apache.edgent.runtime.etiao.FunctionLibrary;
+import org.apache.edgent.runtime.jsoncontrol.JsonControlService;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.apache.edgent.topology.plumbing.PlumbingStreams;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Tests of changing the functions and parameters of a running job's oplets.
+ */
+public class DirectReconfigurationTest {
+
+    @Test
+    public void testWindowCount() throws Exception {
+        DirectProvider provider = new DirectProvider();
+        Topology t = provider.newTopology("windowCount");
+        AtomicReference<Consumer<Integer>> submitter = new AtomicReference<>();
+        List<Integer> sums = Collections.synchronizedList(new ArrayList<>());
+        t.events(submitter::set)
+            .last(3, Functions.unpartitioned())
+            .aggregate((l, k) -> l.stream().mapToInt(Integer::intValue).sum())
+            .alias("sums")
+            .sink(sums::add);
+
+        Job job = provider.submit(t).get();
+        try {
+            Consumer<Integer> events = awaitSubmitter(submitter);
+            submit(events, 1, 2, 3, 4);
+            awaitSize(sums, 4);
+
+            JsonControlService controls = getControls(provider);
+            assertEquals(Boolean.TRUE, controls.controlRequest(
+                    request(alias(job, "sums"), "setCount", new JsonPrimitive(2))).getAsBoolean());
+            assertEquals(2, controls.controlRequest(request(alias(job, "sums"), "getCount")).getAsInt());
+
+            // window of 2, 3, 4 is trimmed to 4 before 5 is inserted
+            submit(events, 5, 6);
+            awaitSize(sums, 6);
+
+            controls.getControl("stream", alias(job, "sums"), CountMXBean.class).setCount(4);
+            submit(events, 7, 8, 9);
+            awaitSize(sums, 9);
+
+            assertEquals(Arrays.asList(1, 3, 6, 9, 9, 11, 18, 26, 30), sums);
+        } finally {
+            job.stateChange(Job.Action.CLOSE);
+        }
+        assertNull(getControls(provider).getControl("stream", alias(job, "sums"), CountMXBean.class));
+    }
+
+    @Test
+    public void testBatchCount() throws Exception {
+        DirectProvider provider = new DirectProvider();
+        Topology t = provider.newTopology("batchCount");
+        AtomicReference<Consumer<Integer>> submitter = new AtomicReference<>();
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        t.events(submitter::set)
+            .last(3, Functions.unpartitioned())
+            .batch((l, k) -> l.size())
+            .alias("batches")
+            .sink(sizes::add);
+
+        Job job = provider.submit(t).get();
+        try {
+            Consumer<Integer> events = awaitSubmitter(submitter);
+            submit(events, 1, 2, 3);
+            awaitSize(sizes, 1);
+
+            getControls(provider).controlRequest(request(alias(job, "batches"), "setCount", new JsonPrimitive(5)));
+            submit(events, 4, 5, 6, 7, 8);
+            awaitSize(sizes, 2);
+
+            assertEquals(Arrays.asList(3, 5), sizes);
+        } finally {
+            job.stateChange(Job.Action.CLOSE);
+        }
+    }
+
+    @Test
+    public void testPressureRelieverCount() throws Exception {
+        DirectProvider provider = new DirectProvider();
+        Topology t = provider.newTopology("relieverCount");
+        AtomicReference<Consumer<Integer>> submitter = new AtomicReference<>();
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TStream<Integer> relieved = PlumbingStreams.pressureReliever(
+                t.events(submitter::set), Functions.unpartitioned(), 5);
+        relieved.alias("relieved").sink(v -> {
+            received.add(v);
+            if (v == 1) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        Job job = provider.submit(t).get();
+        try {
+            Consumer<Integer> events = awaitSubmitter(submitter);
+            PressureReliever<?, ?> reliever = getOplet(t, PressureReliever.class);
+            // downstream is blocked processing 1 while 2 to 6 are retained,
+            // the events are isolated so wait for them to reach the window
+            events.accept(1);
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            submit(events, 2, 3, 4, 5, 6);
+            awaitContents(reliever, 2, 3, 4, 5, 6);
+
+            JsonControlService controls = getControls(provider);
+            assertEquals(5, controls.controlRequest(request(alias(job, "relieved"), "getCount")).getAsInt());
+            controls.controlRequest(request(alias(job, "relieved"), "setCount", new JsonPrimitive(2)));
+            events.accept(7);
+            awaitContents(reliever, 6, 7);
+
+            release.countDown();
+            awaitSize(received, 3);
+            assertEquals(Arrays.asList(1, 6, 7), received);
+        } finally {
+            release.countDown();
+            job.stateChange(Job.Action.CLOSE);
+        }
+    }
+
+    @Test
+    public void testFilterFunction() throws Exception {
+        DirectProvider provider = new DirectProvider();
+        FunctionLibrary library = new FunctionLibrary();
+        provider.getServices().addService(FunctionLibraryService.class, library);
+        library.registerFunction("even", (Predicate<Integer>) v -> v % 2 == 0);
+        library.registerFunction("notAPredicate", Functions.identity());
+
+        Topology t = provider.newTopology("filterFunction");
+        AtomicReference<Consumer<Integer>> submitter = new AtomicReference<>();
+        List<Integer> passed = Collections.synchronizedList(new ArrayList<>());
+        t.events(submitter::set)
+            .filter(v -> v > 1)
+            .alias("filtered")
+            .sink(passed::add);
+
+        Job job = provider.submit(t).get();
+        try {
+            Consumer<Integer> events = awaitSubmitter(submitter);
+            submit(events, 1, 2, 3);
+            awaitSize(passed, 2);
+
+            JsonControlService controls = getControls(provider);
+            assertTrue(controls.controlRequest(request(alias(job, "filtered"), "getFunction")).isJsonNull());
+            controls.controlRequest(request(alias(job, "filtered"), "setFunction", new JsonPrimitive("even")));
+            assertEquals("even", controls.controlRequest(request(alias(job, "filtered"), "getFunction")).getAsString());
+            submit(events, 4, 5, 6);
+            awaitSize(passed, 4);
+
+            for (String name : Arrays.asList("unknown", "notAPredicate")) {
+                try {
+                    controls.controlRequest(request(alias(job, "filtered"), "setFunction", new JsonPrimitive(name)));
+                    fail(name);
+                } catch (InvocationTargetException e) {
+                    assertTrue(e.getCause() instanceof IllegalArgumentException);
+                }
+            }
+            // the predicate is unchanged
+            submit(events, 7, 8);
+            awaitSize(passed, 5);
+
+            assertEquals(Arrays.asList(2, 3, 4, 6, 8), passed);
+        } finally {
+            job.stateChange(Job.Action.CLOSE);
+        }
+    }
+
+    @Test
+    public void testSameAliasInTwoJobs() throws Exception {
+        DirectProvider provider = new DirectProvider();
+        AtomicReference<Consumer<Integer>> submitter1 = new AtomicReference<>();
+        AtomicReference<Consumer<Integer>> submitter2 = new AtomicReference<>();
+        List<Integer> sizes1 = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> sizes2 = Collections.synchronizedList(new ArrayList<>());
+
+        // the same application submitted twice
+        Job job1 = provider.submit(batches(provider, submitter1, sizes1)).get();
+        Job job2 = provider.submit(batches(provider, submitter2, sizes2)).get();
+        try {
+            Consumer<Integer> events1 = awaitSubmitter(submitter1);
+            Consumer<Integer> events2 = awaitSubmitter(submitter2);
+
+            // each job has its own control
+            JsonControlService controls = getControls(provider);
+            controls.controlRequest(request(alias(job1, "batches"), "setCount", new JsonPrimitive(2)));
+            assertEquals(2, controls.controlRequest(request(alias(job1, "batches"), "getCount")).getAsInt());
+            assertEquals(3, controls.controlRequest(request(alias(job2, "batches"), "getCount")).getAsInt());
+
+            submit(events1, 1, 2);
+            submit(events2, 1, 2, 3);
+            awaitSize(sizes1, 1);
+            awaitSize(sizes2, 1);
+            assertEquals(Arrays.asList(2), sizes1);
+            assertEquals(Arrays.asList(3), sizes2);
+        } finally {
+            job1.stateChange(Job.Action.CLOSE);
+            job2.stateChange(Job.Action.CLOSE);
+        }
+        assertNull(getControls(provider).getControl("stream", alias(job1, "batches"), CountMXBean.class));
+        assertNull(getControls(provider).getControl("stream", alias(job2, "batches"), CountMXBean.class));
+    }
+
+    private static Topology batches(DirectProvider provider, AtomicReference<Consumer<Integer>> submitter,
+            List<Integer> sizes) {
+        Topology t = provider.newTopology("sameAlias");
+        t.events(submitter::set)
+            .last(3, Functions.unpartitioned())
+            .batch((l, k) -> l.size())
+            .alias("batches")
+            .sink(sizes::add);
+        return t;
+    }
+
+    private static String alias(Job job, String alias) {
+        return Controls.jobAlias(job.getId(), alias);
+    }
+
+    private static JsonControlService getControls(DirectProvider provider) {
+        return (JsonControlService) provider.getServices().getService(ControlService.class);
+    }
+
+    private static JsonObject request(String alias, String op, JsonElement... args) {
+        JsonObject req = new JsonObject();
+        req.addProperty(JsonControlService.TYPE_KEY, "stream");
+        req.addProperty(JsonControlService.ALIAS_KEY, alias);
+        req.addProperty(JsonControlService.OP_KEY, op);
+        if (args.length != 0) {
+            JsonArray jargs = new JsonArray();
+            for (JsonElement arg : args)
+                jargs.add(arg);
+            req.add(JsonControlService.ARGS_KEY, jargs);
+        }
+        return req;
+    }
+
+    private static <T> Consumer<T> awaitSubmitter(AtomicReference<Consumer<T>> submitter) throws InterruptedException {
+        for (int i = 0; i < 1000 && submitter.get() == null; i++)
+            Thread.sleep(10);
+        assertTrue(submitter.get() != null);
+        return submitter.get();
+    }
+
+    @SafeVarargs
+    private static <T> void submit(Consumer<T> events, T... tuples) {
+        for (T tuple : tuples)
+            events.accept(tuple);
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        for (int i = 0; i < 1000 && list.size() < size; i++)
+            Thread.sleep(10);
+        assertEquals(size, list.size());
+    }
+
+    private static <O> O getOplet(Topology t, Class<O> kind) {
+        for (Vertex<? extends Oplet<?, ?>, ?, ?> v : t.graph().getVertices()) {
+            if (kind.isInstance(v.getInstance()))
+                return kind.cast(v.getInstance());
+        }
+        throw new AssertionError(kind.getName());
+    }
+
+    /**
+     * Wait until the tuples retained by a pressure reliever are {@code expected}.
+     */
+    private static void awaitContents(PressureReliever<?, ?> reliever, Integer... expected) throws InterruptedException {
+        List<Object> contents = Collections.emptyList();
+        for (int i = 0; i < 1000; i++) {
+            contents = new ArrayList<>();
+            // the snapshot maps each partition's key to its retained tuples
+            for (Object partition : ((Map<?, ?>) reliever.snapshotState()).values())
+                contents.addAll((List<?>) partition);
+            if (contents.equals(Arrays.asList(expected)))
+                break;
+            Thread.sleep(10);
+        }
+        assertEquals(Arrays.asList(expected), contents);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.providers.direct;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.edgent.execution.Job;
+
+import org.apache.edgent.providers.direct.DirectProvider;
+import org.apache.edgent.runtime.etiao.VirtualThreads;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.apache.edgent.topology.plumbing.PlumbingStreams;
+import org.junit.Test;
+
+/**
+ * Job tests with jobs using virtual threads, or platform threads
+ * if the Java runtime does not support virtual threads.
+ */
+public class DirectVirtualThreadsJobTest extends DirectJobTest {
+
+    @Override
+    public DirectProvider createTopologyProvider() {
+        DirectProvider provider = new DirectProvider();
+        provider.getServices().addService(VirtualThreads.class, new VirtualThreads());
+        return provider;
+    }
+
+    @Test
+    public void jobVirtualThreads() throws Exception {
+        Topology t = newTopology();
+        AtomicReference<Thread> sourceThread = new AtomicReference<>();
+        AtomicReference<Thread> isolatedThread = new AtomicReference<>();
+        AtomicReference<Thread> polledThread = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(2);
+        TStream<String> s = t.source(() -> {
+            sourceThread.set(Thread.currentThread());
+            return Arrays.asList("a", "b", "c");
+        });
+        s = PlumbingStreams.isolate(s, true);
+        s.sink(tuple -> {
+            if (isolatedThread.getAndSet(Thread.currentThread()) == null)
+                done.countDown();
+        });
+        t.poll(() -> Thread.currentThread(), 10, TimeUnit.MILLISECONDS)
+            .sink(thread -> {
+                if (polledThread.getAndSet(thread) == null)
+                    done.countDown();
+            });
+
+        Job job = ((DirectProvider) getTopologyProvider()).submit(t).get();
+        try {
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(VirtualThreads.isSupported(), VirtualThreads.isVirtual(sourceThread.get()));
+            assertEquals(VirtualThreads.isSupported(), VirtualThreads.isVirtual(isolatedThread.get()));
+            assertEquals(VirtualThreads.isSupported(), VirtualThreads.isVirtual(polledThread.get()));
+        }
+        finally {
+            job.stateChange(Job.Action.CLOSE);
+        }
+        assertEquals(Job.State.CLOSED, job.getCurrentState());
+    }
+}
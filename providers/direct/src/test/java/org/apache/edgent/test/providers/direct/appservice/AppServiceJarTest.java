@@ -0,0 +1,144 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.providers.direct.appservice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.edgent.function.BiConsumer;
+import org.apache.edgent.providers.direct.DirectProvider;
+import org.apache.edgent.runtime.appservice.AppService;
+import org.apache.edgent.topology.Topology;
+import org.apache.edgent.topology.services.ApplicationService;
+import org.apache.edgent.topology.services.TopologyBuilder;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+
+public class AppServiceJarTest {
+
+    private static final AtomicInteger loaded = new AtomicInteger();
+
+    /**
+     * Application registered by the test jars, a new instance
+     * is created each time a jar is loaded.
+     */
+    public static class JarApp implements TopologyBuilder {
+        public JarApp() {
+            loaded.incrementAndGet();
+        }
+
+        @Override
+        public String getName() {
+            return "JarApp";
+        }
+
+        @Override
+        public BiConsumer<Topology, JsonObject> getBuilder() {
+            return (t, c) -> t.strings(getName());
+        }
+    }
+
+    private static File createJar(String version) throws Exception {
+        File jar = File.createTempFile("edgent-appservice", ".jar");
+        jar.deleteOnExit();
+        writeJar(jar, version);
+        return jar;
+    }
+
+    private static void writeJar(File jar, String version) throws Exception {
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("META-INF/services/" + TopologyBuilder.class.getName()));
+            out.write((JarApp.class.getName() + "\n").getBytes(StandardCharsets.UTF_8));
+            out.putNextEntry(new ZipEntry("version.txt"));
+            out.write(version.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testRegisterSameJar() throws Exception {
+        DirectProvider direct = new DirectProvider();
+        ApplicationService appService = AppService.createAndRegister(direct, direct);
+
+        // a jar registered again from the same URL is not loaded again
+        File jar = createJar("1");
+        int before = loaded.get();
+        appService.registerJar(jar.toURI().toURL().toExternalForm(), null);
+        assertEquals(before + 1, loaded.get());
+        appService.registerJar(jar.toURI().toURL().toExternalForm(), null);
+        assertEquals(before + 1, loaded.get());
+        assertEquals(1, appService.getApplicationNames().size());
+        assertTrue(appService.getApplicationNames().contains("JarApp"));
+    }
+
+    @Test
+    public void testRegisterCopiedJar() throws Exception {
+        DirectProvider direct = new DirectProvider();
+        ApplicationService appService = AppService.createAndRegister(direct, direct);
+
+        // a copy at another URL is loaded from that URL
+        int before = loaded.get();
+        appService.registerJar(createJar("1").toURI().toURL().toExternalForm(), null);
+        appService.registerJar(createJar("1").toURI().toURL().toExternalForm(), null);
+        assertEquals(before + 2, loaded.get());
+    }
+
+    @Test
+    public void testRegisterReplacedJar() throws Exception {
+        DirectProvider direct = new DirectProvider();
+        ApplicationService appService = AppService.createAndRegister(direct, direct);
+
+        // a jar replaced at the same URL is loaded again
+        File jar = createJar("1");
+        String url = jar.toURI().toURL().toExternalForm();
+        int before = loaded.get();
+        appService.registerJar(url, null);
+        writeJar(jar, "22");
+        appService.registerJar(url, null);
+        assertEquals(before + 2, loaded.get());
+
+        // as is a jar that was deleted and restored with the same contents
+        assertTrue(jar.delete());
+        writeJar(jar, "22");
+        assertTrue(jar.setLastModified(jar.lastModified() - 10_000));
+        before = loaded.get();
+        appService.registerJar(url, null);
+        assertEquals(before + 1, loaded.get());
+    }
+
+    @Test
+    public void testRegisterChangedJar() throws Exception {
+        DirectProvider direct = new DirectProvider();
+        ApplicationService appService = AppService.createAndRegister(direct, direct);
+
+        // a jar with different contents is loaded
+        int before = loaded.get();
+        appService.registerJar(createJar("1").toURI().toURL().toExternalForm(), null);
+        appService.registerJar(createJar("2").toURI().toURL().toExternalForm(), null);
+        assertEquals(before + 2, loaded.get());
+        assertTrue(appService.getApplicationNames().contains("JarApp"));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.providers.direct.topology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.edgent.execution.Job;
+import org.apache.edgent.providers.direct.DirectProvider;
+import org.apache.edgent.runtime.etiao.PollGroups;
+import org.apache.edgent.runtime.etiao.PollGroups.JobPollGroups;
+import org.apache.edgent.runtime.etiao.PollGroups.PollGroup;
+import org.apache.edgent.topology.TStream;
+import org.apache.edgent.topology.Topology;
+import org.junit.Test;
+
+/**
+ * Topology tests with polled sources coalesced by poll groups.
+ */
+public class DirectPollGroupsTopologyTest extends DirectTopologyTest {
+
+    private final PollGroups pollGroups = new PollGroups();
+
+    @Override
+    public DirectProvider createTopologyProvider() {
+        DirectProvider provider = new DirectProvider();
+        provider.getServices().addService(PollGroups.class, pollGroups);
+        return provider;
+    }
+
+    @Test
+    public void testCoalescedPolls() throws Exception {
+        Topology t = newTopology();
+        AtomicInteger polls = new AtomicInteger();
+        List<TStream<Integer>> sensors = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final int sensor = i;
+            // periods within the tolerance of 100ms
+            sensors.add(t.poll(() -> { polls.incrementAndGet(); return sensor; },
+                    98 + (i % 5), TimeUnit.MILLISECONDS));
+        }
+        AtomicInteger tuples = new AtomicInteger();
+        sensors.get(0).union(new HashSet<>(sensors)).sink(tuple -> tuples.incrementAndGet());
+
+        Job job = ((DirectProvider) getTopologyProvider()).submit(t).get();
+        Thread.sleep(550);
+
+        List<JobPollGroups> jobs = pollGroups.getJobPollGroups();
+        assertEquals(1, jobs.size());
+        List<PollGroup> groups = jobs.get(0).getGroups();
+        assertEquals(1, groups.size());
+        PollGroup group = groups.get(0);
+        assertEquals(50, group.getTaskCount());
+        assertEquals(100, group.getPeriod(TimeUnit.MILLISECONDS));
+        long ticks = group.getTickCount();
+        assertTrue("ticks " + ticks, ticks >= 4 && ticks <= 7);
+        assertTrue(polls.get() >= 50 * 4);
+        assertTrue(tuples.get() >= 50 * 4);
+
+        job.stateChange(Job.Action.CLOSE);
+        assertTrue(pollGroups.getJobPollGroups().isEmpty());
+    }
+}
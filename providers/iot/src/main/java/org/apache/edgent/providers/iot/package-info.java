@@ -44,6 +44,8 @@ under the License.
  * The command's data (JSON) uniquely identifies a control MBean through its type and
  * alias, and indicates the operation to call on the MBean and the arguments to
  * pass to the operation.
+ The alias of a stream's control is the stream's alias qualified by the
+ * identifier of its job, see {@link org.apache.edgent.execution.services.Controls#jobAlias(String, String) Controls.jobAlias}.
  * Thus any control operation can be remotely invoked through a {@code edgentControl} device command,
  * including arbitrary control MBeans registered by applications.
  * 
@@ -110,7 +112,7 @@ under the License.
  * </tr>
  * <tr>
  *    <td headers="cmdIdentifier"><strong>Sample command data (TStream.poll())</strong></td>
- *    <td colspan=5 headers="type alias op args controlMbean">{@code {"type":"stream","alias":"myStreamAlias","op":"setPeriod","args":[10, "SECONDS"]}}</td>
+ *    <td colspan=5 headers="type alias op args controlMbean">{@code {"type":"stream","alias":"JOB_1.myStreamAlias","op":"setPeriod","args":[10, "SECONDS"]}}</td>
  * </tr>
  * <tr></tr>
  * </table>
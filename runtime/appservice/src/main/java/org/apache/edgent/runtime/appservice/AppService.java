@@ -27,9 +27,12 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
@@ -81,6 +84,12 @@ public class AppService implements ApplicationService {
     
     private final Map<String,BiConsumer<Topology, JsonObject>> applications =
             Collections.synchronizedMap(new HashMap<>());
+
+    /**
+     * Jars loaded by {@link #registerJar(String, String)}, keyed by the registered URL.
+     */
+    private final Map<String,LoadedJar> loadedJars =
+            Collections.synchronizedMap(new HashMap<>());
     
     private final TopologyProvider provider;
     private final DirectSubmitter<Topology, Job> submitter;
@@ -117,6 +126,13 @@ public class AppService implements ApplicationService {
     /**
      * Create a new class loader for the jar and register any
      * org.apache.edgent.org.apache.edgent.topology application that is registered as a service provider.
+     * <BR>
+     * Registering a jar again from the same URL, for example after a configuration
+     * change, registers the builders already loaded from that URL, without creating
+     * a class loader and loading the applications' classes again, if the contents
+     * of the jar have not changed and the loaded jar file is still present and
+     * unchanged. A local jar file is only read again if its length or last
+     * modified time has changed.
      */
     @Override
     public void registerJar(String jarURL, String jsonConfig) throws Exception {
@@ -128,12 +144,86 @@ public class AppService implements ApplicationService {
         if ("http".equals(protocol) || "https".equals(protocol)) {
             url = downloadJar(url);
         }
-        URLClassLoader loader = new URLClassLoader(new URL[] {url});
+
+        LoadedJar jar = loadedJars.get(jarURL);
+        if (jar != null && jar.isCurrent(url)) {
+            logger.trace("Register jar: {} already loaded", jarURL);
+        }
+        else {
+            URLClassLoader loader = new URLClassLoader(new URL[] {url});
+            List<TopologyBuilder> builders = new ArrayList<>();
+            for (TopologyBuilder topoBuilder : ServiceLoader.load(TopologyBuilder.class, loader)) {
+                builders.add(topoBuilder);
+            }
+            jar = new LoadedJar(url, builders);
+            loadedJars.put(jarURL, jar);
+        }
         
-        for (TopologyBuilder topoBuilder : ServiceLoader.load(TopologyBuilder.class, loader)) {
+        for (TopologyBuilder topoBuilder : jar.builders) {
             registerTopology(topoBuilder.getName(), topoBuilder.getBuilder());
         }
     }
+
+    /**
+     * A jar file loaded by a class loader and the builders it registered.
+     * Only jars loaded from local files are reused.
+     */
+    private static final class LoadedJar {
+        private final URL url;
+        private final File file;
+        private final long length;
+        private final long lastModified;
+        private final String digest;
+        private final List<TopologyBuilder> builders;
+
+        LoadedJar(URL url, List<TopologyBuilder> builders) throws Exception {
+            this.url = url;
+            this.file = "file".equals(url.getProtocol()) ? new File(url.toURI()) : null;
+            this.length = file != null ? file.length() : -1;
+            this.lastModified = file != null ? file.lastModified() : -1;
+            this.digest = file != null ? digest(url) : null;
+            this.builders = builders;
+        }
+
+        /**
+         * Determine whether the classes of this jar can still be loaded
+         * and the jar now at {@code current} has the same contents.
+         */
+        boolean isCurrent(URL current) throws Exception {
+            if (file == null || !isUnchanged())
+                return false;
+            if (current.equals(url))
+                return true;
+            return digest.equals(digest(current));
+        }
+
+        private boolean isUnchanged() {
+            return file.isFile() && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+
+    /**
+     * Digest of the contents of a jar.
+     * @param url URL of the jar.
+     * @return SHA-256 digest as a hexadecimal string.
+     */
+    private static String digest(URL url) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        InputStream inputStream = url.openStream();
+        try {
+            int bytesRead;
+            byte[] buffer = new byte[8192];
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                md.update(buffer, 0, bytesRead);
+            }
+        } finally {
+            inputStream.close();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : md.digest())
+            sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
     
     /**
      * Download an HTTP URL to a local file.
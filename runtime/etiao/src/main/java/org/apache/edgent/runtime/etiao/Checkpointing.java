@@ -0,0 +1,357 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.edgent.function.Checkpointable;
+import org.apache.edgent.oplet.Oplet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checkpoints the state of jobs' oplets to local files.
+ * <p>
+ * When a {@code Checkpointing} instance is registered as a container
+ * service, for example
+ * {@code provider.getServices().addService(Checkpointing.class, new Checkpointing(directory))},
+ * each job's {@link Executable} periodically saves the state of its
+ * {@link Checkpointable} oplets to a file in the checkpoint directory,
+ * and saves it once more when the job is closed.
+ * When a job with the same name is later submitted the states are
+ * restored from the file after its oplets are initialized and
+ * before they are started.
+ * A job is identified by its configured name, or its topology's name
+ * if it has no configured name. Oplets are matched by their
+ * identifier and class, so states are only restored to a job
+ * built from the same topology.
+ * <p>
+ * Snapshots are taken on one of the job's control threads, tuple
+ * processing is not paused, each oplet only briefly copies its state.
+ * The snapshots are then serialized and written to a temporary
+ * file that replaces the job's checkpoint file, so a failure while
+ * writing leaves the previous checkpoint intact.
+ * <p>
+ * A checkpoint file is a compact binary file holding a header,
+ * the serialized state of each oplet with its identifier and class,
+ * and a CRC-32 of the contents.
+ */
+public final class Checkpointing {
+
+    /** The default checkpoint period, 60 seconds. */
+    public static final long DEFAULT_PERIOD_MSEC = 60 * 1000;
+    /** Suffix of checkpoint file names. */
+    public static final String SUFFIX = ".ckpt";
+
+    private static final int MAGIC = 0x45434b50; // ECKP
+    private static final int VERSION = 1;
+    private static final Logger logger = LoggerFactory.getLogger(Checkpointing.class);
+
+    private final File directory;
+    private final long period;
+    private final Map<String, JobCheckpoint> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Creates checkpointing with {@link #DEFAULT_PERIOD_MSEC}.
+     * @param directory directory holding the checkpoint files, created if needed.
+     */
+    public Checkpointing(File directory) {
+        this(directory, DEFAULT_PERIOD_MSEC, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates checkpointing.
+     * @param directory directory holding the checkpoint files, created if needed.
+     * @param period period between checkpoints of a job.
+     * @param unit unit of {@code period}.
+     */
+    public Checkpointing(File directory, long period, TimeUnit unit) {
+        if (directory == null)
+            throw new IllegalArgumentException("directory");
+        if (period <= 0)
+            throw new IllegalArgumentException("period");
+        this.directory = directory;
+        this.period = unit.toMillis(period);
+    }
+
+    /**
+     * Get the checkpoint directory.
+     * @return the directory holding the checkpoint files
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the checkpoint period.
+     * @param unit unit of the returned value
+     * @return the period between checkpoints of a job
+     */
+    public long getPeriod(TimeUnit unit) {
+        return unit.convert(period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the checkpoint file of a job.
+     * @param name the job's name
+     * @return the file, which may not exist
+     */
+    public File getFile(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + SUFFIX.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '.')
+                sb.append(c);
+            else
+                sb.append(String.format("_%04x", (int) c));
+        }
+        return new File(directory, sb.append(SUFFIX).toString());
+    }
+
+    /**
+     * Checkpoint a job now.
+     * @param jobId the job's identifier
+     * @return false if the job is not checkpointed
+     * @throws IOException if the checkpoint file cannot be written
+     */
+    public boolean checkpoint(String jobId) throws IOException {
+        JobCheckpoint job = jobs.get(jobId);
+        if (job == null)
+            return false;
+        job.checkpoint();
+        return true;
+    }
+
+    /**
+     * Checkpoint the invocations of a job, restoring their state
+     * from the job's checkpoint file if it exists.
+     */
+    void restore(String jobId, String name, List<? extends Invocation<?, ?, ?>> invocations) {
+        JobCheckpoint job = new JobCheckpoint(getFile(name), invocations);
+        jobs.put(jobId, job);
+        job.restore();
+    }
+
+    /**
+     * Start the periodic checkpoints of a job.
+     */
+    void start(String jobId, ScheduledExecutorService scheduler) {
+        JobCheckpoint job = jobs.get(jobId);
+        if (job != null)
+            job.start(scheduler, period);
+    }
+
+    /**
+     * Stop checkpointing a job, after a final checkpoint.
+     */
+    void remove(String jobId) {
+        JobCheckpoint job = jobs.remove(jobId);
+        if (job == null)
+            return;
+        job.stop();
+        try {
+            job.checkpoint();
+        } catch (IOException e) {
+            logger.error("Exception caught while writing checkpoint {}", job.file, e);
+        }
+    }
+
+    private static final class JobCheckpoint {
+        private final File file;
+        private final List<Invocation<?, ?, ?>> invocations = new ArrayList<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private Future<?> task;
+
+        JobCheckpoint(File file, List<? extends Invocation<?, ?, ?>> invocations) {
+            this.file = file;
+            for (Invocation<?, ?, ?> invocation : invocations) {
+                if (invocation.getOplet() instanceof Checkpointable)
+                    this.invocations.add(invocation);
+            }
+        }
+
+        synchronized void start(ScheduledExecutorService scheduler, long period) {
+            if (invocations.isEmpty())
+                return;
+            task = scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    checkpoint();
+                } catch (Throwable t) {
+                    logger.error("Exception caught while writing checkpoint {}", file, t);
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized void stop() {
+            if (task != null)
+                task.cancel(false);
+        }
+
+        void restore() {
+            if (invocations.isEmpty() || !file.exists())
+                return;
+            Map<String, Entry> entries;
+            try {
+                entries = read(file);
+            } catch (IOException e) {
+                logger.error("Ignoring unreadable checkpoint {}", file, e);
+                return;
+            }
+            int restored = 0;
+            for (Invocation<?, ?, ?> invocation : invocations) {
+                Oplet<?, ?> oplet = invocation.getOplet();
+                Entry entry = entries.get(invocation.getId());
+                if (entry == null || !entry.className.equals(oplet.getClass().getName()))
+                    continue;
+                try {
+                    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(entry.state));
+                    ((Checkpointable) oplet).restoreState((Serializable) in.readObject());
+                    restored++;
+                } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                    logger.error("Exception caught while restoring oplet {} from {}", invocation.getId(), file, e);
+                }
+            }
+            logger.info("Restored {} oplets from checkpoint {}", restored, file);
+        }
+
+        synchronized void checkpoint() throws IOException {
+            List<Entry> entries = new ArrayList<>(invocations.size());
+            for (Invocation<?, ?, ?> invocation : invocations) {
+                Oplet<?, ?> oplet = invocation.getOplet();
+                try {
+                    Serializable state = ((Checkpointable) oplet).snapshotState();
+                    if (state == null)
+                        continue;
+                    bytes.reset();
+                    ObjectOutputStream out = new ObjectOutputStream(bytes);
+                    out.writeObject(state);
+                    out.close();
+                    entries.add(new Entry(invocation.getId(), oplet.getClass().getName(), bytes.toByteArray()));
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Oplet {} not checkpointed: {}", invocation.getId(), e.toString());
+                }
+            }
+            write(file, entries);
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        final String className;
+        final byte[] state;
+
+        Entry(String id, String className, byte[] state) {
+            this.id = id;
+            this.className = className;
+            this.state = state;
+        }
+    }
+
+    private static void write(File file, List<Entry> entries) throws IOException {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory())
+            throw new FileNotFoundException(dir.getPath());
+        File tmp = new File(dir, file.getName() + ".tmp");
+        FileOutputStream fos = new FileOutputStream(tmp);
+        try {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fos), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeUTF(entry.id);
+                out.writeUTF(entry.className);
+                out.writeInt(entry.state.length);
+                out.write(entry.state);
+            }
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            fos.getFD().sync();
+        } finally {
+            fos.close();
+        }
+        if (!tmp.renameTo(file)) {
+            // platforms where rename does not replace an existing file
+            file.delete();
+            if (!tmp.renameTo(file))
+                throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+    }
+
+    private static Map<String, Entry> read(File file) throws IOException {
+        DataInputStream in = null;
+        try {
+            CheckedInputStream checked = new CheckedInputStream(
+                    new BufferedInputStream(new FileInputStream(file)), new CRC32());
+            in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("Not a checkpoint file");
+            in.readLong();
+            int count = in.readInt();
+            Map<String, Entry> entries = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                String className = in.readUTF();
+                int length = in.readInt();
+                if (length < 0)
+                    throw new IOException("Corrupt checkpoint file");
+                byte[] state = new byte[length];
+                in.readFully(state);
+                entries.put(id, new Entry(id, className, state));
+            }
+            long crc = checked.getChecksum().getValue();
+            if (in.readLong() != crc)
+                throw new IOException("Checksum mismatch");
+            return entries;
+        } catch (EOFException e) {
+            throw new IOException("Truncated checkpoint file", e);
+        } finally {
+            if (in != null)
+                in.close();
+        }
+    }
+}
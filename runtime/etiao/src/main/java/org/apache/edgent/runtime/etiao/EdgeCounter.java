@@ -0,0 +1,107 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.edgent.execution.services.EdgeSnapshot;
+import org.apache.edgent.function.BatchConsumer;
+
+/**
+ * Output port target counting the tuples submitted on an edge and
+ * sampling the time the edge's target takes to process them.
+ * A batch is sampled when its tuples include a sampled count, its
+ * latency is the time taken to process the batch.
+ *
+ * @param <T> Type of data on the edge.
+ */
+final class EdgeCounter<T> implements BatchConsumer<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final String jobId;
+    private final String sourceId;
+    private final int sourcePort;
+    private final SettableForwarder<T> target;
+    private final long sampleMask;
+    private final StripedCounter count = new StripedCounter();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong latencyTotal = new AtomicLong();
+    private final AtomicLong latencyMax = new AtomicLong();
+
+    EdgeCounter(String jobId, String sourceId, int sourcePort, SettableForwarder<T> target, int sampleInterval) {
+        this.jobId = jobId;
+        this.sourceId = sourceId;
+        this.sourcePort = sourcePort;
+        this.target = target;
+        this.sampleMask = sampleInterval - 1;
+    }
+
+    SettableForwarder<T> getTarget() {
+        return target;
+    }
+
+    @Override
+    public void accept(T tuple) {
+        if ((count.increment() & sampleMask) != 0) {
+            target.accept(tuple);
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            target.accept(tuple);
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void acceptBatch(List<T> tuples) {
+        final int n = tuples.size();
+        final long total = count.add(n);
+        // sampled if the batch's counts include a multiple of the interval
+        if (n <= sampleMask && ((total - n) & ~sampleMask) == (total & ~sampleMask)) {
+            target.acceptBatch(tuples);
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            target.acceptBatch(tuples);
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    private void record(long latency) {
+        samples.incrementAndGet();
+        latencyTotal.addAndGet(latency);
+        long max;
+        while (latency > (max = latencyMax.get())) {
+            if (latencyMax.compareAndSet(max, latency))
+                break;
+        }
+    }
+
+    EdgeSnapshot snapshot() {
+        Invocation<?, ?, ?> targetInvocation = target.getInvocation();
+        return new EdgeSnapshot(jobId, sourceId, sourcePort,
+                targetInvocation == null ? null : targetInvocation.getId(), target.getPort(),
+                count.sum(), samples.get(), latencyTotal.get(), latencyMax.get());
+    }
+}
@@ -0,0 +1,158 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.edgent.execution.services.EdgeMetricsService;
+import org.apache.edgent.execution.services.EdgeSnapshot;
+import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts the tuples submitted on the edges of jobs' graphs.
+ * <p>
+ * When an {@code EdgeInstrumentation} instance is registered as a
+ * container service, for example
+ * {@code provider.getServices().addService(EdgeMetricsService.class, new EdgeInstrumentation())},
+ * each job's {@link Executable} replaces the target of each connected
+ * output port with a counting target before the job's oplets are
+ * initialized, no oplets are added to the graph.
+ * <p>
+ * The count of an edge is striped across cache line padded cells so
+ * that threads submitting tuples concurrently rarely contend.
+ * Every {@code sampleInterval} tuples submitted by a thread, the time
+ * taken by the edge's target oplet, and the oplets it synchronously
+ * submits tuples to, to process the tuple is sampled with
+ * {@code System.nanoTime()}.
+ * <p>
+ * The edges' metrics are read on demand with {@link #getSnapshot()},
+ * or an edge at a time with {@link #getEdges(String)}.
+ */
+public final class EdgeInstrumentation implements EdgeMetricsService {
+
+    /** The default sample interval, 64 tuples. */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    private static final Logger logger = LoggerFactory.getLogger(EdgeInstrumentation.class);
+
+    private final int sampleInterval;
+    private final Map<String, List<EdgeCounter<?>>> jobs = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates an edge instrumentation with {@link #DEFAULT_SAMPLE_INTERVAL}.
+     */
+    public EdgeInstrumentation() {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Creates an edge instrumentation.
+     * 
+     * @param sampleInterval the latency of one in {@code sampleInterval}
+     *      tuples is sampled, rounded up to a power of 2.
+     *      1 to sample every tuple.
+     */
+    public EdgeInstrumentation(int sampleInterval) {
+        if (sampleInterval < 1 || sampleInterval > (1 << 30))
+            throw new IllegalArgumentException("sampleInterval");
+        int interval = Integer.highestOneBit(sampleInterval);
+        this.sampleInterval = interval == sampleInterval ? interval : interval << 1;
+    }
+
+    /**
+     * Get the sample interval.
+     * @return the number of tuples between latency samples
+     */
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    @Override
+    public List<EdgeSnapshot> getSnapshot() {
+        List<EdgeSnapshot> snapshot = new ArrayList<>();
+        for (List<EdgeCounter<?>> counters : jobs.values())
+            addSnapshots(counters, snapshot);
+        return snapshot;
+    }
+
+    @Override
+    public List<EdgeSnapshot> getSnapshot(String jobId) {
+        List<EdgeCounter<?>> counters = jobs.get(jobId);
+        if (counters == null)
+            return Collections.emptyList();
+        List<EdgeSnapshot> snapshot = new ArrayList<>(counters.size());
+        addSnapshots(counters, snapshot);
+        return snapshot;
+    }
+
+    @Override
+    public List<Supplier<EdgeSnapshot>> getEdges(String jobId) {
+        List<EdgeCounter<?>> counters = jobs.get(jobId);
+        if (counters == null)
+            return Collections.emptyList();
+        List<Supplier<EdgeSnapshot>> edges = new ArrayList<>(counters.size());
+        for (EdgeCounter<?> counter : counters)
+            edges.add(counter::snapshot);
+        return edges;
+    }
+
+    private static void addSnapshots(List<EdgeCounter<?>> counters, List<EdgeSnapshot> snapshot) {
+        for (EdgeCounter<?> counter : counters)
+            snapshot.add(counter.snapshot());
+    }
+
+    @Override
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Instrument the output ports of a job's invocations.
+     */
+    void instrument(String jobId, List<? extends Invocation<?, ?, ?>> invocations) {
+        List<EdgeCounter<?>> counters = new ArrayList<>();
+        for (Invocation<?, ?, ?> invocation : invocations)
+            invocation.instrumentOutputs(jobId, sampleInterval, counters);
+        jobs.put(jobId, Collections.unmodifiableList(counters));
+
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(jobId);
+            } catch (Exception e) {
+                logger.error("Exception caught while notifying edge metrics listener", e);
+            }
+        }
+    }
+
+    /**
+     * Stop reporting the edges of a job.
+     */
+    void remove(String jobId) {
+        jobs.remove(jobId);
+    }
+}
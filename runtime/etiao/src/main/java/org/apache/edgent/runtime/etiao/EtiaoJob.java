@@ -102,8 +102,13 @@ public class EtiaoJob extends AbstractGraphJob implements JobContext {
             executable().start();
             break;
         case PAUSE:
+            setNext(State.PAUSED, action);
+            executable().pause();
+            break;
         case RESUME:
-            throw new UnsupportedOperationException(action.name());
+            setNext(State.RUNNING, action);
+            executable().resume();
+            break;
         case CLOSE:
             // idempotent
             State s = setNext(State.CLOSED, action);
@@ -32,6 +32,9 @@ import java.util.concurrent.TimeoutException;
 
 import org.apache.edgent.execution.Job;
 import org.apache.edgent.execution.services.RuntimeServices;
+import org.apache.edgent.execution.services.ControlService;
+import org.apache.edgent.execution.services.EdgeMetricsService;
+import org.apache.edgent.execution.services.PollGroupService;
 import org.apache.edgent.execution.services.ServiceContainer;
 import org.apache.edgent.function.BiConsumer;
 import org.apache.edgent.function.Consumer;
@@ -41,6 +44,9 @@ import org.apache.edgent.runtime.etiao.graph.DirectGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
 /**
  * Executes and provides runtime services to the executable org.apache.edgent.graph
  * elements (oplets and functions).
@@ -52,9 +58,18 @@ public class Executable implements RuntimeServices {
     private final ThreadFactory controlThreads;
     private final BiConsumer<Object, Throwable> completionHandler;
     private final ThreadFactoryTracker userThreads;
-    private final TrackingScheduledExecutor controlScheduler;
-    private final TrackingScheduledExecutor userScheduler;
+    private final ScheduledExecutorService controlScheduler;
+    private final ScheduledExecutorService userScheduler;
+    private final PollGroups.JobPollGroups pollGroups;
+    private final EdgeInstrumentation edges;
+    private final OpletProfiling profiling;
+    private final Checkpointing checkpointing;
+    private String checkpointName;
     private Throwable lastError;
+    private long initializeTime = -1;
+    private long startTime = -1;
+    private long[] initializeTimes;
+    private long[] startTimes;
     private static final Logger logger = LoggerFactory.getLogger(Executable.class);
 
     /**
@@ -76,6 +91,24 @@ public class Executable implements RuntimeServices {
     /**
      * Creates a new {@code Executable} for the specified org.apache.edgent.org.apache.edgent.topology name, which uses the
      * given thread factory to create new threads for oplet execution.
+     * <p>
+     * If {@code containerServices} provides a {@link SharedScheduler}, the
+     * executable's scheduled tasks are executed by the shared scheduler's
+     * pools rather than by pools owned by the executable.
+     * If {@code threads} is null and {@code containerServices} provides
+     * {@link VirtualThreads} supported by the Java runtime, the executable's
+     * threads are virtual threads.
+     * If {@code containerServices} provides {@link PollGroups}, the
+     * executable provides a {@link PollGroupService} coalescing its
+     * periodic sources onto shared ticks.
+     * If {@code containerServices} provides an {@link EdgeInstrumentation}
+     * as its {@link EdgeMetricsService}, the tuples submitted on the
+     * executable's edges are counted.
+     * If {@code containerServices} provides {@link OpletProfiling}, the
+     * processing time of the executable's oplets is profiled.
+     * If {@code containerServices} provides {@link Checkpointing}, the
+     * state of the executable's oplets is restored when it is initialized
+     * and checkpointed while it runs.
      * 
      * @param name the name of the executable
      * @param containerServices runtime services provided by the container
@@ -83,6 +116,12 @@ public class Executable implements RuntimeServices {
      */
     public Executable(String name, ServiceContainer containerServices,  ThreadFactory threads) {
         this.containerServices = containerServices;
+        VirtualThreads virtualThreads = containerServices.getService(VirtualThreads.class);
+        ThreadFactory virtualFactory = null;
+        if (threads == null && virtualThreads != null)
+            virtualFactory = virtualThreads.newThreadFactory(name + "-");
+        if (virtualFactory != null)
+            threads = virtualFactory;
         this.controlThreads = (threads != null) ? threads : Executors.defaultThreadFactory();
         this.completionHandler = new BiConsumer<Object, Throwable>() {
             private static final long serialVersionUID = 1L;
@@ -114,8 +153,28 @@ public class Executable implements RuntimeServices {
             }  
         };
         this.userThreads = new ThreadFactoryTracker(name, controlThreads, completionHandler);
-        this.controlScheduler = TrackingScheduledExecutor.newScheduler(controlThreads, completionHandler);
-        this.userScheduler = TrackingScheduledExecutor.newScheduler(userThreads, completionHandler);
+        SharedScheduler shared = containerServices.getService(SharedScheduler.class);
+        if (shared != null) {
+            this.controlScheduler = shared.newControlScheduler(name + "-control", completionHandler);
+            this.userScheduler = shared.newScheduler(name, completionHandler);
+        }
+        else if (virtualFactory != null) {
+            int poolSize = virtualThreads.getSchedulerPoolSize();
+            this.controlScheduler = TrackingScheduledExecutor.newScheduler(controlThreads, completionHandler, poolSize);
+            this.userScheduler = TrackingScheduledExecutor.newScheduler(userThreads, completionHandler, poolSize);
+        }
+        else {
+            this.controlScheduler = TrackingScheduledExecutor.newScheduler(controlThreads, completionHandler);
+            this.userScheduler = TrackingScheduledExecutor.newScheduler(userThreads, completionHandler);
+        }
+        PollGroups groups = containerServices.getService(PollGroups.class);
+        this.pollGroups = (groups != null) ? groups.newPollGroups(name, userScheduler) : null;
+        if (pollGroups != null)
+            jobServices.addService(PollGroupService.class, pollGroups);
+        EdgeMetricsService edgeMetrics = containerServices.getService(EdgeMetricsService.class);
+        this.edges = (edgeMetrics instanceof EdgeInstrumentation) ? (EdgeInstrumentation) edgeMetrics : null;
+        this.profiling = containerServices.getService(OpletProfiling.class);
+        this.checkpointing = containerServices.getService(Checkpointing.class);
     }
 
     private ThreadFactory getThreads() {
@@ -170,14 +229,52 @@ public class Executable implements RuntimeServices {
     public void initialize() {
         jobServices.addService(ThreadFactory.class, getThreads());
         jobServices.addService(ScheduledExecutorService.class, getScheduler());
-        invokeAction(invocation -> invocation.initialize(job, this));
+        if (edges != null)
+            edges.instrument(job.getId(), invocations);
+        if (profiling != null)
+            profiling.profile(job.getId(), invocations, getService(ControlService.class));
+        long begin = System.nanoTime();
+        long[] times = new long[invocations.size()];
+        invokeAction(invocation -> invocation.initialize(job, this), times);
+        if (checkpointing != null)
+            checkpointing.restore(job.getId(), checkpointName, invocations);
+        synchronized (this) {
+            initializeTimes = times;
+            initializeTime = System.nanoTime() - begin;
+        }
+        job.onActionComplete();
     }
 
     /**
      * Starts all the invocations.
      */
     public void start() {
-        invokeAction(invocation -> invocation.start());
+        long begin = System.nanoTime();
+        long[] times = new long[invocations.size()];
+        invokeAction(invocation -> invocation.start(), times);
+        synchronized (this) {
+            startTimes = times;
+            startTime = System.nanoTime() - begin;
+        }
+        job.onActionComplete();
+        if (checkpointing != null)
+            checkpointing.start(job.getId(), controlScheduler);
+    }
+
+    /**
+     * Pauses the invocations.
+     * Sources stop obtaining tuples, while the tuples
+     * already submitted continue to be processed.
+     */
+    public void pause() {
+        invokeAction(invocation -> invocation.pause());
+    }
+
+    /**
+     * Resumes the invocations after {@link #pause()}.
+     */
+    public void resume() {
+        invokeAction(invocation -> invocation.resume());
     }
 
     /**
@@ -185,8 +282,12 @@ public class Executable implements RuntimeServices {
      * invocations, then shutdown the control scheduler.
      */
     public void close() {
+        if (pollGroups != null)
+            pollGroups.shutdown();
         getScheduler().shutdownNow();
         userThreads.shutdownNow();
+        if (checkpointing != null)
+            checkpointing.remove(job.getId());
         
         invokeAction(invocation -> {
             try {
@@ -199,6 +300,10 @@ public class Executable implements RuntimeServices {
                 job.getContainerServices().cleanOplet(job.getId(), invocation.getId());
             }
         });
+        if (edges != null)
+            edges.remove(job.getId());
+        if (profiling != null)
+            profiling.remove(job.getId(), getService(ControlService.class));
 
         notifyCompleter();
         List<Runnable> unfinished = controlScheduler.shutdownNow();
@@ -217,11 +322,70 @@ public class Executable implements RuntimeServices {
         return timeout;
     }
 
+    /**
+     * Takes a snapshot of the time taken to initialize and start
+     * the invocations.
+     * <p>
+     * The snapshot is a JSON object with the total {@code initializeTime}
+     * and {@code startTime}, and an {@code oplets} array with
+     * the {@code id}, {@code kind}, {@code initializeTime} and
+     * {@code startTime} of each invocation. Times are in microseconds,
+     * a time is absent until the action completes.
+     * 
+     * @return the snapshot
+     */
+    public synchronized JsonObject startupTimeSnapshot() {
+        JsonObject snapshot = new JsonObject();
+        if (initializeTime >= 0)
+            snapshot.addProperty("initializeTime", micros(initializeTime));
+        if (startTime >= 0)
+            snapshot.addProperty("startTime", micros(startTime));
+        JsonArray oplets = new JsonArray();
+        for (int i = 0; i < invocations.size(); i++) {
+            Invocation<?, ?, ?> invocation = invocations.get(i);
+            JsonObject oplet = new JsonObject();
+            oplet.addProperty("id", invocation.getId());
+            oplet.addProperty("kind", invocation.getOplet().getClass().getName());
+            if (initializeTimes != null)
+                oplet.addProperty("initializeTime", micros(initializeTimes[i]));
+            if (startTimes != null)
+                oplet.addProperty("startTime", micros(startTimes[i]));
+            oplets.add(oplet);
+        }
+        snapshot.add("oplets", oplets);
+        return snapshot;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
     private void invokeAction(Consumer<Invocation<?, ?, ?>> action) {
+        invokeAction(action, null);
+        job.onActionComplete();
+    }
+
+    /**
+     * Invokes the action on all the invocations.
+     * Each invocation's action is a control scheduler task,
+     * an action that does not complete times out.
+     * 
+     * @param times if not null, receives the time taken by the
+     *        action on each invocation
+     */
+    private void invokeAction(Consumer<Invocation<?, ?, ?>> action, long[] times) {
         ExecutorCompletionService<Boolean> completer = new ExecutorCompletionService<>(controlScheduler);
-        for (Invocation<?, ?, ?> invocation : invocations) {
+        for (int i = 0; i < invocations.size(); i++) {
+            final int index = i;
+            final Invocation<?, ?, ?> invocation = invocations.get(i);
             completer.submit(() -> {
-                action.accept(invocation);
+                long begin = System.nanoTime();
+                try {
+                    action.accept(invocation);
+                } finally {
+                    if (times != null)
+                        times[index] = System.nanoTime() - begin;
+                }
                 return true;
             });
         }
@@ -252,14 +416,14 @@ public class Executable implements RuntimeServices {
             }
             remainingTasks--;
         }
-
-        job.onActionComplete();
     }
 
     /**
      * Cleanup after failure.
      */
     private void cleanup() {
+        if (pollGroups != null)
+            pollGroups.shutdown();
         userScheduler.shutdown();
         userThreads.shutdown();
     }
@@ -269,10 +433,16 @@ public class Executable implements RuntimeServices {
      * @return {@code true} if at least a user task is still active.
      */
     public boolean hasActiveTasks() {
-        return userScheduler.hasActiveTasks() || 
+        return hasActiveTasks(userScheduler) || 
                userThreads.hasActiveNonDaemonThreads();
     }
 
+    private static boolean hasActiveTasks(ScheduledExecutorService scheduler) {
+        if (scheduler instanceof SharedScheduler.JobScheduler)
+            return ((SharedScheduler.JobScheduler) scheduler).hasActiveTasks();
+        return ((TrackingScheduledExecutor) scheduler).hasActiveTasks();
+    }
+
     public synchronized Throwable getLastError() {
         return lastError;
     }
@@ -282,6 +452,7 @@ public class Executable implements RuntimeServices {
     }
 
     public Job createJob(Graph graph, String topologyName, String jobName) {
+        this.checkpointName = (jobName != null) ? jobName : topologyName;
         this.job = new EtiaoJob((DirectGraph)graph, topologyName, jobName, 
                 containerServices);
         return this.job;
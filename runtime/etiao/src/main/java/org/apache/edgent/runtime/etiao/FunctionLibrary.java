@@ -0,0 +1,69 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.edgent.execution.services.FunctionLibraryService;
+
+/**
+ * Library of named functions that can replace the functions of
+ * running oplets.
+ * <p>
+ * When a {@code FunctionLibrary} is registered as a container
+ * service, for example
+ * {@code provider.getServices().addService(FunctionLibraryService.class, new FunctionLibrary())},
+ * it is shared by all the jobs of the container, functions can be
+ * registered before or after the jobs using them are submitted.
+ */
+public final class FunctionLibrary implements FunctionLibraryService {
+
+    private final ConcurrentMap<String, Object> functions = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerFunction(String name, Object function) {
+        if (name == null)
+            throw new IllegalArgumentException("name");
+        if (function == null)
+            throw new IllegalArgumentException("function");
+        functions.put(name, function);
+    }
+
+    @Override
+    public void unregisterFunction(String name) {
+        functions.remove(name);
+    }
+
+    @Override
+    public <F> F getFunction(String name, Class<F> functionType) {
+        Object function = functions.get(name);
+        if (!functionType.isInstance(function))
+            return null;
+        return functionType.cast(function);
+    }
+
+    @Override
+    public Set<String> getFunctionNames() {
+        return Collections.unmodifiableSet(new HashSet<>(functions.keySet()));
+    }
+}
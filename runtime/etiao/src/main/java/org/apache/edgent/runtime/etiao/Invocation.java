@@ -19,15 +19,20 @@ under the License.
 package org.apache.edgent.runtime.etiao;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.edgent.execution.services.RuntimeServices;
 import org.apache.edgent.function.Consumer;
 import org.apache.edgent.function.Functions;
+import org.apache.edgent.oplet.Credit;
 import org.apache.edgent.oplet.JobContext;
 import org.apache.edgent.oplet.Oplet;
 import org.apache.edgent.oplet.OutputPortContext;
+import org.apache.edgent.oplet.Pausable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +67,9 @@ public class Invocation<T extends Oplet<I, O>, I, O> implements AutoCloseable {
     private List<Consumer<O>> outputs;
     private List<SettableForwarder<I>> inputs;
     private List<OutputPortContext> outputContext;
+    private final Credit[] inputCredits;
+    private volatile Credit[] outputCredits;
+    private OpletProfile profile;
     private static final Logger logger = LoggerFactory.getLogger(Invocation.class);
 
     protected Invocation(String id, T oplet, int inputCount, int outputCount) {
@@ -69,8 +77,11 @@ public class Invocation<T extends Oplet<I, O>, I, O> implements AutoCloseable {
         this.oplet = oplet;
         inputs = inputCount == 0 ? Collections.emptyList() : new ArrayList<>(inputCount);
         for (int i = 0; i < inputCount; i++) {
-            inputs.add(new SettableForwarder<>());
+            SettableForwarder<I> input = new SettableForwarder<>();
+            input.setInputPort(this, i);
+            inputs.add(input);
         }
+        inputCredits = new Credit[inputCount];
 
         outputs = outputCount == 0 ? Collections.emptyList() : new ArrayList<>(outputCount);
         outputContext = outputCount == 0 ? Collections.emptyList() : new ArrayList<>(outputCount);
@@ -115,6 +126,7 @@ public class Invocation<T extends Oplet<I, O>, I, O> implements AutoCloseable {
         int index = outputs.size();
         outputs.add(Functions.discard());
         outputContext.add(DEFAULT_OUTPUT_CONTEXT);
+        outputCredits = null;
         return index;
     }
 
@@ -125,6 +137,7 @@ public class Invocation<T extends Oplet<I, O>, I, O> implements AutoCloseable {
      */
     public void disconnect(int port) {
         outputs.set(port, Functions.discard());
+        outputCredits = null;
     }
 
     /**
@@ -136,6 +149,7 @@ public class Invocation<T extends Oplet<I, O>, I, O> implements AutoCloseable {
     public void setTarget(int port, Consumer<O> target) {
         disconnect(port);
         outputs.set(port, target);
+        outputCredits = null;
     }
 
     /**
@@ -158,6 +172,97 @@ public class Invocation<T extends Oplet<I, O>, I, O> implements AutoCloseable {
         return inputs;
     }
 
+    /**
+     * Set the credit granted by the oplet for an input port.
+     * 
+     * @param port index of the input port
+     * @param credit the credit
+     */
+    public void setInputCredit(int port, Credit credit) {
+        if (credit == null)
+            throw new NullPointerException();
+        inputCredits[port] = credit;
+        outputCredits = null;
+    }
+
+    /**
+     * Returns the credit of an output port, the smallest credit granted by
+     * the invocations reached from the port through invocations that
+     * have not granted credit for their inputs.
+     * 
+     * @param port index of the output port
+     * @return the port's credit
+     */
+    public Credit getOutputCredit(int port) {
+        Credit[] credits = outputCredits;
+        if (credits == null) {
+            credits = new Credit[outputs.size()];
+            for (int i = 0; i < credits.length; i++) {
+                List<Credit> bounded = new ArrayList<>();
+                collectOutputCredits(i, bounded, newIdentitySet());
+                credits[i] = bounded.isEmpty() ? Credit.UNBOUNDED
+                        : bounded.size() == 1 ? bounded.get(0) : new MinimumCredit(bounded);
+            }
+            outputCredits = credits;
+        }
+        return credits[port];
+    }
+
+    private static Set<Object> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    }
+
+    private void collectOutputCredits(int port, Collection<Credit> credits, Set<Object> visited) {
+        Consumer<O> target = outputs.get(port);
+        if (target instanceof EdgeCounter)
+            target = ((EdgeCounter<O>) target).getTarget();
+        if (target instanceof SettableForwarder && visited.add(target))
+            ((SettableForwarder<?>) target).collectCredits(credits, visited);
+    }
+
+    void collectInputCredits(int port, Collection<Credit> credits, Set<Object> visited) {
+        Credit credit = inputCredits[port];
+        if (credit != null) {
+            if (credit != Credit.UNBOUNDED && !credits.contains(credit))
+                credits.add(credit);
+            return;
+        }
+        // tuples are processed synchronously, the credit is that of the outputs
+        for (int i = 0; i < outputs.size(); i++)
+            collectOutputCredits(i, credits, visited);
+    }
+
+    /**
+     * Count the tuples submitted on each connected output port.
+     * Must be called before the invocation is initialized.
+     * 
+     * @param jobId identifier of the invocation's job
+     * @param sampleInterval a tuple's latency is sampled every
+     *      {@code sampleInterval} tuples, a power of 2
+     * @param counters the created counters are added to this list
+     */
+    void instrumentOutputs(String jobId, int sampleInterval, List<EdgeCounter<?>> counters) {
+        for (int i = 0; i < outputs.size(); i++) {
+            Consumer<O> target = outputs.get(i);
+            if (target instanceof SettableForwarder) {
+                EdgeCounter<O> counter = new EdgeCounter<>(jobId, id, i,
+                        (SettableForwarder<O>) target, sampleInterval);
+                outputs.set(i, counter);
+                counters.add(counter);
+            }
+        }
+    }
+
+    /**
+     * Time the oplet's processing of its input tuples.
+     * Must be called before the invocation is initialized.
+     * 
+     * @param profile the profile recording the times
+     */
+    void setProfile(OpletProfile profile) {
+        this.profile = profile;
+    }
+
     /**
      * Initialize the invocation.
      * 
@@ -169,7 +274,7 @@ public class Invocation<T extends Oplet<I, O>, I, O> implements AutoCloseable {
         InvocationContext<I, O> context = new InvocationContext<I, O>(
         		id, job, services, 
                 inputs.size(),
-                outputs, outputContext);
+                outputs, outputContext, this);
 
         try {
             oplet.initialize(context);
@@ -177,8 +282,12 @@ public class Invocation<T extends Oplet<I, O>, I, O> implements AutoCloseable {
             logger.error("Error while initializing oplet", e);
         }
         List<? extends Consumer<I>> streamers = oplet.getInputs();
-        for (int i = 0; i < inputs.size(); i++)
-            inputs.get(i).setDestination(streamers.get(i));
+        for (int i = 0; i < inputs.size(); i++) {
+            Consumer<I> streamer = streamers.get(i);
+            if (profile != null)
+                streamer = new ProfiledInput<>(streamer, profile);
+            inputs.get(i).setDestination(streamer);
+        }
     }
 
     /**
@@ -189,6 +298,22 @@ public class Invocation<T extends Oplet<I, O>, I, O> implements AutoCloseable {
         oplet.start();
     }
 
+    /**
+     * Pause the oplet, if it is {@link Pausable}.
+     */
+    public void pause() {
+        if (oplet instanceof Pausable)
+            ((Pausable) oplet).pause();
+    }
+
+    /**
+     * Resume the oplet, if it is {@link Pausable}.
+     */
+    public void resume() {
+        if (oplet instanceof Pausable)
+            ((Pausable) oplet).resume();
+    }
+
     @Override
     public void close() throws Exception {
         oplet.close();
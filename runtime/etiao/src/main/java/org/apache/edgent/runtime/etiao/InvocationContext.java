@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.apache.edgent.execution.services.RuntimeServices;
 import org.apache.edgent.function.Consumer;
+import org.apache.edgent.oplet.Credit;
 import org.apache.edgent.oplet.JobContext;
 import org.apache.edgent.oplet.OutputPortContext;
 
@@ -38,6 +39,7 @@ public class InvocationContext<I, O> extends AbstractContext<I, O> {
 	private final String id;
 	private final int inputCount;
 	private List<OutputPortContext> outputContext;
+	private final Invocation<?, I, O> invocation;
 
 	/**
 	 * Creates an {@code InvocationContext} with the specified parameters.
@@ -54,11 +56,33 @@ public class InvocationContext<I, O> extends AbstractContext<I, O> {
             int inputCount,
             List<? extends Consumer<O>> outputs,
             List<OutputPortContext> outputContext) {
+        this(id, job, services, inputCount, outputs, outputContext, null);
+    }
+
+    /**
+     * Creates an {@code InvocationContext} with the specified parameters.
+     *  
+     * @param id the oplet's unique identifier
+     * @param job the current job's context
+     * @param services service provider for the current job
+     * @param inputCount number of oplet's inputs 
+     * @param outputs list of oplet's outputs
+     * @param outputContext list of oplet's output port context info
+     * @param invocation the oplet's invocation, providing the credits
+     *        of its ports, may be null
+     */
+    public InvocationContext(String id, JobContext job,
+            RuntimeServices services,
+            int inputCount,
+            List<? extends Consumer<O>> outputs,
+            List<OutputPortContext> outputContext,
+            Invocation<?, I, O> invocation) {
         super(job, services);
         this.id = id;
         this.inputCount = inputCount;
         this.outputs = outputs;
         this.outputContext = outputContext;
+        this.invocation = invocation;
     }
 
     private final List<? extends Consumer<O>> outputs;
@@ -85,4 +109,15 @@ public class InvocationContext<I, O> extends AbstractContext<I, O> {
     public List<OutputPortContext> getOutputContext() {
         return outputContext;
     }
+
+    @Override
+    public Credit getOutputCredit(int port) {
+        return invocation != null ? invocation.getOutputCredit(port) : Credit.UNBOUNDED;
+    }
+
+    @Override
+    public void setInputCredit(int port, Credit credit) {
+        if (invocation != null)
+            invocation.setInputCredit(port, credit);
+    }
 }
@@ -0,0 +1,59 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.edgent.oplet.Credit;
+
+/**
+ * Credit that is the smallest of several credits, for a port
+ * whose tuples reach several asynchronous boundaries.
+ */
+class MinimumCredit implements Credit {
+    private final Credit[] credits;
+
+    MinimumCredit(List<Credit> credits) {
+        this.credits = credits.toArray(new Credit[credits.size()]);
+    }
+
+    @Override
+    public long available() {
+        long available = Long.MAX_VALUE;
+        for (Credit credit : credits)
+            available = Math.min(available, credit.available());
+        return available;
+    }
+
+    @Override
+    public long await(long timeout, TimeUnit unit) throws InterruptedException {
+        final long start = System.nanoTime();
+        final long nanos = unit.toNanos(timeout);
+        for (Credit credit : credits) {
+            while (credit.available() <= 0) {
+                long remaining = nanos - (System.nanoTime() - start);
+                if (remaining <= 0)
+                    return 0;
+                credit.await(remaining, TimeUnit.NANOSECONDS);
+            }
+        }
+        return Math.max(0, available());
+    }
+}
@@ -0,0 +1,164 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.edgent.execution.mbeans.OpletMXBean;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Processing time profile of an oplet invocation.
+ * Times are recorded in nanoseconds and reported in microseconds.
+ */
+final class OpletProfile implements OpletMXBean {
+    private final String jobId;
+    private final String id;
+    private final String kind;
+    private final int sampleMask;
+    private final StripedCounter tuples = new StripedCounter();
+    private final LatencyHistogram times = new LatencyHistogram();
+    private volatile String controlId;
+
+    OpletProfile(String jobId, String id, String kind, int sampleInterval) {
+        this.jobId = jobId;
+        this.id = id;
+        this.kind = kind;
+        this.sampleMask = sampleInterval - 1;
+    }
+
+    /**
+     * Returns true if the current tuple is to be sampled.
+     */
+    boolean sample() {
+        return (tuples.increment() & sampleMask) == 0;
+    }
+
+    void record(long time) {
+        times.record(time);
+    }
+
+    String getControlId() {
+        return controlId;
+    }
+
+    void setControlId(String controlId) {
+        this.controlId = controlId;
+    }
+
+    @Override
+    public String getJobId() {
+        return jobId;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getKind() {
+        return kind;
+    }
+
+    @Override
+    public long getProcessingTimeSampleCount() {
+        return times.getCount();
+    }
+
+    @Override
+    public long getMeanProcessingTime() {
+        return micros(times.getMean());
+    }
+
+    @Override
+    public long getMedianProcessingTime() {
+        return micros(times.getPercentile(50));
+    }
+
+    @Override
+    public long get99thPercentileProcessingTime() {
+        return micros(times.getPercentile(99));
+    }
+
+    @Override
+    public long getMaxProcessingTime() {
+        return micros(times.getMax());
+    }
+
+    @Override
+    public long getProcessingTimePercentile(double percentile) {
+        return micros(times.getPercentile(percentile));
+    }
+
+    @Override
+    public String processingTimeSnapshot() {
+        return toJson().toString();
+    }
+
+    JsonObject toJson() {
+        JsonObject snapshot = new JsonObject();
+        snapshot.addProperty("id", id);
+        snapshot.addProperty("kind", kind);
+        snapshot.addProperty("samples", times.getCount());
+        snapshot.addProperty("mean", micros(times.getMean()));
+        snapshot.addProperty("p50", micros(times.getPercentile(50)));
+        snapshot.addProperty("p90", micros(times.getPercentile(90)));
+        snapshot.addProperty("p99", micros(times.getPercentile(99)));
+        snapshot.addProperty("max", micros(times.getMax()));
+        // buckets with the same upper bound in microseconds are merged
+        JsonArray buckets = new JsonArray();
+        long[] counts = times.getBucketCounts();
+        long upperBound = -1;
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0)
+                continue;
+            long bound = micros(LatencyHistogram.upperBound(i));
+            if (bound != upperBound && count != 0) {
+                buckets.add(bucket(upperBound, count));
+                count = 0;
+            }
+            upperBound = bound;
+            count += counts[i];
+        }
+        if (count != 0)
+            buckets.add(bucket(upperBound, count));
+        snapshot.add("buckets", buckets);
+        return snapshot;
+    }
+
+    private static JsonArray bucket(long upperBound, long count) {
+        JsonArray bucket = new JsonArray();
+        bucket.add(upperBound);
+        bucket.add(count);
+        return bucket;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    @Override
+    public void resetProcessingTime() {
+        times.reset();
+    }
+}
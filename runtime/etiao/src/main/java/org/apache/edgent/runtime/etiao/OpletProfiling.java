@@ -0,0 +1,154 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.edgent.execution.mbeans.OpletMXBean;
+import org.apache.edgent.execution.services.ControlService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+
+/**
+ * Profiles the processing time of jobs' oplets.
+ * <p>
+ * When an {@code OpletProfiling} instance is registered as a container
+ * service, for example
+ * {@code provider.getServices().addService(OpletProfiling.class, new OpletProfiling())},
+ * each job's {@link Executable} times the processing of one in
+ * {@code sampleInterval} tuples by each oplet with inputs, excluding the
+ * time spent by the oplets it synchronously submits tuples to.
+ * Times are recorded in a {@link LatencyHistogram} per oplet.
+ * <p>
+ * Each profiled oplet is registered with the job's {@link ControlService}
+ * as an {@link OpletMXBean}, with type {@link OpletMXBean#TYPE} and an identifier of
+ * the form {@code jobId.opletId}, until the job is closed.
+ * A job's profiles are also available from
+ * {@link org.apache.edgent.execution.mbeans.JobMXBean#processingTimeSnapshot()}.
+ */
+public final class OpletProfiling {
+
+    /** The default sample interval, 64 tuples. */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    private static final Logger logger = LoggerFactory.getLogger(OpletProfiling.class);
+
+    private final int sampleInterval;
+    private final Map<String, List<OpletProfile>> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an oplet profiling with {@link #DEFAULT_SAMPLE_INTERVAL}.
+     */
+    public OpletProfiling() {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Creates an oplet profiling.
+     * 
+     * @param sampleInterval the processing time of one in {@code sampleInterval}
+     *      tuples is sampled, rounded up to a power of 2.
+     *      1 to sample every tuple.
+     */
+    public OpletProfiling(int sampleInterval) {
+        if (sampleInterval < 1 || sampleInterval > (1 << 30))
+            throw new IllegalArgumentException("sampleInterval");
+        int interval = Integer.highestOneBit(sampleInterval);
+        this.sampleInterval = interval == sampleInterval ? interval : interval << 1;
+    }
+
+    /**
+     * Get the sample interval.
+     * @return the number of tuples between processing time samples
+     */
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * Get the profiles of a job's oplets.
+     * @param jobId the job's identifier
+     * @return the profiles, empty if the job is not profiled
+     */
+    public List<OpletMXBean> getProfiles(String jobId) {
+        List<OpletProfile> profiles = jobs.get(jobId);
+        if (profiles == null)
+            return Collections.emptyList();
+        return Collections.<OpletMXBean>unmodifiableList(profiles);
+    }
+
+    /**
+     * Takes a snapshot of the profiles of a job's oplets.
+     * @param jobId the job's identifier
+     * @return JSON array of the profiles' snapshots
+     * @see OpletMXBean#processingTimeSnapshot()
+     */
+    public JsonArray snapshot(String jobId) {
+        JsonArray snapshot = new JsonArray();
+        List<OpletProfile> profiles = jobs.get(jobId);
+        if (profiles != null) {
+            for (OpletProfile profile : profiles)
+                snapshot.add(profile.toJson());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Profile the invocations with inputs of a job.
+     */
+    void profile(String jobId, List<? extends Invocation<?, ?, ?>> invocations, ControlService controls) {
+        List<OpletProfile> profiles = new ArrayList<>();
+        for (Invocation<?, ?, ?> invocation : invocations) {
+            if (invocation.getInputs().isEmpty())
+                continue;
+            OpletProfile profile = new OpletProfile(jobId, invocation.getId(),
+                    invocation.getOplet().getClass().getName(), sampleInterval);
+            invocation.setProfile(profile);
+            profiles.add(profile);
+            if (controls != null) {
+                try {
+                    profile.setControlId(controls.registerControl(OpletMXBean.TYPE,
+                            jobId + "." + invocation.getId(), null, OpletMXBean.class, profile));
+                } catch (RuntimeException e) {
+                    logger.error("Exception caught while registering oplet control", e);
+                }
+            }
+        }
+        jobs.put(jobId, profiles);
+    }
+
+    /**
+     * Stop profiling a job, unregistering its oplets' controls.
+     */
+    void remove(String jobId, ControlService controls) {
+        List<OpletProfile> profiles = jobs.remove(jobId);
+        if (profiles == null || controls == null)
+            return;
+        for (OpletProfile profile : profiles) {
+            if (profile.getControlId() != null)
+                controls.unregister(profile.getControlId());
+        }
+    }
+}
@@ -0,0 +1,492 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.edgent.execution.services.PollGroupService;
+
+/**
+ * Coalesces jobs' periodic sources onto shared ticks.
+ * <p>
+ * When a {@code PollGroups} instance is registered as a container
+ * service, for example
+ * {@code provider.getServices().addService(PollGroups.class, new PollGroups())},
+ * each job's {@link Executable} provides a {@link PollGroupService}
+ * to its oplets. Periodic sources, such as those created by
+ * {@code Topology.poll()}, with compatible periods are then polled in a
+ * single pass of one periodic task of the job's scheduler, so that
+ * hundreds of polled sensors cause a single wakeup per period.
+ * <p>
+ * A period is rounded to the nearest multiple of the resolution when
+ * the rounding changes the period by at most the tolerance, a fraction
+ * of the period, otherwise the period is kept as is.
+ * Tasks with the same resulting period form a group.
+ * <p>
+ * A group's ticks are on a fixed grid, so they do not drift.
+ * A pass that ends after the group's following tick is an overrun,
+ * the ticks it missed are skipped rather than executed in a burst.
+ * Each group's ticks, overruns, skipped ticks, pass times and tick
+ * lateness are available from {@link #getJobPollGroups()}.
+ */
+public final class PollGroups {
+
+    /** The default resolution, 10 milliseconds. */
+    public static final long DEFAULT_RESOLUTION_MSEC = 10;
+    /** The default tolerance, 0.05 (5% of a period). */
+    public static final double DEFAULT_TOLERANCE = 0.05;
+
+    private final long resolution;
+    private final double tolerance;
+    private final List<JobPollGroups> jobPollGroups = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates poll groups with {@link #DEFAULT_RESOLUTION_MSEC} and
+     * {@link #DEFAULT_TOLERANCE}.
+     */
+    public PollGroups() {
+        this(DEFAULT_RESOLUTION_MSEC, TimeUnit.MILLISECONDS, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Creates poll groups.
+     * 
+     * @param resolution periods are rounded to a multiple of {@code resolution}
+     * @param unit time unit of {@code resolution}
+     * @param tolerance maximum change of a period by rounding,
+     *      as a fraction of the period. 0 to only group equal periods.
+     */
+    public PollGroups(long resolution, TimeUnit unit, double tolerance) {
+        if (resolution <= 0)
+            throw new IllegalArgumentException("resolution");
+        if (unit == null)
+            throw new IllegalArgumentException("unit");
+        if (!(tolerance >= 0 && tolerance < 1))
+            throw new IllegalArgumentException("tolerance");
+        this.resolution = unit.toNanos(resolution);
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Get the resolution.
+     * @param unit time unit of the returned value
+     * @return the resolution
+     */
+    public long getResolution(TimeUnit unit) {
+        return unit.convert(resolution, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the tolerance.
+     * @return the tolerance
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Creates the poll groups of a job.
+     * 
+     * @param name name of the job's groups
+     * @param scheduler scheduler executing the job's ticks
+     * @return the job's poll groups
+     */
+    public JobPollGroups newPollGroups(String name, ScheduledExecutorService scheduler) {
+        JobPollGroups groups = new JobPollGroups(name, scheduler);
+        jobPollGroups.add(groups);
+        return groups;
+    }
+
+    /**
+     * Returns the poll groups of the jobs that have not been shutdown.
+     * @return the jobs' poll groups
+     */
+    public List<JobPollGroups> getJobPollGroups() {
+        return Collections.unmodifiableList(new ArrayList<>(jobPollGroups));
+    }
+
+    /**
+     * Returns the period of the group of a task.
+     * @param period the task's period in nanoseconds
+     * @return the group's period in nanoseconds
+     */
+    long groupPeriod(long period) {
+        long q = period / resolution;
+        if ((period % resolution) * 2 >= resolution)
+            q++;
+        if (q == 0)
+            q = 1;
+        if (q > Long.MAX_VALUE / resolution)
+            return period;
+        long rounded = q * resolution;
+        if (Math.abs(rounded - period) > tolerance * period)
+            return period;
+        return rounded;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("resolution:%dns tolerance:%s jobs:%d",
+                resolution, tolerance, jobPollGroups.size());
+    }
+
+    /**
+     * A job's poll groups, whose ticks are executed by the job's scheduler.
+     */
+    public final class JobPollGroups implements PollGroupService {
+        private final String name;
+        private final ScheduledExecutorService scheduler;
+        private final Map<Long, PollGroup> groups = new HashMap<>();
+        private boolean shutdown;
+
+        private JobPollGroups(String name, ScheduledExecutorService scheduler) {
+            this.name = name;
+            this.scheduler = scheduler;
+        }
+
+        /**
+         * Get the name of the job's groups.
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Future<?> schedule(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            if (period <= 0)
+                throw new IllegalArgumentException("period");
+            long start = System.nanoTime() + unit.toNanos(Math.max(0, initialDelay));
+            long groupPeriod = groupPeriod(unit.toNanos(period));
+            synchronized (this) {
+                if (shutdown)
+                    throw new RejectedExecutionException(name);
+                PollGroup group = groups.get(groupPeriod);
+                boolean created = group == null;
+                if (created)
+                    group = new PollGroup(this, groupPeriod);
+                Member member = new Member(group, task, start);
+                group.members.add(member);
+                if (created) {
+                    group.start();
+                    groups.put(groupPeriod, group);
+                }
+                return member;
+            }
+        }
+
+        /**
+         * Returns the job's groups.
+         * @return the groups, ordered by increasing period
+         */
+        public synchronized List<PollGroup> getGroups() {
+            List<PollGroup> list = new ArrayList<>(groups.values());
+            Collections.sort(list, (g1, g2) -> Long.compare(g1.period, g2.period));
+            return list;
+        }
+
+        /**
+         * Cancels the job's groups and their tasks.
+         */
+        public void shutdown() {
+            jobPollGroups.remove(this);
+            List<PollGroup> cancelled;
+            synchronized (this) {
+                shutdown = true;
+                cancelled = new ArrayList<>(groups.values());
+                groups.clear();
+            }
+            for (PollGroup group : cancelled)
+                group.cancel(null);
+        }
+
+        synchronized void remove(PollGroup group) {
+            if (group.members.isEmpty() && groups.get(group.period) == group) {
+                groups.remove(group.period);
+                group.cancel(null);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s groups:%d", name, getGroups().size());
+        }
+    }
+
+    /**
+     * Tasks with the same period, executed in one pass on each tick.
+     */
+    public static final class PollGroup implements Runnable {
+        private final JobPollGroups owner;
+        private final long period;
+        private final List<Member> members = new CopyOnWriteArrayList<>();
+        private volatile Future<?> future;
+        private volatile boolean cancelled;
+        private long nextTick;
+
+        private final AtomicLong ticks = new AtomicLong();
+        private final AtomicLong overruns = new AtomicLong();
+        private final AtomicLong skippedTicks = new AtomicLong();
+        private volatile long lastPassTime;
+        private volatile long maxPassTime;
+        private volatile long maxLateness;
+
+        private PollGroup(JobPollGroups owner, long period) {
+            this.owner = owner;
+            this.period = period;
+        }
+
+        private void start() {
+            nextTick = System.nanoTime();
+            future = owner.scheduler.schedule(this, 0, TimeUnit.NANOSECONDS);
+        }
+
+        private void cancel(Throwable failure) {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null)
+                f.cancel(false);
+            for (Member member : members)
+                member.done(failure);
+            members.clear();
+        }
+
+        @Override
+        public void run() {
+            if (cancelled)
+                return;
+            final long tick = nextTick;
+            final long start = System.nanoTime();
+            ticks.incrementAndGet();
+            if (start - tick > maxLateness)
+                maxLateness = start - tick;
+
+            Throwable failure = null;
+            for (Member member : members) {
+                if (member.isDone() || tick - member.start < -(period / 2))
+                    continue;
+                try {
+                    member.task.run();
+                } catch (Throwable t) {
+                    if (failure == null)
+                        failure = t;
+                }
+            }
+
+            final long end = System.nanoTime();
+            lastPassTime = end - start;
+            if (lastPassTime > maxPassTime)
+                maxPassTime = lastPassTime;
+
+            long next = tick + period;
+            if (end - next > 0) {
+                // the pass ended after the following tick, skip the missed
+                // ticks rather than polling them in a burst
+                overruns.incrementAndGet();
+                long missed = (end - next) / period + 1;
+                skippedTicks.addAndGet(missed);
+                next += missed * period;
+            }
+            nextTick = next;
+
+            if (failure != null) {
+                cancelled = true;
+                synchronized (owner) {
+                    if (owner.groups.get(period) == this)
+                        owner.groups.remove(period);
+                }
+                for (Member member : members)
+                    member.done(failure);
+                members.clear();
+                if (failure instanceof Error)
+                    throw (Error) failure;
+                if (failure instanceof RuntimeException)
+                    throw (RuntimeException) failure;
+                throw new RuntimeException(failure);
+            }
+
+            try {
+                future = owner.scheduler.schedule(this, next - end, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // the job's scheduler has been shutdown
+                cancelled = true;
+                return;
+            }
+            if (cancelled)
+                future.cancel(false);
+        }
+
+        /**
+         * Get the group's period.
+         * @param unit time unit of the returned value
+         * @return the period
+         */
+        public long getPeriod(TimeUnit unit) {
+            return unit.convert(period, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Get the number of tasks in the group.
+         * @return the number of tasks
+         */
+        public int getTaskCount() {
+            return members.size();
+        }
+
+        /**
+         * Get the number of ticks, each executing one pass.
+         * @return the number of ticks
+         */
+        public long getTickCount() {
+            return ticks.get();
+        }
+
+        /**
+         * Get the number of passes that ended after the group's following tick.
+         * @return the number of overruns
+         */
+        public long getOverrunCount() {
+            return overruns.get();
+        }
+
+        /**
+         * Get the number of ticks skipped due to overruns.
+         * @return the number of skipped ticks
+         */
+        public long getSkippedTickCount() {
+            return skippedTicks.get();
+        }
+
+        /**
+         * Get the duration of the last pass.
+         * @param unit time unit of the returned value
+         * @return the duration
+         */
+        public long getLastPassTime(TimeUnit unit) {
+            return unit.convert(lastPassTime, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Get the maximum duration of a pass.
+         * @param unit time unit of the returned value
+         * @return the duration
+         */
+        public long getMaxPassTime(TimeUnit unit) {
+            return unit.convert(maxPassTime, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Get the maximum delay between a tick's time and the start of its pass.
+         * @param unit time unit of the returned value
+         * @return the delay
+         */
+        public long getMaxLateness(TimeUnit unit) {
+            return unit.convert(maxLateness, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("period:%dns tasks:%d ticks:%d overruns:%d skipped:%d",
+                    period, getTaskCount(), getTickCount(), getOverrunCount(), getSkippedTickCount());
+        }
+    }
+
+    /**
+     * A task of a group, its future cancels it.
+     */
+    private static final class Member implements Future<Object> {
+        private final PollGroup group;
+        private final Runnable task;
+        private final long start;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        Member(PollGroup group, Runnable task, long start) {
+            this.group = group;
+            this.task = task;
+            this.start = start;
+        }
+
+        void done(Throwable failure) {
+            if (isDone())
+                return;
+            if (failure == null)
+                cancelled = true;
+            else
+                this.failure = failure;
+            done.countDown();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (isDone())
+                return false;
+            cancelled = true;
+            done.countDown();
+            group.members.remove(this);
+            group.owner.remove(group);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public Object get() throws InterruptedException, ExecutionException {
+            done.await();
+            return report();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!done.await(timeout, unit))
+                throw new TimeoutException();
+            return report();
+        }
+
+        private Object report() throws ExecutionException {
+            if (cancelled)
+                throw new CancellationException();
+            throw new ExecutionException(failure);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.List;
+
+import org.apache.edgent.function.BatchConsumer;
+import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.Functions;
+
+/**
+ * Input port destination timing the oplet's processing of sampled tuples.
+ * <p>
+ * The time spent by downstream oplets processing tuples submitted
+ * synchronously by the oplet is charged to the current thread's
+ * {@link Frame} by the downstream oplets' own {@code ProfiledInput},
+ * and subtracted from the oplet's time. A tuple reaching an oplet while
+ * an upstream oplet is timing its tuple is always timed, so that the
+ * upstream oplet's time is exclusive of it.
+ * A sampled batch records the mean time of its tuples.
+ *
+ * @param <T> Type of data on the input port.
+ */
+final class ProfiledInput<T> implements BatchConsumer<T> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Timing state of a thread.
+     */
+    private static final class Frame {
+        int depth;
+        long downstream;
+    }
+
+    private static final ThreadLocal<Frame> FRAMES = new ThreadLocal<Frame>() {
+        @Override
+        protected Frame initialValue() {
+            return new Frame();
+        }
+    };
+
+    private final Consumer<T> destination;
+    private final OpletProfile profile;
+
+    ProfiledInput(Consumer<T> destination, OpletProfile profile) {
+        this.destination = destination;
+        this.profile = profile;
+    }
+
+    @Override
+    public void accept(T tuple) {
+        final Frame frame = FRAMES.get();
+        if (frame.depth == 0 && !profile.sample()) {
+            destination.accept(tuple);
+            return;
+        }
+
+        final long upstream = frame.downstream;
+        frame.downstream = 0;
+        frame.depth++;
+        final long start = System.nanoTime();
+        try {
+            destination.accept(tuple);
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            profile.record(elapsed - frame.downstream);
+            frame.depth--;
+            frame.downstream = upstream + elapsed;
+        }
+    }
+
+    @Override
+    public void acceptBatch(List<T> tuples) {
+        final Frame frame = FRAMES.get();
+        if (frame.depth == 0 && !profile.sample()) {
+            Functions.acceptBatch(destination, tuples);
+            return;
+        }
+
+        final long upstream = frame.downstream;
+        frame.downstream = 0;
+        frame.depth++;
+        final long start = System.nanoTime();
+        try {
+            Functions.acceptBatch(destination, tuples);
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            profile.record((elapsed - frame.downstream) / Math.max(1, tuples.size()));
+            frame.depth--;
+            frame.downstream = upstream + elapsed;
+        }
+    }
+}
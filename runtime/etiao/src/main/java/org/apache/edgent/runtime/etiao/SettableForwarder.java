@@ -18,8 +18,14 @@ under the License.
 */
 package org.apache.edgent.runtime.etiao;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.edgent.function.BatchConsumer;
 import org.apache.edgent.function.Consumer;
 import org.apache.edgent.function.Functions;
+import org.apache.edgent.oplet.Credit;
 
 /**
  * A forwarding Streamer whose destination
@@ -30,9 +36,11 @@ import org.apache.edgent.function.Functions;
  *
  * @param <T> Type of data on the stream.
  */
-public final class SettableForwarder<T> implements Consumer<T> {
+public final class SettableForwarder<T> implements BatchConsumer<T> {
     private static final long serialVersionUID = 1L;
     private Consumer<T> destination;
+    private transient Invocation<?, ?, ?> invocation;
+    private transient int port;
 
     /**
      * Create with the destination set to {@link Functions#discard()}.
@@ -54,6 +62,11 @@ public final class SettableForwarder<T> implements Consumer<T> {
         getDestination().accept(item);
     }
 
+    @Override
+    public void acceptBatch(List<T> items) {
+        Functions.acceptBatch(getDestination(), items);
+    }
+
     /**
      * Change the destination.
      * No synchronization is taken.
@@ -71,4 +84,34 @@ public final class SettableForwarder<T> implements Consumer<T> {
     public final Consumer<T> getDestination() {
         return destination;
     }
+
+    /**
+     * Associate this forwarder with the invocation input port it implements.
+     */
+    void setInputPort(Invocation<?, ?, ?> invocation, int port) {
+        this.invocation = invocation;
+        this.port = port;
+    }
+
+    /**
+     * Get the invocation whose input port this forwarder implements.
+     */
+    Invocation<?, ?, ?> getInvocation() {
+        return invocation;
+    }
+
+    /**
+     * Get the index of the input port this forwarder implements.
+     */
+    int getPort() {
+        return port;
+    }
+
+    /**
+     * Collect the credits limiting the tuples accepted by this forwarder.
+     */
+    void collectCredits(Collection<Credit> credits, Set<Object> visited) {
+        if (invocation != null)
+            invocation.collectInputCredits(port, credits, visited);
+    }
 }
@@ -0,0 +1,654 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.edgent.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of worker threads shared by the schedulers of multiple jobs.
+ * <p>
+ * By default each job's {@link Executable} creates its own
+ * {@link TrackingScheduledExecutor}s, each of which may grow to
+ * four threads per processor.  When a {@code SharedScheduler} is registered
+ * as a container service, for example
+ * {@code provider.getServices().addService(SharedScheduler.class, new SharedScheduler())},
+ * jobs instead obtain a {@link JobScheduler} that executes their tasks on
+ * the shared work-stealing {@code ForkJoinPool}.  Delayed and periodic
+ * tasks are timed by a single timer thread that only hands due tasks
+ * to the pool.
+ * <p>
+ * Each job's ready tasks are held in its own queue and at most
+ * {@code jobConcurrency} tasks of a job execute concurrently.
+ * A pool task executes a single job task, so jobs with ready tasks
+ * take turns on the pool's workers and a busy job cannot occupy more
+ * than its share of them.
+ * <p>
+ * A {@code JobScheduler} tracks its tasks in the same way as
+ * {@code TrackingScheduledExecutor}: when a task completes abruptly
+ * all the job's tasks are cancelled and the completion handler is invoked
+ * with the exception, and the handler is invoked when the job's tasks
+ * have completed.
+ * <p>
+ * Control work, such as initializing, pausing or closing a job's oplets,
+ * is executed by schedulers from {@link #newControlScheduler(String, BiConsumer)}
+ * on a separate pool whose threads are created as needed.  Control actions,
+ * which the runtime waits on with a timeout, are thus not queued behind
+ * user tasks when all the workers are busy.
+ * <p>
+ * Only the {@code ScheduledExecutorService} provided to oplets is shared,
+ * threads obtained from the job's {@code ThreadFactory}, e.g. for sources and
+ * isolated streams, are still dedicated threads.  Tasks that block
+ * for long periods reduce the pool's available parallelism.
+ */
+public final class SharedScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(SharedScheduler.class);
+    private static final AtomicInteger poolCount = new AtomicInteger();
+
+    private final ForkJoinPool pool;
+    private final ExecutorService controlPool;
+    private final ScheduledThreadPoolExecutor timer;
+    private final int jobConcurrency;
+    private final List<JobScheduler> jobSchedulers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a shared scheduler with one worker thread per processor
+     * whose jobs may each use all the workers.
+     */
+    public SharedScheduler() {
+        this(Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * Creates a shared scheduler.
+     * 
+     * @param parallelism the number of worker threads
+     * @param jobConcurrency the maximum number of a job's tasks that
+     *      execute concurrently.  0 for {@code parallelism}.
+     */
+    public SharedScheduler(int parallelism, int jobConcurrency) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism");
+        if (jobConcurrency < 0)
+            throw new IllegalArgumentException("jobConcurrency");
+        this.jobConcurrency = jobConcurrency == 0 ? parallelism : jobConcurrency;
+
+        final String prefix = "edgent-shared-" + poolCount.incrementAndGet();
+        this.pool = new ForkJoinPool(parallelism,
+                p -> {
+                    ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                    t.setName(prefix + "-worker-" + t.getPoolIndex());
+                    return t;
+                },
+                null, true /* FIFO, tasks are not joined */);
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, prefix + "-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+        final AtomicInteger controlCount = new AtomicInteger();
+        this.controlPool = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, prefix + "-control-" + controlCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates a scheduler for a job.
+     * 
+     * @param name name of the scheduler, used for logging
+     * @param completionHandler handler invoked when all task have completed, 
+     *      due to normal termination, exception, or cancellation.
+     * @return a new scheduler that executes its tasks on this shared pool
+     */
+    public JobScheduler newScheduler(String name, BiConsumer<Object, Throwable> completionHandler) {
+        JobScheduler scheduler = new JobScheduler(name, pool, completionHandler);
+        jobSchedulers.add(scheduler);
+        return scheduler;
+    }
+
+    /**
+     * Creates a scheduler for a job's control work.
+     * <p>
+     * The scheduler's tasks are executed on the control pool rather than
+     * by the shared workers, so they are not delayed by the tasks of
+     * schedulers from {@link #newScheduler(String, BiConsumer)}.
+     * 
+     * @param name name of the scheduler, used for logging
+     * @param completionHandler handler invoked when all task have completed, 
+     *      due to normal termination, exception, or cancellation.
+     * @return a new scheduler that executes its tasks on the control pool
+     */
+    public JobScheduler newControlScheduler(String name, BiConsumer<Object, Throwable> completionHandler) {
+        JobScheduler scheduler = new JobScheduler(name, controlPool, completionHandler);
+        jobSchedulers.add(scheduler);
+        return scheduler;
+    }
+
+    /**
+     * Returns the number of worker threads.
+     * @return the pool's parallelism
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Returns the maximum number of a job's tasks that execute concurrently.
+     * @return the job concurrency
+     */
+    public int getJobConcurrency() {
+        return jobConcurrency;
+    }
+
+    /**
+     * Returns the schedulers that have not been shut down.
+     * @return the active job schedulers
+     */
+    public List<JobScheduler> getJobSchedulers() {
+        return Collections.unmodifiableList(new ArrayList<>(jobSchedulers));
+    }
+
+    /**
+     * Shuts down the shared pool.  Tasks of jobs using this
+     * scheduler will no longer be executed.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        pool.shutdownNow();
+        controlPool.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("parallelism:%d jobConcurrency:%d jobs:%d",
+                getParallelism(), getJobConcurrency(), jobSchedulers.size());
+    }
+
+    /**
+     * A job's scheduler, executing its tasks on the shared or control pool and
+     * tracking them for error and completion handling.
+     */
+    public final class JobScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+        private final String name;
+        private final Executor workers;
+        private final BiConsumer<Object, Throwable> completer;
+        private final Queue<JobTask<?>> ready = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final Set<JobTask<?>> asyncTasks = Collections.synchronizedSet(new HashSet<JobTask<?>>());
+        private volatile boolean shutdown;
+        private final AtomicLong submittedCount = new AtomicLong();
+        private final AtomicLong completedCount = new AtomicLong();
+        private final AtomicLong failedCount = new AtomicLong();
+        private final AtomicLong runNanos = new AtomicLong();
+
+        private JobScheduler(String name, Executor workers, BiConsumer<Object, Throwable> completer) {
+            this.name = name;
+            this.workers = workers;
+            this.completer = completer;
+        }
+
+        /**
+         * Returns the scheduler's name.
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of tasks submitted.
+         * @return the count
+         */
+        public long getSubmittedTaskCount() {
+            return submittedCount.get();
+        }
+
+        /**
+         * Returns the number of task executions, each execution
+         * of a periodic task is counted.
+         * @return the count
+         */
+        public long getCompletedTaskCount() {
+            return completedCount.get();
+        }
+
+        /**
+         * Returns the number of task executions that completed abruptly.
+         * @return the count
+         */
+        public long getFailedTaskCount() {
+            return failedCount.get();
+        }
+
+        /**
+         * Returns the total time the pool's threads spent executing this
+         * scheduler's tasks.
+         * @param unit the unit of the returned value
+         * @return the time
+         */
+        public long getRunTime(TimeUnit unit) {
+            return unit.convert(runNanos.get(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the number of tasks that are due and waiting for a worker.
+         * @return the count
+         */
+        public int getQueuedTaskCount() {
+            return ready.size();
+        }
+
+        /**
+         * Returns the number of tasks being executed, or handed to the pool.
+         * @return the count
+         */
+        public int getActiveCount() {
+            return active.get();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            schedule(command, 0, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            return schedule(task, 0, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public <T> Future<T> submit(Runnable task, T result) {
+            return schedule(Executors.callable(task, result), 0, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            return schedule(task, 0, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            if (command == null || unit == null)
+                throw new NullPointerException();
+            return submitTask(new JobTask<Void>(command, null, triggerTime(delay, unit), 0));
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            if (callable == null || unit == null)
+                throw new NullPointerException();
+            return submitTask(new JobTask<V>(callable, triggerTime(delay, unit)));
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+                TimeUnit unit) {
+            if (command == null || unit == null)
+                throw new NullPointerException();
+            if (period <= 0)
+                throw new IllegalArgumentException();
+            return submitTask(new JobTask<Void>(command, null, triggerTime(initialDelay, unit),
+                    unit.toNanos(period)));
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+                TimeUnit unit) {
+            if (command == null || unit == null)
+                throw new NullPointerException();
+            if (delay <= 0)
+                throw new IllegalArgumentException();
+            return submitTask(new JobTask<Void>(command, null, triggerTime(initialDelay, unit),
+                    -unit.toNanos(delay)));
+        }
+
+        private long triggerTime(long delay, TimeUnit unit) {
+            return System.nanoTime() + unit.toNanos(Math.max(0, delay));
+        }
+
+        private <V> JobTask<V> submitTask(JobTask<V> task) {
+            if (shutdown)
+                throw new RejectedExecutionException(name + " has been shut down");
+            synchronized (asyncTasks) { asyncTasks.add(task); }
+            submittedCount.incrementAndGet();
+            delayOrReady(task);
+            return task;
+        }
+
+        private void delayOrReady(JobTask<?> task) {
+            long delay = task.time - System.nanoTime();
+            if (delay <= 0)
+                ready(task);
+            else
+                task.timerFuture = timer.schedule(() -> ready(task), delay, TimeUnit.NANOSECONDS);
+        }
+
+        private void ready(JobTask<?> task) {
+            ready.add(task);
+            dispatch();
+        }
+
+        /**
+         * Hand a pool task to the pool for each ready task,
+         * up to the job concurrency limit.
+         */
+        private void dispatch() {
+            for (;;) {
+                int n = active.get();
+                if (n >= jobConcurrency || ready.isEmpty())
+                    return;
+                if (active.compareAndSet(n, n + 1)) {
+                    try {
+                        workers.execute(this::runReady);
+                    } catch (RejectedExecutionException e) {
+                        active.decrementAndGet();
+                        logger.error("{}: shared pool has been shut down", name);
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Pool task that executes a single ready task, then
+         * dispatches the job's next ready task behind the tasks of
+         * other jobs.
+         */
+        private void runReady() {
+            try {
+                JobTask<?> task = ready.poll();
+                if (task != null && !task.isDone()) {
+                    long start = System.nanoTime();
+                    try {
+                        task.run();
+                    } finally {
+                        runNanos.addAndGet(System.nanoTime() - start);
+                        completedCount.incrementAndGet();
+                    }
+                    afterExecute(task);
+                }
+            } finally {
+                // clear an interrupt from cancelling the task
+                Thread.interrupted();
+                active.decrementAndGet();
+                if (shutdown) {
+                    synchronized (this) { notifyAll(); }
+                }
+                dispatch();
+            }
+        }
+
+        private void afterExecute(JobTask<?> task) {
+            Throwable t = unwrapFutureThrowable(task);
+            if (t != null) {
+                failedCount.incrementAndGet();
+                logger.error("Thread: " + Thread.currentThread().getName() + ": " + name +
+                        ": task terminated with exception : ", t);
+                cancelAllAsyncTasks(true);
+                completer.accept(this, t);
+            }
+        }
+
+        private void cancelAllAsyncTasks(boolean mayInterruptIfRunning) {
+            List<JobTask<?>> tasks;
+            synchronized (asyncTasks) {
+                tasks = new ArrayList<>(asyncTasks);
+            }
+            for (JobTask<?> task : tasks)
+                task.cancel(mayInterruptIfRunning);
+            hasActiveTasks();
+        }
+
+        /**
+         * Determines whether there are tasks which have started and not completed.
+         * 
+         * As a side effect, this method removes all tasks which are done but are
+         * still in the tracking list.
+         * 
+         * @return {@code true} is active tasks exist.
+         */
+        public boolean hasActiveTasks() {
+            boolean doesHaveTasks = false; 
+            synchronized (asyncTasks) {
+                if (asyncTasks.isEmpty())
+                    return false;
+                
+                Iterator<JobTask<?>> i = asyncTasks.iterator();
+                while (i.hasNext()) {
+                    JobTask<?> task = i.next();
+                    if (task.isDone())
+                         i.remove();
+                    else
+                        doesHaveTasks = true;
+                }
+            }
+            return doesHaveTasks;
+        }
+
+        /**
+         * Get the reason of a task's abnormal completion. Callers may cancel and
+         * reschedule tasks, so a task completed by cancellation is not an error.
+         */
+        private Throwable unwrapFutureThrowable(Future<?> ft) {
+            if (ft.isDone() && !ft.isCancelled()) {
+                try {
+                    ft.get();
+                } catch (ExecutionException ee) {
+                    return ee.getCause();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt(); // ignore/reset
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Initiates an orderly shutdown, periodic tasks are cancelled,
+         * submitted one-shot tasks are executed.
+         */
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            jobSchedulers.remove(this);
+            List<JobTask<?>> tasks;
+            synchronized (asyncTasks) {
+                tasks = new ArrayList<>(asyncTasks);
+            }
+            for (JobTask<?> task : tasks) {
+                if (task.isPeriodic())
+                    task.cancel(false);
+            }
+            synchronized (this) { notifyAll(); }
+        }
+
+        /**
+         * Cancels all the tasks, interrupting those being executed.
+         * @return the tasks that were waiting to be executed
+         */
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            jobSchedulers.remove(this);
+            List<Runnable> waiting = new ArrayList<>();
+            List<JobTask<?>> tasks;
+            synchronized (asyncTasks) {
+                tasks = new ArrayList<>(asyncTasks);
+            }
+            for (JobTask<?> task : tasks) {
+                if (!task.running && !task.isDone())
+                    waiting.add(task);
+                task.cancel(true);
+            }
+            ready.clear();
+            synchronized (this) { notifyAll(); }
+            return waiting;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && active.get() == 0 && !hasActiveTasks();
+        }
+
+        @Override
+        public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    return false;
+                // tasks may complete by cancellation without a notification
+                TimeUnit.NANOSECONDS.timedWait(this, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s submitted:%d completed:%d failed:%d queued:%d active:%d runTimeMsec:%d",
+                    getName(), getSubmittedTaskCount(), getCompletedTaskCount(), getFailedTaskCount(),
+                    getQueuedTaskCount(), getActiveCount(), getRunTime(TimeUnit.MILLISECONDS));
+        }
+
+        /**
+         * A task tracked by the job's scheduler.
+         */
+        private final class JobTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+            /** Trigger time, {@code System.nanoTime()} based. */
+            private volatile long time;
+            /**
+             * Positive for a fixed rate, negative for a fixed delay,
+             * 0 for a one-shot task.
+             */
+            private final long period;
+            private volatile Future<?> timerFuture;
+            private volatile boolean running;
+
+            JobTask(Runnable r, V result, long time, long period) {
+                super(r, result);
+                this.time = time;
+                this.period = period;
+            }
+
+            JobTask(Callable<V> c, long time) {
+                super(c);
+                this.time = time;
+                this.period = 0;
+            }
+
+            @Override
+            public void run() {
+                running = true;
+                try {
+                    if (!isPeriodic()) {
+                        super.run();
+                    }
+                    else if (runAndReset() && !shutdown) {
+                        time = period > 0 ? time + period : System.nanoTime() - period;
+                        delayOrReady(this);
+                    }
+                } finally {
+                    running = false;
+                    if (!isPeriodic())
+                        removeTrack();
+                }
+            }
+
+            /**
+             * Remove tracking of the task and notify the completer if
+             * the scheduler seems to have no work.
+             */
+            private void removeTrack() {
+                synchronized(asyncTasks) { asyncTasks.remove(this); }
+
+                if (asyncTasks.isEmpty() ||
+                        (active.get() <= 1 && ready.isEmpty())) {
+                    completer.accept(JobScheduler.this, null);
+                }
+            }
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean wasCancelled = super.cancel(mayInterruptIfRunning);
+                Future<?> tf = timerFuture;
+                if (tf != null)
+                    tf.cancel(false);
+                if (wasCancelled) {
+                    ready.remove(this);
+                    removeTrack();
+                }
+                return wasCancelled;
+            }
+
+            @Override
+            public long getDelay(TimeUnit unit) {
+                return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public int compareTo(Delayed o) {
+                if (o == this)
+                    return 0;
+                return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+            }
+
+            @Override
+            public boolean isPeriodic() {
+                return period != 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter striped across cache line padded cells, a thread
+ * increments the cell selected by its identifier so that threads
+ * submitting on the same stream rarely contend.
+ */
+final class StripedCounter {
+    // longs per 64 byte cache line
+    private static final int PAD = 8;
+    private static final int MAX_STRIPES = 64;
+    private static final int STRIPES;
+    static {
+        int n = 1;
+        while (n < Runtime.getRuntime().availableProcessors() && n < MAX_STRIPES)
+            n <<= 1;
+        STRIPES = n;
+    }
+
+    private final AtomicLongArray cells = new AtomicLongArray((STRIPES + 1) * PAD);
+
+    /**
+     * Increment the count.
+     * @return the count of the cell incremented by the current thread
+     */
+    long increment() {
+        return cells.incrementAndGet(index());
+    }
+
+    /**
+     * Add to the count.
+     * @param delta the amount to add
+     * @return the count of the cell added to by the current thread
+     */
+    long add(long delta) {
+        return cells.addAndGet(index(), delta);
+    }
+
+    /**
+     * Get the count.
+     * @return the sum of all the cells
+     */
+    long sum() {
+        long sum = 0;
+        for (int i = 1; i <= STRIPES; i++)
+            sum += cells.get(i * PAD);
+        return sum;
+    }
+
+    private static int index() {
+        // cell 0 is padding before the first cell
+        return (((int) Thread.currentThread().getId() & (STRIPES - 1)) + 1) * PAD;
+    }
+}
@@ -185,16 +185,24 @@ public class ThreadFactoryTracker implements ThreadFactory {
                 return false;
 
             for (Thread t : runningThreads) {
-                if (t.isDaemon())
+                if (isDaemon(t))
                     continue;
                 return true;
             }
             for (Thread t : newThreads) {
-                if (t.isDaemon())
+                if (isDaemon(t))
                     continue;
                 return true;
             }
             return false;
         }
+
+        /**
+         * Virtual threads are always daemon threads, they are
+         * tracked as non-daemon threads.
+         */
+        private static boolean isDaemon(Thread t) {
+            return t.isDaemon() && !VirtualThreads.isVirtual(t);
+        }
     }
 }
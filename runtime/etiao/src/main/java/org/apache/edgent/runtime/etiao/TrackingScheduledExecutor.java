@@ -59,9 +59,26 @@ public final class TrackingScheduledExecutor extends ScheduledThreadPoolExecutor
      */
     public static TrackingScheduledExecutor newScheduler(
             ThreadFactory threadFactory, BiConsumer<Object, Throwable> completionHandler) {
+        return newScheduler(threadFactory, completionHandler,
+                Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Creates an {@code TrackingScheduledExecutor} using the supplied thread 
+     * factory, a completion handler and core pool size.
+     * 
+     * @param threadFactory the thread factory to use
+     * @param completionHandler handler invoked when all task have completed, 
+     *      due to normal termination, exception, or cancellation.
+     * @param corePoolSize the number of threads to keep in the pool
+     * @return a new (@code TrackingScheduledExecutor) instance.
+     */
+    public static TrackingScheduledExecutor newScheduler(
+            ThreadFactory threadFactory, BiConsumer<Object, Throwable> completionHandler,
+            int corePoolSize) {
 
         TrackingScheduledExecutor stpe = new TrackingScheduledExecutor(
-                Runtime.getRuntime().availableProcessors() * 4, threadFactory, completionHandler);
+                corePoolSize, threadFactory, completionHandler);
         stpe.setKeepAliveTime(1, TimeUnit.SECONDS);
         stpe.allowCoreThreadTimeOut(true);
         return stpe;
@@ -0,0 +1,158 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.runtime.etiao;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Execution mode where jobs' threads are virtual threads.
+ * <p>
+ * When a {@code VirtualThreads} instance is registered as a container
+ * service, for example
+ * {@code provider.getServices().addService(VirtualThreads.class, new VirtualThreads())},
+ * each job's {@link Executable} creates its threads - those obtained by
+ * oplets from the {@code ThreadFactory} service, e.g. for sources and
+ * isolated streams, and those of the job's schedulers - as virtual threads.
+ * A thread blocked in I/O then does not occupy a platform thread, allowing
+ * many mostly blocked sources and sinks per virtual machine.
+ * <p>
+ * Virtual threads are created through reflection, so this class may be used
+ * on any Java runtime.  If the runtime does not support virtual threads
+ * a warning is logged and jobs use platform threads.
+ * <p>
+ * Virtual threads are always daemon threads, a job's virtual threads
+ * are tracked as non-daemon threads for the job's completion.
+ * Note that on some Java runtimes a virtual thread that blocks while
+ * holding a monitor occupies its platform thread.
+ */
+public final class VirtualThreads {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    /** The default core pool size of a job's scheduler, 256. */
+    public static final int DEFAULT_SCHEDULER_POOL_SIZE = 256;
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method IS_VIRTUAL;
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method isVirtual = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            isVirtual = Thread.class.getMethod("isVirtual");
+            // fails if virtual threads are a disabled preview feature
+            ofVirtual.invoke(null);
+        } catch (Throwable t) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        IS_VIRTUAL = ofVirtual == null ? null : isVirtual;
+    }
+
+    private final int schedulerPoolSize;
+
+    /**
+     * Creates a virtual threads execution mode with
+     * {@link #DEFAULT_SCHEDULER_POOL_SIZE}.
+     */
+    public VirtualThreads() {
+        this(DEFAULT_SCHEDULER_POOL_SIZE);
+    }
+
+    /**
+     * Creates a virtual threads execution mode.
+     * 
+     * @param schedulerPoolSize the core pool size of each job's scheduler.
+     *      Used only when virtual threads are supported.
+     */
+    public VirtualThreads(int schedulerPoolSize) {
+        if (schedulerPoolSize < 1)
+            throw new IllegalArgumentException("schedulerPoolSize");
+        this.schedulerPoolSize = schedulerPoolSize;
+        if (!isSupported())
+            logger.warn("Virtual threads are not supported by this Java runtime, platform threads will be used");
+    }
+
+    /**
+     * Returns whether the Java runtime supports virtual threads.
+     * @return {@code true} if virtual threads are supported
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Returns whether a thread is a virtual thread.
+     * @param thread the thread
+     * @return {@code true} if {@code thread} is a virtual thread
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null)
+            return false;
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a factory of virtual threads.
+     * 
+     * @param namePrefix prefix of the threads' names, followed by a counter
+     * @return the factory, or {@code null} if virtual threads are not supported
+     */
+    public ThreadFactory newThreadFactory(String namePrefix) {
+        if (!isSupported())
+            return null;
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Unable to create a virtual thread factory, platform threads will be used", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the core pool size of each job's scheduler.
+     * @return the pool size
+     */
+    public int getSchedulerPoolSize() {
+        return schedulerPoolSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("supported:%s schedulerPoolSize:%d", isSupported(), getSchedulerPoolSize());
+    }
+}
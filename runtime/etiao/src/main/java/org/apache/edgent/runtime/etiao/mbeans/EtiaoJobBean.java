@@ -30,6 +30,7 @@ import org.apache.edgent.execution.mbeans.JobMXBean;
 import org.apache.edgent.execution.services.ControlService;
 import org.apache.edgent.execution.services.Controls;
 import org.apache.edgent.runtime.etiao.EtiaoJob;
+import org.apache.edgent.runtime.etiao.OpletProfiling;
 import org.apache.edgent.runtime.etiao.graph.model.GraphType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -99,6 +100,19 @@ public class EtiaoJobBean implements JobMXBean {
         return gson.toJson(new GraphType(job.graph()));
     }
 
+    @Override
+    public String processingTimeSnapshot() {
+        OpletProfiling profiling = job.graph().executable().getService(OpletProfiling.class);
+        if (profiling == null)
+            return "[]";
+        return profiling.snapshot(job.getId()).toString();
+    }
+
+    @Override
+    public String startupTimeSnapshot() {
+        return job.graph().executable().startupTimeSnapshot().toString();
+    }
+
     @Override
     public Job.Health getHealth() {
         return job.getHealth();
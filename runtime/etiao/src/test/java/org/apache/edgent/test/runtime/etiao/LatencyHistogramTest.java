@@ -0,0 +1,99 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.runtime.etiao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.edgent.runtime.etiao.LatencyHistogram;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMean());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getPercentile(99));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 20; i++)
+            h.record(i);
+        assertEquals(20, h.getCount());
+        assertEquals(10, h.getMean());
+        assertEquals(20, h.getMax());
+        assertEquals(10, h.getPercentile(50));
+        assertEquals(18, h.getPercentile(90));
+        assertEquals(1, h.getPercentile(0));
+    }
+
+    @Test
+    public void testRelativeError() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 1_000_000; v++)
+            h.record(v * 1_000);
+        assertEquals(1_000_000_000L, h.getMax());
+        assertError(500_000_000L, h.getPercentile(50));
+        assertError(990_000_000L, h.getPercentile(99));
+        assertEquals(1_000_000_000L, h.getPercentile(100));
+    }
+
+    @Test
+    public void testUpperBounds() {
+        long previous = -1;
+        long[] counts = new LatencyHistogram().getBucketCounts();
+        for (int i = 0; i < counts.length; i++) {
+            long bound = LatencyHistogram.upperBound(i);
+            assertTrue(bound > previous);
+            previous = bound;
+        }
+        assertEquals(Long.MAX_VALUE, previous);
+
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(Long.MAX_VALUE);
+        h.record(-5);
+        assertEquals(2, h.getCount());
+        assertEquals(0, h.getPercentile(50));
+        assertEquals(Long.MAX_VALUE, h.getPercentile(100));
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(100);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getPercentile(50));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new LatencyHistogram().getPercentile(101);
+    }
+
+    private static void assertError(long expected, long actual) {
+        assertTrue(expected + " " + actual, Math.abs(actual - expected) <= expected / 32);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.runtime.etiao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.edgent.runtime.etiao.PollGroups;
+import org.apache.edgent.runtime.etiao.PollGroups.JobPollGroups;
+import org.apache.edgent.runtime.etiao.PollGroups.PollGroup;
+import org.junit.After;
+import org.junit.Test;
+
+public class PollGroupsTest {
+
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(2);
+    private final PollGroups pollGroups = new PollGroups(10, TimeUnit.MILLISECONDS, 0.1);
+
+    @After
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testGrouping() throws Exception {
+        JobPollGroups job = pollGroups.newPollGroups("grouping", scheduler);
+        AtomicInteger n = new AtomicInteger();
+        // 98, 100 and 102 round to 100, 50 and 3 keep their period
+        Future<?> f1 = job.schedule(() -> n.incrementAndGet(), 0, 98, TimeUnit.MILLISECONDS);
+        Future<?> f2 = job.schedule(() -> n.incrementAndGet(), 0, 100, TimeUnit.MILLISECONDS);
+        Future<?> f3 = job.schedule(() -> n.incrementAndGet(), 0, 102, TimeUnit.MILLISECONDS);
+        Future<?> f4 = job.schedule(() -> n.incrementAndGet(), 0, 50, TimeUnit.MILLISECONDS);
+        Future<?> f5 = job.schedule(() -> n.incrementAndGet(), 0, 3, TimeUnit.MILLISECONDS);
+
+        List<PollGroup> groups = job.getGroups();
+        assertEquals(3, groups.size());
+        assertEquals(3, groups.get(0).getPeriod(TimeUnit.MILLISECONDS));
+        assertEquals(50, groups.get(1).getPeriod(TimeUnit.MILLISECONDS));
+        assertEquals(100, groups.get(2).getPeriod(TimeUnit.MILLISECONDS));
+        assertEquals(3, groups.get(2).getTaskCount());
+
+        f5.cancel(false);
+        assertEquals(2, job.getGroups().size());
+        Thread.sleep(350);
+        PollGroup group = job.getGroups().get(1);
+        long ticks = group.getTickCount();
+        assertTrue("ticks " + ticks, ticks >= 3 && ticks <= 5);
+
+        assertTrue(f1.cancel(false));
+        assertFalse(f1.cancel(false));
+        assertTrue(f1.isCancelled());
+        try {
+            f1.get();
+            fail();
+        } catch (CancellationException e) {
+            // expected
+        }
+        f2.cancel(false);
+        assertEquals(1, group.getTaskCount());
+        f3.cancel(false);
+        f4.cancel(false);
+        assertTrue(job.getGroups().isEmpty());
+        assertEquals(1, pollGroups.getJobPollGroups().size());
+        job.shutdown();
+        assertTrue(pollGroups.getJobPollGroups().isEmpty());
+    }
+
+    @Test
+    public void testInitialDelay() throws Exception {
+        JobPollGroups job = pollGroups.newPollGroups("delay", scheduler);
+        AtomicInteger immediate = new AtomicInteger();
+        AtomicInteger delayed = new AtomicInteger();
+        job.schedule(() -> immediate.incrementAndGet(), 0, 200, TimeUnit.MILLISECONDS);
+        job.schedule(() -> delayed.incrementAndGet(), 200, 200, TimeUnit.MILLISECONDS);
+        Thread.sleep(100);
+        assertEquals(1, immediate.get());
+        assertEquals(0, delayed.get());
+        Thread.sleep(200);
+        assertEquals(2, immediate.get());
+        assertEquals(1, delayed.get());
+        assertEquals(1, job.getGroups().size());
+        job.shutdown();
+    }
+
+    @Test
+    public void testOverrun() throws Exception {
+        JobPollGroups job = pollGroups.newPollGroups("overrun", scheduler);
+        AtomicInteger n = new AtomicInteger();
+        job.schedule(() -> {
+            if (n.incrementAndGet() == 2) {
+                try {
+                    Thread.sleep(75);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 0, 20, TimeUnit.MILLISECONDS);
+        Thread.sleep(300);
+        PollGroup group = job.getGroups().get(0);
+        assertEquals(1, group.getOverrunCount());
+        assertTrue(group.getSkippedTickCount() >= 3);
+        assertTrue(group.getMaxPassTime(TimeUnit.MILLISECONDS) >= 75);
+        // missed ticks are not executed in a burst
+        assertEquals(group.getTickCount(), n.get());
+        assertTrue(n.get() + group.getSkippedTickCount() <= 17);
+        job.shutdown();
+        int count = n.get();
+        Thread.sleep(50);
+        assertEquals(count, n.get());
+    }
+
+    @Test
+    public void testTaskError() throws Exception {
+        JobPollGroups job = pollGroups.newPollGroups("error", scheduler);
+        AtomicInteger other = new AtomicInteger();
+        Future<?> f = job.schedule(() -> other.incrementAndGet(), 0, 10, TimeUnit.MILLISECONDS);
+        Future<?> failing = job.schedule(() -> { throw new IllegalStateException("expected"); },
+                0, 10, TimeUnit.MILLISECONDS);
+        try {
+            failing.get(1, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // the other tasks of the pass were executed
+        assertTrue(other.get() >= 1);
+        assertTrue(f.isDone());
+        assertTrue(job.getGroups().isEmpty());
+        job.shutdown();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.edgent.test.runtime.etiao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.edgent.runtime.etiao.SharedScheduler;
+import org.apache.edgent.runtime.etiao.SharedScheduler.JobScheduler;
+import org.junit.After;
+import org.junit.Test;
+
+public class SharedSchedulerTest {
+    
+    private final SharedScheduler shared = new SharedScheduler(2, 1);
+    
+    @After
+    public void shutdown() {
+        shared.shutdown();
+    }
+
+    @Test
+    public void testJobConcurrency() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        JobScheduler busy = shared.newScheduler("busy", (source, t) -> {});
+        JobScheduler other = shared.newScheduler("other", (source, t) -> {});
+        assertEquals(2, shared.getJobSchedulers().size());
+        
+        CountDownLatch busyDone = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            busy.execute(() -> {
+                int n = running.incrementAndGet();
+                int max;
+                while ((max = maxRunning.get()) < n && !maxRunning.compareAndSet(max, n))
+                    ;
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                busyDone.countDown();
+            });
+        }
+        
+        // the other job is not queued behind the busy job's tasks
+        CountDownLatch otherDone = new CountDownLatch(1);
+        other.execute(() -> otherDone.countDown());
+        assertTrue(otherDone.await(100, TimeUnit.MILLISECONDS));
+        assertTrue(busyDone.getCount() > 0);
+        
+        assertTrue(busyDone.await(10, TimeUnit.SECONDS));
+        busy.shutdown();
+        assertTrue(busy.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+        assertEquals(50, busy.getSubmittedTaskCount());
+        assertEquals(50, busy.getCompletedTaskCount());
+        assertTrue(busy.getRunTime(TimeUnit.MILLISECONDS) >= 50 * 5);
+        other.shutdown();
+        assertTrue(other.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(1, other.getCompletedTaskCount());
+        assertEquals(0, shared.getJobSchedulers().size());
+    }
+
+    @Test
+    public void testControlNotBlockedByWorkers() throws Exception {
+        // occupy every worker
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(shared.getParallelism());
+        for (int i = 0; i < shared.getParallelism(); i++) {
+            JobScheduler busy = shared.newScheduler("busy" + i, (source, t) -> {});
+            busy.execute(() -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        try {
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            
+            JobScheduler control = shared.newControlScheduler("control", (source, t) -> {});
+            assertEquals("done", control.submit(() -> "done").get(10, TimeUnit.SECONDS));
+            assertEquals(1, control.getCompletedTaskCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testPeriodic() throws Exception {
+        AtomicReference<Object> completed = new AtomicReference<>();
+        JobScheduler job = shared.newScheduler("periodic", (source, t) -> completed.set(source));
+        
+        AtomicInteger rate = new AtomicInteger();
+        AtomicInteger delay = new AtomicInteger();
+        ScheduledFuture<?> f1 = job.scheduleAtFixedRate(() -> rate.incrementAndGet(), 0, 10, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> f2 = job.scheduleWithFixedDelay(() -> delay.incrementAndGet(), 10, 10, TimeUnit.MILLISECONDS);
+        Thread.sleep(300);
+        assertTrue(job.hasActiveTasks());
+        assertTrue(rate.get() >= 5);
+        assertTrue(delay.get() >= 5);
+        
+        f1.cancel(false);
+        f2.cancel(false);
+        assertFalse(job.hasActiveTasks());
+        assertSame(job, completed.get());
+        
+        int n = rate.get();
+        Thread.sleep(50);
+        assertEquals(n, rate.get());
+        
+        ScheduledFuture<String> f3 = job.schedule(() -> "done", 20, TimeUnit.MILLISECONDS);
+        assertEquals("done", f3.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTaskError() throws Exception {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+        JobScheduler failing = shared.newScheduler("failing", (source, t) -> {
+            if (t != null) {
+                error.set(t);
+                failed.countDown();
+            }
+        });
+        JobScheduler healthy = shared.newScheduler("healthy", (source, t) -> {});
+        
+        AtomicInteger n = new AtomicInteger();
+        ScheduledFuture<?> periodic = failing.scheduleAtFixedRate(() -> n.incrementAndGet(), 0, 10, TimeUnit.MILLISECONDS);
+        AtomicInteger h = new AtomicInteger();
+        healthy.scheduleAtFixedRate(() -> h.incrementAndGet(), 0, 10, TimeUnit.MILLISECONDS);
+        
+        failing.schedule(() -> { throw new IllegalStateException("expected"); }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        
+        // the failing job's tasks are cancelled
+        assertTrue(error.get() instanceof IllegalStateException);
+        assertTrue(periodic.isCancelled());
+        assertFalse(failing.hasActiveTasks());
+        assertEquals(1, failing.getFailedTaskCount());
+        
+        int hn = h.get();
+        Thread.sleep(50);
+        assertTrue(h.get() > hn);
+        
+        healthy.shutdownNow();
+        assertTrue(healthy.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(1, shared.getJobSchedulers().size());
+        assertSame(failing, shared.getJobSchedulers().get(0));
+    }
+}
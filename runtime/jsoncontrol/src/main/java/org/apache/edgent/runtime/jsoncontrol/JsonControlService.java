@@ -139,9 +139,10 @@ public class JsonControlService implements ControlService {
 
     /**
      * Handle a control operation.
-     * An operation maps to a {@code void} method.
+     * An operation maps to a method, typically a {@code void} method.
      * @param request Request to be executed.
-     * @return JSON boolean true if the request was executed, false if it was not.
+     * @return the method's return value as JSON if the method is not {@code void},
+     * otherwise JSON boolean true if the request was executed, false if it was not.
      * @throws Exception Exception executing the control instruction. 
      */
     private JsonElement controlOperation(JsonObject request) throws Exception {
@@ -182,10 +183,12 @@ public class JsonControlService implements ControlService {
 
         logger.trace("Execute operation - control id: {} method: {}", controlId, methodName);
         
-        executeMethod(method, mbean.getControl(), getArguments(method, args));
+        Object result = executeMethod(method, mbean.getControl(), getArguments(method, args));
         
         logger.trace("Execute completed - control id: {} method: {}", controlId, methodName);
 
+        if (method.getReturnType() != Void.TYPE)
+            return result == null ? JsonNull.INSTANCE : gson.toJsonTree(result);
         return new JsonPrimitive(Boolean.TRUE);
     }
 
@@ -241,9 +244,9 @@ public class JsonControlService implements ControlService {
         return oargs;
     }
 
-    private void executeMethod(Method method, Object control, Object[] arguments)
+    private Object executeMethod(Method method, Object control, Object[] arguments)
             throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-        method.invoke(control, arguments);
+        return method.invoke(control, arguments);
     }
 
     @Override
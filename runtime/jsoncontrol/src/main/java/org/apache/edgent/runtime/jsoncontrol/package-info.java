@@ -24,7 +24,9 @@ under the License.
  * <H3>Operations</H3>
  * A JSON object passed to {@link org.apache.edgent.runtime.jsoncontrol.JsonControlService#controlRequest(com.google.gson.JsonObject) controlRequest} with these name/value pairs is
  * handled as an operation resulting in a method call to a
- * void method on a control service MBean interface. 
+ * method on a control service MBean interface. 
+ * The response is the method's return value as JSON, or {@code true}
+ * for a void method.
  * <UL>
  * <LI>{@code type=}<em>type</em> - MBean type.</LI>
  * <LI>{@code alias=}<em>alias - Alias of the MBean.</em></LI>
@@ -34,6 +36,7 @@ under the License.
  * The MBean must be uniquely identified through
  * its <em>type</em> and <em>alias</em> and previously registered using 
  * {@link org.apache.edgent.execution.services.ControlService#registerControl(String, String, String, Class, Object) registerControl()}.
+ * An MBean registered without an alias is identified by its identifier.
  */
 
 package org.apache.edgent.runtime.jsoncontrol;
\ No newline at end of file
@@ -47,6 +47,8 @@ public class JsonControlServiceTest {
         void doLongDouble(long l, double d);
         
         void doBooleanEnums(boolean b, TimeUnit u, Thread.State ts);
+
+        int twice(int i);
     }
 
     public static class MyBeanImpl implements MyBean {
@@ -109,6 +111,11 @@ public class JsonControlServiceTest {
             doneTs = ts;
         }
 
+        @Override
+        public int twice(int i) {
+            return 2 * i;
+        }
+
         public synchronized boolean isDoneB() {
             return doneB;
         }
@@ -359,4 +366,25 @@ public class JsonControlServiceTest {
         assertSame(TimeUnit.HOURS, cb2.getDoneU());
         assertSame(Thread.State.BLOCKED, cb2.getDoneTs());
     }
+
+    @Test
+    public void testReturnValue() throws Exception {
+        JsonControlService control = new JsonControlService();
+        control.registerControl("myb", "r", null, MyBean.class, new MyBeanImpl());
+
+        JsonObject req = new JsonObject();
+        req.addProperty(JsonControlService.TYPE_KEY, "myb");
+        req.addProperty(JsonControlService.ALIAS_KEY, "r");
+        req.addProperty(JsonControlService.OP_KEY, "twice");
+        JsonArray args = new JsonArray();
+        args.add(new JsonPrimitive(21));
+        req.add(JsonControlService.ARGS_KEY, args);
+        assertEquals(new JsonPrimitive(42), control.controlRequest(req));
+
+        req = new JsonObject();
+        req.addProperty(JsonControlService.TYPE_KEY, "myb");
+        req.addProperty(JsonControlService.ALIAS_KEY, "r");
+        req.addProperty(JsonControlService.OP_KEY, "doIt");
+        assertEquals(new JsonPrimitive(true), control.controlRequest(req));
+    }
 }
@@ -31,6 +31,7 @@ import org.apache.edgent.oplet.window.Aggregate;
 import org.apache.edgent.topology.TStream;
 import org.apache.edgent.window.Policies;
 import org.apache.edgent.window.Window;
+import org.apache.edgent.window.WindowCount;
 import org.apache.edgent.window.Windows;
 
 public class TWindowImpl<T, K> extends AbstractTWindow<T, K> {
@@ -44,24 +45,26 @@ public class TWindowImpl<T, K> extends AbstractTWindow<T, K> {
     @Override
     public <U> TStream<U> aggregate(BiFunction<List<T>,K, U> processor) { 
         processor = Functions.synchronizedBiFunction(processor);
-        Window<T, K, LinkedList<T>> window = Windows.lastNProcessOnInsert(size, getKeyFunction());
-        Aggregate<T,U,K> op = new Aggregate<T,U,K>(window, processor);
+        WindowCount count = new WindowCount(size);
+        Window<T, K, LinkedList<T>> window = Windows.lastNProcessOnInsert(count, getKeyFunction());
+        Aggregate<T,U,K> op = new Aggregate<T,U,K>(window, processor, count);
         return feeder().pipe(op); 
     }
 
     @Override
     public <U> TStream<U> batch(BiFunction<List<T>, K, U> batcher) {
         batcher = Functions.synchronizedBiFunction(batcher);
+        WindowCount count = new WindowCount(size);
         Window<T, K, List<T>> window =
                 Windows.window(
                         alwaysInsert(),
                         Policies.doNothing(),
                         Policies.evictAll(),
-                        Policies.processWhenFullAndEvict(size),
+                        Policies.processWhenFullAndEvict(count),
                         getKeyFunction(),
                         () -> new ArrayList<T>(size));
         
-        Aggregate<T,U,K> op = new Aggregate<T,U,K>(window, batcher);
+        Aggregate<T,U,K> op = new Aggregate<T,U,K>(window, batcher, count);
         return feeder().pipe(op); 
     }
 
@@ -27,11 +27,18 @@ import java.util.concurrent.TimeUnit;
 
 import javax.management.MBeanServer;
 
+import org.apache.edgent.execution.services.EdgeMetricsService;
+import org.apache.edgent.execution.services.EdgeSnapshot;
 import org.apache.edgent.execution.services.ServiceContainer;
 import org.apache.edgent.function.BiConsumer;
+import org.apache.edgent.function.Consumer;
+import org.apache.edgent.function.Supplier;
+import org.apache.edgent.oplet.OpletContext;
 
 import com.codahale.metrics.ConsoleReporter;
+import com.codahale.metrics.Counter;
 import com.codahale.metrics.CsvReporter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricFilter;
@@ -44,6 +51,10 @@ import com.codahale.metrics.MetricRegistry;
  * This class is not thread safe.
  */
 public class MetricsSetup {
+    /** Prefix of the name of the counter of the tuples submitted on an output port. */
+    public static final String EDGE_COUNTER_NAME = "EdgeTupleCounter_";
+    /** Prefix of the name of the gauge of the mean latency, in microseconds, of an output port's edge. */
+    public static final String EDGE_LATENCY_NAME = "EdgeLatency_";
     private static final TimeUnit durationsUnit = TimeUnit.MILLISECONDS;
     private static final TimeUnit ratesUnit = TimeUnit.SECONDS;
     private static final String FOLDER_METRICS = "/metrics";
@@ -65,6 +76,27 @@ public class MetricsSetup {
         return setup;
     }
 
+    /**
+     * Register metrics reading the edges of the jobs instrumented by
+     * the specified service.
+     * <p>
+     * Once a job's edges are instrumented, a counter of the tuples
+     * submitted on each connected output port, named
+     * {@link #EDGE_COUNTER_NAME} followed by the port index, and a gauge
+     * of the port's mean latency in microseconds, named
+     * {@link #EDGE_LATENCY_NAME} followed by the port index, are registered
+     * for the port's oplet.  The metrics read the service's snapshot
+     * of the job when they are reported, no oplets are added to
+     * the job's graph.
+     * 
+     * @param edges the edge metrics service
+     * @return this
+     */
+    public MetricsSetup withEdgeMetrics(EdgeMetricsService edges) {
+        edges.addListener(new EdgeMetricsRegistrar(edges));
+        return this;
+    }
+
     /**
      * Use the specified {@code MBeanServer} with this metric setup.
      *  
@@ -183,4 +215,47 @@ public class MetricsSetup {
             });
         }
     }
+
+    private class EdgeMetricsRegistrar implements Consumer<String> {
+        private static final long serialVersionUID = 1L;
+        private final EdgeMetricsService edges;
+
+        EdgeMetricsRegistrar(EdgeMetricsService edges) {
+            this.edges = edges;
+        }
+
+        @Override
+        public void accept(String jobId) {
+            // each metric reads its own edge's snapshot
+            for (Supplier<EdgeSnapshot> edge : edges.getEdges(jobId)) {
+                EdgeSnapshot initial = edge.get();
+                final String opletId = initial.getSourceId();
+                final int port = initial.getSourcePort();
+                registry().register(edgeMetricName(EDGE_COUNTER_NAME, port, jobId, opletId),
+                        new Counter() {
+                            @Override
+                            public long getCount() {
+                                return edge.get().getTupleCount();
+                            }
+                        });
+                registry().register(edgeMetricName(EDGE_LATENCY_NAME, port, jobId, opletId),
+                        new Gauge<Long>() {
+                            @Override
+                            public Long getValue() {
+                                return edge.get().getMeanLatency(TimeUnit.MICROSECONDS);
+                            }
+                        });
+            }
+        }
+    }
+
+    /**
+     * Name an edge metric as {@link OpletContext#uniquify(String)} does, so
+     * that it is removed with the oplet's metrics and its JMX object name
+     * has the oplet's job and oplet identifiers.
+     */
+    private static String edgeMetricName(String prefix, int port, String jobId, String opletId) {
+        return MetricRegistry.name(prefix + port,
+                OpletContext.class.getPackage().getName(), jobId, opletId);
+    }
 }
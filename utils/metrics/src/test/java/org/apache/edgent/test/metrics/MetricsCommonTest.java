@@ -30,6 +30,7 @@ import java.util.Map;
 import org.apache.edgent.function.Consumer;
 import org.apache.edgent.metrics.oplets.CounterOp;
 import org.apache.edgent.metrics.oplets.RateMeter;
+import org.apache.edgent.oplet.Credit;
 import org.apache.edgent.oplet.JobContext;
 import org.apache.edgent.oplet.Oplet;
 import org.apache.edgent.oplet.OpletContext;
@@ -149,5 +150,14 @@ public class MetricsCommonTest {
         public List<OutputPortContext> getOutputContext() {
             throw new UnsupportedOperationException();
         }
+
+        @Override
+        public Credit getOutputCredit(int port) {
+            return Credit.UNBOUNDED;
+        }
+
+        @Override
+        public void setInputCredit(int port, Credit credit) {
+        }
     }
 }